@@ -11,6 +11,9 @@ public sealed interface ClientState permits
     ClientState.Connecting,
     ClientState.Handshaking,
     ClientState.Open,
+    ClientState.Identifying,
+    ClientState.Resuming,
+    ClientState.Ready,
     ClientState.Closing,
     ClientState.Closed,
     ClientState.Error {
@@ -19,6 +22,10 @@ public sealed interface ClientState permits
     record Connecting(Instant startedAt) implements ClientState {}
     record Handshaking(Instant startedAt) implements ClientState {}
     record Open(Instant connectedAt, long messagesSent, long messagesReceived) implements ClientState {}
+    // Gateway protocol: HELLO received, IDENTIFY or RESUME sent, READY/RESUMED received
+    record Identifying(Instant startedAt) implements ClientState {}
+    record Resuming(Instant startedAt, String sessionId, long lastSequence) implements ClientState {}
+    record Ready(Instant readyAt, String sessionId) implements ClientState {}
     record Closing(Instant startedAt) implements ClientState {}
     record Closed(Instant closedAt, long totalMessages) implements ClientState {}
     record Error(Instant occurredAt, String reason, Throwable cause) implements ClientState {}
@@ -0,0 +1,314 @@
+package com.flux.loadtest.client;
+
+import com.flux.loadtest.metrics.MetricsCollector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open-loop message driver: every client sends on a fixed schedule,
+ * whether or not the server has answered its previous messages.
+ *
+ * Clients connect and handshake on their own virtual threads, then hand
+ * their channel to one of a few selector loops, which own all sends and
+ * receives from then on. Each message's RTT is measured from its intended
+ * send time, so a stalled server shows up as queued latency instead of
+ * quietly lowering the offered load (coordinated omission). Responses are
+ * matched to requests in FIFO order per connection.
+ */
+public class OpenLoopDriver implements AutoCloseable {
+
+    private static final byte[] HEARTBEAT = "HEARTBEAT".getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_OUTSTANDING = 4096; // Per connection, oldest are given up on
+
+    private final MetricsCollector metrics;
+    private final long intervalNanos;
+    private final SelectorLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private volatile int targetClients;
+
+    public OpenLoopDriver(MetricsCollector metrics, long intervalMillis, int selectorThreads) throws IOException {
+        this.metrics = metrics;
+        this.intervalNanos = intervalMillis * 1_000_000L;
+        this.loops = new SelectorLoop[selectorThreads];
+        for (int i = 0; i < selectorThreads; i++) {
+            loops[i] = new SelectorLoop();
+            Thread.ofPlatform().name("open-loop-selector-" + i).daemon().start(loops[i]);
+        }
+    }
+
+    /**
+     * Clients with an id below this value send; the rest stay connected but idle.
+     */
+    public void setTargetClients(int targetClients) {
+        this.targetClients = targetClients;
+    }
+
+    /**
+     * Take over an open, handshaken client. Its first message is scheduled
+     * at a random offset within one interval so clients do not send in lockstep.
+     */
+    public void register(WebSocketClient client) throws IOException {
+        SocketChannel channel = client.getChannel();
+        channel.configureBlocking(false);
+        long offset = ThreadLocalRandom.current().nextLong(Math.max(1, intervalNanos));
+        Session session = new Session(client.getClientId(), channel, System.nanoTime() + offset);
+        SelectorLoop loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+        loop.pending.add(session);
+        loop.selector.wakeup();
+    }
+
+    public int getSessionCount() {
+        int total = 0;
+        for (SelectorLoop loop : loops) {
+            total += loop.sessions;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        for (SelectorLoop loop : loops) {
+            loop.running = false;
+            loop.selector.wakeup();
+        }
+    }
+
+    private static final class Session {
+        final int clientId;
+        final SocketChannel channel;
+        long nextIntendedNanos;
+        SelectionKey key;
+
+        // Intended send times of messages still awaiting a response
+        final long[] outstanding = new long[MAX_OUTSTANDING];
+        int head;
+        int size;
+
+        ByteBuffer writeBuffer = ByteBuffer.allocate(256);
+        final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+        long payloadRemaining = -1; // -1: reading a header
+
+        Session(int clientId, SocketChannel channel, long firstSendNanos) {
+            this.clientId = clientId;
+            this.channel = channel;
+            this.nextIntendedNanos = firstSendNanos;
+        }
+    }
+
+    private final class SelectorLoop implements Runnable {
+        final Selector selector;
+        final ConcurrentLinkedQueue<Session> pending = new ConcurrentLinkedQueue<>();
+        final PriorityQueue<Session> schedule =
+            new PriorityQueue<>((a, b) -> Long.compare(a.nextIntendedNanos, b.nextIntendedNanos));
+        volatile boolean running = true;
+        volatile int sessions;
+
+        SelectorLoop() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    registerPending();
+                    long now = System.nanoTime();
+                    sendDue(now);
+
+                    Session next = schedule.peek();
+                    long waitMillis = next == null ? 100 : (next.nextIntendedNanos - now) / 1_000_000L;
+                    if (waitMillis <= 0) {
+                        selector.selectNow();
+                    } else {
+                        selector.select(waitMillis);
+                    }
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Session session = (Session) key.attachment();
+                        try {
+                            if (key.isValid() && key.isWritable()) flush(session);
+                            if (key.isValid() && key.isReadable()) read(session);
+                        } catch (IOException e) {
+                            closeSession(session);
+                        } catch (RuntimeException e) {
+                            // A bug in one session must not take down the loop and every session on it
+                            closeSession(session);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Selector loop failed: " + e.getMessage());
+            } finally {
+                for (Session session : new ArrayList<>(schedule)) {
+                    closeSession(session);
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void registerPending() {
+            Session session;
+            while ((session = pending.poll()) != null) {
+                try {
+                    session.key = session.channel.register(selector, SelectionKey.OP_READ, session);
+                    schedule.add(session);
+                    sessions++;
+                } catch (ClosedChannelException e) {
+                    metrics.recordConnectionClosed(session.clientId);
+                }
+            }
+        }
+
+        /**
+         * Send every message whose intended time has passed. A loop that
+         * falls behind sends late but keeps the original timestamps.
+         */
+        private void sendDue(long now) {
+            int target = targetClients;
+            Session session;
+            while ((session = schedule.peek()) != null && session.nextIntendedNanos <= now) {
+                schedule.poll();
+                if (session.clientId < target) {
+                    try {
+                        send(session, session.nextIntendedNanos);
+                    } catch (IOException | RuntimeException e) {
+                        closeSession(session);
+                        continue;
+                    }
+                }
+                session.nextIntendedNanos += intervalNanos;
+                if (session.nextIntendedNanos < now - intervalNanos && session.clientId >= target) {
+                    // Idle clients do not accumulate a backlog of missed sends
+                    session.nextIntendedNanos = now + intervalNanos;
+                }
+                schedule.add(session);
+            }
+        }
+
+        private void send(Session session, long intendedNanos) throws IOException {
+            if (session.size == MAX_OUTSTANDING) {
+                session.head = (session.head + 1) % MAX_OUTSTANDING;
+                session.size--;
+                metrics.recordUnanswered(session.clientId, 1);
+            }
+            session.outstanding[(session.head + session.size++) % MAX_OUTSTANDING] = intendedNanos;
+
+            ensureWritable(session, 6 + HEARTBEAT.length);
+            ByteBuffer out = session.writeBuffer;
+            out.put((byte) 0x81); // FIN + text
+            out.put((byte) (0x80 | HEARTBEAT.length));
+            int mask = ThreadLocalRandom.current().nextInt();
+            out.putInt(mask);
+            for (int i = 0; i < HEARTBEAT.length; i++) {
+                out.put((byte) (HEARTBEAT[i] ^ (mask >>> (24 - 8 * (i & 3)))));
+            }
+            metrics.recordMessageSent(session.clientId);
+            flush(session);
+        }
+
+        private void ensureWritable(Session session, int bytes) {
+            if (session.writeBuffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(session.writeBuffer.capacity() * 2,
+                    session.writeBuffer.position() + bytes));
+                session.writeBuffer.flip();
+                larger.put(session.writeBuffer);
+                session.writeBuffer = larger;
+            }
+        }
+
+        private void flush(Session session) throws IOException {
+            ByteBuffer out = session.writeBuffer;
+            out.flip();
+            session.channel.write(out);
+            out.compact();
+            int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            if (session.key.interestOps() != ops) {
+                session.key.interestOps(ops);
+            }
+        }
+
+        /**
+         * Count complete server frames; each data frame answers the oldest
+         * outstanding message.
+         */
+        private void read(Session session) throws IOException {
+            ByteBuffer in = session.readBuffer;
+            int n = session.channel.read(in);
+            if (n == -1) {
+                closeSession(session);
+                return;
+            }
+            in.flip();
+            while (true) {
+                if (session.payloadRemaining < 0) {
+                    if (in.remaining() < 2) break;
+                    in.mark();
+                    int b0 = in.get() & 0xFF;
+                    int b1 = in.get() & 0xFF;
+                    long len = b1 & 0x7F;
+                    int extra = (len == 126 ? 2 : len == 127 ? 8 : 0) + ((b1 & 0x80) != 0 ? 4 : 0);
+                    if (in.remaining() < extra) {
+                        in.reset();
+                        break;
+                    }
+                    if (len == 126) len = in.getShort() & 0xFFFF;
+                    else if (len == 127) len = in.getLong();
+                    if ((b1 & 0x80) != 0) in.getInt(); // Mask key; payload is skipped unread
+                    session.payloadRemaining = len;
+                    int opcode = b0 & 0x0F;
+                    if (opcode == 0x1 || opcode == 0x2) {
+                        onResponse(session);
+                    }
+                }
+                int skip = (int) Math.min(session.payloadRemaining, in.remaining());
+                in.position(in.position() + skip);
+                session.payloadRemaining -= skip;
+                if (session.payloadRemaining > 0) break;
+                session.payloadRemaining = -1;
+            }
+            in.compact();
+        }
+
+        private void onResponse(Session session) {
+            metrics.recordMessageReceived(session.clientId);
+            if (session.size == 0) return; // Unsolicited push
+            long intended = session.outstanding[session.head];
+            session.head = (session.head + 1) % MAX_OUTSTANDING;
+            session.size--;
+            metrics.recordRtt(session.clientId, System.nanoTime() - intended);
+        }
+
+        private void closeSession(Session session) {
+            if (!session.channel.isOpen()) return;
+            schedule.remove(session);
+            sessions--;
+            if (session.size > 0) {
+                metrics.recordUnanswered(session.clientId, session.size);
+            }
+            try {
+                session.channel.close();
+            } catch (IOException ignored) {
+            }
+            metrics.recordConnectionClosed(session.clientId);
+        }
+    }
+}
@@ -241,6 +241,17 @@ public class WebSocketClient implements AutoCloseable {
         return state;
     }
     
+    public int getClientId() {
+        return clientId;
+    }
+    
+    /**
+     * The underlying channel, for handing an open connection to a selector.
+     */
+    public SocketChannel getChannel() {
+        return channel;
+    }
+    
     @Override
     public void close() {
         running = false;
@@ -64,6 +64,7 @@ public class DashboardServer {
     
     private String generateMetricsJSON() {
         var snapshot = metrics.getSnapshot();
+        var rtt = metrics.getRttHistogram().snapshot();
         
         return String.format("""
             {
@@ -79,7 +80,16 @@ public class DashboardServer {
               "heapUsagePercent": %.2f,
               "activeThreads": %d,
               "elapsedSeconds": %d,
-              "connectionsPerSecond": %.2f
+              "connectionsPerSecond": %.2f,
+              "rttP50Ms": %.2f,
+              "rttP99Ms": %.2f,
+              "rttP999Ms": %.2f,
+              "rttMaxMs": %.2f,
+              "unansweredMessages": %d,
+              "sequenceGaps": %d,
+              "duplicateMessages": %d,
+              "resumes": %d,
+              "resumeFailures": %d
             }
             """,
             snapshot.totalAttempts(),
@@ -94,7 +104,16 @@ public class DashboardServer {
             snapshot.heapUsagePercent(),
             snapshot.activeThreads(),
             snapshot.elapsedSeconds(),
-            snapshot.connectionsPerSecond()
+            snapshot.connectionsPerSecond(),
+            rtt.percentile(50.0) / 1_000_000.0,
+            rtt.percentile(99.0) / 1_000_000.0,
+            rtt.percentile(99.9) / 1_000_000.0,
+            rtt.max() / 1_000_000.0,
+            metrics.getUnansweredMessages(),
+            metrics.getSequenceGaps(),
+            metrics.getDuplicateMessages(),
+            metrics.getResumes(),
+            metrics.getResumeFailures()
         );
     }
     
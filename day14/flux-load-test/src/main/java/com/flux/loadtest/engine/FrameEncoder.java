@@ -0,0 +1,39 @@
+package com.flux.loadtest.engine;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Encodes client-to-server frames, which RFC 6455 requires to be masked.
+ */
+public final class FrameEncoder {
+
+    private FrameEncoder() {}
+
+    public static int encodedLength(int payloadLength) {
+        int lengthBytes = payloadLength < 126 ? 0 : payloadLength <= 0xFFFF ? 2 : 8;
+        return 2 + lengthBytes + 4 + payloadLength;
+    }
+
+    /**
+     * Write one final frame into {@code out}, which must have
+     * {@link #encodedLength} bytes remaining.
+     */
+    public static void encode(int opcode, byte[] payload, ByteBuffer out) {
+        out.put((byte) (0x80 | opcode));
+        if (payload.length < 126) {
+            out.put((byte) (0x80 | payload.length));
+        } else if (payload.length <= 0xFFFF) {
+            out.put((byte) (0x80 | 126));
+            out.putShort((short) payload.length);
+        } else {
+            out.put((byte) (0x80 | 127));
+            out.putLong(payload.length);
+        }
+        int mask = ThreadLocalRandom.current().nextInt();
+        out.putInt(mask);
+        for (int i = 0; i < payload.length; i++) {
+            out.put((byte) (payload[i] ^ (mask >>> (24 - 8 * (i & 3)))));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.flux.loadtest.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental RFC 6455 frame parser.
+ *
+ * Bytes are fed as they arrive, in any split: a header or payload cut off
+ * at the end of a read is completed by the next {@link #feed}. Handles
+ * 7/16/64-bit lengths, masked and unmasked frames, fragmented messages and
+ * control frames interleaved between fragments.
+ */
+public final class FrameParser {
+
+    public static final int OP_CONTINUATION = 0x0;
+    public static final int OP_TEXT = 0x1;
+    public static final int OP_BINARY = 0x2;
+    public static final int OP_CLOSE = 0x8;
+    public static final int OP_PING = 0x9;
+    public static final int OP_PONG = 0xA;
+
+    public interface Listener {
+        /** A complete (reassembled) text or binary message. */
+        void onMessage(int opcode, byte[] payload);
+
+        /** A close, ping or pong frame. */
+        void onControl(int opcode, byte[] payload);
+    }
+
+    private final int maxMessageBytes;
+
+    private final byte[] header = new byte[14];
+    private int headerRead;
+    private int headerNeeded = 2;
+
+    private int opcode;
+    private boolean fin;
+    private byte[] payload; // null while reading the header
+    private int payloadRead;
+    private int maskKey;
+    private boolean masked;
+
+    private int messageOpcode = -1; // Opcode of the fragmented message in progress
+    private ByteArrayOutputStream fragments;
+
+    public FrameParser(int maxMessageBytes) {
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    /**
+     * Consume all of {@code in}, delivering every frame it completes.
+     */
+    public void feed(ByteBuffer in, Listener listener) throws ProtocolException {
+        while (in.hasRemaining()) {
+            if (payload == null) {
+                int n = Math.min(in.remaining(), headerNeeded - headerRead);
+                in.get(header, headerRead, n);
+                headerRead += n;
+                if (headerRead < headerNeeded) return;
+                if (!parseHeader()) continue; // Need extended length or mask bytes
+            }
+            int n = Math.min(in.remaining(), payload.length - payloadRead);
+            in.get(payload, payloadRead, n);
+            payloadRead += n;
+            if (payloadRead == payload.length) {
+                deliver(listener);
+            }
+        }
+    }
+
+    /**
+     * Returns false if more header bytes are needed, true once the payload
+     * buffer is allocated.
+     */
+    private boolean parseHeader() throws ProtocolException {
+        int b0 = header[0] & 0xFF;
+        int b1 = header[1] & 0xFF;
+        int lengthCode = b1 & 0x7F;
+        boolean hasMask = (b1 & 0x80) != 0;
+        int needed = 2 + (lengthCode == 126 ? 2 : lengthCode == 127 ? 8 : 0) + (hasMask ? 4 : 0);
+        if (headerNeeded < needed) {
+            headerNeeded = needed;
+            return false;
+        }
+        if ((b0 & 0x70) != 0) {
+            throw new ProtocolException("Reserved bits set");
+        }
+
+        long length;
+        int pos = 2;
+        if (lengthCode == 126) {
+            length = ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+            pos = 4;
+        } else if (lengthCode == 127) {
+            length = ByteBuffer.wrap(header, 2, 8).getLong();
+            pos = 10;
+        } else {
+            length = lengthCode;
+        }
+        if (length < 0 || length > maxMessageBytes) {
+            throw new ProtocolException("Frame too large: " + length);
+        }
+
+        fin = (b0 & 0x80) != 0;
+        opcode = b0 & 0x0F;
+        masked = hasMask;
+        maskKey = hasMask ? ByteBuffer.wrap(header, pos, 4).getInt() : 0;
+        if (opcode >= 0x8 && (!fin || length > 125)) {
+            throw new ProtocolException("Invalid control frame");
+        }
+        payload = new byte[(int) length];
+        payloadRead = 0;
+        return true;
+    }
+
+    private void deliver(Listener listener) throws ProtocolException {
+        byte[] data = payload;
+        if (masked) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] ^= (byte) (maskKey >>> (24 - 8 * (i & 3)));
+            }
+        }
+        int frameOpcode = opcode;
+        boolean frameFin = fin;
+
+        // Reset for the next header before calling out
+        payload = null;
+        headerRead = 0;
+        headerNeeded = 2;
+
+        switch (frameOpcode) {
+            case OP_CLOSE, OP_PING, OP_PONG -> listener.onControl(frameOpcode, data);
+            case OP_TEXT, OP_BINARY -> {
+                if (messageOpcode != -1) {
+                    throw new ProtocolException("New message before previous fragments finished");
+                }
+                if (frameFin) {
+                    listener.onMessage(frameOpcode, data);
+                } else {
+                    messageOpcode = frameOpcode;
+                    fragments = new ByteArrayOutputStream(Math.max(256, data.length * 2));
+                    fragments.writeBytes(data);
+                }
+            }
+            case OP_CONTINUATION -> {
+                if (messageOpcode == -1) {
+                    throw new ProtocolException("Continuation without a message");
+                }
+                if (fragments.size() + data.length > maxMessageBytes) {
+                    throw new ProtocolException("Message too large");
+                }
+                fragments.writeBytes(data);
+                if (frameFin) {
+                    int op = messageOpcode;
+                    byte[] message = fragments.toByteArray();
+                    messageOpcode = -1;
+                    fragments = null;
+                    listener.onMessage(op, message);
+                }
+            }
+            default -> throw new ProtocolException("Unknown opcode: " + frameOpcode);
+        }
+    }
+}
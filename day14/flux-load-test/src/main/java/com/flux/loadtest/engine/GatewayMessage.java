@@ -0,0 +1,74 @@
+package com.flux.loadtest.engine;
+
+/**
+ * Gateway payload {@code {"op":N,"s":seq,"d":{...}}} as spoken by the
+ * gateway modules. Fields are pulled out with index scans, like the
+ * servers do, rather than a full JSON parse.
+ */
+public record GatewayMessage(int op, long seq, String json) {
+
+    public static final int DISPATCH = 0;
+    public static final int HEARTBEAT = 1;
+    public static final int IDENTIFY = 2;
+    public static final int RESUME = 6;
+    public static final int RESUMED = 7;
+    public static final int INVALID_SESSION = 9;
+    public static final int HELLO = 10;
+    public static final int HEARTBEAT_ACK = 11;
+
+    /**
+     * Parse a text frame; returns null if it has no {@code op} field.
+     */
+    public static GatewayMessage parse(String json) {
+        long op = longField(json, "op", -1);
+        if (op < 0) return null;
+        return new GatewayMessage((int) op, longField(json, "s", 0), json);
+    }
+
+    public String stringField(String name) {
+        return stringField(json, name);
+    }
+
+    public long longField(String name, long defaultValue) {
+        return longField(json, name, defaultValue);
+    }
+
+    static String stringField(String json, String name) {
+        String key = "\"" + name + "\"";
+        int idx = json.indexOf(key);
+        if (idx < 0) return null;
+        int colon = json.indexOf(':', idx + key.length());
+        int start = colon < 0 ? -1 : json.indexOf('"', colon + 1);
+        if (start < 0) return null;
+        int end = json.indexOf('"', start + 1);
+        return end < 0 ? null : json.substring(start + 1, end);
+    }
+
+    static long longField(String json, String name, long defaultValue) {
+        String key = "\"" + name + "\"";
+        int idx = json.indexOf(key);
+        if (idx < 0) return defaultValue;
+        int i = json.indexOf(':', idx + key.length());
+        if (i < 0) return defaultValue;
+        i++;
+        while (i < json.length() && json.charAt(i) == ' ') i++;
+        int start = i;
+        while (i < json.length() && (Character.isDigit(json.charAt(i)) || (i == start && json.charAt(i) == '-'))) i++;
+        if (i == start) return defaultValue; // null, string or object
+        return Long.parseLong(json, start, i, 10);
+    }
+
+    public static String identify(String token, String sessionId) {
+        String session = sessionId == null ? "" : ",\"session_id\":\"" + sessionId + "\"";
+        return "{\"op\":2,\"d\":{\"token\":\"" + token + "\"" + session + "}}";
+    }
+
+    public static String resume(String token, String sessionId, long seq) {
+        return "{\"op\":6,\"d\":{\"token\":\"" + token + "\",\"session_id\":\"" + sessionId
+            + "\",\"seq\":" + seq + "}}";
+    }
+
+    public static String heartbeat(long lastSeq) {
+        return "{\"op\":1,\"d\":" + (lastSeq > 0 ? Long.toString(lastSeq) : "null") + "}";
+    }
+}
@@ -0,0 +1,602 @@
+package com.flux.loadtest.engine;
+
+import com.flux.loadtest.client.ClientState;
+import com.flux.loadtest.metrics.MetricsCollector;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multiplexed load-client engine: a few selector threads drive many
+ * simulated gateway sessions, with no thread per connection.
+ *
+ * Each session runs the full client side of the gateway protocol:
+ * non-blocking connect, HTTP upgrade with Sec-WebSocket-Accept check,
+ * incremental frame parsing, HELLO, IDENTIFY or RESUME, READY/RESUMED,
+ * heartbeats on the server's interval, and ping/close handling. Dispatch
+ * sequence numbers are checked for gaps and duplicates. With churn
+ * enabled, ready sessions periodically drop their socket and RESUME.
+ *
+ * Per-session state is a few hundred bytes: reads go through one buffer
+ * per selector thread and a write buffer is only kept while a socket is
+ * backed up. Spreading connections over several loopback source
+ * addresses lifts the ~28k ephemeral-port limit per destination.
+ */
+public class LoadClientEngine implements AutoCloseable {
+
+    private static final String WS_MAGIC = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int MAX_HANDSHAKE_BYTES = 8192;
+
+    private static final int TIMER_HEARTBEAT = 0;
+    private static final int TIMER_CHURN = 1;
+
+    /**
+     * @param heartbeatMillis 0 to use the interval from HELLO
+     * @param churnMillis     mean time a ready session stays up before
+     *                        dropping and resuming; 0 disables churn
+     * @param localAddresses  number of 127.0.0.x source addresses to spread over
+     */
+    public record Config(String host, int port, String path, int selectorThreads,
+                         long heartbeatMillis, long churnMillis, int localAddresses,
+                         int maxMessageBytes) {
+
+        public static Config defaults(String host, int port) {
+            return new Config(host, port, "/ws", Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                0, 0, 1, 1 << 20);
+        }
+
+        public Config withSelectorThreads(int threads) {
+            return new Config(host, port, path, threads, heartbeatMillis, churnMillis, localAddresses, maxMessageBytes);
+        }
+
+        public Config withHeartbeatMillis(long millis) {
+            return new Config(host, port, path, selectorThreads, millis, churnMillis, localAddresses, maxMessageBytes);
+        }
+
+        public Config withChurnMillis(long millis) {
+            return new Config(host, port, path, selectorThreads, heartbeatMillis, millis, localAddresses, maxMessageBytes);
+        }
+
+        public Config withLocalAddresses(int count) {
+            return new Config(host, port, path, selectorThreads, heartbeatMillis, churnMillis, count, maxMessageBytes);
+        }
+    }
+
+    private final Config config;
+    private final MetricsCollector metrics;
+    private final InetSocketAddress remote;
+    private final Loop[] loops;
+    private final AtomicInteger readySessions = new AtomicInteger();
+
+    public LoadClientEngine(Config config, MetricsCollector metrics) throws IOException {
+        this.config = config;
+        this.metrics = metrics;
+        this.remote = new InetSocketAddress(config.host(), config.port());
+        this.loops = new Loop[config.selectorThreads()];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new Loop();
+            Thread.ofPlatform().name("load-engine-" + i).daemon().start(loops[i]);
+        }
+    }
+
+    /**
+     * Start one simulated session. Safe to call from any thread.
+     */
+    public void open(int clientId) {
+        Loop loop = loops[Math.floorMod(clientId, loops.length)];
+        loop.pending.add(clientId);
+        loop.selector.wakeup();
+    }
+
+    public int getOpenSessions() {
+        int total = 0;
+        for (Loop loop : loops) {
+            total += loop.sessionCount;
+        }
+        return total;
+    }
+
+    public int getReadySessions() {
+        return readySessions.get();
+    }
+
+    @Override
+    public void close() {
+        for (Loop loop : loops) {
+            loop.running = false;
+            loop.selector.wakeup();
+        }
+    }
+
+    private record Timer(long deadlineNanos, Loop.Session session, int kind, int generation) {}
+
+    private final class Loop implements Runnable {
+        final Selector selector;
+        final ConcurrentLinkedQueue<Integer> pending = new ConcurrentLinkedQueue<>();
+        final PriorityQueue<Timer> timers =
+            new PriorityQueue<>((a, b) -> Long.compare(a.deadlineNanos(), b.deadlineNanos()));
+        final Set<Session> sessions = new HashSet<>();
+        final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+        final ByteBuffer scratch = ByteBuffer.allocate(4096);
+        final MessageDigest sha1;
+        volatile boolean running = true;
+        volatile int sessionCount;
+
+        Loop() throws IOException {
+            this.selector = Selector.open();
+            try {
+                this.sha1 = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    Integer clientId;
+                    while ((clientId = pending.poll()) != null) {
+                        Session session = new Session(clientId);
+                        sessions.add(session);
+                        sessionCount = sessions.size();
+                        session.connect();
+                    }
+
+                    long now = System.nanoTime();
+                    runTimers(now);
+                    Timer next = timers.peek();
+                    long waitMillis = next == null ? 100 : (next.deadlineNanos() - now) / 1_000_000L;
+                    if (waitMillis <= 0) {
+                        selector.selectNow();
+                    } else {
+                        selector.select(waitMillis);
+                    }
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Session session = (Session) key.attachment();
+                        try {
+                            if (key.isValid() && key.isConnectable()) session.finishConnect();
+                            if (key.isValid() && key.isWritable()) session.flush();
+                            if (key.isValid() && key.isReadable()) session.read();
+                        } catch (IOException e) {
+                            session.fail(e.getMessage(), e);
+                        } catch (RuntimeException e) {
+                            // A bug in one session must not take down the loop and every session on it
+                            session.fail("Session error: " + e, e);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Engine loop failed: " + e.getMessage());
+            } finally {
+                for (Session session : new ArrayList<>(sessions)) {
+                    session.close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void runTimers(long now) {
+            Timer timer;
+            while ((timer = timers.peek()) != null && timer.deadlineNanos() <= now) {
+                timers.poll();
+                Session session = timer.session();
+                if (timer.generation() != session.generation || session.channel == null) {
+                    continue; // Session reconnected or closed since this was scheduled
+                }
+                try {
+                    if (timer.kind() == TIMER_HEARTBEAT) {
+                        session.heartbeatDue(timer.deadlineNanos());
+                    } else if (timer.kind() == TIMER_CHURN && session.state instanceof ClientState.Ready) {
+                        session.reconnect();
+                    }
+                } catch (IOException e) {
+                    session.fail(e.getMessage(), e);
+                } catch (RuntimeException e) {
+                    session.fail("Session error: " + e, e);
+                }
+            }
+        }
+
+        /**
+         * One simulated client. All methods run on the owning loop's thread.
+         */
+        final class Session implements FrameParser.Listener {
+            final int clientId;
+            final String token;
+            SocketChannel channel;
+            SelectionKey key;
+            ClientState state = new ClientState.Init();
+            int generation;
+
+            String wsKey;
+            ByteArrayOutputStream handshake;
+            FrameParser parser;
+            ByteBuffer pendingWrite; // Only while the socket is backed up
+            boolean connected;
+
+            String helloSessionId;
+            String sessionId;
+            long lastSequence;
+            long heartbeatIntervalNanos;
+            long heartbeatIntendedNanos; // 0 once acknowledged
+
+            Session(int clientId) {
+                this.clientId = clientId;
+                this.token = "flux_load_" + clientId;
+            }
+
+            void connect() {
+                generation++;
+                try {
+                    channel = SocketChannel.open();
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    if (config.localAddresses() > 1) {
+                        channel.bind(new InetSocketAddress("127.0.0." + (1 + clientId % config.localAddresses()), 0));
+                    }
+                    transitionTo(new ClientState.Connecting(Instant.now()));
+                    boolean connected = channel.connect(remote);
+                    key = channel.register(selector, connected ? 0 : SelectionKey.OP_CONNECT, this);
+                    if (connected) {
+                        onConnected();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Unchecked too: an UnresolvedAddressException here would end the loop
+                    metrics.recordConnectionAttempt(clientId, false);
+                    fail("Connect failed", e);
+                }
+            }
+
+            void finishConnect() throws IOException {
+                try {
+                    channel.finishConnect();
+                } catch (IOException e) {
+                    metrics.recordConnectionAttempt(clientId, false);
+                    throw e;
+                }
+                onConnected();
+            }
+
+            private void onConnected() throws IOException {
+                metrics.recordConnectionAttempt(clientId, true);
+                connected = true;
+                transitionTo(new ClientState.Handshaking(Instant.now()));
+                byte[] keyBytes = new byte[16];
+                ThreadLocalRandom.current().nextBytes(keyBytes);
+                wsKey = Base64.getEncoder().encodeToString(keyBytes);
+                handshake = new ByteArrayOutputStream(256);
+                parser = new FrameParser(config.maxMessageBytes());
+                key.interestOps(SelectionKey.OP_READ);
+                String request = "GET " + config.path() + " HTTP/1.1\r\n" +
+                    "Host: " + config.host() + ":" + config.port() + "\r\n" +
+                    "Upgrade: websocket\r\n" +
+                    "Connection: Upgrade\r\n" +
+                    "Sec-WebSocket-Key: " + wsKey + "\r\n" +
+                    "Sec-WebSocket-Version: 13\r\n\r\n";
+                writeRaw(ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII)));
+            }
+
+            void read() throws IOException {
+                ByteBuffer in = readBuffer.clear();
+                int n = channel.read(in);
+                if (n == -1) {
+                    fail("Connection closed by server", null);
+                    return;
+                }
+                in.flip();
+                if (state instanceof ClientState.Handshaking) {
+                    readHandshake(in);
+                }
+                if (in.hasRemaining() && parser != null) {
+                    parser.feed(in, this);
+                }
+            }
+
+            /**
+             * Accumulate the HTTP response; any bytes after the blank line
+             * are left in {@code in} for the frame parser.
+             */
+            private void readHandshake(ByteBuffer in) throws IOException {
+                while (in.hasRemaining()) {
+                    handshake.write(in.get());
+                    int size = handshake.size();
+                    if (size >= 4 && endsWithBlankLine()) {
+                        String response = handshake.toString(StandardCharsets.US_ASCII);
+                        handshake = null;
+                        verifyHandshake(response);
+                        transitionTo(new ClientState.Open(Instant.now(), 0, 0));
+                        return;
+                    }
+                    if (size > MAX_HANDSHAKE_BYTES) {
+                        throw new ProtocolException("Handshake response too large");
+                    }
+                }
+            }
+
+            private boolean endsWithBlankLine() {
+                byte[] bytes = handshake.toByteArray();
+                int n = bytes.length;
+                return bytes[n - 4] == '\r' && bytes[n - 3] == '\n' && bytes[n - 2] == '\r' && bytes[n - 1] == '\n';
+            }
+
+            private void verifyHandshake(String response) throws ProtocolException {
+                if (!response.startsWith("HTTP/1.1 101")) {
+                    throw new ProtocolException("Handshake failed: " + response.lines().findFirst().orElse(""));
+                }
+                String expected = Base64.getEncoder().encodeToString(
+                    sha1.digest((wsKey + WS_MAGIC).getBytes(StandardCharsets.US_ASCII)));
+                String accept = response.lines()
+                    .filter(line -> line.regionMatches(true, 0, "Sec-WebSocket-Accept:", 0, 21))
+                    .map(line -> line.substring(21).trim())
+                    .findFirst().orElse(null);
+                if (!expected.equals(accept)) {
+                    throw new ProtocolException("Bad Sec-WebSocket-Accept: " + accept);
+                }
+            }
+
+            @Override
+            public void onMessage(int opcode, byte[] payload) {
+                // The parser keeps delivering the rest of the buffer after a callback failed the session
+                if (channel == null) return;
+                metrics.recordMessageReceived(clientId);
+                if (opcode != FrameParser.OP_TEXT) return;
+                GatewayMessage message = GatewayMessage.parse(new String(payload, StandardCharsets.UTF_8));
+                if (message == null) return;
+                try {
+                    handle(message);
+                } catch (IOException e) {
+                    fail(e.getMessage(), e);
+                }
+            }
+
+            private void handle(GatewayMessage message) throws IOException {
+                switch (message.op()) {
+                    case GatewayMessage.HELLO -> onHello(message);
+                    case GatewayMessage.DISPATCH -> onDispatch(message);
+                    case GatewayMessage.RESUMED -> {
+                        if (state instanceof ClientState.Resuming) {
+                            metrics.recordResume(clientId, true);
+                            becomeReady();
+                        }
+                    }
+                    case GatewayMessage.INVALID_SESSION -> onInvalidSession();
+                    case GatewayMessage.HEARTBEAT -> sendHeartbeat(System.nanoTime());
+                    case GatewayMessage.HEARTBEAT_ACK -> {
+                        if (heartbeatIntendedNanos != 0) {
+                            metrics.recordRtt(clientId, System.nanoTime() - heartbeatIntendedNanos);
+                            heartbeatIntendedNanos = 0;
+                        }
+                    }
+                    default -> { }
+                }
+            }
+
+            private void onHello(GatewayMessage hello) throws IOException {
+                helloSessionId = hello.stringField("session_id");
+                long intervalMillis = config.heartbeatMillis() > 0 ? config.heartbeatMillis()
+                    : hello.longField("heartbeat_interval", 45_000);
+                heartbeatIntervalNanos = intervalMillis * 1_000_000L;
+                heartbeatIntendedNanos = 0;
+                // First heartbeat at a random point in the interval, as real clients do
+                long jitter = (long) (ThreadLocalRandom.current().nextDouble() * heartbeatIntervalNanos);
+                timers.add(new Timer(System.nanoTime() + jitter, this, TIMER_HEARTBEAT, generation));
+
+                if (sessionId != null && lastSequence > 0) {
+                    transitionTo(new ClientState.Resuming(Instant.now(), sessionId, lastSequence));
+                    sendText(GatewayMessage.resume(token, sessionId, lastSequence));
+                } else {
+                    identify();
+                }
+            }
+
+            private void identify() throws IOException {
+                sessionId = null;
+                lastSequence = 0;
+                transitionTo(new ClientState.Identifying(Instant.now()));
+                sendText(GatewayMessage.identify(token, helloSessionId));
+            }
+
+            private void onDispatch(GatewayMessage dispatch) throws IOException {
+                String type = dispatch.stringField("type");
+                if ("INVALID_SESSION".equals(type)) {
+                    onInvalidSession();
+                    return;
+                }
+                if (dispatch.seq() > 0) {
+                    checkSequence(dispatch.seq());
+                }
+                if ("READY".equals(type) && state instanceof ClientState.Identifying) {
+                    String readySession = dispatch.stringField("session_id");
+                    sessionId = readySession != null ? readySession : helloSessionId;
+                    becomeReady();
+                }
+            }
+
+            private void checkSequence(long seq) {
+                if (lastSequence == 0 || seq == lastSequence + 1) {
+                    lastSequence = seq;
+                } else if (seq <= lastSequence) {
+                    metrics.recordDuplicateMessage(clientId);
+                } else {
+                    metrics.recordSequenceGap(clientId, seq - lastSequence - 1);
+                    lastSequence = seq;
+                }
+            }
+
+            private void onInvalidSession() throws IOException {
+                if (state instanceof ClientState.Resuming) {
+                    metrics.recordResume(clientId, false);
+                }
+                identify();
+            }
+
+            private void becomeReady() {
+                transitionTo(new ClientState.Ready(Instant.now(), sessionId));
+                if (config.churnMillis() > 0) {
+                    long uptime = (long) (ThreadLocalRandom.current().nextDouble(2.0) * config.churnMillis());
+                    timers.add(new Timer(System.nanoTime() + uptime * 1_000_000L, this, TIMER_CHURN, generation));
+                }
+            }
+
+            /**
+             * Heartbeats go out on a fixed schedule; RTT is measured from
+             * the scheduled time. A missing ACK is counted as unanswered.
+             */
+            void heartbeatDue(long intendedNanos) throws IOException {
+                if (heartbeatIntendedNanos != 0) {
+                    metrics.recordUnanswered(clientId, 1);
+                }
+                sendHeartbeat(intendedNanos);
+                timers.add(new Timer(intendedNanos + heartbeatIntervalNanos, this, TIMER_HEARTBEAT, generation));
+            }
+
+            private void sendHeartbeat(long intendedNanos) throws IOException {
+                heartbeatIntendedNanos = intendedNanos;
+                sendText(GatewayMessage.heartbeat(lastSequence));
+            }
+
+            @Override
+            public void onControl(int opcode, byte[] payload) {
+                if (channel == null) return;
+                try {
+                    if (opcode == FrameParser.OP_PING) {
+                        sendFrame(FrameParser.OP_PONG, payload);
+                    } else if (opcode == FrameParser.OP_CLOSE) {
+                        sendFrame(FrameParser.OP_CLOSE, payload);
+                        fail("Closed by server", null);
+                    }
+                } catch (IOException e) {
+                    fail(e.getMessage(), e);
+                }
+            }
+
+            private void sendText(String text) throws IOException {
+                sendFrame(FrameParser.OP_TEXT, text.getBytes(StandardCharsets.UTF_8));
+                metrics.recordMessageSent(clientId);
+            }
+
+            private void sendFrame(int opcode, byte[] payload) throws IOException {
+                int length = FrameEncoder.encodedLength(payload.length);
+                ByteBuffer out = length <= scratch.capacity() ? scratch.clear() : ByteBuffer.allocate(length);
+                FrameEncoder.encode(opcode, payload, out);
+                out.flip();
+                writeRaw(out);
+            }
+
+            /**
+             * Write now if nothing is queued; otherwise, or if the socket
+             * takes only part of it, keep the rest until OP_WRITE.
+             */
+            private void writeRaw(ByteBuffer out) throws IOException {
+                if (pendingWrite == null) {
+                    channel.write(out);
+                    if (!out.hasRemaining()) return;
+                    pendingWrite = ByteBuffer.allocate(Math.max(256, out.remaining() * 2));
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                } else if (pendingWrite.remaining() < out.remaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate((pendingWrite.position() + out.remaining()) * 2);
+                    pendingWrite.flip();
+                    larger.put(pendingWrite);
+                    pendingWrite = larger;
+                }
+                pendingWrite.put(out);
+            }
+
+            void flush() throws IOException {
+                if (pendingWrite == null) return;
+                pendingWrite.flip();
+                channel.write(pendingWrite);
+                if (pendingWrite.hasRemaining()) {
+                    pendingWrite.compact();
+                } else {
+                    pendingWrite = null;
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+
+            /**
+             * Drop the socket and start over, resuming the current session.
+             */
+            void reconnect() {
+                closeChannel();
+                connect();
+            }
+
+            void fail(String reason, Throwable cause) {
+                if (channel == null) return;
+                transitionTo(new ClientState.Error(Instant.now(), reason, cause));
+                close();
+            }
+
+            void close() {
+                if (channel == null) return;
+                closeChannel();
+                transitionTo(new ClientState.Closed(Instant.now(), 0));
+                sessions.remove(this);
+                sessionCount = sessions.size();
+            }
+
+            private void closeChannel() {
+                generation++;
+                if (connected) {
+                    metrics.recordConnectionClosed(clientId);
+                    connected = false;
+                }
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+                channel = null;
+                key = null;
+                parser = null;
+                pendingWrite = null;
+                handshake = null;
+            }
+
+            /**
+             * The only place readySessions changes, so a session counts once
+             * however it leaves Ready (churn, failure, invalid session, close).
+             */
+            private void transitionTo(ClientState next) {
+                ClientState previous = state;
+                state = next;
+                boolean wasReady = previous instanceof ClientState.Ready;
+                boolean isReady = next instanceof ClientState.Ready;
+                if (wasReady && !isReady) {
+                    readySessions.decrementAndGet();
+                } else if (isReady && !wasReady) {
+                    readySessions.incrementAndGet();
+                }
+                metrics.recordStateTransition(clientId, previous, next);
+            }
+        }
+    }
+}
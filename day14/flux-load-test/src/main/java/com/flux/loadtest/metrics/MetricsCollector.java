@@ -1,5 +1,6 @@
 package com.flux.loadtest.metrics;
 
+import com.flux.common.LatencyHistogram;
 import com.flux.loadtest.client.ClientState;
 
 import java.lang.management.ManagementFactory;
@@ -24,6 +25,14 @@ public class MetricsCollector {
     private final LongAdder messagesReceived = new LongAdder();
     private final LongAdder messageAttempts = new LongAdder();
     private final LongAdder stateTransitions = new LongAdder();
+    private final LongAdder unansweredMessages = new LongAdder();
+    private final LongAdder sequenceGaps = new LongAdder();
+    private final LongAdder duplicateMessages = new LongAdder();
+    private final LongAdder resumes = new LongAdder();
+    private final LongAdder resumeFailures = new LongAdder();
+    
+    // Round trip measured from each message's intended send time
+    private final LatencyHistogram rttHistogram = new LatencyHistogram();
     
     private final Map<Integer, ClientState> clientStates = new ConcurrentHashMap<>();
     private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
@@ -77,6 +86,61 @@ public class MetricsCollector {
         messagesSent.increment();
     }
     
+    /**
+     * Record a response, timed from when the request was scheduled to go
+     * out rather than when it actually did.
+     */
+    public void recordRtt(int clientId, long rttNanos) {
+        rttHistogram.record(rttNanos);
+    }
+    
+    public void recordUnanswered(int clientId, long count) {
+        unansweredMessages.add(count);
+    }
+    
+    /**
+     * A dispatch skipped {@code missing} sequence numbers.
+     */
+    public void recordSequenceGap(int clientId, long missing) {
+        sequenceGaps.add(missing);
+    }
+    
+    public void recordDuplicateMessage(int clientId) {
+        duplicateMessages.increment();
+    }
+    
+    public void recordResume(int clientId, boolean success) {
+        if (success) {
+            resumes.increment();
+        } else {
+            resumeFailures.increment();
+        }
+    }
+    
+    public long getSequenceGaps() {
+        return sequenceGaps.sum();
+    }
+    
+    public long getDuplicateMessages() {
+        return duplicateMessages.sum();
+    }
+    
+    public long getResumes() {
+        return resumes.sum();
+    }
+    
+    public long getResumeFailures() {
+        return resumeFailures.sum();
+    }
+    
+    public LatencyHistogram getRttHistogram() {
+        return rttHistogram;
+    }
+    
+    public long getUnansweredMessages() {
+        return unansweredMessages.sum();
+    }
+    
     public void recordStateTransition(int clientId, ClientState from, ClientState to) {
         clientStates.put(clientId, to);
         stateTransitions.increment();
@@ -0,0 +1,117 @@
+package com.flux.loadtest.runner;
+
+import com.flux.common.LatencyHistogram;
+import com.flux.loadtest.dashboard.DashboardServer;
+import com.flux.loadtest.engine.LoadClientEngine;
+import com.flux.loadtest.metrics.MetricsCollector;
+
+import java.io.IOException;
+
+/**
+ * Drives {@link LoadClientEngine} against a gateway that speaks the
+ * HELLO/IDENTIFY/RESUME protocol: opens clients at a fixed rate, then
+ * holds them, printing session and sequence health every few seconds.
+ *
+ * Usage: {@code EngineRunner [clients] [connectsPerSec] [durationSec] [host] [port]
+ * [selectors] [churnSec] [heartbeatMs] [localAddresses] [dashboardPort]}
+ */
+public class EngineRunner {
+
+    private static final long STATUS_INTERVAL_MS = 5000;
+
+    private final int clients;
+    private final int connectsPerSecond;
+    private final long durationMillis;
+    private final MetricsCollector metrics = new MetricsCollector();
+    private final LoadClientEngine engine;
+    private final DashboardServer dashboard;
+
+    public EngineRunner(LoadClientEngine.Config config, int clients, int connectsPerSecond,
+                        long durationMillis, int dashboardPort) throws IOException {
+        this.clients = clients;
+        this.connectsPerSecond = connectsPerSecond;
+        this.durationMillis = durationMillis;
+        this.engine = new LoadClientEngine(config, metrics);
+        this.dashboard = new DashboardServer(dashboardPort, metrics);
+    }
+
+    public void run() throws InterruptedException {
+        System.out.printf("🚀 Engine load test: %,d clients at %,d/s for %ds%n",
+            clients, connectsPerSecond, durationMillis / 1000);
+        System.out.println("📊 Dashboard: http://localhost:" + dashboard.getPort());
+        dashboard.start();
+        metrics.startTest();
+
+        long start = System.currentTimeMillis();
+        long nextStatus = start + STATUS_INTERVAL_MS;
+        int opened = 0;
+        try {
+            long now;
+            while ((now = System.currentTimeMillis()) - start < durationMillis) {
+                // Open whatever the connect rate allows up to now
+                long due = Math.min(clients, (now - start) * connectsPerSecond / 1000);
+                while (opened < due) {
+                    engine.open(opened++);
+                }
+                if (now >= nextStatus) {
+                    printStatus();
+                    nextStatus += STATUS_INTERVAL_MS;
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            engine.close();
+            metrics.endTest();
+            printFinalReport();
+            dashboard.stop();
+        }
+    }
+
+    private void printStatus() {
+        LatencyHistogram.Snapshot rtt = metrics.getRttHistogram().snapshot();
+        System.out.printf("sessions=%,d ready=%,d gaps=%,d dups=%,d resumes=%,d/%,d hb p99=%.1fms%n",
+            engine.getOpenSessions(), engine.getReadySessions(),
+            metrics.getSequenceGaps(), metrics.getDuplicateMessages(),
+            metrics.getResumes(), metrics.getResumes() + metrics.getResumeFailures(),
+            rtt.percentile(99.0) / 1e6);
+    }
+
+    private void printFinalReport() {
+        var snapshot = metrics.getSnapshot();
+        LatencyHistogram.Snapshot rtt = metrics.getRttHistogram().snapshot();
+
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("ENGINE LOAD TEST REPORT");
+        System.out.println("=".repeat(60));
+        System.out.printf("Duration: %d seconds%n", snapshot.elapsedSeconds());
+        System.out.printf("Successful Connections: %,d / %,d%n",
+            snapshot.successfulConnections(), snapshot.totalAttempts());
+        System.out.printf("Messages Sent / Received: %,d / %,d%n",
+            snapshot.messagesSent(), snapshot.messagesReceived());
+        System.out.printf("Sequence Gaps: %,d  Duplicates: %,d%n",
+            metrics.getSequenceGaps(), metrics.getDuplicateMessages());
+        System.out.printf("Resumes: %,d ok, %,d invalidated%n",
+            metrics.getResumes(), metrics.getResumeFailures());
+        System.out.printf("Heartbeat RTT: p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms (unanswered: %,d)%n",
+            rtt.percentile(50.0) / 1e6, rtt.percentile(99.0) / 1e6,
+            rtt.percentile(99.9) / 1e6, rtt.max() / 1e6, metrics.getUnansweredMessages());
+        System.out.println("=".repeat(60));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int connectsPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long durationSec = args.length > 2 ? Long.parseLong(args[2]) : 120;
+        String host = args.length > 3 ? args[3] : "localhost";
+        int port = args.length > 4 ? Integer.parseInt(args[4]) : 8080;
+
+        LoadClientEngine.Config config = LoadClientEngine.Config.defaults(host, port);
+        if (args.length > 5) config = config.withSelectorThreads(Integer.parseInt(args[5]));
+        if (args.length > 6) config = config.withChurnMillis(Long.parseLong(args[6]) * 1000);
+        if (args.length > 7) config = config.withHeartbeatMillis(Long.parseLong(args[7]));
+        if (args.length > 8) config = config.withLocalAddresses(Integer.parseInt(args[8]));
+        int dashboardPort = args.length > 9 ? Integer.parseInt(args[9]) : 9090;
+
+        new EngineRunner(config, clients, connectsPerSecond, durationSec * 1000, dashboardPort).run();
+    }
+}
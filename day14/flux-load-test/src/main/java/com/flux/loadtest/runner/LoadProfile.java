@@ -0,0 +1,93 @@
+package com.flux.loadtest.runner;
+
+import java.time.Duration;
+
+/**
+ * Number of clients that should be sending at each point of a test.
+ * Every active client sends on its own fixed schedule, so the offered
+ * load is {@code activeClients / interval} regardless of how the server
+ * is coping.
+ */
+public sealed interface LoadProfile permits
+    LoadProfile.Ramp,
+    LoadProfile.Step,
+    LoadProfile.Spike {
+
+    int targetClients(long elapsedMillis);
+
+    long durationMillis();
+
+    /**
+     * Linear ramp from {@code from} to {@code to}, then hold.
+     */
+    record Ramp(int from, int to, Duration rampTime, Duration holdTime) implements LoadProfile {
+        public int targetClients(long elapsedMillis) {
+            long ramp = rampTime.toMillis();
+            if (elapsedMillis >= ramp) return to;
+            return (int) (from + (to - from) * elapsedMillis / ramp);
+        }
+
+        public long durationMillis() {
+            return rampTime.toMillis() + holdTime.toMillis();
+        }
+    }
+
+    /**
+     * Start at {@code start} and add {@code increment} clients every step.
+     */
+    record Step(int start, int increment, int steps, Duration stepTime) implements LoadProfile {
+        public Step {
+            if (steps < 1 || stepTime.toMillis() < 1) {
+                throw new IllegalArgumentException("Step needs at least one step of at least 1ms");
+            }
+        }
+
+        public int targetClients(long elapsedMillis) {
+            long step = Math.min(steps - 1, elapsedMillis / stepTime.toMillis());
+            return (int) (start + increment * step);
+        }
+
+        public long durationMillis() {
+            return steps * stepTime.toMillis();
+        }
+    }
+
+    /**
+     * Hold {@code base}, jump to {@code peak} for {@code spikeTime}, drop back.
+     */
+    record Spike(int base, int peak, Duration spikeAt, Duration spikeTime, Duration totalTime) implements LoadProfile {
+        public int targetClients(long elapsedMillis) {
+            long start = spikeAt.toMillis();
+            boolean inSpike = elapsedMillis >= start && elapsedMillis < start + spikeTime.toMillis();
+            return inSpike ? peak : base;
+        }
+
+        public long durationMillis() {
+            return totalTime.toMillis();
+        }
+    }
+
+    /**
+     * Parse a command-line profile:
+     * {@code ramp:from:to:rampSec:holdSec},
+     * {@code step:start:increment:steps:stepSec} or
+     * {@code spike:base:peak:atSec:spikeSec:totalSec}.
+     */
+    static LoadProfile parse(String spec) {
+        String[] p = spec.split(":");
+        try {
+            return switch (p[0]) {
+                case "ramp" -> new Ramp(Integer.parseInt(p[1]), Integer.parseInt(p[2]),
+                    Duration.ofSeconds(Long.parseLong(p[3])), Duration.ofSeconds(Long.parseLong(p[4])));
+                case "step" -> new Step(Integer.parseInt(p[1]), Integer.parseInt(p[2]),
+                    Integer.parseInt(p[3]), Duration.ofSeconds(Long.parseLong(p[4])));
+                case "spike" -> new Spike(Integer.parseInt(p[1]), Integer.parseInt(p[2]),
+                    Duration.ofSeconds(Long.parseLong(p[3])), Duration.ofSeconds(Long.parseLong(p[4])),
+                    Duration.ofSeconds(Long.parseLong(p[5])));
+                default -> throw new IllegalArgumentException("Unknown profile: " + p[0]);
+            };
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid profile: " + spec, e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.flux.loadtest.runner;
+
+import com.flux.common.LatencyHistogram;
+import com.flux.loadtest.client.OpenLoopDriver;
+import com.flux.loadtest.client.WebSocketClient;
+import com.flux.loadtest.dashboard.DashboardServer;
+import com.flux.loadtest.metrics.MetricsCollector;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Open-loop load test: clients are connected to follow a {@link LoadProfile}
+ * and every connected, active client sends a heartbeat every interval on a
+ * fixed schedule. Unlike {@link LoadTestRunner}'s send-sleep-send loop, a
+ * slow server does not slow the senders down, so RTT percentiles include
+ * the time messages spent waiting on a stalled server.
+ *
+ * Usage: {@code OpenLoopRunner [profile] [intervalMs] [selectors] [host] [port] [dashboardPort]}
+ */
+public class OpenLoopRunner {
+
+    private static final long CONTROL_TICK_MS = 100;
+    private static final int MAX_CONCURRENT_HANDSHAKES = 500;
+
+    private final String host;
+    private final int port;
+    private final LoadProfile profile;
+    private final MetricsCollector metrics = new MetricsCollector();
+    private final OpenLoopDriver driver;
+    private final DashboardServer dashboard;
+    private final Semaphore handshakes = new Semaphore(MAX_CONCURRENT_HANDSHAKES);
+    private int launchedClients;
+
+    public OpenLoopRunner(String host, int port, LoadProfile profile, long intervalMillis,
+                          int selectorThreads, int dashboardPort) throws IOException {
+        this.host = host;
+        this.port = port;
+        this.profile = profile;
+        this.driver = new OpenLoopDriver(metrics, intervalMillis, selectorThreads);
+        this.dashboard = new DashboardServer(dashboardPort, metrics);
+    }
+
+    public void run() throws InterruptedException {
+        System.out.println("🚀 Open-loop load test: " + profile);
+        System.out.println("📊 Dashboard: http://localhost:" + dashboard.getPort());
+        dashboard.start();
+        metrics.startTest();
+
+        long start = System.currentTimeMillis();
+        try (ExecutorService connectors = Executors.newVirtualThreadPerTaskExecutor()) {
+            long elapsed;
+            while ((elapsed = System.currentTimeMillis() - start) < profile.durationMillis()) {
+                int target = profile.targetClients(elapsed);
+                driver.setTargetClients(target);
+                while (launchedClients < target && handshakes.tryAcquire()) {
+                    int clientId = launchedClients++;
+                    connectors.submit(() -> connect(clientId));
+                }
+                Thread.sleep(CONTROL_TICK_MS);
+            }
+            driver.setTargetClients(0);
+        } finally {
+            driver.close();
+            metrics.endTest();
+            printFinalReport();
+            dashboard.stop();
+        }
+    }
+
+    private void connect(int clientId) {
+        WebSocketClient client = null;
+        boolean connected = false;
+        try {
+            client = new WebSocketClient(clientId, metrics);
+            client.connect(host, port);
+            connected = true;
+            driver.register(client);
+        } catch (IOException e) {
+            // A failed connect is already counted; either way the socket must not leak
+            if (connected) {
+                client.close();
+            } else if (client != null) {
+                try {
+                    client.getChannel().close();
+                } catch (IOException ignored) {
+                }
+            }
+        } finally {
+            handshakes.release();
+        }
+    }
+
+    private void printFinalReport() {
+        var snapshot = metrics.getSnapshot();
+        LatencyHistogram.Snapshot rtt = metrics.getRttHistogram().snapshot();
+
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("OPEN-LOOP LOAD TEST REPORT");
+        System.out.println("=".repeat(60));
+        System.out.printf("Duration: %d seconds%n", snapshot.elapsedSeconds());
+        System.out.printf("Successful Connections: %,d / %,d%n",
+            snapshot.successfulConnections(), snapshot.totalAttempts());
+        System.out.printf("Messages Sent: %,d%n", snapshot.messagesSent());
+        System.out.printf("Responses: %,d (unanswered: %,d)%n",
+            rtt.count(), metrics.getUnansweredMessages());
+        System.out.printf("RTT from intended send: p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+            rtt.percentile(50.0) / 1e6, rtt.percentile(99.0) / 1e6,
+            rtt.percentile(99.9) / 1e6, rtt.max() / 1e6);
+        System.out.println("=".repeat(60));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.parse(args.length > 0 ? args[0] : "ramp:0:10000:60:120");
+        long intervalMs = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int selectors = args.length > 2 ? Integer.parseInt(args[2])
+            : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        String host = args.length > 3 ? args[3] : "localhost";
+        int port = args.length > 4 ? Integer.parseInt(args[4]) : 8080;
+        int dashboardPort = args.length > 5 ? Integer.parseInt(args[5]) : 9090;
+
+        new OpenLoopRunner(host, port, profile, intervalMs, selectors, dashboardPort).run();
+    }
+}
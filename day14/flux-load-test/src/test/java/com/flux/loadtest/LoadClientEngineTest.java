@@ -0,0 +1,217 @@
+package com.flux.loadtest;
+
+import com.flux.loadtest.engine.FrameEncoder;
+import com.flux.loadtest.engine.FrameParser;
+import com.flux.loadtest.engine.LoadClientEngine;
+import com.flux.loadtest.metrics.MetricsCollector;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadClientEngineTest {
+
+    private static final String WS_MAGIC = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    @Test
+    void testParserHandlesArbitrarySplits() throws Exception {
+        // Masked text split in two fragments with a ping between, then a 300-byte message
+        ByteBuffer wire = ByteBuffer.allocate(1024);
+        byte[] big = "x".repeat(300).getBytes(StandardCharsets.UTF_8);
+        wire.put(new byte[] {0x01, 3, 'h', 'e', 'l'});
+        FrameEncoder.encode(FrameParser.OP_PING, "p".getBytes(StandardCharsets.UTF_8), wire);
+        wire.put(new byte[] {(byte) 0x80, 2, 'l', 'o'});
+        FrameEncoder.encode(FrameParser.OP_TEXT, big, wire);
+        wire.flip();
+        byte[] bytes = new byte[wire.remaining()];
+        wire.get(bytes);
+
+        // Feed one byte at a time: every header and payload boundary gets split
+        FrameParser parser = new FrameParser(1 << 16);
+        List<String> events = new ArrayList<>();
+        FrameParser.Listener listener = new FrameParser.Listener() {
+            @Override
+            public void onMessage(int opcode, byte[] payload) {
+                events.add("msg:" + new String(payload, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onControl(int opcode, byte[] payload) {
+                events.add("ctl" + opcode + ":" + new String(payload, StandardCharsets.UTF_8));
+            }
+        };
+        for (byte b : bytes) {
+            parser.feed(ByteBuffer.wrap(new byte[] {b}), listener);
+        }
+
+        assertEquals(List.of("ctl9:p", "msg:hello", "msg:" + "x".repeat(300)), events);
+        assertThrows(ProtocolException.class,
+            () -> new FrameParser(100).feed(ByteBuffer.wrap(new byte[] {(byte) 0x81, 126, 0x01, 0x00}), listener));
+    }
+
+    /**
+     * One-connection gateway: HELLO, READY at seq 1, then dispatches with a
+     * gap (2 -> 4) and a duplicate (4 again). Heartbeats are acknowledged.
+     */
+    private static ServerSocket startGateway() throws IOException {
+        ServerSocket server = new ServerSocket(0);
+        Thread.ofVirtual().start(() -> {
+            try (Socket socket = server.accept()) {
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                StringBuilder request = new StringBuilder();
+                while (!request.toString().endsWith("\r\n\r\n")) {
+                    int b = in.read();
+                    if (b < 0) return;
+                    request.append((char) b);
+                }
+                String key = request.toString().lines()
+                    .filter(line -> line.startsWith("Sec-WebSocket-Key:"))
+                    .map(line -> line.substring(18).trim()).findFirst().orElseThrow();
+                String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                    .digest((key + WS_MAGIC).getBytes(StandardCharsets.US_ASCII)));
+                out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\n" +
+                    "Connection: Upgrade\r\nSec-WebSocket-Accept: " + accept + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+                send(out, "{\"op\":10,\"s\":0,\"d\":{\"session_id\":\"s1\",\"heartbeat_interval\":50}}");
+
+                DataInputStream frames = new DataInputStream(in);
+                while (true) {
+                    frames.readUnsignedByte();
+                    int len = frames.readUnsignedByte() & 0x7F;
+                    byte[] mask = frames.readNBytes(4);
+                    byte[] payload = frames.readNBytes(len);
+                    for (int i = 0; i < len; i++) payload[i] ^= mask[i & 3];
+                    String text = new String(payload, StandardCharsets.UTF_8);
+                    if (text.contains("\"op\":2")) {
+                        send(out, "{\"op\":0,\"s\":1,\"d\":{\"type\":\"READY\",\"session_id\":\"s1\"}}");
+                        send(out, "{\"op\":0,\"s\":2,\"d\":{\"type\":\"MESSAGE_CREATE\"}}");
+                        send(out, "{\"op\":0,\"s\":4,\"d\":{\"type\":\"MESSAGE_CREATE\"}}");
+                        send(out, "{\"op\":0,\"s\":4,\"d\":{\"type\":\"MESSAGE_CREATE\"}}");
+                    } else if (text.contains("\"op\":1")) {
+                        send(out, "{\"op\":11,\"s\":0,\"d\":{}}");
+                    }
+                }
+            } catch (Exception e) {
+                // Client went away
+            }
+        });
+        return server;
+    }
+
+    private static void send(OutputStream out, String text) throws IOException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        out.write(new byte[] {(byte) 0x81, (byte) payload.length});
+        out.write(payload);
+        out.flush();
+    }
+
+    @Test
+    void testSessionReachesReadyAndTracksSequence() throws Exception {
+        MetricsCollector metrics = new MetricsCollector();
+        try (ServerSocket server = startGateway();
+             LoadClientEngine engine = new LoadClientEngine(
+                 LoadClientEngine.Config.defaults("localhost", server.getLocalPort()).withSelectorThreads(1),
+                 metrics)) {
+            engine.open(0);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((engine.getReadySessions() < 1 || metrics.getRttHistogram().snapshot().count() < 2)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertEquals(1, engine.getReadySessions());
+            assertEquals(1, metrics.getSequenceGaps());
+            assertEquals(1, metrics.getDuplicateMessages());
+            assertTrue(metrics.getRttHistogram().snapshot().count() >= 2, "Heartbeats should be acknowledged");
+        }
+    }
+
+    @Test
+    void testFailingSessionDoesNotStopTheLoop() throws Exception {
+        // Every connection gets a close frame with a HELLO right behind it in the
+        // same packet: the close fails the session while the parser still holds HELLO
+        AtomicInteger accepted = new AtomicInteger();
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread.ofVirtual().start(() -> {
+                while (true) {
+                    try {
+                        Socket socket = server.accept();
+                        accepted.incrementAndGet();
+                        InputStream in = socket.getInputStream();
+                        StringBuilder request = new StringBuilder();
+                        while (!request.toString().endsWith("\r\n\r\n")) {
+                            request.append((char) in.read());
+                        }
+                        String key = request.toString().lines()
+                            .filter(line -> line.startsWith("Sec-WebSocket-Key:"))
+                            .map(line -> line.substring(18).trim()).findFirst().orElseThrow();
+                        String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                            .digest((key + WS_MAGIC).getBytes(StandardCharsets.US_ASCII)));
+                        byte[] hello = "{\"op\":10,\"d\":{\"heartbeat_interval\":50}}".getBytes(StandardCharsets.UTF_8);
+                        ByteBuffer packet = ByteBuffer.allocate(512);
+                        packet.put(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\n" +
+                            "Connection: Upgrade\r\nSec-WebSocket-Accept: " + accept + "\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                        packet.put(new byte[] {(byte) 0x88, 0});
+                        packet.put(new byte[] {(byte) 0x81, (byte) hello.length}).put(hello);
+                        socket.getOutputStream().write(packet.array(), 0, packet.position());
+                    } catch (Exception e) {
+                        return; // Server socket closed
+                    }
+                }
+            });
+
+            try (LoadClientEngine engine = new LoadClientEngine(
+                     LoadClientEngine.Config.defaults("localhost", server.getLocalPort()).withSelectorThreads(1),
+                     new MetricsCollector())) {
+                engine.open(0);
+                long deadline = System.currentTimeMillis() + 5000;
+                while ((accepted.get() < 1 || engine.getOpenSessions() > 0) && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                }
+                assertEquals(0, engine.getOpenSessions());
+
+                // The loop must still be serving new sessions
+                engine.open(1);
+                while (accepted.get() < 2 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                }
+                assertEquals(2, accepted.get());
+            }
+        }
+    }
+
+    @Test
+    void testUnresolvedHostFailsOnlyTheSession() throws Exception {
+        // connect() throws the unchecked UnresolvedAddressException for this host
+        MetricsCollector metrics = new MetricsCollector();
+        try (LoadClientEngine engine = new LoadClientEngine(
+                 LoadClientEngine.Config.defaults("flux.invalid", 8080).withSelectorThreads(1), metrics)) {
+            engine.open(0);
+            engine.open(1);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (metrics.getSnapshot().failedConnections() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(2, metrics.getSnapshot().failedConnections());
+            assertEquals(0, engine.getOpenSessions());
+            assertEquals(0, engine.getReadySessions());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.flux.loadtest;
+
+import com.flux.common.LatencyHistogram;
+import com.flux.loadtest.client.OpenLoopDriver;
+import com.flux.loadtest.client.WebSocketClient;
+import com.flux.loadtest.metrics.MetricsCollector;
+import com.flux.loadtest.runner.LoadProfile;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenLoopDriverTest {
+
+    /**
+     * Minimal WebSocket echo server that answers every frame with "ACK",
+     * except that it stalls once for {@code stallMillis} after the 20th frame.
+     */
+    private static ServerSocket startStallingServer(long stallMillis) throws IOException {
+        ServerSocket server = new ServerSocket(0);
+        Thread.ofVirtual().start(() -> {
+            try (Socket socket = server.accept()) {
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                int matched = 0;
+                while (matched < 4) {
+                    int b = in.read();
+                    if (b < 0) return;
+                    matched = (b == "\r\n\r\n".charAt(matched)) ? matched + 1 : (b == '\r' ? 1 : 0);
+                }
+                out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\n" +
+                    "Connection: Upgrade\r\nSec-WebSocket-Accept: test\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+
+                DataInputStream frames = new DataInputStream(in);
+                for (int frame = 1; ; frame++) {
+                    frames.readUnsignedByte();
+                    int len = frames.readUnsignedByte() & 0x7F;
+                    frames.skipNBytes(4 + len);
+                    if (frame == 20) {
+                        Thread.sleep(stallMillis);
+                    }
+                    out.write(new byte[] {(byte) 0x81, 3, 'A', 'C', 'K'});
+                    out.flush();
+                }
+            } catch (Exception e) {
+                // Client went away
+            }
+        });
+        return server;
+    }
+
+    @Test
+    void testStallShowsUpInRttPercentiles() throws Exception {
+        MetricsCollector metrics = new MetricsCollector();
+        try (ServerSocket server = startStallingServer(1000);
+             OpenLoopDriver driver = new OpenLoopDriver(metrics, 10, 1)) {
+            WebSocketClient client = new WebSocketClient(0, metrics);
+            client.connect("localhost", server.getLocalPort());
+            driver.setTargetClients(1);
+            driver.register(client);
+
+            Thread.sleep(2000);
+        }
+
+        LatencyHistogram.Snapshot rtt = metrics.getRttHistogram().snapshot();
+        assertTrue(rtt.count() > 100, "Sends should continue during the stall: " + rtt.count());
+        assertTrue(rtt.max() >= 800_000_000L, "Max RTT should cover the stall: " + rtt.max());
+        // About half the messages were scheduled during the stall and waited behind it
+        assertTrue(rtt.percentile(75.0) >= 100_000_000L,
+            "p75 should include queued messages: " + rtt.percentile(75.0));
+    }
+
+    @Test
+    void testLoadProfiles() {
+        LoadProfile ramp = LoadProfile.parse("ramp:0:1000:10:5");
+        assertEquals(0, ramp.targetClients(0));
+        assertEquals(500, ramp.targetClients(5_000));
+        assertEquals(1000, ramp.targetClients(12_000));
+        assertEquals(15_000, ramp.durationMillis());
+
+        LoadProfile step = new LoadProfile.Step(100, 50, 4, Duration.ofSeconds(10));
+        assertEquals(100, step.targetClients(9_999));
+        assertEquals(250, step.targetClients(35_000));
+        assertEquals(250, step.targetClients(60_000));
+
+        LoadProfile spike = LoadProfile.parse("spike:100:5000:30:5:60");
+        assertEquals(100, spike.targetClients(29_999));
+        assertEquals(5000, spike.targetClients(32_000));
+        assertEquals(100, spike.targetClients(35_000));
+
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("burst:1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("step:100:50:4:0"));
+    }
+}
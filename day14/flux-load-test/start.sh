@@ -6,6 +6,8 @@ SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 cd "$SCRIPT_DIR"
 
 echo "🔨 Building project..."
+# Shared flux-common module must be installed before this module resolves
+/usr/bin/mvn -q -f ../../flux-common/pom.xml install -DskipTests
 /usr/bin/mvn clean compile -q
 
 echo "🚀 Starting Load Test..."
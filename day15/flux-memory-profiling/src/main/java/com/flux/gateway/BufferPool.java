@@ -4,6 +4,7 @@ import java.lang.management.BufferPoolMXBean;
 import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * LEAK #2: Unbounded DirectByteBuffer pool.
@@ -13,11 +14,21 @@ public class BufferPool {
     
     private static final int BUFFER_SIZE = 16384; // 16KB
     private static final ConcurrentLinkedQueue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+    private static final LongAdder outstanding = new LongAdder();
+    
+    // Every buffer this pool allocates; one that is collected was dropped
+    // instead of released, so it never needs releasing in the detector
+    private static volatile LeakDetector.Subsystem tracker;
     
     // BUG: No max size limit!
     // private static final int MAX_POOL_SIZE = 10_000;
     
+    public static void trackWith(LeakDetector.Subsystem subsystem) {
+        tracker = subsystem;
+    }
+    
     public static ByteBuffer acquire() {
+        outstanding.increment();
         ByteBuffer buffer = pool.poll();
         if (buffer != null) {
             buffer.clear();
@@ -25,11 +36,17 @@ public class BufferPool {
         }
         
         // Allocate new DirectByteBuffer (off-heap)
-        return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        ByteBuffer allocated = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        LeakDetector.Subsystem subsystem = tracker;
+        if (subsystem != null) {
+            subsystem.track(allocated);
+        }
+        return allocated;
     }
     
     public static void release(ByteBuffer buffer) {
         if (buffer != null) {
+            outstanding.decrement();
             buffer.clear();
             pool.offer(buffer); // BUG: Always add back, no size check
         }
@@ -39,6 +56,13 @@ public class BufferPool {
         return pool.size();
     }
     
+    /**
+     * Buffers acquired and not yet released.
+     */
+    public static long outstanding() {
+        return outstanding.sum();
+    }
+    
     public static long getDirectMemoryUsed() {
         return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)
             .stream()
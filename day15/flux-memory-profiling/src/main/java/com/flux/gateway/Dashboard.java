@@ -19,6 +19,7 @@ public class Dashboard implements Runnable {
         server.createContext("/dashboard", this::handleDashboard);
         server.createContext("/api/metrics", this::handleMetrics);
         server.createContext("/api/dump-heap", this::handleDumpHeap);
+        server.createContext("/api/telemetry", this::handleTelemetry);
         
         // Handle root redirect to dashboard
         server.createContext("/", exchange -> {
@@ -408,6 +409,22 @@ public class Dashboard implements Runnable {
         }
     }
     
+    private void handleTelemetry(HttpExchange exchange) throws IOException {
+        MemoryTelemetry.Report report = gateway.getTelemetry().getLatest();
+        if (report == null) {
+            report = gateway.getTelemetry().sample();
+        }
+        
+        byte[] jsonBytes = report.toJson().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.sendResponseHeaders(200, jsonBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(jsonBytes);
+            os.flush();
+        }
+    }
+    
     private void handleDumpHeap(HttpExchange exchange) throws IOException {
         // Trigger heap dump in background
         Thread.ofVirtual().start(() -> {
@@ -13,15 +13,27 @@ public class GlobalListenerRegistry {
     // BUG: Static list never cleared
     private static final List<ListenerEntry> listeners = new ArrayList<>();
     
-    record ListenerEntry(Session session, Consumer<String> listener) {}
+    private static volatile LeakDetector.Subsystem tracker;
+    
+    record ListenerEntry(Session session, Consumer<String> listener, LeakDetector.Tracked tracked) {}
+    
+    public static void trackWith(LeakDetector.Subsystem subsystem) {
+        tracker = subsystem;
+    }
     
     public static void register(Session session, Consumer<String> listener) {
-        listeners.add(new ListenerEntry(session, listener));
+        LeakDetector.Subsystem subsystem = tracker;
+        LeakDetector.Tracked tracked = subsystem == null ? null : subsystem.track(listener);
+        listeners.add(new ListenerEntry(session, listener, tracked));
     }
     
     public static void unregister(Session session) {
         // This SHOULD be called but isn't
-        listeners.removeIf(entry -> entry.session().equals(session));
+        listeners.removeIf(entry -> {
+            if (!entry.session().equals(session)) return false;
+            if (entry.tracked() != null) entry.tracked().release();
+            return true;
+        });
     }
     
     public static int getListenerCount() {
@@ -1,61 +1,244 @@
 package com.flux.gateway;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
- * Uses PhantomReference to detect when sessions should have been GC'd but weren't.
- * This is the "canary in the coal mine" for memory leaks.
+ * Uses PhantomReference to detect leaked resources of any kind, grouped by
+ * subsystem (sessions, listeners, buffers, ...).
+ *
+ * Two kinds of leak are reported:
+ * - unreleased: collected without {@link Tracked#release()} ever being
+ *   called, e.g. a pooled buffer dropped instead of returned.
+ * - lingering: released, but still reachable after an old-generation GC
+ *   cycle, e.g. a closed session still held by a map. Only checked for
+ *   subsystems created with {@code collectOnRelease}.
+ *
+ * {@link #scan()} only drains the reference queue and checks released
+ * resources, so it is cheap enough to run continuously. One in
+ * {@code sampleRate} tracked resources records its allocation site, and
+ * leaks are attributed to those sampled sites.
  */
 public class LeakDetector {
-    
-    record SessionSentinel(String id) {}
-    
-    private final ReferenceQueue<SessionSentinel> queue = new ReferenceQueue<>();
-    private final ConcurrentHashMap<String, PhantomReference<SessionSentinel>> sentinels = 
-        new ConcurrentHashMap<>();
-    
-    public void track(String sessionId) {
-        SessionSentinel sentinel = new SessionSentinel(sessionId);
-        PhantomReference<SessionSentinel> ref = new PhantomReference<>(sentinel, queue);
-        sentinels.put(sessionId, ref);
-    }
-    
+
+    private static final int SITE_FRAMES = 6;
+    private static final int TOP_SITES = 3;
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final Set<Tracked> live = ConcurrentHashMap.newKeySet();
+    private final Map<String, Subsystem> subsystems = new LinkedHashMap<>();
+
+    // Released resources waiting for an old-gen cycle; only touched by scan()
+    private final ConcurrentLinkedQueue<Tracked> released = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Tracked> awaitingCollection = new ArrayDeque<>();
+
+    public record Stats(String subsystem, long tracked, long live, long released,
+                        long unreleased, long lingering, Map<String, Long> topLeakSites) {}
+
+    /**
+     * Get or create the subsystem with this name; later calls return the
+     * existing one and ignore the other arguments.
+     */
+    public synchronized Subsystem subsystem(String name, boolean collectOnRelease, int sampleRate) {
+        return subsystems.computeIfAbsent(name, n -> new Subsystem(n, collectOnRelease, sampleRate));
+    }
+
+    public synchronized List<Subsystem> getSubsystems() {
+        return new ArrayList<>(subsystems.values());
+    }
+
+    public final class Subsystem {
+        private final String name;
+        private final boolean collectOnRelease;
+        private final int sampleRate;
+        private final AtomicLong sequence = new AtomicLong();
+        private final LongAdder tracked = new LongAdder();
+        private final LongAdder releasedCount = new LongAdder();
+        private final LongAdder collected = new LongAdder();
+        private final LongAdder unreleased = new LongAdder();
+        private final AtomicLong lingering = new AtomicLong();
+        private final ConcurrentHashMap<String, LongAdder> leakSites = new ConcurrentHashMap<>();
+
+        private Subsystem(String name, boolean collectOnRelease, int sampleRate) {
+            this.name = name;
+            this.collectOnRelease = collectOnRelease;
+            this.sampleRate = Math.max(1, sampleRate);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Tracked track(Object resource) {
+            String site = sequence.getAndIncrement() % sampleRate == 0 ? captureSite() : null;
+            Tracked ref = new Tracked(resource, this, site);
+            live.add(ref);
+            tracked.increment();
+            return ref;
+        }
+
+        public Stats stats() {
+            Map<String, Long> top = leakSites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(TOP_SITES)
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum(), (a, b) -> a, LinkedHashMap::new));
+            long trackedCount = tracked.sum();
+            return new Stats(name, trackedCount, trackedCount - collected.sum(), releasedCount.sum(),
+                unreleased.sum(), lingering.get(), top);
+        }
+
+        private void recordLeak(String site) {
+            if (site != null) {
+                leakSites.computeIfAbsent(site, s -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    /**
+     * Handle for one tracked resource. Holds no strong reference to it.
+     */
+    public final class Tracked extends PhantomReference<Object> {
+        private final Subsystem subsystem;
+        private final String site;
+        private volatile boolean released;
+        private volatile boolean collected;
+        private long oldCyclesAtScan;
+        private boolean lingering;
+
+        private Tracked(Object resource, Subsystem subsystem, String site) {
+            super(resource, queue);
+            this.subsystem = subsystem;
+            this.site = site;
+        }
+
+        /**
+         * Mark the resource as cleaned up. Idempotent.
+         */
+        public void release() {
+            if (released) return;
+            released = true;
+            subsystem.releasedCount.increment();
+            if (subsystem.collectOnRelease) {
+                LeakDetector.this.released.add(this);
+            }
+        }
+    }
+
+    /**
+     * Process collections and released resources since the last scan.
+     * Does not trigger a GC.
+     */
+    public synchronized void scan() {
+        Reference<?> ref;
+        while ((ref = queue.poll()) != null) {
+            Tracked tracked = (Tracked) ref;
+            live.remove(tracked);
+            tracked.collected = true;
+            Subsystem subsystem = tracked.subsystem;
+            subsystem.collected.increment();
+            if (!tracked.released) {
+                subsystem.unreleased.increment();
+                subsystem.recordLeak(tracked.site);
+            } else if (tracked.lingering) {
+                subsystem.lingering.decrementAndGet();
+            }
+        }
+
+        // Anything released before the previous scan that is still reachable
+        // after an old-gen cycle since then should have been collected
+        long oldCycles = oldGenerationCycles();
+        for (int i = awaitingCollection.size(); i > 0; i--) {
+            Tracked tracked = awaitingCollection.poll();
+            if (tracked.collected) continue;
+            if (oldCycles > tracked.oldCyclesAtScan) {
+                tracked.lingering = true;
+                tracked.subsystem.lingering.incrementAndGet();
+                tracked.subsystem.recordLeak(tracked.site);
+            } else {
+                awaitingCollection.add(tracked);
+            }
+        }
+        Tracked tracked;
+        while ((tracked = released.poll()) != null) {
+            tracked.oldCyclesAtScan = oldCycles;
+            awaitingCollection.add(tracked);
+        }
+    }
+
+    /**
+     * On-demand check: suggest a full GC, then scan and log leaks.
+     */
     public void verify() {
         // Suggest GC (doesn't guarantee it runs)
         System.gc();
-        
+
         try {
             Thread.sleep(100); // Give GC time to run
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return;
         }
-        
-        // Check which sentinels were collected
-        int collected = 0;
-        Reference<?> ref;
-        while ((ref = queue.poll()) != null) {
-            collected++;
-            final Reference<?> finalRef = ref;
-            sentinels.values().removeIf(r -> r == finalRef);
-        }
-        
-        if (collected > 0) {
-            System.out.println("[LeakDetector] Collected " + collected + " sentinels (sessions GC'd correctly)");
-        }
-        
-        // Remaining sentinels = leaked sessions
-        int leaked = sentinels.size();
-        if (leaked > 100) {
-            System.err.println("[LeakDetector] WARNING: " + leaked + 
-                " sessions leaked (sentinels not collected after GC)");
+
+        scan();
+        for (Subsystem subsystem : getSubsystems()) {
+            Stats stats = subsystem.stats();
+            if (stats.unreleased() + stats.lingering() > 100) {
+                System.err.println("[LeakDetector] WARNING: " + stats.subsystem() + ": " +
+                    stats.unreleased() + " collected without release, " +
+                    stats.lingering() + " released but not collected after GC");
+            }
         }
     }
-    
+
+    /**
+     * Total leaks across subsystems: unreleased plus currently lingering.
+     */
     public int getLeakedCount() {
-        return sentinels.size();
+        long total = 0;
+        for (Subsystem subsystem : getSubsystems()) {
+            total += subsystem.unreleased.sum() + subsystem.lingering.get();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    private static String captureSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+            .dropWhile(f -> f.getClassName().startsWith(LeakDetector.class.getName()))
+            .limit(SITE_FRAMES)
+            .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                + "." + f.getMethodName() + ":" + f.getLineNumber())
+            .collect(Collectors.joining(" < ")));
+    }
+
+    /**
+     * Collections that can reclaim old-generation objects: everything
+     * except the young/scavenge collectors.
+     */
+    private static long oldGenerationCycles() {
+        long cycles = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = gc.getName();
+            if (name.contains("Young") || name.contains("Scavenge") || name.contains("Copy")
+                    || name.contains("ParNew")) {
+                continue;
+            }
+            cycles += Math.max(0, gc.getCollectionCount());
+        }
+        return cycles;
     }
 }
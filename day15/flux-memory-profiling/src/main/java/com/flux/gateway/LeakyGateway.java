@@ -22,6 +22,9 @@ public class LeakyGateway implements Runnable {
     private final ServerSocketChannel serverChannel;
     private final Selector selector;
     private final LeakDetector leakDetector;
+    private final LeakDetector.Subsystem sessionLeaks;
+    private final ConcurrentHashMap<String, LeakDetector.Tracked> sessionTracking = new ConcurrentHashMap<>();
+    private final MemoryTelemetry telemetry;
     private final MetricsCollector metrics;
     private volatile boolean running = true;
     
@@ -38,8 +41,20 @@ public class LeakyGateway implements Runnable {
         this.leakDetector = new LeakDetector();
         this.metrics = new MetricsCollector();
         
+        // Sessions and listeners should be collected once their connection closes;
+        // pooled buffers should never be collected at all
+        this.sessionLeaks = leakDetector.subsystem("sessions", true, 16);
+        GlobalListenerRegistry.trackWith(leakDetector.subsystem("listeners", true, 16));
+        BufferPool.trackWith(leakDetector.subsystem("buffers", false, 1));
+        
+        this.telemetry = new MemoryTelemetry(leakDetector, 5000);
+        telemetry.registerGauge("sessions", sessions::size);
+        telemetry.registerGauge("listeners", GlobalListenerRegistry::getListenerCount);
+        telemetry.registerGauge("buffers", BufferPool::outstanding);
+        
         // Start metrics collector thread
         Thread.ofVirtual().name("metrics-collector").start(metrics);
+        Thread.ofVirtual().name("memory-telemetry").start(telemetry);
         
         // Start heap dump monitor
         Thread.ofVirtual().name("heap-monitor").start(this::monitorHeap);
@@ -86,8 +101,8 @@ public class LeakyGateway implements Runnable {
             // LEAK #1: Add to map but never remove
             sessions.put(sessionId, session);
             
-            // Track with leak detector
-            leakDetector.track(sessionId);
+            // Track with leak detector; released when the client disconnects
+            sessionTracking.put(sessionId, sessionLeaks.track(session));
             
             // LEAK #4: Register listener with closure capturing 'this'
             GlobalListenerRegistry.register(session, msg -> {
@@ -118,6 +133,13 @@ public class LeakyGateway implements Runnable {
                 key.cancel();
                 session.channel().close();
                 
+                // The session is dead from here on; if it is still reachable after
+                // the next old-gen GC, the leak detector reports it as lingering
+                LeakDetector.Tracked tracked = sessionTracking.remove(session.id());
+                if (tracked != null) {
+                    tracked.release();
+                }
+                
                 // BUG: We DON'T remove from sessions map!
                 // sessions.remove(session.id()); // ← This should happen but doesn't
                 
@@ -171,10 +193,7 @@ public class LeakyGateway implements Runnable {
                         }
                     }
                 }
-                
-                // Run leak detection
-                leakDetector.verify();
-                
+
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
@@ -203,6 +222,7 @@ public class LeakyGateway implements Runnable {
     
     public void shutdown() {
         running = false;
+        telemetry.shutdown();
         try {
             selector.close();
             serverChannel.close();
@@ -223,6 +243,10 @@ public class LeakyGateway implements Runnable {
         return leakDetector;
     }
     
+    public MemoryTelemetry getTelemetry() {
+        return telemetry;
+    }
+    
     public static void main(String[] args) throws IOException, InterruptedException {
         int port = args.length > 0 ? Integer.parseInt(args[0]) : 9000;
         
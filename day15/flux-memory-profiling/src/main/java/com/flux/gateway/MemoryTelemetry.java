@@ -0,0 +1,293 @@
+package com.flux.gateway;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Continuous memory telemetry, sampled every few seconds:
+ * - allocation rate per thread group, from
+ *   {@code ThreadMXBean.getThreadAllocatedBytes} (one bulk call per sample)
+ * - direct and mapped buffer pool usage from {@code BufferPoolMXBean}
+ * - leak stats per {@link LeakDetector} subsystem, plus an optional size
+ *   gauge for each (map size, pool size, ...)
+ *
+ * Every pool and subsystem size keeps a one-minute trend. A series that
+ * has not gone down once over the whole window is flagged as creeping,
+ * which is how off-heap growth shows up long before the OOM killer.
+ */
+public class MemoryTelemetry implements Runnable {
+
+    private static final int WINDOW = 12;
+    private static final int TOP_ALLOCATORS = 5;
+
+    private final LeakDetector leakDetector;
+    private final long intervalMillis;
+    private final Map<String, LongSupplier> gauges = new LinkedHashMap<>();
+    private final com.sun.management.ThreadMXBean threads;
+
+    // Sampler state, guarded by sample()
+    private final Map<String, Trend> trends = new HashMap<>();
+    private Map<Long, Long> lastAllocated = new HashMap<>();
+    private long lastSampleNanos;
+
+    private volatile Report latest;
+    private volatile boolean running = true;
+
+    public record ThreadAllocation(String group, int threads, long bytesPerSecond) {}
+
+    public record BufferPoolUsage(String name, long count, long used, long capacity,
+                                  long growthPerMinute, boolean creeping) {}
+
+    public record SubsystemReport(String name, long size, LeakDetector.Stats leaks,
+                                  long growthPerMinute, boolean creeping) {}
+
+    public record Report(long timestampMillis, long allocationBytesPerSecond,
+                         List<ThreadAllocation> topAllocators, List<BufferPoolUsage> bufferPools,
+                         List<SubsystemReport> subsystems) {
+
+        public String toJson() {
+            StringBuilder sb = new StringBuilder(1024);
+            sb.append("{\"timestamp\":").append(timestampMillis)
+              .append(",\"allocationBytesPerSecond\":").append(allocationBytesPerSecond)
+              .append(",\"topAllocators\":[");
+            for (int i = 0; i < topAllocators.size(); i++) {
+                ThreadAllocation t = topAllocators.get(i);
+                if (i > 0) sb.append(',');
+                sb.append("{\"group\":\"").append(escape(t.group())).append("\",\"threads\":").append(t.threads())
+                  .append(",\"bytesPerSecond\":").append(t.bytesPerSecond()).append('}');
+            }
+            sb.append("],\"bufferPools\":[");
+            for (int i = 0; i < bufferPools.size(); i++) {
+                BufferPoolUsage p = bufferPools.get(i);
+                if (i > 0) sb.append(',');
+                sb.append("{\"name\":\"").append(escape(p.name())).append("\",\"count\":").append(p.count())
+                  .append(",\"used\":").append(p.used()).append(",\"capacity\":").append(p.capacity())
+                  .append(",\"growthPerMinute\":").append(p.growthPerMinute())
+                  .append(",\"creeping\":").append(p.creeping()).append('}');
+            }
+            sb.append("],\"subsystems\":[");
+            for (int i = 0; i < subsystems.size(); i++) {
+                SubsystemReport s = subsystems.get(i);
+                if (i > 0) sb.append(',');
+                sb.append("{\"name\":\"").append(escape(s.name())).append("\",\"size\":").append(s.size())
+                  .append(",\"growthPerMinute\":").append(s.growthPerMinute())
+                  .append(",\"creeping\":").append(s.creeping());
+                LeakDetector.Stats leaks = s.leaks();
+                if (leaks != null) {
+                    sb.append(",\"tracked\":").append(leaks.tracked())
+                      .append(",\"live\":").append(leaks.live())
+                      .append(",\"released\":").append(leaks.released())
+                      .append(",\"unreleased\":").append(leaks.unreleased())
+                      .append(",\"lingering\":").append(leaks.lingering())
+                      .append(",\"leakSites\":{");
+                    String sites = leaks.topLeakSites().entrySet().stream()
+                        .map(e -> "\"" + escape(e.getKey()) + "\":" + e.getValue())
+                        .collect(Collectors.joining(","));
+                    sb.append(sites).append('}');
+                }
+                sb.append('}');
+            }
+            return sb.append("]}").toString();
+        }
+
+        private static String escape(String s) {
+            return s.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+    }
+
+    public MemoryTelemetry(LeakDetector leakDetector, long intervalMillis) {
+        this.leakDetector = leakDetector;
+        this.intervalMillis = intervalMillis;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Report {@code size} alongside the subsystem's leak stats, or as a
+     * subsystem of its own if nothing is tracked under that name.
+     */
+    public synchronized void registerGauge(String subsystem, LongSupplier size) {
+        gauges.put(subsystem, size);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+                sample();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+    }
+
+    /**
+     * Most recent sample, or null before the first one.
+     */
+    public Report getLatest() {
+        return latest;
+    }
+
+    public synchronized Report sample() {
+        long now = System.nanoTime();
+        double elapsedSeconds = lastSampleNanos == 0 ? 0 : (now - lastSampleNanos) / 1e9;
+        lastSampleNanos = now;
+
+        leakDetector.scan();
+
+        List<ThreadAllocation> allocators = new ArrayList<>();
+        long totalRate = sampleThreads(elapsedSeconds, allocators);
+
+        List<BufferPoolUsage> pools = new ArrayList<>();
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            Trend trend = trend("pool:" + pool.getName());
+            boolean wasCreeping = trend.creeping();
+            trend.add(pool.getMemoryUsed());
+            if (trend.creeping() && !wasCreeping) {
+                System.err.printf("[Telemetry] WARNING: %s buffer pool creeping, +%d KB/min%n",
+                    pool.getName(), trend.growthPerMinute(intervalMillis) / 1024);
+            }
+            pools.add(new BufferPoolUsage(pool.getName(), pool.getCount(), pool.getMemoryUsed(),
+                pool.getTotalCapacity(), trend.growthPerMinute(intervalMillis), trend.creeping()));
+        }
+
+        Map<String, LeakDetector.Stats> leaks = new LinkedHashMap<>();
+        for (LeakDetector.Subsystem subsystem : leakDetector.getSubsystems()) {
+            leaks.put(subsystem.getName(), subsystem.stats());
+        }
+        Set<String> names = new LinkedHashSet<>(leaks.keySet());
+        names.addAll(gauges.keySet());
+
+        List<SubsystemReport> subsystems = new ArrayList<>();
+        for (String name : names) {
+            LeakDetector.Stats stats = leaks.get(name);
+            LongSupplier gauge = gauges.get(name);
+            long size = gauge != null ? gauge.getAsLong() : stats.live();
+            Trend trend = trend("subsystem:" + name);
+            boolean wasCreeping = trend.creeping();
+            trend.add(size);
+            if (trend.creeping() && !wasCreeping) {
+                System.err.printf("[Telemetry] WARNING: %s creeping, +%d/min (size %d)%n",
+                    name, trend.growthPerMinute(intervalMillis), size);
+            }
+            subsystems.add(new SubsystemReport(name, size, stats,
+                trend.growthPerMinute(intervalMillis), trend.creeping()));
+        }
+
+        Report report = new Report(System.currentTimeMillis(), totalRate, allocators, pools, subsystems);
+        latest = report;
+        return report;
+    }
+
+    /**
+     * Fills {@code out} with the top allocating thread groups and returns
+     * the total allocation rate. Threads are grouped by name with trailing
+     * numbers stripped, so pool workers report together.
+     */
+    private long sampleThreads(double elapsedSeconds, List<ThreadAllocation> out) {
+        if (!threads.isThreadAllocatedMemorySupported()) return 0;
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        ThreadInfo[] infos = threads.getThreadInfo(ids);
+
+        Map<Long, Long> current = new HashMap<>(ids.length * 2);
+        Map<String, long[]> groups = new HashMap<>(); // group -> {threads, bytes}
+        long total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (allocated[i] < 0 || infos[i] == null) continue;
+            current.put(ids[i], allocated[i]);
+            Long previous = lastAllocated.get(ids[i]);
+            long delta = previous == null ? 0 : allocated[i] - previous;
+            long[] group = groups.computeIfAbsent(groupName(infos[i].getThreadName()), g -> new long[2]);
+            group[0]++;
+            group[1] += delta;
+            total += delta;
+        }
+        lastAllocated = current;
+        if (elapsedSeconds <= 0) return 0;
+
+        groups.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1]).reversed())
+            .limit(TOP_ALLOCATORS)
+            .forEach(e -> out.add(new ThreadAllocation(e.getKey(), (int) e.getValue()[0],
+                (long) (e.getValue()[1] / elapsedSeconds))));
+        return (long) (total / elapsedSeconds);
+    }
+
+    static String groupName(String threadName) {
+        String group = threadName.replaceAll("[-#]?\\d+$", "");
+        return group.isEmpty() ? threadName : group;
+    }
+
+    private Trend trend(String key) {
+        return trends.computeIfAbsent(key, k -> new Trend());
+    }
+
+    /**
+     * Last {@link #WINDOW} samples of one series.
+     */
+    static final class Trend {
+        private final long[] samples = new long[WINDOW];
+        private int count;
+        private int next;
+
+        void add(long value) {
+            samples[next] = value;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        private long at(int i) {
+            return samples[(next - count + i + WINDOW) % WINDOW];
+        }
+
+        /**
+         * True once the window is full and no sample was lower than the one
+         * before it, with some growth overall.
+         */
+        boolean creeping() {
+            if (count < WINDOW) return false;
+            for (int i = 1; i < count; i++) {
+                if (at(i) < at(i - 1)) return false;
+            }
+            return at(count - 1) > at(0);
+        }
+
+        /**
+         * Least-squares slope over the window, scaled to one minute.
+         */
+        long growthPerMinute(long intervalMillis) {
+            if (count < 2) return 0;
+            double meanX = (count - 1) / 2.0;
+            double meanY = 0;
+            for (int i = 0; i < count; i++) meanY += at(i);
+            meanY /= count;
+            double num = 0;
+            double den = 0;
+            for (int i = 0; i < count; i++) {
+                num += (i - meanX) * (at(i) - meanY);
+                den += (i - meanX) * (i - meanX);
+            }
+            return (long) (num / den * (60_000.0 / intervalMillis));
+        }
+    }
+}
@@ -5,6 +5,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 class LeakDetectionTest {
     
@@ -30,14 +33,90 @@ class LeakDetectionTest {
     void testBufferPoolGrowth() {
         int initialSize = BufferPool.poolSize();
         
-        // Acquire and release buffers
-        for (int i = 0; i < 100; i++) {
-            var buf = BufferPool.acquire();
-            BufferPool.release(buf);
+        // Acquire a burst of buffers, then release them all
+        List<ByteBuffer> burst = new ArrayList<>();
+        for (int i = 0; i < initialSize + 100; i++) {
+            burst.add(BufferPool.acquire());
         }
+        burst.forEach(BufferPool::release);
         
         // Pool should have grown (this is the leak!)
         assertTrue(BufferPool.poolSize() > initialSize, 
             "BufferPool should grow unbounded (demonstrating leak)");
     }
+    
+    @Test
+    void testOutstandingCountsUnreleasedBuffers() {
+        long before = BufferPool.outstanding();
+        
+        var held = BufferPool.acquire();
+        var returned = BufferPool.acquire();
+        BufferPool.release(returned);
+        assertEquals(before + 1, BufferPool.outstanding());
+        
+        BufferPool.release(BufferPool.acquire()); // pool hit
+        assertEquals(before + 1, BufferPool.outstanding());
+        
+        BufferPool.release(held);
+        assertEquals(before, BufferPool.outstanding());
+    }
+    
+    @Test
+    void testDroppedResourceReportedWithAllocationSite() throws InterruptedException {
+        LeakDetector detector = new LeakDetector();
+        LeakDetector.Subsystem buffers = detector.subsystem("buffers", false, 1);
+        buffers.track(new byte[1024]); // Never released, immediately unreachable
+        
+        for (int i = 0; i < 20 && buffers.stats().unreleased() == 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+            detector.scan();
+        }
+        
+        LeakDetector.Stats stats = buffers.stats();
+        assertEquals(1, stats.unreleased());
+        assertEquals(0, stats.live());
+        assertTrue(stats.topLeakSites().keySet().stream()
+            .anyMatch(site -> site.startsWith("LeakDetectionTest.testDroppedResource")),
+            "Leak should be attributed to its allocation site: " + stats.topLeakSites());
+    }
+    
+    @Test
+    void testReleasedButReachableIsLingering() throws InterruptedException {
+        LeakDetector detector = new LeakDetector();
+        LeakDetector.Subsystem sessions = detector.subsystem("sessions", true, 1);
+        Object retained = new Object();
+        sessions.track(retained).release();
+        sessions.track(new Object()).release();
+        detector.scan(); // Starts the wait for an old-gen cycle
+        
+        for (int i = 0; i < 20 && sessions.stats().lingering() == 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+            detector.scan();
+        }
+        
+        LeakDetector.Stats stats = sessions.stats();
+        assertEquals(1, stats.lingering(), "Released but still referenced");
+        assertEquals(1, stats.live());
+        assertEquals(0, stats.unreleased());
+        assertEquals(1, detector.getLeakedCount());
+        java.lang.ref.Reference.reachabilityFence(retained);
+    }
+    
+    @Test
+    void testTelemetryReportsSubsystemsAndBufferPools() {
+        LeakDetector detector = new LeakDetector();
+        detector.subsystem("sessions", true, 1);
+        MemoryTelemetry telemetry = new MemoryTelemetry(detector, 5000);
+        telemetry.registerGauge("listeners", () -> 42);
+        
+        MemoryTelemetry.Report report = telemetry.sample();
+        
+        assertTrue(report.bufferPools().stream().anyMatch(p -> p.name().equals("direct")));
+        assertEquals(2, report.subsystems().size());
+        assertEquals(42, report.subsystems().get(1).size());
+        assertTrue(report.toJson().contains("\"name\":\"sessions\""));
+        assertEquals("ForkJoinPool-1-worker", MemoryTelemetry.groupName("ForkJoinPool-1-worker-3"));
+    }
 }
@@ -1,24 +1,54 @@
 package com.flux.backpressure;
 
-import java.util.concurrent.atomic.LongAdder;
+import com.flux.common.LatencyHistogram;
+import com.flux.common.MetricsRegistry;
+
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Application-level metrics for backpressure monitoring.
+ * Counters are pre-registered {@link MetricsRegistry} handles, so the
+ * registry can be scraped at {@code /metrics} alongside the JSON view.
  */
-public class BackpressureMetrics {
-    private final LongAdder backpressureEvents = new LongAdder();
-    private final LongAdder slowConsumerEvictions = new LongAdder();
-    private final LongAdder messagesBuffered = new LongAdder();
-    private final LongAdder writeAttempts = new LongAdder();
-    private final LongAdder writeSuccesses = new LongAdder();
+public final class BackpressureMetrics {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final MetricsRegistry.Counter backpressureEvents = registry.counter(
+        "flux_backpressure_events_total", "Times a connection lane filled up");
+    private final MetricsRegistry.Counter slowConsumerEvictions = registry.counter(
+        "flux_slow_consumer_evictions_total", "Connections evicted after sustained backpressure");
+    private final MetricsRegistry.Counter messagesBuffered = registry.counter(
+        "flux_messages_buffered_total", "Messages queued behind a slow socket");
+    private final MetricsRegistry.Counter messagesDropped = registry.counter(
+        "flux_messages_dropped_total", "Messages dropped from full lanes");
+    private final MetricsRegistry.Counter budgetRejections = registry.counter(
+        "flux_budget_rejections_total", "Messages rejected by the global buffer budget");
+    private final MetricsRegistry.Counter budgetEvictions = registry.counter(
+        "flux_budget_evictions_total", "Connections evicted to stay within the buffer budget");
+    private final MetricsRegistry.Counter writeAttempts = registry.counter(
+        "flux_write_attempts_total", "Outbound messages offered to a connection");
+    private final MetricsRegistry.Counter writeSuccesses = registry.counter(
+        "flux_write_successes_total", "Outbound messages written to the socket");
+    private final LatencyHistogram backpressureDurations = registry.histogram(
+        "flux_backpressure_duration_seconds", "Time from a lane filling up to it draining",
+        new LatencyHistogram(), 1e-9);
     private final ConcurrentHashMap<Integer, Integer> bufferUtilizationSnapshot = new ConcurrentHashMap<>();
     
     // Demo mode: simulate activity for visualization
     private final AtomicBoolean demoMode = new AtomicBoolean(true);
     private volatile long demoStartTime = System.currentTimeMillis();
     
+    public BackpressureMetrics() {
+        registry.gauge("flux_tracked_connections", "Connections reporting buffer utilization",
+            bufferUtilizationSnapshot::size);
+        registry.gauge("flux_write_success_ratio", "Share of offered messages written",
+            () -> getWriteSuccessRate() / 100.0);
+    }
+    
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+    
     public void recordBackpressureEvent() {
         backpressureEvents.increment();
     }
@@ -31,6 +61,18 @@ public class BackpressureMetrics {
         messagesBuffered.increment();
     }
     
+    public void recordMessageDropped() {
+        messagesDropped.increment();
+    }
+    
+    public void recordBudgetRejection() {
+        budgetRejections.increment();
+    }
+    
+    public void recordBudgetEviction() {
+        budgetEvictions.increment();
+    }
+    
     public void recordWriteAttempt() {
         writeAttempts.increment();
     }
@@ -39,6 +81,10 @@ public class BackpressureMetrics {
         writeSuccesses.increment();
     }
     
+    public void recordBackpressureDuration(long nanos) {
+        backpressureDurations.record(nanos);
+    }
+    
     public void updateBufferUtilization(int connectionId, int utilization) {
         bufferUtilizationSnapshot.put(connectionId, utilization);
     }
@@ -48,21 +94,33 @@ public class BackpressureMetrics {
     }
     
     public long getBackpressureEvents() {
-        return backpressureEvents.sum();
+        return backpressureEvents.get();
     }
     
     public long getSlowConsumerEvictions() {
-        return slowConsumerEvictions.sum();
+        return slowConsumerEvictions.get();
     }
     
     public long getMessagesBuffered() {
-        return messagesBuffered.sum();
+        return messagesBuffered.get();
+    }
+    
+    public long getMessagesDropped() {
+        return messagesDropped.get();
+    }
+    
+    public long getBudgetRejections() {
+        return budgetRejections.get();
+    }
+    
+    public long getBudgetEvictions() {
+        return budgetEvictions.get();
     }
     
     public double getWriteSuccessRate() {
-        long attempts = writeAttempts.sum();
+        long attempts = writeAttempts.get();
         if (attempts == 0) return 100.0;
-        return (writeSuccesses.sum() * 100.0) / attempts;
+        return (writeSuccesses.get() * 100.0) / attempts;
     }
     
     public ConcurrentHashMap<Integer, Integer> getBufferUtilizationSnapshot() {
@@ -114,10 +172,13 @@ public class BackpressureMetrics {
         
         return String.format(
             "{\"backpressureEvents\":%d,\"slowConsumerEvictions\":%d," +
-            "\"messagesBuffered\":%d,\"writeSuccessRate\":%.2f,\"connections\":%s}",
+            "\"messagesBuffered\":%d,\"messagesDropped\":%d,\"budgetEvictions\":%d," +
+            "\"writeSuccessRate\":%.2f,\"connections\":%s}",
             getBackpressureEvents() + demoBackpressure,
             getSlowConsumerEvictions() + demoEvictions,
             getMessagesBuffered() + demoBuffered,
+            getMessagesDropped(),
+            getBudgetEvictions(),
             getWriteSuccessRate(),
             conn.toString()
         );
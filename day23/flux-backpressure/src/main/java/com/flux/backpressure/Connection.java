@@ -1,5 +1,7 @@
 package com.flux.backpressure;
 
+import com.flux.common.MemoryBudget;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
@@ -12,7 +14,7 @@ import java.nio.channels.SocketChannel;
 public class Connection {
     private final int id;
     private final SocketChannel channel;
-    private final RingBuffer outboundBuffer;
+    private final LaneOutbound outbound;
     private final BackpressureMetrics metrics;
     private final Selector selector;
     private SelectionKey key;
@@ -22,12 +24,13 @@ public class Connection {
     
     private volatile boolean connected = true;
     
-    public Connection(int id, SocketChannel channel, Selector selector, BackpressureMetrics metrics) {
+    public Connection(int id, SocketChannel channel, Selector selector, BackpressureMetrics metrics,
+                      MemoryBudget memoryBudget) {
         this.id = id;
         this.channel = channel;
         this.selector = selector;
         this.metrics = metrics;
-        this.outboundBuffer = new RingBuffer(256); // 256 slots = 256KB max buffer
+        this.outbound = new LaneOutbound(LaneOutbound.DEFAULT_BYTE_LIMIT, memoryBudget);
     }
     
     public void setKey(SelectionKey key) {
@@ -35,66 +38,59 @@ public class Connection {
     }
     
     /**
-     * Broadcast a message to this connection. Handles backpressure.
+     * Broadcast a guild message to this connection. Handles backpressure.
      */
     public void broadcast(ByteBuffer message) {
+        send(Lane.BROADCAST, message);
+    }
+    
+    /**
+     * Send a message on a priority lane. Overflow is handled per the lane's
+     * {@link DropPolicy}: presence degrades by dropping stale updates, chat
+     * keeps the slow-consumer timer, control never drops.
+     */
+    public void send(Lane lane, ByteBuffer message) {
         if (!connected) {
             return;
         }
         
         metrics.recordWriteAttempt();
         
-        // Fast path: try immediate write if buffer is empty
-        if (outboundBuffer.isEmpty()) {
-            try {
-                int written = channel.write(message.duplicate());
-                if (written == message.remaining()) {
-                    // Complete write: success
-                    metrics.recordWriteSuccess();
-                    metrics.updateBufferUtilization(id, 0); // dashboard: show connection as active
-                    return; // Complete write, no buffering needed
-                } else if (written > 0) {
-                    // Partial write: buffer the remainder
-                    message.position(message.position() + written);
-                    boolean buffered = outboundBuffer.offer(message);
-                    if (buffered) {
-                        metrics.recordMessageBuffered();
-                    } else {
-                        // Ring buffer full even after partial write
-                        if (backpressureStartTime == 0) {
-                            backpressureStartTime = System.nanoTime();
-                            metrics.recordBackpressureEvent();
-                            System.out.println("[Connection:" + id + "] BACKPRESSURE: buffer full");
-                        }
-                    }
-                } else {
-                    // written == 0: socket send buffer full, must buffer entire message
-                    boolean buffered = outboundBuffer.offer(message);
-                    if (buffered) {
-                        metrics.recordMessageBuffered();
-                    } else {
-                        // Ring buffer full
-                        if (backpressureStartTime == 0) {
-                            backpressureStartTime = System.nanoTime();
-                            metrics.recordBackpressureEvent();
-                            System.out.println("[Connection:" + id + "] BACKPRESSURE: buffer full");
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                disconnect("Write error: " + e.getMessage());
-                return;
+        LaneOutbound.OfferResult result;
+        try {
+            result = outbound.writeOrOffer(lane, message, channel);
+        } catch (IOException e) {
+            disconnect("Write error: " + e.getMessage());
+            return;
+        }
+        
+        switch (result) {
+            case WRITTEN -> {
+                metrics.recordWriteSuccess();
+                metrics.updateBufferUtilization(id, 0); // dashboard: show connection as active
+                return; // Complete write, no buffering needed
             }
-        } else {
-            // Slow path: enqueue to ring buffer
-            boolean buffered = outboundBuffer.offer(message);
-            
-            if (!buffered) {
+            case QUEUED -> metrics.recordMessageBuffered();
+            case DROPPED_OLDEST -> {
+                metrics.recordMessageBuffered();
+                metrics.recordMessageDropped();
+            }
+            case DROPPED_NEWEST -> metrics.recordMessageDropped(); // this message never entered the lane
+            case REJECTED, OVER_BUDGET -> {
+                if (result == LaneOutbound.OfferResult.OVER_BUDGET) {
+                    metrics.recordBudgetRejection();
+                }
+                if (lane.dropPolicy() == DropPolicy.NEVER_DROP) {
+                    // Client is not even reading heartbeat ACKs
+                    disconnect("SLOW_CONSUMER: " + lane + " lane full");
+                    metrics.recordSlowConsumerEviction();
+                    return;
+                }
                 // Buffer full: start tracking backpressure time
                 if (backpressureStartTime == 0) {
                     backpressureStartTime = System.nanoTime();
                     metrics.recordBackpressureEvent();
-                    System.out.println("[Connection:" + id + "] BACKPRESSURE: buffer full");
+                    System.out.println("[Connection:" + id + "] BACKPRESSURE: " + lane + " lane full");
                 }
                 
                 // Check slow consumer threshold
@@ -105,47 +101,35 @@ public class Connection {
                     metrics.recordSlowConsumerEviction();
                     return;
                 }
-            } else {
-                metrics.recordMessageBuffered();
             }
         }
         
         // Update metrics for dashboard
-        metrics.updateBufferUtilization(id, outboundBuffer.getUtilization());
+        metrics.updateBufferUtilization(id, outbound.getUtilization());
         
         // Register write interest if not already registered
         registerWriteInterest();
     }
     
     /**
-     * Handle write-ready event from Selector.
+     * Handle write-ready event from Selector. Lanes drain in weighted
+     * round-robin order, so control frames overtake queued chat.
      */
     public void handleWritable() {
-        while (true) {
-            ByteBuffer pending = outboundBuffer.peek();
-            if (pending == null) {
+        try {
+            if (outbound.drainTo(channel, metrics) == LaneOutbound.DrainResult.DRAINED) {
                 // Buffer drained: remove write interest
                 deregisterWriteInterest();
+                if (backpressureStartTime != 0) {
+                    metrics.recordBackpressureDuration(System.nanoTime() - backpressureStartTime);
+                }
                 backpressureStartTime = 0; // reset backpressure timer
                 metrics.updateBufferUtilization(id, 0);
-                break;
-            }
-            
-            try {
-                int written = channel.write(pending.duplicate());
-                if (written == pending.remaining()) {
-                    // Complete write: remove from buffer
-                    outboundBuffer.poll();
-                    metrics.recordWriteSuccess();
-                    metrics.updateBufferUtilization(id, outboundBuffer.getUtilization());
-                } else {
-                    // Partial write: socket buffer still full
-                    break;
-                }
-            } catch (IOException e) {
-                disconnect("Write error during drain: " + e.getMessage());
-                break;
+            } else {
+                metrics.updateBufferUtilization(id, outbound.getUtilization());
             }
+        } catch (IOException e) {
+            disconnect("Write error during drain: " + e.getMessage());
         }
     }
     
@@ -189,6 +173,7 @@ public class Connection {
         
         connected = false;
         System.out.println("[Connection:" + id + "] DISCONNECT: " + reason);
+        outbound.close(); // return queued bytes to the node budget
         
         try {
             if (key != null) {
@@ -211,6 +196,10 @@ public class Connection {
     }
     
     public int getBufferUtilization() {
-        return outboundBuffer.getUtilization();
+        return outbound.getUtilization();
+    }
+    
+    public long getQueuedBytes() {
+        return outbound.getQueuedBytes();
     }
 }
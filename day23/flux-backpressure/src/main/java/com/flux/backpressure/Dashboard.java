@@ -1,5 +1,6 @@
 package com.flux.backpressure;
 
+import com.flux.common.PrometheusHandler;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
@@ -25,7 +26,8 @@ public class Dashboard {
         httpServer = HttpServer.create(new InetSocketAddress(port), 0);
         
         httpServer.createContext("/", this::handleIndex);
-        httpServer.createContext("/metrics", this::handleMetrics);
+        httpServer.createContext("/api/metrics", this::handleMetrics);
+        httpServer.createContext("/metrics", new PrometheusHandler(gateway.getMetrics().getRegistry()));
         httpServer.createContext("/simulate-slow", this::handleSimulateSlow);
         httpServer.createContext("/broadcast-burst", this::handleBroadcastBurst);
         
@@ -269,7 +271,7 @@ public class Dashboard {
             
             // Poll metrics every 300ms using same-origin URL
             function updateMetrics() {
-                const url = (window.location.origin || '') + '/metrics?_=' + Date.now();
+                const url = (window.location.origin || '') + '/api/metrics?_=' + Date.now();
                 fetch(url, { cache: 'no-store', headers: { 'Accept': 'application/json' } })
                     .then(function(res) {
                         if (!res.ok) throw new Error('Metrics ' + res.status);
@@ -0,0 +1,13 @@
+package com.flux.backpressure;
+
+/**
+ * What a lane does when its ring buffer is full.
+ */
+public enum DropPolicy {
+    /** Never discard; a full lane means the client stopped reading entirely, so disconnect. */
+    NEVER_DROP,
+    /** Discard the oldest queued message to make room (stale presence is worthless). */
+    DROP_OLDEST,
+    /** Keep the message stream intact; disconnect once backpressure outlasts the threshold. */
+    DISCONNECT
+}
@@ -1,5 +1,7 @@
 package com.flux.backpressure;
 
+import com.flux.common.MemoryBudget;
+
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
@@ -8,18 +10,26 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * NIO-based Gateway Server with backpressure detection.
- * Uses Selector for non-blocking I/O and per-connection ring buffers.
+ * Uses Selector for non-blocking I/O and per-connection priority lanes.
  */
 public class GatewayServer {
+    private static final long GLOBAL_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024; // 64MB queued across all connections
+    private static final int BUDGET_HIGH_WATERMARK_PERCENT = 95;
+    private static final int BUDGET_LOW_WATERMARK_PERCENT = 80;
+    
     private final int port;
     private final BackpressureMetrics metrics;
+    private final MemoryBudget memoryBudget;
     private final ConcurrentHashMap<Integer, Connection> connections;
     private final AtomicInteger nextConnectionId;
     private final AtomicBoolean running;
@@ -30,6 +40,7 @@ public class GatewayServer {
     public GatewayServer(int port) {
         this.port = port;
         this.metrics = new BackpressureMetrics();
+        this.memoryBudget = new MemoryBudget(GLOBAL_MEMORY_BUDGET_BYTES);
         this.connections = new ConcurrentHashMap<>();
         this.nextConnectionId = new AtomicInteger(0);
         this.running = new AtomicBoolean(true);
@@ -101,7 +112,7 @@ public class GatewayServer {
         clientChannel.setOption(java.net.StandardSocketOptions.SO_SNDBUF, 2048); // 2KB (small to trigger buffering faster)
         
         int connectionId = nextConnectionId.getAndIncrement();
-        Connection connection = new Connection(connectionId, clientChannel, selector, metrics);
+        Connection connection = new Connection(connectionId, clientChannel, selector, metrics, memoryBudget);
         
         SelectionKey key = clientChannel.register(selector, SelectionKey.OP_READ, connection);
         connection.setKey(key);
@@ -125,13 +136,30 @@ public class GatewayServer {
                 String messageText = "Message #" + messageCounter++;
                 ByteBuffer message = ByteBuffer.wrap(messageText.getBytes(StandardCharsets.UTF_8));
                 
+                // Mix in presence (every 10ms) and heartbeat ACKs (every 1s) so the
+                // control lane can be seen overtaking queued chat on slow clients
+                ByteBuffer presence = messageCounter % 10 == 0
+                    ? ByteBuffer.wrap(("Presence #" + messageCounter).getBytes(StandardCharsets.UTF_8)) : null;
+                ByteBuffer heartbeatAck = messageCounter % 1000 == 0
+                    ? ByteBuffer.wrap("HEARTBEAT_ACK".getBytes(StandardCharsets.UTF_8)) : null;
+                
                 // Broadcast to all active connections
                 for (Connection conn : connections.values()) {
                     if (conn.isConnected()) {
+                        if (heartbeatAck != null) {
+                            conn.send(Lane.CONTROL, heartbeatAck.duplicate());
+                        }
                         conn.broadcast(message.duplicate());
+                        if (presence != null) {
+                            conn.send(Lane.PRESENCE, presence.duplicate());
+                        }
                     }
                 }
                 
+                if (memoryBudget.getUtilization() >= BUDGET_HIGH_WATERMARK_PERCENT) {
+                    evictLargestConsumers();
+                }
+                
                 // Clean up disconnected connections
                 connections.values().removeIf(conn -> !conn.isConnected());
                 
@@ -142,10 +170,32 @@ public class GatewayServer {
         }
     }
     
+    /**
+     * Node memory budget nearly exhausted: disconnect the connections holding
+     * the most queued bytes until usage falls below the low watermark. A few
+     * badly lagging clients go instead of rejecting writes for everyone.
+     */
+    private void evictLargestConsumers() {
+        List<Connection> byQueuedBytes = new ArrayList<>(connections.values());
+        byQueuedBytes.sort(Comparator.comparingLong(Connection::getQueuedBytes).reversed());
+        
+        for (Connection conn : byQueuedBytes) {
+            if (memoryBudget.getUtilization() < BUDGET_LOW_WATERMARK_PERCENT || conn.getQueuedBytes() == 0) {
+                break;
+            }
+            conn.disconnect("MEMORY_BUDGET: evicted holding " + conn.getQueuedBytes() + " queued bytes");
+            metrics.recordBudgetEviction();
+        }
+    }
+    
     public BackpressureMetrics getMetrics() {
         return metrics;
     }
     
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+    
     public ConcurrentHashMap<Integer, Connection> getConnections() {
         return connections;
     }
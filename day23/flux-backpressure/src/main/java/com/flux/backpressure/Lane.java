@@ -0,0 +1,36 @@
+package com.flux.backpressure;
+
+/**
+ * Outbound priority lanes. Each lane has its own ring buffer, drain weight
+ * and overflow policy so heartbeat ACKs never queue behind chat traffic.
+ */
+public enum Lane {
+    CONTROL(8, 64, DropPolicy.NEVER_DROP),      // HEARTBEAT_ACK, HELLO, RECONNECT
+    DIRECT(4, 128, DropPolicy.DISCONNECT),      // DMs
+    BROADCAST(2, 256, DropPolicy.DISCONNECT),   // guild chat
+    PRESENCE(1, 128, DropPolicy.DROP_OLDEST);   // presence/typing, superseded quickly
+
+    private final int weight;
+    private final int capacity;
+    private final DropPolicy dropPolicy;
+
+    Lane(int weight, int capacity, DropPolicy dropPolicy) {
+        this.weight = weight;
+        this.capacity = capacity;
+        this.dropPolicy = dropPolicy;
+    }
+
+    /** Messages drained from this lane per round-robin turn. */
+    public int weight() {
+        return weight;
+    }
+
+    /** Ring buffer slots (power of 2). */
+    public int capacity() {
+        return capacity;
+    }
+
+    public DropPolicy dropPolicy() {
+        return dropPolicy;
+    }
+}
@@ -0,0 +1,233 @@
+package com.flux.backpressure;
+
+import com.flux.common.MemoryBudget;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Per-connection outbound queue split into priority lanes.
+ *
+ * Producers (broadcast thread) and the consumer (selector thread) both touch
+ * the ring heads when DROP_OLDEST evicts, so every operation takes the
+ * instance monitor. It is uncontended in the common case and the channel is
+ * non-blocking, so holding it across the write is cheap.
+ *
+ * Draining is weighted round-robin: each turn a lane may write up to
+ * {@link Lane#weight()} messages, CONTROL first. A frame the socket only
+ * partly accepted is tracked as in flight; it is always finished before any
+ * lane is considered again and is never dropped, so frames are never torn.
+ *
+ * Capacity is bounded in bytes, not just slots: the droppable and chat lanes
+ * may hold at most {@code byteLimit} queued bytes per connection, and every
+ * queued byte is also reserved against the node-wide {@link MemoryBudget}.
+ */
+public class LaneOutbound {
+
+    public static final long DEFAULT_BYTE_LIMIT = 256 * 1024; // 256KB per connection
+
+    public enum OfferResult {
+        WRITTEN,         // fast path: lanes were empty and the socket took the whole message
+        QUEUED,
+        DROPPED_OLDEST,  // queued, but older messages on the lane were discarded
+        DROPPED_NEWEST,  // oldest is mid-write, so the incoming message was discarded instead
+        REJECTED,        // lane full (or chat over the connection byte limit) and policy forbids dropping
+        OVER_BUDGET      // node-wide memory budget exhausted
+    }
+
+    public enum DrainResult {
+        DRAINED,  // every lane empty
+        BLOCKED   // socket send buffer full, more pending
+    }
+
+    private static final Lane[] LANES = Lane.values();
+
+    private final RingBuffer[] rings = new RingBuffer[LANES.length];
+    private final long byteLimit;
+    private final MemoryBudget budget;
+    private long queuedBytes = 0;
+    private boolean closed = false;
+
+    // Frame partly on the wire: a lane's ring head, or a fast-path remainder (ring == null)
+    private ByteBuffer inFlight;
+    private RingBuffer inFlightRing;
+
+    public LaneOutbound() {
+        this(DEFAULT_BYTE_LIMIT, MemoryBudget.unlimited());
+    }
+
+    public LaneOutbound(long byteLimit, MemoryBudget budget) {
+        this.byteLimit = byteLimit;
+        this.budget = budget;
+        for (Lane lane : LANES) {
+            rings[lane.ordinal()] = new RingBuffer(lane.capacity());
+        }
+    }
+
+    /**
+     * Enqueue a message on a lane, applying the lane's drop policy when the
+     * lane or the connection's byte limit is full. CONTROL is exempt from the
+     * connection byte limit: heartbeat ACKs must not be refused because chat
+     * filled the connection.
+     */
+    public synchronized OfferResult offer(Lane lane, ByteBuffer message) {
+        if (closed) {
+            return OfferResult.REJECTED;
+        }
+        int bytes = message.remaining();
+        RingBuffer ring = rings[lane.ordinal()];
+        boolean neverDrop = lane.dropPolicy() == DropPolicy.NEVER_DROP;
+        boolean dropped = false;
+
+        while (ring.isFull() || (!neverDrop && queuedBytes + bytes > byteLimit)) {
+            if (lane.dropPolicy() != DropPolicy.DROP_OLDEST) {
+                return OfferResult.REJECTED;
+            }
+            ByteBuffer head = ring.peek();
+            // Nothing of ours left to drop (other lanes hold the bytes), or the
+            // head is mid-write and must finish: discard the incoming message
+            if (head == null || head == inFlight) {
+                return OfferResult.DROPPED_NEWEST;
+            }
+            ring.poll();
+            release(head.limit());
+            dropped = true;
+        }
+
+        // Control frames are tiny and never dropped, so they bypass the budget check
+        if (neverDrop) {
+            budget.forceReserve(bytes);
+        } else if (!budget.tryReserve(bytes)) {
+            return OfferResult.OVER_BUDGET;
+        }
+        ring.offer(message);
+        queuedBytes += bytes;
+        return dropped ? OfferResult.DROPPED_OLDEST : OfferResult.QUEUED;
+    }
+
+    /**
+     * Fast path: if nothing is queued, write straight to the socket and only
+     * queue whatever the socket did not accept. Otherwise enqueue behind the
+     * lane's backlog so per-lane ordering holds. A partly written message
+     * becomes the in-flight frame: it is already on the wire, so its remainder
+     * is always kept regardless of limits.
+     */
+    public synchronized OfferResult writeOrOffer(Lane lane, ByteBuffer message, WritableByteChannel channel)
+            throws IOException {
+        if (!closed && queuedBytes == 0) {
+            channel.write(message);
+            if (!message.hasRemaining()) {
+                return OfferResult.WRITTEN;
+            }
+            if (message.position() > 0) {
+                int bytes = message.remaining();
+                ByteBuffer remainder = ByteBuffer.allocate(bytes);
+                remainder.put(message).flip();
+                budget.forceReserve(bytes);
+                queuedBytes += bytes;
+                inFlight = remainder;
+                inFlightRing = null;
+                return OfferResult.QUEUED;
+            }
+        }
+        return offer(lane, message);
+    }
+
+    /**
+     * Write queued messages to the channel in weighted round-robin order
+     * until every lane is empty or the socket stops accepting bytes.
+     */
+    public synchronized DrainResult drainTo(WritableByteChannel channel, BackpressureMetrics metrics)
+            throws IOException {
+        if (inFlight != null) {
+            channel.write(inFlight);
+            if (inFlight.hasRemaining()) {
+                return DrainResult.BLOCKED;
+            }
+            if (inFlightRing != null) {
+                inFlightRing.poll();
+            }
+            release(inFlight.limit());
+            metrics.recordWriteSuccess();
+            inFlight = null;
+            inFlightRing = null;
+        }
+
+        boolean progressed = true;
+        while (progressed) {
+            progressed = false;
+            for (Lane lane : LANES) {
+                RingBuffer ring = rings[lane.ordinal()];
+                for (int quota = lane.weight(); quota > 0; quota--) {
+                    ByteBuffer pending = ring.peek();
+                    if (pending == null) {
+                        break;
+                    }
+                    channel.write(pending); // advances position on partial write
+                    if (pending.hasRemaining()) {
+                        if (pending.position() > 0) {
+                            inFlight = pending;
+                            inFlightRing = ring;
+                        }
+                        return DrainResult.BLOCKED;
+                    }
+                    ring.poll();
+                    release(pending.limit());
+                    metrics.recordWriteSuccess();
+                    progressed = true;
+                }
+            }
+        }
+        return DrainResult.DRAINED;
+    }
+
+    /**
+     * Discard everything queued and return its bytes to the node budget.
+     * Later offers are rejected.
+     */
+    public synchronized void close() {
+        closed = true;
+        inFlight = null;
+        inFlightRing = null;
+        for (RingBuffer ring : rings) {
+            while (ring.poll() != null) {
+                // slots are reused; accounting is released in bulk below
+            }
+        }
+        budget.release(queuedBytes);
+        queuedBytes = 0;
+    }
+
+    private void release(int bytes) {
+        queuedBytes -= bytes;
+        budget.release(bytes);
+    }
+
+    public synchronized boolean isEmpty() {
+        return queuedBytes == 0;
+    }
+
+    public synchronized int size(Lane lane) {
+        return rings[lane.ordinal()].size();
+    }
+
+    public synchronized long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public long getByteLimit() {
+        return byteLimit;
+    }
+
+    /**
+     * Utilization (0-100): the worse of connection byte usage and the fullest lane's slots.
+     */
+    public synchronized int getUtilization() {
+        int max = (int) ((queuedBytes * 100) / byteLimit);
+        for (RingBuffer ring : rings) {
+            max = Math.max(max, ring.getUtilization());
+        }
+        return max;
+    }
+}
@@ -10,7 +10,11 @@ import java.nio.ByteBuffer;
  * Power-of-2 capacity for fast modulo via bit masking.
  */
 public class RingBuffer {
+    private static final int SLOT_SIZE = 1024;
+
     private final ByteBuffer[] slots;
+    // Per-slot buffers for payloads larger than SLOT_SIZE; dropped once consumed
+    private final ByteBuffer[] oversized;
     private final int capacity;
     private final int mask; // capacity - 1 for fast modulo
     
@@ -39,10 +43,11 @@ public class RingBuffer {
         this.capacity = capacity;
         this.mask = capacity - 1;
         this.slots = new ByteBuffer[capacity];
+        this.oversized = new ByteBuffer[capacity];
         
         // Pre-allocate all ByteBuffers (1KB each)
         for (int i = 0; i < capacity; i++) {
-            slots[i] = ByteBuffer.allocate(1024);
+            slots[i] = ByteBuffer.allocate(SLOT_SIZE);
         }
     }
     
@@ -58,8 +63,16 @@ public class RingBuffer {
             return false; // buffer full
         }
         
-        // Copy message into slot
-        ByteBuffer slot = slots[currentTail];
+        // Copy message into slot. Oversized payloads (e.g. member chunks) get a
+        // one-off buffer that is released on poll, so the ring's retained memory
+        // stays at capacity * SLOT_SIZE; queued bytes are bounded by LaneOutbound
+        ByteBuffer slot;
+        if (message.remaining() > SLOT_SIZE) {
+            slot = ByteBuffer.allocate(message.remaining());
+            oversized[currentTail] = slot;
+        } else {
+            slot = slots[currentTail];
+        }
         slot.clear();
         slot.put(message.duplicate());
         slot.flip();
@@ -79,7 +92,8 @@ public class RingBuffer {
             return null; // buffer empty
         }
         
-        ByteBuffer result = slots[currentHead];
+        ByteBuffer result = slotAt(currentHead);
+        oversized[currentHead] = null;
         HEAD.setRelease(this, (currentHead + 1) & mask);
         return result;
     }
@@ -95,7 +109,12 @@ public class RingBuffer {
             return null;
         }
         
-        return slots[currentHead];
+        return slotAt(currentHead);
+    }
+    
+    private ByteBuffer slotAt(int index) {
+        ByteBuffer big = oversized[index];
+        return big != null ? big : slots[index];
     }
     
     /**
@@ -107,6 +126,15 @@ public class RingBuffer {
         return currentHead == currentTail;
     }
     
+    /**
+     * Check if buffer is full (one slot is always kept free).
+     */
+    public boolean isFull() {
+        int currentHead = (int) HEAD.getOpaque(this);
+        int currentTail = (int) TAIL.getOpaque(this);
+        return ((currentTail + 1) & mask) == currentHead;
+    }
+    
     /**
      * Get current buffer depth (number of pending messages).
      */
@@ -1,7 +1,12 @@
 package com.flux.backpressure;
 
+import com.flux.common.MemoryBudget;
 import org.junit.jupiter.api.Test;
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -73,4 +78,171 @@ public class BackpressureTest {
         metrics.recordSlowConsumerEviction();
         assertEquals(1, metrics.getSlowConsumerEvictions());
     }
+    
+    @Test
+    public void testPresenceLaneDropsOldest() {
+        LaneOutbound outbound = new LaneOutbound();
+        ByteBuffer msg = ByteBuffer.wrap("presence".getBytes());
+        
+        int capacity = Lane.PRESENCE.capacity() - 1; // one slot reserved by the ring
+        for (int i = 0; i < capacity; i++) {
+            assertEquals(LaneOutbound.OfferResult.QUEUED, outbound.offer(Lane.PRESENCE, msg.duplicate()));
+        }
+        assertEquals(LaneOutbound.OfferResult.DROPPED_OLDEST, outbound.offer(Lane.PRESENCE, msg.duplicate()));
+        assertEquals(capacity, outbound.size(Lane.PRESENCE));
+    }
+    
+    @Test
+    public void testChatLaneRejectsWhenFull() {
+        LaneOutbound outbound = new LaneOutbound();
+        ByteBuffer msg = ByteBuffer.wrap("chat".getBytes());
+        
+        for (int i = 0; i < Lane.BROADCAST.capacity() - 1; i++) {
+            outbound.offer(Lane.BROADCAST, msg.duplicate());
+        }
+        assertEquals(LaneOutbound.OfferResult.REJECTED, outbound.offer(Lane.BROADCAST, msg.duplicate()));
+    }
+    
+    @Test
+    public void testControlLaneDrainsFirst() throws Exception {
+        LaneOutbound outbound = new LaneOutbound();
+        for (int i = 0; i < 10; i++) {
+            outbound.offer(Lane.BROADCAST, ByteBuffer.wrap(("chat" + i).getBytes()));
+        }
+        outbound.offer(Lane.CONTROL, ByteBuffer.wrap("ack".getBytes()));
+        
+        List<String> written = new ArrayList<>();
+        WritableByteChannel sink = new WritableByteChannel() {
+            public int write(ByteBuffer src) {
+                int n = src.remaining();
+                byte[] bytes = new byte[n];
+                src.get(bytes);
+                written.add(new String(bytes, StandardCharsets.UTF_8));
+                return n;
+            }
+            public boolean isOpen() { return true; }
+            public void close() { }
+        };
+        
+        assertEquals(LaneOutbound.DrainResult.DRAINED, outbound.drainTo(sink, new BackpressureMetrics()));
+        assertEquals("ack", written.get(0));
+        assertEquals(11, written.size());
+        assertTrue(outbound.isEmpty());
+    }
+    
+    @Test
+    public void testConnectionByteLimit() {
+        LaneOutbound outbound = new LaneOutbound(4096, new MemoryBudget(1 << 20));
+        ByteBuffer chunk = ByteBuffer.allocate(2048); // larger than a default 1KB slot
+        
+        assertEquals(LaneOutbound.OfferResult.QUEUED, outbound.offer(Lane.BROADCAST, chunk.duplicate()));
+        assertEquals(LaneOutbound.OfferResult.QUEUED, outbound.offer(Lane.BROADCAST, chunk.duplicate()));
+        assertEquals(LaneOutbound.OfferResult.REJECTED, outbound.offer(Lane.BROADCAST, chunk.duplicate()));
+        assertEquals(4096, outbound.getQueuedBytes());
+    }
+    
+    @Test
+    public void testGlobalBudgetSharedAndReleased() {
+        MemoryBudget budget = new MemoryBudget(3000);
+        LaneOutbound a = new LaneOutbound(4096, budget);
+        LaneOutbound b = new LaneOutbound(4096, budget);
+        ByteBuffer msg = ByteBuffer.allocate(1000);
+        
+        a.offer(Lane.BROADCAST, msg.duplicate());
+        a.offer(Lane.BROADCAST, msg.duplicate());
+        b.offer(Lane.BROADCAST, msg.duplicate());
+        assertEquals(LaneOutbound.OfferResult.OVER_BUDGET, b.offer(Lane.BROADCAST, msg.duplicate()));
+        assertEquals(100, budget.getUtilization());
+        
+        a.close();
+        assertEquals(1000, budget.getUsedBytes());
+        assertEquals(LaneOutbound.OfferResult.QUEUED, b.offer(Lane.BROADCAST, msg.duplicate()));
+    }
+    
+    @Test
+    public void testPartialFrameFinishesBeforeControl() throws Exception {
+        LaneOutbound outbound = new LaneOutbound();
+        StringBuilder wire = new StringBuilder();
+        int[] budget = {3};
+        WritableByteChannel sink = new WritableByteChannel() {
+            public int write(ByteBuffer src) {
+                int n = Math.min(src.remaining(), budget[0]);
+                byte[] bytes = new byte[n];
+                src.get(bytes);
+                wire.append(new String(bytes, StandardCharsets.UTF_8));
+                budget[0] -= n;
+                return n;
+            }
+            public boolean isOpen() { return true; }
+            public void close() { }
+        };
+        
+        // Fast path writes "cha" and queues the remainder as the in-flight frame
+        assertEquals(LaneOutbound.OfferResult.QUEUED,
+                outbound.writeOrOffer(Lane.BROADCAST, ByteBuffer.wrap("chat-1".getBytes()), sink));
+        outbound.offer(Lane.CONTROL, ByteBuffer.wrap("ack".getBytes()));
+        
+        budget[0] = Integer.MAX_VALUE;
+        assertEquals(LaneOutbound.DrainResult.DRAINED, outbound.drainTo(sink, new BackpressureMetrics()));
+        assertEquals("chat-1ack", wire.toString());
+        assertTrue(outbound.isEmpty());
+    }
+    
+    @Test
+    public void testInFlightPresenceFrameIsNeverDropped() throws Exception {
+        LaneOutbound outbound = new LaneOutbound();
+        StringBuilder wire = new StringBuilder();
+        int[] budget = {2};
+        WritableByteChannel sink = new WritableByteChannel() {
+            public int write(ByteBuffer src) {
+                int n = Math.min(src.remaining(), budget[0]);
+                byte[] bytes = new byte[n];
+                src.get(bytes);
+                wire.append(new String(bytes, StandardCharsets.UTF_8));
+                budget[0] -= n;
+                return n;
+            }
+            public boolean isOpen() { return true; }
+            public void close() { }
+        };
+        
+        int capacity = Lane.PRESENCE.capacity() - 1;
+        for (int i = 0; i < capacity; i++) {
+            outbound.offer(Lane.PRESENCE, ByteBuffer.wrap(String.format("p%03d", i).getBytes()));
+        }
+        assertEquals(LaneOutbound.DrainResult.BLOCKED, outbound.drainTo(sink, new BackpressureMetrics()));
+        assertEquals(LaneOutbound.OfferResult.DROPPED_NEWEST,
+                outbound.offer(Lane.PRESENCE, ByteBuffer.wrap("late".getBytes())));
+        outbound.offer(Lane.CONTROL, ByteBuffer.wrap("ack".getBytes()));
+        
+        budget[0] = Integer.MAX_VALUE;
+        outbound.drainTo(sink, new BackpressureMetrics());
+        assertTrue(wire.toString().startsWith("p000ack"));
+    }
+    
+    @Test
+    public void testControlExemptFromConnectionByteLimit() {
+        LaneOutbound outbound = new LaneOutbound(4096, new MemoryBudget(1 << 20));
+        ByteBuffer chunk = ByteBuffer.allocate(2048);
+        outbound.offer(Lane.BROADCAST, chunk.duplicate());
+        outbound.offer(Lane.BROADCAST, chunk.duplicate());
+        
+        assertEquals(LaneOutbound.OfferResult.QUEUED,
+                outbound.offer(Lane.CONTROL, ByteBuffer.wrap("ack".getBytes())));
+        assertEquals(LaneOutbound.OfferResult.DROPPED_NEWEST,
+                outbound.offer(Lane.PRESENCE, ByteBuffer.wrap("presence".getBytes())));
+    }
+    
+    @Test
+    public void testOversizedSlotReleasedOnPoll() {
+        RingBuffer buffer = new RingBuffer(4);
+        buffer.offer(ByteBuffer.allocate(4096));
+        assertEquals(4096, buffer.poll().capacity());
+        
+        // Wrap around so the slot that held the big payload is reused
+        for (int i = 0; i < 3; i++) {
+            buffer.offer(ByteBuffer.wrap("small".getBytes()));
+            assertEquals(1024, buffer.poll().capacity()); // pooled slot, not a grown one
+        }
+    }
 }
@@ -20,6 +20,8 @@ fi
 
 # Compile
 echo "[BUILD] Compiling with Maven..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 if [ $? -ne 0 ]; then
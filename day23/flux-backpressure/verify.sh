@@ -14,7 +14,7 @@ echo ""
 
 # Test metrics endpoint
 echo "[VERIFY] Testing metrics endpoint..."
-METRICS=$(curl -s http://localhost:8080/metrics)
+METRICS=$(curl -s http://localhost:8080/api/metrics)
 
 if [ $? -eq 0 ]; then
     echo "[VERIFY] ✓ Metrics endpoint responding"
@@ -49,7 +49,7 @@ timeout 15s mvn exec:java -Dexec.mainClass="com.flux.backpressure.LoadTestClient
 sleep 10
 
 # Check metrics again
-METRICS=$(curl -s http://localhost:8080/metrics)
+METRICS=$(curl -s http://localhost:8080/api/metrics)
 EVICTIONS=$(echo $METRICS | grep -o '"slowConsumerEvictions":[0-9]*' | cut -d':' -f2)
 
 echo ""
@@ -17,4 +17,6 @@ echo ""
 echo "Press Ctrl+C to stop"
 echo ""
 
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn exec:java -Dexec.mainClass="com.flux.ringbuffer.Main" -q
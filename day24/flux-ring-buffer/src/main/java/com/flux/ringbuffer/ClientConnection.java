@@ -1,5 +1,7 @@
 package com.flux.ringbuffer;
 
+import com.flux.common.MemoryBudget;
+
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -7,6 +9,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * Represents a WebSocket client connection with output buffering.
  */
 public class ClientConnection {
+    public static final long DEFAULT_BYTE_LIMIT = 64 * 1024;  // 64KB buffered payload per client
+    
     private final String clientId;
     private final RingBuffer outputBuffer;
     private final AtomicBoolean connected = new AtomicBoolean(true);
@@ -17,8 +21,12 @@ public class ClientConnection {
     private volatile long writeDelayNanos;
     
     public ClientConnection(String clientId, int bufferCapacity) {
+        this(clientId, bufferCapacity, MemoryBudget.unlimited());
+    }
+    
+    public ClientConnection(String clientId, int bufferCapacity, MemoryBudget budget) {
         this.clientId = clientId;
-        this.outputBuffer = new RingBuffer(bufferCapacity, clientId);
+        this.outputBuffer = new RingBuffer(bufferCapacity, clientId, DEFAULT_BYTE_LIMIT, budget);
         this.writeDelayNanos = 0;  // No delay by default
     }
     
@@ -57,6 +65,14 @@ public class ClientConnection {
         }
     }
     
+    /**
+     * Drop everything still buffered for a disconnected client and return
+     * its bytes to the node budget. Called from the flush (consumer) thread.
+     */
+    public void releaseBuffered() {
+        outputBuffer.drain();
+    }
+    
     public void setWriteDelayNanos(long delayNanos) {
         this.writeDelayNanos = delayNanos;
     }
@@ -92,4 +108,8 @@ public class ClientConnection {
     public long getBufferedMessages() {
         return outputBuffer.size();
     }
+    
+    public long getBufferedBytes() {
+        return outputBuffer.queuedBytes();
+    }
 }
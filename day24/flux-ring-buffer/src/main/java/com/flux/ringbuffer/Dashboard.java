@@ -215,8 +215,8 @@ public class Dashboard {
             
             if (i > 0) clientsJson.append(",");
             clientsJson.append(String.format(
-                "{\"id\":\"%s\",\"utilization\":%d,\"buffered\":%d}",
-                client.getClientId(), util, client.getBufferedMessages()
+                "{\"id\":\"%s\",\"utilization\":%d,\"buffered\":%d,\"bufferedBytes\":%d}",
+                client.getClientId(), util, client.getBufferedMessages(), client.getBufferedBytes()
             ));
         }
         clientsJson.append("]");
@@ -224,8 +224,11 @@ public class Dashboard {
         int avgUtil = clients.isEmpty() ? 0 : totalUtilization / clients.size();
         
         return String.format(
-            "{\"clientCount\":%d,\"eventsProcessed\":%d,\"avgUtilization\":%d,\"totalBackpressure\":%d,\"totalDropped\":%d,\"clients\":%s}",
-            clients.size(), gateway.getEventsProcessed(), avgUtil, totalBackpressure, totalDropped, clientsJson
+            "{\"clientCount\":%d,\"eventsProcessed\":%d,\"avgUtilization\":%d,\"totalBackpressure\":%d,\"totalDropped\":%d," +
+            "\"memoryUsedBytes\":%d,\"memoryBudgetBytes\":%d,\"budgetEvictions\":%d,\"clients\":%s}",
+            clients.size(), gateway.getEventsProcessed(), avgUtil, totalBackpressure, totalDropped,
+            gateway.getMemoryBudget().getUsedBytes(), gateway.getMemoryBudget().getLimitBytes(),
+            gateway.getBudgetEvictions(), clientsJson
         );
     }
 }
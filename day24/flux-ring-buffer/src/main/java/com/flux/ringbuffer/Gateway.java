@@ -1,5 +1,9 @@
 package com.flux.ringbuffer;
 
+import com.flux.common.MemoryBudget;
+
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
@@ -14,13 +18,23 @@ public class Gateway {
     private final List<ClientConnection> clients = new CopyOnWriteArrayList<>();
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
     private final AtomicLong eventsProcessed = new AtomicLong(0);
+    private final AtomicLong budgetEvictions = new AtomicLong(0);
     private final int bufferCapacity;
+    private final MemoryBudget memoryBudget;
     
     private static final int BACKPRESSURE_THRESHOLD_PERCENT = 80;
     private static final long SLOW_CLIENT_DISCONNECT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long DEFAULT_MEMORY_BUDGET_BYTES = 4L * 1024 * 1024;  // 4MB across all clients
+    private static final int BUDGET_HIGH_WATERMARK_PERCENT = 95;
+    private static final int BUDGET_LOW_WATERMARK_PERCENT = 80;
     
     public Gateway(int bufferCapacity) {
+        this(bufferCapacity, new MemoryBudget(DEFAULT_MEMORY_BUDGET_BYTES));
+    }
+    
+    public Gateway(int bufferCapacity, MemoryBudget memoryBudget) {
         this.bufferCapacity = bufferCapacity;
+        this.memoryBudget = memoryBudget;
         
         // Start I/O flush loop (simulates async socket writes)
         scheduler.scheduleAtFixedRate(this::flushAllClients, 0, 10, TimeUnit.MILLISECONDS);
@@ -53,6 +67,37 @@ public class Gateway {
                 handleBackpressure(client, event);
             }
         }
+        
+        if (memoryBudget.getUtilization() >= BUDGET_HIGH_WATERMARK_PERCENT) {
+            evictLargestConsumers();
+        }
+    }
+    
+    /**
+     * Node budget nearly exhausted: disconnect the clients holding the most
+     * buffered bytes until usage would fall below the low watermark. Their
+     * bytes are returned by the flush thread in {@link #flushAllClients()}.
+     */
+    private void evictLargestConsumers() {
+        List<ClientConnection> byBytes = new ArrayList<>(clients);
+        byBytes.sort(Comparator.comparingLong(ClientConnection::getBufferedBytes).reversed());
+        
+        long target = memoryBudget.getLimitBytes() * BUDGET_LOW_WATERMARK_PERCENT / 100;
+        long projected = memoryBudget.getUsedBytes();
+        for (ClientConnection client : byBytes) {
+            if (projected <= target || client.getBufferedBytes() == 0) {
+                break;
+            }
+            if (!client.isConnected()) {
+                continue;  // already evicted, release pending
+            }
+            long held = client.getBufferedBytes();
+            projected -= held;
+            client.disconnect();
+            budgetEvictions.incrementAndGet();
+            System.out.printf("[BUDGET] Evicted client %s holding %d buffered bytes%n",
+                client.getClientId(), held);
+        }
     }
     
     private void handleBackpressure(ClientConnection client, GuildEvent event) {
@@ -65,13 +110,17 @@ public class Gateway {
     
     private void flushAllClients() {
         for (ClientConnection client : clients) {
-            if (client.isConnected()) {
-                try {
-                    client.flush();
-                } catch (Exception e) {
-                    System.err.printf("Error flushing client %s: %s%n", 
-                        client.getClientId(), e.getMessage());
+            if (!client.isConnected()) {
+                if (client.getBufferedMessages() > 0) {
+                    client.releaseBuffered();
                 }
+                continue;
+            }
+            try {
+                client.flush();
+            } catch (Exception e) {
+                System.err.printf("Error flushing client %s: %s%n", 
+                    client.getClientId(), e.getMessage());
             }
         }
     }
@@ -102,6 +151,14 @@ public class Gateway {
         return eventsProcessed.get();
     }
     
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+    
+    public long getBudgetEvictions() {
+        return budgetEvictions.get();
+    }
+    
     public void shutdown() {
         scheduler.shutdown();
         try {
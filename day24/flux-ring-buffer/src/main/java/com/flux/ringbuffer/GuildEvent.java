@@ -10,6 +10,33 @@ public record GuildEvent(
     String payload,
     long timestamp
 ) {
+    /**
+     * Wire size in bytes: the UTF-8 encoded length of the payload, which dominates.
+     * Counted without encoding so the hot publish path stays allocation-free.
+     */
+    public int sizeBytes() {
+        return utf8Length(payload);
+    }
+
+    private static int utf8Length(String s) {
+        int bytes = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+    
     public static GuildEvent create(long id, String guildId, String payload) {
         return new GuildEvent(id, guildId, "channel-1", payload, System.currentTimeMillis());
     }
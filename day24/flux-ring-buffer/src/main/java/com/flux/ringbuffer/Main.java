@@ -1,5 +1,7 @@
 package com.flux.ringbuffer;
 
+import com.flux.common.MemoryBudget;
+
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,7 +23,7 @@ public class Main {
         
         // Create clients (90 fast, 10 slow)
         for (int i = 0; i < numClients; i++) {
-            ClientConnection client = new ClientConnection("client-" + i, bufferCapacity);
+            ClientConnection client = new ClientConnection("client-" + i, bufferCapacity, gateway.getMemoryBudget());
             
             // Make some clients slow (simulate 3G network)
             if (i < numSlowClients) {
@@ -1,25 +1,36 @@
 package com.flux.ringbuffer;
 
+import com.flux.common.MemoryBudget;
+
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 
 /**
  * Lock-free bounded ring buffer for handling slow consumers.
  * Uses VarHandle atomic operations for concurrent access without locks.
+ *
+ * Bounded twice: by slot count and by buffered payload bytes. Each buffered
+ * byte is also reserved against a node-wide {@link MemoryBudget}, so a
+ * client queueing large member chunks hits its limit long before one
+ * queueing typing events does.
  */
 public final class RingBuffer {
     private final BufferSlot[] buffer;
     private final int capacity;
     private final String clientId;
+    private final long byteLimit;
+    private final MemoryBudget budget;
     
     private static final VarHandle HEAD;
     private static final VarHandle TAIL;
+    private static final VarHandle QUEUED_BYTES;
     
     static {
         try {
             MethodHandles.Lookup lookup = MethodHandles.lookup();
             HEAD = lookup.findVarHandle(RingBuffer.class, "head", long.class);
             TAIL = lookup.findVarHandle(RingBuffer.class, "tail", long.class);
+            QUEUED_BYTES = lookup.findVarHandle(RingBuffer.class, "queuedBytes", long.class);
         } catch (Exception e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -27,14 +38,22 @@ public final class RingBuffer {
     
     private volatile long head = 0;  // Write position
     private volatile long tail = 0;  // Read position
+    private volatile long queuedBytes = 0;  // Written by producer and consumer
     private volatile long droppedCount = 0;
+    private volatile long budgetRejections = 0;
     
     public RingBuffer(int capacity, String clientId) {
+        this(capacity, clientId, Long.MAX_VALUE, MemoryBudget.unlimited());
+    }
+    
+    public RingBuffer(int capacity, String clientId, long byteLimit, MemoryBudget budget) {
         if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
             throw new IllegalArgumentException("Capacity must be power of 2");
         }
         this.capacity = capacity;
         this.clientId = clientId;
+        this.byteLimit = byteLimit;
+        this.budget = budget;
         this.buffer = new BufferSlot[capacity];
         
         // Pre-allocate all slots (zero allocation on hot path)
@@ -51,14 +70,25 @@ public final class RingBuffer {
         long currentHead = (long) HEAD.getOpaque(this);
         long currentTail = (long) TAIL.getAcquire(this);
         
-        // Check if buffer is full
-        if (currentHead - currentTail >= capacity) {
+        int bytes = event.sizeBytes();
+        
+        // Check if buffer is full (slots or bytes)
+        if (currentHead - currentTail >= capacity
+                || (long) QUEUED_BYTES.getAcquire(this) + bytes > byteLimit) {
             droppedCount++;
             return false;  // Backpressure!
         }
         
+        // Node-wide budget: the gateway evicts the largest buffers when this fails
+        if (!budget.tryReserve(bytes)) {
+            droppedCount++;
+            budgetRejections++;
+            return false;
+        }
+        
         int writeIndex = (int) (currentHead & (capacity - 1));  // Fast modulo
-        buffer[writeIndex].update(event.eventId(), event.payload(), System.nanoTime());
+        buffer[writeIndex].update(event.eventId(), event.payload(), bytes, System.nanoTime());
+        QUEUED_BYTES.getAndAdd(this, (long) bytes);
         
         // Publish write with release semantics
         HEAD.setRelease(this, currentHead + 1);
@@ -80,19 +110,39 @@ public final class RingBuffer {
         int readIndex = (int) (currentTail & (capacity - 1));
         BufferSlot slot = buffer[readIndex];
         
+        // Return the slot's bytes before advancing tail
+        QUEUED_BYTES.getAndAdd(this, (long) -slot.sizeBytes());
+        budget.release(slot.sizeBytes());
+        
         // Advance tail
         TAIL.setRelease(this, currentTail + 1);
         return slot;
     }
     
     /**
-     * Calculate current buffer utilization percentage.
+     * Discard all buffered events, returning their bytes to the node budget.
+     * Must be called from the consumer thread.
+     */
+    public void drain() {
+        while (tryRead() != null) {
+            // tryRead releases each slot's bytes
+        }
+    }
+    
+    /**
+     * Calculate current buffer utilization percentage (worse of slots and bytes).
      */
     public int utilizationPercent() {
         long currentHead = (long) HEAD.getOpaque(this);
         long currentTail = (long) TAIL.getOpaque(this);
         long size = currentHead - currentTail;
-        return (int) ((size * 100) / capacity);
+        int slotPercent = (int) ((size * 100) / capacity);
+        int bytePercent = (int) (((long) QUEUED_BYTES.getOpaque(this) * 100) / byteLimit);
+        return Math.max(slotPercent, bytePercent);
+    }
+    
+    public long queuedBytes() {
+        return (long) QUEUED_BYTES.getOpaque(this);
     }
     
     public long size() {
@@ -105,6 +155,10 @@ public final class RingBuffer {
         return droppedCount;
     }
     
+    public long getBudgetRejections() {
+        return budgetRejections;
+    }
+    
     public String getClientId() {
         return clientId;
     }
@@ -120,16 +174,19 @@ public final class RingBuffer {
 class BufferSlot {
     private long eventId;
     private String payload;
+    private int sizeBytes;
     private long enqueuedAt;
     
-    void update(long eventId, String payload, long enqueuedAt) {
+    void update(long eventId, String payload, int sizeBytes, long enqueuedAt) {
         this.eventId = eventId;
         this.payload = payload;
+        this.sizeBytes = sizeBytes;
         this.enqueuedAt = enqueuedAt;
     }
     
     public long eventId() { return eventId; }
     public String payload() { return payload; }
+    public int sizeBytes() { return sizeBytes; }
     public long enqueuedAt() { return enqueuedAt; }
     
     public long ageNanos() {
@@ -1,9 +1,11 @@
 package com.flux.ringbuffer;
 
+import com.flux.common.MemoryBudget;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.RepeatedTest;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -40,6 +42,51 @@ class RingBufferTest {
         assertEquals(1, buffer.getDroppedCount());
     }
     
+    @Test
+    void testByteLimit() {
+        RingBuffer buffer = new RingBuffer(16, "test-client", 100, MemoryBudget.unlimited());
+        String chunk = "x".repeat(40);
+        
+        assertTrue(buffer.tryWrite(GuildEvent.create(1, "guild-1", chunk)));
+        assertTrue(buffer.tryWrite(GuildEvent.create(2, "guild-1", chunk)));
+        // Slots remain, but a third chunk would exceed the 100 byte limit
+        assertFalse(buffer.tryWrite(GuildEvent.create(3, "guild-1", chunk)));
+        assertEquals(80, buffer.queuedBytes());
+        
+        buffer.tryRead();
+        assertEquals(40, buffer.queuedBytes());
+    }
+    
+    @Test
+    void testSharedMemoryBudget() {
+        MemoryBudget budget = new MemoryBudget(100);
+        RingBuffer a = new RingBuffer(16, "client-a", 1024, budget);
+        RingBuffer b = new RingBuffer(16, "client-b", 1024, budget);
+        String chunk = "x".repeat(40);
+        
+        assertTrue(a.tryWrite(GuildEvent.create(1, "guild-1", chunk)));
+        assertTrue(a.tryWrite(GuildEvent.create(2, "guild-1", chunk)));
+        assertFalse(b.tryWrite(GuildEvent.create(3, "guild-1", chunk)));
+        assertEquals(1, b.getBudgetRejections());
+        
+        a.drain();
+        assertEquals(0, budget.getUsedBytes());
+        assertTrue(b.tryWrite(GuildEvent.create(3, "guild-1", chunk)));
+    }
+    
+    @Test
+    void testSizeBytesCountsEncodedPayload() {
+        String payload = "héllo 世界 👋";
+        GuildEvent event = GuildEvent.create(1, "guild-1", payload);
+        
+        assertEquals(payload.getBytes(StandardCharsets.UTF_8).length, event.sizeBytes());
+        
+        // The budget must be charged the encoded size, not the char count
+        RingBuffer buffer = new RingBuffer(16, "test-client", 1024, MemoryBudget.unlimited());
+        assertTrue(buffer.tryWrite(event));
+        assertEquals(event.sizeBytes(), buffer.queuedBytes());
+    }
+    
     @Test
     void testUtilization() {
         RingBuffer buffer = new RingBuffer(16, "test-client");
@@ -3,6 +3,8 @@ SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 cd "$SCRIPT_DIR"
 
 echo "🔨 Building project..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 if [ $? -ne 0 ]; then
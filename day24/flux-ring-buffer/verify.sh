@@ -7,6 +7,8 @@ echo ""
 
 # Run unit tests
 echo "📋 Running unit tests..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn test -q
 
 if [ $? -eq 0 ]; then
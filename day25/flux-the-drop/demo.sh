@@ -6,6 +6,8 @@ echo "=========================================="
 echo "Demo: Spawning 100 clients (70 normal, 30 slow)"
 echo "=========================================="
 
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn test-compile -q
 
 mvn exec:java -Dexec.mainClass="com.flux.gateway.LoadGenerator" \
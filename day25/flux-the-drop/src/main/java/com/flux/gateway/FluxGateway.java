@@ -1,5 +1,6 @@
 package com.flux.gateway;
 
+import com.flux.gateway.buffer.ConnectionState;
 import com.flux.gateway.server.WebSocketServer;
 import com.flux.gateway.reaper.ReaperThread;
 import com.flux.gateway.dashboard.Dashboard;
@@ -14,6 +15,7 @@ public class FluxGateway {
         Thread serverThread = Thread.ofPlatform().start(server);
 
         ReaperThread reaper = new ReaperThread(server);
+        server.setPressureListener(reaper);
         Thread reaperThread = Thread.ofPlatform().start(reaper);
 
         Dashboard dashboard = new Dashboard(server, reaper);
@@ -25,6 +27,8 @@ public class FluxGateway {
                 try {
                     Thread.sleep(10);
                     server.broadcast("Guild message #" + (++messageCount));
+                    // Presence dominates real traffic; it is the first thing degraded clients lose
+                    server.broadcast("Presence update #" + messageCount, ConnectionState.INTENT_GUILD_PRESENCES);
                 } catch (InterruptedException e) {
                     break;
                 }
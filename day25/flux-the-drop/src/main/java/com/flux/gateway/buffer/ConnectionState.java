@@ -1,17 +1,45 @@
 package com.flux.gateway.buffer;
 
+import com.flux.common.MemoryBudget;
+
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ConnectionState {
-    private static final int RING_BUFFER_SIZE = 65536; // 64 KB, must be power of 2
+    // Event classes a connection subscribes to; the reaper strips optional ones under pressure
+    public static final int INTENT_GUILD_MESSAGES = 1;
+    public static final int INTENT_GUILD_PRESENCES = 1 << 1;
+    public static final int INTENT_TYPING = 1 << 2;
+    public static final int ALL_INTENTS = INTENT_GUILD_MESSAGES | INTENT_GUILD_PRESENCES | INTENT_TYPING;
+    public static final int ESSENTIAL_INTENTS = INTENT_GUILD_MESSAGES;
+
+    // Degradation ladder applied by the reaper
+    public static final int LEVEL_NORMAL = 0;
+    public static final int LEVEL_SKIP_PRESENCE = 1;
+    public static final int LEVEL_ESSENTIAL_ONLY = 2;
+
+    public static final int RING_BUFFER_SIZE = 65536; // 64 KB, must be power of 2
     private static final int CAPACITY_MASK = RING_BUFFER_SIZE - 1;
     private static final double LAG_THRESHOLD_PERCENT = 0.8;
+    private static final double PRESSURE_THRESHOLD_PERCENT = 0.25; // Writes above this notify the reaper
+    private static final long DRAIN_SAMPLE_NANOS = 100_000_000L;  // 100ms EWMA sample window
+    private static final double DRAIN_EWMA_ALPHA = 0.3;
+
+    /**
+     * Notified from the write/read path when a connection may need a policy
+     * decision. At most one notification is outstanding per connection.
+     */
+    public interface PressureListener {
+        void onPressure(ConnectionState state);
+    }
 
     private static final VarHandle LAG_COUNTER_HANDLE;
     private static final VarHandle HEAD_HANDLE;
     private static final VarHandle TAIL_HANDLE;
+    private static final VarHandle RESERVED_HANDLE;
+    private static final VarHandle PENDING_HANDLE;
 
     static {
         try {
@@ -19,6 +47,8 @@ public class ConnectionState {
             LAG_COUNTER_HANDLE = lookup.findVarHandle(ConnectionState.class, "lagCounter", long.class);
             HEAD_HANDLE = lookup.findVarHandle(ConnectionState.class, "head", long.class);
             TAIL_HANDLE = lookup.findVarHandle(ConnectionState.class, "tail", long.class);
+            RESERVED_HANDLE = lookup.findVarHandle(ConnectionState.class, "reservedBytes", long.class);
+            PENDING_HANDLE = lookup.findVarHandle(ConnectionState.class, "evaluationPending", boolean.class);
         } catch (Exception e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -26,27 +56,61 @@ public class ConnectionState {
 
     private final String connectionId;
     private final SocketChannel channel;
+    private final MemoryBudget budget;
     private final byte[] ringBuffer;
     private volatile long head;  // Read pointer
     private volatile long tail;  // Write pointer
     private volatile long lagCounter;
+    private volatile long reservedBytes;  // Bytes currently held against the node budget
     private final long createdAt;
     private volatile boolean closed;
 
+    private volatile PressureListener pressureListener;
+    private volatile boolean evaluationPending;
+    private volatile int intents = ALL_INTENTS;
+    private volatile int degradationLevel = LEVEL_NORMAL;
+    private volatile long levelChangedAt;
+    private final LongAdder skippedEvents = new LongAdder();
+
+    // Drain rate EWMA, guarded by this
+    private double drainRateBytesPerSec;
+    private long drainedSinceSample;
+    private long lastSampleNanos = System.nanoTime();
+
     public ConnectionState(String connectionId, SocketChannel channel) {
+        this(connectionId, channel, MemoryBudget.unlimited());
+    }
+
+    public ConnectionState(String connectionId, SocketChannel channel, MemoryBudget budget) {
         this.connectionId = connectionId;
         this.channel = channel;
+        this.budget = budget;
         this.ringBuffer = new byte[RING_BUFFER_SIZE];
         this.head = 0;
         this.tail = 0;
         this.lagCounter = 0;
         this.createdAt = System.currentTimeMillis();
+        this.levelChangedAt = createdAt;
         this.closed = false;
     }
 
     public boolean tryWrite(byte[] data) {
+        return tryWrite(data, INTENT_GUILD_MESSAGES);
+    }
+
+    /**
+     * Buffer an event of the given intent. Events whose intent was stripped
+     * by the degradation ladder are skipped (counted, not buffered) and
+     * reported as accepted.
+     */
+    public boolean tryWrite(byte[] data, int intent) {
         if (closed) return false;
 
+        if ((intents & intent) == 0) {
+            skippedEvents.increment();
+            return true;
+        }
+
         long currentTail = (long) TAIL_HANDLE.getVolatile(this);
         long currentHead = (long) HEAD_HANDLE.getVolatile(this);
 
@@ -54,6 +118,20 @@ public class ConnectionState {
 
         if (available < data.length) {
             LAG_COUNTER_HANDLE.getAndAdd(this, 1L);
+            signalPressure();
+            return false;
+        }
+
+        // Node budget exhausted: count as lag so the reaper sees this connection falling behind
+        if (!budget.tryReserve(data.length)) {
+            LAG_COUNTER_HANDLE.getAndAdd(this, 1L);
+            signalPressure();
+            return false;
+        }
+        RESERVED_HANDLE.getAndAdd(this, (long) data.length);
+        if (closed) {
+            // Lost a race with close: releaseBuffered may already have run
+            releaseBuffered();
             return false;
         }
 
@@ -69,6 +147,9 @@ public class ConnectionState {
         if (usage > RING_BUFFER_SIZE * LAG_THRESHOLD_PERCENT) {
             LAG_COUNTER_HANDLE.getAndAdd(this, 1L);
         }
+        if (usage > RING_BUFFER_SIZE * PRESSURE_THRESHOLD_PERCENT) {
+            signalPressure();
+        }
 
         return true;
     }
@@ -89,9 +170,118 @@ public class ConnectionState {
         }
 
         HEAD_HANDLE.setVolatile(this, currentHead + toRead);
+        releaseReserved(toRead);
+        recordDrain(toRead);
+
+        // Degraded connection catching up: let the reaper consider restoring it
+        if (degradationLevel != LEVEL_NORMAL) {
+            signalPressure();
+        }
         return result;
     }
 
+    private synchronized void recordDrain(long bytes) {
+        drainedSinceSample += bytes;
+        sampleDrainRate(System.nanoTime());
+    }
+
+    private void sampleDrainRate(long nowNanos) {
+        long elapsed = nowNanos - lastSampleNanos;
+        if (elapsed < DRAIN_SAMPLE_NANOS) return;
+
+        double instant = drainedSinceSample * 1_000_000_000.0 / elapsed;
+        drainRateBytesPerSec = DRAIN_EWMA_ALPHA * instant + (1 - DRAIN_EWMA_ALPHA) * drainRateBytesPerSec;
+        drainedSinceSample = 0;
+        lastSampleNanos = nowNanos;
+    }
+
+    /**
+     * EWMA of bytes drained to the socket per second. Idle windows are folded
+     * in as zero samples, so a client that stopped reading decays toward 0.
+     */
+    public synchronized double getDrainRate() {
+        sampleDrainRate(System.nanoTime());
+        return drainRateBytesPerSec;
+    }
+
+    /**
+     * Estimated milliseconds to flush the current backlog at the observed
+     * drain rate; {@link Long#MAX_VALUE} if the client is not draining at all.
+     */
+    public long getTimeToDrainMillis() {
+        long usage = getBufferUsage();
+        if (usage == 0) return 0;
+        double rate = getDrainRate();
+        if (rate < 1.0) return Long.MAX_VALUE;
+        return (long) (usage * 1000.0 / rate);
+    }
+
+    private void signalPressure() {
+        PressureListener listener = pressureListener;
+        if (listener != null && PENDING_HANDLE.compareAndSet(this, false, true)) {
+            listener.onPressure(this);
+        }
+    }
+
+    /**
+     * Called by the listener once it has evaluated this connection, re-arming notifications.
+     */
+    public void clearEvaluationPending() {
+        PENDING_HANDLE.setVolatile(this, false);
+    }
+
+    public void setPressureListener(PressureListener listener) {
+        this.pressureListener = listener;
+    }
+
+    /**
+     * Move to a degradation level, adjusting which intents are delivered.
+     */
+    public void setDegradationLevel(int level) {
+        this.intents = switch (level) {
+            case LEVEL_NORMAL -> ALL_INTENTS;
+            case LEVEL_SKIP_PRESENCE -> ALL_INTENTS & ~INTENT_GUILD_PRESENCES;
+            default -> ESSENTIAL_INTENTS;
+        };
+        this.degradationLevel = level;
+        this.levelChangedAt = System.currentTimeMillis();
+    }
+
+    public int getDegradationLevel() { return degradationLevel; }
+    public long getLevelChangedAt() { return levelChangedAt; }
+    public int getIntents() { return intents; }
+    public long getSkippedEvents() { return skippedEvents.sum(); }
+
+    /**
+     * Return up to {@code bytes} of this connection's reservation to the node
+     * budget. Only bytes actually taken out of {@code reservedBytes} are
+     * released, so a concurrent {@link #releaseBuffered()} cannot cause a
+     * double release.
+     */
+    private void releaseReserved(long bytes) {
+        while (true) {
+            long held = (long) RESERVED_HANDLE.getVolatile(this);
+            long take = Math.min(held, bytes);
+            if (take <= 0) return;
+            if (RESERVED_HANDLE.compareAndSet(this, held, held - take)) {
+                budget.release(take);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return every reserved byte to the node budget. Called once the
+     * connection is closed; anything still buffered is discarded. Safe to
+     * race with {@link #read(int)}: the reservation is swapped out atomically.
+     */
+    public void releaseBuffered() {
+        long held = (long) RESERVED_HANDLE.getAndSet(this, 0L);
+        if (held > 0) {
+            budget.release(held);
+        }
+    }
+
     public long getLagCounter() {
         return (long) LAG_COUNTER_HANDLE.getVolatile(this);
     }
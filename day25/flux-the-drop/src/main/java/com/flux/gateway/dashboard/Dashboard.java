@@ -77,6 +77,10 @@ public class Dashboard {
                 m.put("buffer_usage_pct", usagePct);
                 m.put("buffer_usage_display", Math.round(usageDisplay * 10) / 10.0);
                 m.put("age_ms", ageMs);
+                m.put("degradation_level", conn.getDegradationLevel());
+                m.put("drain_rate_bps", Math.round(conn.getDrainRate()));
+                long ttd = conn.getTimeToDrainMillis();
+                m.put("time_to_drain_ms", ttd == Long.MAX_VALUE ? -1 : ttd);
                 return m;
             })
             .collect(Collectors.toList());
@@ -100,6 +104,11 @@ public class Dashboard {
         metrics.put("total_connections", total);
         metrics.put("dropped_total", droppedDisplay);
         metrics.put("avg_lag", realAvgLag > 0 ? Math.round(realAvgLag * 100) / 100.0 : Math.round(avgLagFromDisplay * 100) / 100.0);
+        metrics.put("memory_used_bytes", wsServer.getMemoryBudget().getUsedBytes());
+        metrics.put("memory_budget_bytes", wsServer.getMemoryBudget().getLimitBytes());
+        metrics.put("budget_dropped_total", reaper.getBudgetDroppedCount());
+        metrics.put("escalations_total", reaper.getEscalations());
+        metrics.put("restorations_total", reaper.getRestorations());
         metrics.put("connections", connList);
         return toSimpleJSON(metrics);
     }
@@ -1,42 +1,79 @@
 package com.flux.gateway.reaper;
 
+import com.flux.common.MemoryBudget;
 import com.flux.gateway.buffer.ConnectionState;
 import com.flux.gateway.server.WebSocketServer;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
-public class ReaperThread implements Runnable {
-    private static final long SCAN_INTERVAL_MS = 100;
-    private static final long LAG_THRESHOLD = 3;  // Drop when lag_counter > 3 so demo shows drops sooner
-    private static final long GRACE_PERIOD_MS = 8_000;  // 8s so drops visible within ~25–35s of demo
+/**
+ * Event-driven slow-consumer reaper. Connections report pressure from the
+ * write/read path ({@link ConnectionState.PressureListener}); only those are
+ * evaluated, so the cost scales with lagging connections, not total ones.
+ */
+public class ReaperThread implements Runnable, ConnectionState.PressureListener {
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final long REEVALUATE_INTERVAL_MS = 500;  // degraded connections are re-checked while idle
+    private static final double BUDGET_HIGH_WATERMARK_PERCENT = 90.0;
+    private static final double BUDGET_LOW_WATERMARK_PERCENT = 75.0;
+    public static final int RESUMABLE_CLOSE_CODE = 4000;  // client may RESUME with its session
 
     private final WebSocketServer server;
+    private final SlowConsumerPolicy policy;
+    private final LinkedBlockingQueue<ConnectionState> pressured;
+    private final Set<ConnectionState> degraded;
     private final ExecutorService virtualExecutor;
     private volatile boolean running;
     private final AtomicLong droppedCount;
+    private final AtomicLong budgetDroppedCount;
+    private final AtomicLong escalations;
+    private final AtomicLong restorations;
+    private long lastReevaluation;
 
     public ReaperThread(WebSocketServer server) {
         this.server = server;
+        this.policy = new SlowConsumerPolicy();
+        this.pressured = new LinkedBlockingQueue<>();
+        this.degraded = ConcurrentHashMap.newKeySet();
         this.virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
         this.running = true;
         this.droppedCount = new AtomicLong(0);
+        this.budgetDroppedCount = new AtomicLong(0);
+        this.escalations = new AtomicLong(0);
+        this.restorations = new AtomicLong(0);
+    }
+
+    @Override
+    public void onPressure(ConnectionState state) {
+        pressured.offer(state);
     }
 
     @Override
     public void run() {
-        System.out.println("[REAPER] Started (scan interval: " + SCAN_INTERVAL_MS + "ms, threshold: " + LAG_THRESHOLD + ")");
+        System.out.println("[REAPER] Started (event-driven, ttd ladder " + SlowConsumerPolicy.SKIP_PRESENCE_TTD_MS +
+                           "/" + SlowConsumerPolicy.ESSENTIAL_ONLY_TTD_MS + "/" + SlowConsumerPolicy.DISCONNECT_TTD_MS + "ms)");
 
         while (running) {
             try {
-                Thread.sleep(SCAN_INTERVAL_MS);
-                scanConnections();
+                ConnectionState state = pressured.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (state != null) {
+                    evaluate(state);
+                }
+                reevaluateDegraded();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
             } catch (Exception e) {
-                System.err.println("[REAPER] Scan error: " + e.getMessage());
+                System.err.println("[REAPER] Evaluation error: " + e.getMessage());
             }
         }
 
@@ -44,27 +81,101 @@ public class ReaperThread implements Runnable {
         System.out.println("[REAPER] Stopped (total dropped: " + droppedCount.get() + ")");
     }
 
-    private void scanConnections() {
-        long now = System.currentTimeMillis();
+    private void evaluate(ConnectionState state) {
+        try {
+            if (state.isClosed()) {
+                degraded.remove(state);
+                return;
+            }
 
-        for (var state : server.getConnections().values()) {
-            if (state.isClosed()) continue;
+            if (server.getMemoryBudget().getUtilization() >= BUDGET_HIGH_WATERMARK_PERCENT) {
+                evictLargestConsumers();
+                if (state.isClosed()) return;
+            }
 
-            if (now - state.getCreatedAt() < GRACE_PERIOD_MS) {
-                continue;
+            switch (policy.decide(state, System.currentTimeMillis())) {
+                case ESCALATE -> {
+                    state.setDegradationLevel(state.getDegradationLevel() + 1);
+                    degraded.add(state);
+                    escalations.incrementAndGet();
+                    System.out.println("[REAPER] " + state.getConnectionId() + " degraded to level " +
+                                       state.getDegradationLevel() + " (ttd " + state.getTimeToDrainMillis() + "ms)");
+                }
+                case RESTORE -> {
+                    state.setDegradationLevel(state.getDegradationLevel() - 1);
+                    if (state.getDegradationLevel() == ConnectionState.LEVEL_NORMAL) {
+                        degraded.remove(state);
+                    }
+                    restorations.incrementAndGet();
+                }
+                case DISCONNECT -> drop(state, false);
+                case NONE -> { }
             }
+        } finally {
+            state.clearEvaluationPending();
+        }
+    }
 
-            long lagCounter = state.getLagCounter();
+    /**
+     * A degraded client that stops receiving writes (intents stripped) and
+     * never drains produces no events, so degraded connections are also
+     * re-checked on a slow timer. Healthy connections are never visited.
+     */
+    private void reevaluateDegraded() {
+        long now = System.currentTimeMillis();
+        if (now - lastReevaluation < REEVALUATE_INTERVAL_MS) return;
+        lastReevaluation = now;
+
+        for (ConnectionState state : degraded) {
+            evaluate(state);
+        }
+    }
 
-            if (lagCounter > LAG_THRESHOLD) {
-                virtualExecutor.submit(() -> {
-                    server.forceClose(state);
-                    droppedCount.incrementAndGet();
-                });
+    private void drop(ConnectionState state, boolean budget) {
+        degraded.remove(state);
+        state.setClosed(true);  // stop new writes before the close frame goes out
+        virtualExecutor.submit(() -> {
+            server.forceClose(state, RESUMABLE_CLOSE_CODE);
+            droppedCount.incrementAndGet();
+            if (budget) {
+                budgetDroppedCount.incrementAndGet();
             }
+        });
+    }
+
+    /**
+     * Node budget nearly exhausted: drop the connections holding the most
+     * buffered bytes first (ignoring the ladder) until projected usage
+     * falls below the low watermark.
+     */
+    private void evictLargestConsumers() {
+        MemoryBudget budget = server.getMemoryBudget();
+        List<ConnectionState> byUsage = new ArrayList<>(server.getConnections().values());
+        byUsage.sort(Comparator.comparingLong(ConnectionState::getBufferUsage).reversed());
+
+        long target = (long) (budget.getLimitBytes() * BUDGET_LOW_WATERMARK_PERCENT / 100.0);
+        long projected = budget.getUsedBytes();
+        for (ConnectionState state : byUsage) {
+            if (projected <= target || state.getBufferUsage() == 0) break;
+            if (state.isClosed()) continue;
+
+            projected -= state.getBufferUsage();
+            drop(state, true);
         }
     }
 
+    public long getBudgetDroppedCount() {
+        return budgetDroppedCount.get();
+    }
+
+    public long getEscalations() {
+        return escalations.get();
+    }
+
+    public long getRestorations() {
+        return restorations.get();
+    }
+
     public long getDroppedCount() {
         return droppedCount.get();
     }
@@ -0,0 +1,47 @@
+package com.flux.gateway.reaper;
+
+import com.flux.gateway.buffer.ConnectionState;
+
+/**
+ * Graduated slow-consumer ladder driven by time-to-drain rather than a raw
+ * lag counter. A connection moves at most one rung per decision and must
+ * sit on a rung for {@code DWELL_MS} before escalating further, so each
+ * degradation gets a chance to let the client catch up:
+ *
+ *   NORMAL -> SKIP_PRESENCE -> ESSENTIAL_ONLY (intents downgraded) -> DISCONNECT (resumable)
+ *
+ * Recovery walks back down one rung at a time once the backlog drains fast.
+ */
+public class SlowConsumerPolicy {
+    public enum Action { NONE, ESCALATE, RESTORE, DISCONNECT }
+
+    static final long SKIP_PRESENCE_TTD_MS = 2_000;
+    static final long ESSENTIAL_ONLY_TTD_MS = 5_000;
+    static final long DISCONNECT_TTD_MS = 15_000;
+    static final long RECOVER_TTD_MS = 1_000;
+    static final long DWELL_MS = 1_000;
+    static final long GRACE_PERIOD_MS = 8_000;  // no disconnects for fresh connections
+
+    public Action decide(ConnectionState state, long nowMs) {
+        long ttd = state.getTimeToDrainMillis();
+        int level = state.getDegradationLevel();
+        boolean dwelled = nowMs - state.getLevelChangedAt() >= DWELL_MS;
+
+        if (ttd <= RECOVER_TTD_MS) {
+            return level > ConnectionState.LEVEL_NORMAL && dwelled ? Action.RESTORE : Action.NONE;
+        }
+        if (!dwelled) {
+            return Action.NONE;
+        }
+
+        return switch (level) {
+            case ConnectionState.LEVEL_NORMAL ->
+                ttd >= SKIP_PRESENCE_TTD_MS ? Action.ESCALATE : Action.NONE;
+            case ConnectionState.LEVEL_SKIP_PRESENCE ->
+                ttd >= ESSENTIAL_ONLY_TTD_MS ? Action.ESCALATE : Action.NONE;
+            default ->
+                ttd >= DISCONNECT_TTD_MS && nowMs - state.getCreatedAt() >= GRACE_PERIOD_MS
+                    ? Action.DISCONNECT : Action.NONE;
+        };
+    }
+}
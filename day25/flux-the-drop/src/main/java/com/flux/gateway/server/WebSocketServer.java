@@ -1,5 +1,6 @@
 package com.flux.gateway.server;
 
+import com.flux.common.MemoryBudget;
 import com.flux.gateway.buffer.ConnectionState;
 
 import java.io.IOException;
@@ -20,12 +21,15 @@ public class WebSocketServer implements Runnable {
     private static final int PORT = 9090;
     private static final String WS_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
     private static final Pattern WS_KEY_PATTERN = Pattern.compile("Sec-WebSocket-Key: (.+)");
+    private static final long MEMORY_BUDGET_BYTES = 16L * 1024 * 1024; // 16MB queued across all connections
 
     private final ServerSocketChannel serverChannel;
     private final Selector selector;
     private final Map<SocketChannel, ConnectionState> connections;
     private final AtomicLong connectionIdCounter;
     private final AtomicLong broadcastCount;
+    private final MemoryBudget memoryBudget;
+    private volatile ConnectionState.PressureListener pressureListener;
     private static final int FLUSH_EVERY_N = 800; // Flush every N broadcasts so ring buffer can fill (lag/drops visible on dashboard)
     private volatile boolean running;
 
@@ -40,6 +44,7 @@ public class WebSocketServer implements Runnable {
         this.connections = new ConcurrentHashMap<>();
         this.connectionIdCounter = new AtomicLong(0);
         this.broadcastCount = new AtomicLong(0);
+        this.memoryBudget = new MemoryBudget(MEMORY_BUDGET_BYTES);
         this.running = true;
 
         System.out.println("[INFO] WebSocket server listening on port " + PORT);
@@ -78,7 +83,8 @@ public class WebSocketServer implements Runnable {
         client.register(selector, SelectionKey.OP_READ);
 
         String connId = "conn-" + connectionIdCounter.incrementAndGet();
-        ConnectionState state = new ConnectionState(connId, client);
+        ConnectionState state = new ConnectionState(connId, client, memoryBudget);
+        state.setPressureListener(pressureListener);
         connections.put(client, state);
 
         System.out.println("[ACCEPT] New connection: " + connId);
@@ -145,13 +151,21 @@ public class WebSocketServer implements Runnable {
     }
 
     public void broadcast(String message) {
+        broadcast(message, ConnectionState.INTENT_GUILD_MESSAGES);
+    }
+
+    /**
+     * Broadcast an event of the given intent; degraded connections skip
+     * intents the reaper has stripped.
+     */
+    public void broadcast(String message, int intent) {
         byte[] frame = createTextFrame(message);
 
         for (var entry : connections.entrySet()) {
             ConnectionState state = entry.getValue();
             if (state.isClosed()) continue;
 
-            boolean written = state.tryWrite(frame);
+            boolean written = state.tryWrite(frame, intent);
             if (!written) {
                 System.out.println("[BACKPRESSURE] Buffer full for " + state.getConnectionId() +
                                  ", lag counter: " + state.getLagCounter());
@@ -215,10 +229,14 @@ public class WebSocketServer implements Runnable {
     }
 
     public void forceClose(ConnectionState state) {
+        forceClose(state, 1008);
+    }
+
+    public void forceClose(ConnectionState state, int closeCode) {
         SocketChannel channel = state.getChannel();
 
         try {
-            byte[] closeFrame = createCloseFrame(1008);
+            byte[] closeFrame = createCloseFrame(closeCode);
             channel.write(ByteBuffer.wrap(closeFrame));
             Thread.sleep(100);
         } catch (Exception e) {
@@ -226,19 +244,28 @@ public class WebSocketServer implements Runnable {
 
         closeConnection(channel, state);
         System.out.println("[DROP] Forcefully closed " + state.getConnectionId() +
-                         " (lag counter: " + state.getLagCounter() + ")");
+                         " (code " + closeCode + ", lag counter: " + state.getLagCounter() + ")");
     }
 
     private void closeConnection(SocketChannel channel, ConnectionState state) {
         try {
             state.setClosed(true);
             connections.remove(channel);
+            state.releaseBuffered();
             channel.close();
         } catch (IOException e) {
             System.err.println("[ERROR] Close failed: " + e.getMessage());
         }
     }
 
+    public void setPressureListener(ConnectionState.PressureListener listener) {
+        this.pressureListener = listener;
+    }
+
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
     public Map<SocketChannel, ConnectionState> getConnections() {
         return connections;
     }
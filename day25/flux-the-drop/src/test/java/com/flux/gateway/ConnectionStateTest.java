@@ -1,6 +1,8 @@
 package com.flux.gateway;
 
+import com.flux.common.MemoryBudget;
 import com.flux.gateway.buffer.ConnectionState;
+import com.flux.gateway.reaper.SlowConsumerPolicy;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,4 +44,67 @@ class ConnectionStateTest {
         assertFalse(written);
         assertTrue(state.getLagCounter() > 0);
     }
+
+    @Test
+    void testSharedMemoryBudget() throws Exception {
+        MemoryBudget budget = new MemoryBudget(1000);
+        ConnectionState a = new ConnectionState("test-4", SocketChannel.open(), budget);
+        ConnectionState b = new ConnectionState("test-5", SocketChannel.open(), budget);
+
+        assertTrue(a.tryWrite(new byte[600]));
+        assertFalse(b.tryWrite(new byte[600]));
+        assertTrue(b.getLagCounter() > 0);
+
+        a.read(200);
+        assertEquals(400, budget.getUsedBytes());
+
+        a.releaseBuffered();
+        assertEquals(0, budget.getUsedBytes());
+        assertTrue(b.tryWrite(new byte[600]));
+    }
+
+    @Test
+    void testReadAfterReleaseDoesNotReleaseTwice() throws Exception {
+        MemoryBudget budget = new MemoryBudget(1000);
+        ConnectionState a = new ConnectionState("test-7", SocketChannel.open(), budget);
+        ConnectionState b = new ConnectionState("test-8", SocketChannel.open(), budget);
+        assertTrue(a.tryWrite(new byte[300]));
+        assertTrue(b.tryWrite(new byte[300]));
+
+        a.setClosed(true);
+        a.releaseBuffered();
+        a.read(300); // selector thread still draining the closed connection
+        assertEquals(300, budget.getUsedBytes());
+    }
+
+    @Test
+    void testDegradedConnectionSkipsPresence() throws Exception {
+        ConnectionState state = new ConnectionState("test-6", SocketChannel.open());
+        state.setDegradationLevel(ConnectionState.LEVEL_SKIP_PRESENCE);
+
+        assertTrue(state.tryWrite(new byte[100], ConnectionState.INTENT_GUILD_PRESENCES));
+        assertEquals(0, state.getBufferUsage());
+        assertEquals(1, state.getSkippedEvents());
+
+        assertTrue(state.tryWrite(new byte[100], ConnectionState.INTENT_GUILD_MESSAGES));
+        assertEquals(100, state.getBufferUsage());
+    }
+
+    @Test
+    void testPolicyLadderEscalatesOneRungAtATime() throws Exception {
+        SlowConsumerPolicy policy = new SlowConsumerPolicy();
+        ConnectionState state = new ConnectionState("test-7", SocketChannel.open());
+        state.tryWrite(new byte[1000]);  // never drained: time-to-drain is unbounded
+        long now = System.currentTimeMillis();
+
+        assertEquals(SlowConsumerPolicy.Action.NONE, policy.decide(state, now));  // dwell not met
+        assertEquals(SlowConsumerPolicy.Action.ESCALATE, policy.decide(state, now + 2_000));
+        state.setDegradationLevel(ConnectionState.LEVEL_SKIP_PRESENCE);
+        assertEquals(SlowConsumerPolicy.Action.ESCALATE, policy.decide(state, now + 4_000));
+        state.setDegradationLevel(ConnectionState.LEVEL_ESSENTIAL_ONLY);
+        assertEquals(SlowConsumerPolicy.Action.DISCONNECT, policy.decide(state, now + 20_000));
+
+        state.read(1000);  // backlog gone
+        assertEquals(SlowConsumerPolicy.Action.RESTORE, policy.decide(state, now + 22_000));
+    }
 }
@@ -32,6 +32,8 @@ if ss -tlnp 2>/dev/null | grep -qE ':8080 |:9090 '; then
 fi
 
 echo "Building project..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 echo "Starting Flux Gateway..."
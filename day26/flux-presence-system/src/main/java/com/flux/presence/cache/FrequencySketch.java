@@ -0,0 +1,72 @@
+package com.flux.presence.cache;
+
+/**
+ * Count-min sketch of access frequency used for TinyLFU admission.
+ *
+ * Four rows of small saturating counters (max 15). After {@code 10 x maxSize}
+ * increments every counter is halved, so popularity ages out and a user who
+ * was hot an hour ago cannot squat in the cache forever.
+ *
+ * Updates are unsynchronized: a lost increment only makes the estimate
+ * slightly lower, which admission tolerates.
+ */
+public final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final int[] table;
+    private final int width;
+    private final int widthMask;
+    private final int sampleSize;
+    private int additions;
+
+    public FrequencySketch(int maxSize) {
+        int w = Integer.highestOneBit(Math.max(16, maxSize) - 1) << 1;
+        this.width = w;
+        this.widthMask = w - 1;
+        this.table = new int[DEPTH * w];
+        this.sampleSize = 10 * Math.max(16, maxSize);
+    }
+
+    public void increment(long key) {
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + indexOf(key, row);
+            if (table[index] < MAX_COUNT) {
+                table[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Estimated access count (the minimum across rows).
+     */
+    public int frequency(long key) {
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, table[row * width + indexOf(key, row)]);
+        }
+        return min;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+        additions = 0;
+    }
+
+    private int indexOf(long key, int row) {
+        long h = (key + SEEDS[row]) * SEEDS[(row + 1) & 3];
+        h ^= h >>> 32;
+        return (int) h & widthMask;
+    }
+}
@@ -3,67 +3,149 @@ package com.flux.presence.cache;
 import com.flux.presence.core.CachedPresence;
 import com.flux.presence.core.PresenceStatus;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * L1 local cache for presence data.
  * Reduces Redis queries by 95%+ for frequently accessed users.
+ *
+ * Bounded with W-TinyLFU-style admission: new entries land in a small LRU
+ * window; when the window overflows, its eldest entry competes with the
+ * main segment's LRU victim and only the one the {@link FrequencySketch}
+ * says is accessed more often stays. A one-off scan of a huge member list
+ * therefore cannot flush the users everyone keeps looking at.
+ *
+ * Offline users are cached as negative entries with a shorter TTL, since
+ * an unknown user coming online elsewhere is not invalidated locally.
+ * Positive entries report {@link CachedPresence#needsRefresh} after
+ * {@code REFRESH_AHEAD_RATIO} of their TTL so callers can reload them early.
+ *
+ * The map is striped into segments, each guarded by its own monitor.
  */
 public class LocalPresenceCache {
-    
-    private final ConcurrentHashMap<Long, CachedPresence> cache = new ConcurrentHashMap<>();
+
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+    private static final int SEGMENTS = 16;
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double REFRESH_AHEAD_RATIO = 0.8;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final FrequencySketch sketch;
     private final long defaultTtlMillis;
-    
+    private final long negativeTtlMillis;
+    private final LongSupplier clock;
+
     // Metrics
     private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong negativeHits = new AtomicLong(0);
     private final AtomicLong misses = new AtomicLong(0);
-    
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong rejections = new AtomicLong(0);
+
     public LocalPresenceCache(long ttlMillis) {
+        this(DEFAULT_MAX_SIZE, ttlMillis, ttlMillis / 2, System::currentTimeMillis);
+    }
+
+    public LocalPresenceCache(int maxSize, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
         this.defaultTtlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+        this.sketch = new FrequencySketch(maxSize);
+
+        int perSegment = Math.max(2, maxSize / SEGMENTS);
+        int windowCap = Math.max(1, (int) (perSegment * WINDOW_RATIO));
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(windowCap, perSegment - windowCap);
+        }
     }
-    
+
     /**
-     * Get presence from cache. Returns null if expired or not present.
+     * Get the cached entry, or null if expired or not present.
+     * Every lookup feeds the frequency sketch, hit or miss.
      */
-    public PresenceStatus get(long userId) {
-        CachedPresence cached = cache.get(userId);
-        
-        if (cached != null && !cached.isExpired()) {
+    public CachedPresence getEntry(long userId) {
+        sketch.increment(userId);
+        long now = clock.getAsLong();
+        Segment segment = segmentFor(userId);
+        CachedPresence cached = segment.get(userId);
+
+        if (cached != null && !cached.isExpired(now)) {
             hits.incrementAndGet();
-            return PresenceStatus.fromString(cached.status());
+            if (cached.isNegative()) {
+                negativeHits.incrementAndGet();
+            }
+            return cached;
         }
-        
+
         // Cache miss or expired entry
         if (cached != null) {
-            cache.remove(userId); // Clean up expired entry
+            segment.remove(userId); // Clean up expired entry
         }
         misses.incrementAndGet();
         return null;
     }
-    
+
+    /**
+     * True once a served entry has passed its refresh-ahead point.
+     */
+    public boolean isRefreshDue(CachedPresence entry) {
+        return entry.needsRefresh(clock.getAsLong());
+    }
+
+    /**
+     * Get presence from cache. Returns null if expired or not present.
+     */
+    public PresenceStatus get(long userId) {
+        CachedPresence cached = getEntry(userId);
+        return cached != null ? cached.status() : null;
+    }
+
     /**
-     * Store presence in cache with default TTL.
+     * Store presence in cache. OFFLINE is stored as a negative entry with
+     * the shorter negative TTL and is never refreshed ahead.
      */
     public void put(long userId, PresenceStatus status) {
-        long expiry = System.currentTimeMillis() + defaultTtlMillis;
-        cache.put(userId, new CachedPresence(status.getValue(), expiry));
+        long now = clock.getAsLong();
+        CachedPresence entry;
+        if (status == PresenceStatus.OFFLINE) {
+            long expiry = now + negativeTtlMillis;
+            entry = new CachedPresence(status, expiry, expiry);
+        } else {
+            entry = new CachedPresence(status,
+                now + (long) (defaultTtlMillis * REFRESH_AHEAD_RATIO),
+                now + defaultTtlMillis);
+        }
+        segmentFor(userId).put(userId, entry);
     }
-    
+
     /**
      * Invalidate a user's cached presence.
      */
     public void invalidate(long userId) {
-        cache.remove(userId);
+        segmentFor(userId).remove(userId);
     }
-    
+
     /**
      * Clear all cached entries.
      */
     public void clear() {
-        cache.clear();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
     }
-    
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
     /**
      * Get cache hit rate as percentage.
      */
@@ -72,18 +154,91 @@ public class LocalPresenceCache {
         if (totalQueries == 0) return 0.0;
         return (double) hits.get() / totalQueries * 100.0;
     }
-    
+
     /**
      * Get cache statistics.
      */
     public CacheStats getStats() {
-        return new CacheStats(hits.get(), misses.get(), cache.size());
+        return new CacheStats(hits.get(), misses.get(), size(),
+            negativeHits.get(), evictions.get(), rejections.get());
     }
-    
-    public record CacheStats(long hits, long misses, int size) {
+
+    public record CacheStats(long hits, long misses, int size,
+                             long negativeHits, long evictions, long rejections) {
         public double hitRate() {
             long total = hits + misses;
             return total == 0 ? 0.0 : (double) hits / total * 100.0;
         }
     }
+
+    private Segment segmentFor(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return segments[(int) (h >>> 60) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Window LRU + main LRU with TinyLFU admission between them.
+     */
+    private final class Segment {
+        private final LinkedHashMap<Long, CachedPresence> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Long, CachedPresence> main = new LinkedHashMap<>(16, 0.75f, true);
+        private final int windowCap;
+        private final int mainCap;
+
+        Segment(int windowCap, int mainCap) {
+            this.windowCap = windowCap;
+            this.mainCap = Math.max(1, mainCap);
+        }
+
+        synchronized CachedPresence get(long userId) {
+            CachedPresence cached = window.get(userId);
+            return cached != null ? cached : main.get(userId);
+        }
+
+        synchronized void put(long userId, CachedPresence entry) {
+            if (main.containsKey(userId)) {
+                main.put(userId, entry);
+                return;
+            }
+            window.put(userId, entry);
+            if (window.size() <= windowCap) {
+                return;
+            }
+
+            // Window overflow: its eldest entry becomes an admission candidate
+            Iterator<Map.Entry<Long, CachedPresence>> it = window.entrySet().iterator();
+            Map.Entry<Long, CachedPresence> candidate = it.next();
+            it.remove();
+
+            if (main.size() < mainCap) {
+                main.put(candidate.getKey(), candidate.getValue());
+                return;
+            }
+
+            Iterator<Map.Entry<Long, CachedPresence>> mainIt = main.entrySet().iterator();
+            Map.Entry<Long, CachedPresence> victim = mainIt.next();
+            if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+                mainIt.remove();
+                main.put(candidate.getKey(), candidate.getValue());
+                evictions.incrementAndGet();
+            } else {
+                rejections.incrementAndGet();
+            }
+        }
+
+        synchronized void remove(long userId) {
+            if (window.remove(userId) == null) {
+                main.remove(userId);
+            }
+        }
+
+        synchronized void clear() {
+            window.clear();
+            main.clear();
+        }
+
+        synchronized int size() {
+            return window.size() + main.size();
+        }
+    }
 }
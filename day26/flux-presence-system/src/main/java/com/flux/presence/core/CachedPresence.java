@@ -3,18 +3,25 @@ package com.flux.presence.core;
 /**
  * Immutable presence entry for L1 local cache.
  * Uses Java Record for zero-allocation value semantics.
+ *
+ * An entry is served until {@code expiryTimeMillis}; once it passes
+ * {@code refreshAtMillis} readers still get it, but the service reloads it
+ * in the background so hot users never see a synchronous miss.
  */
-public record CachedPresence(String status, long expiryTimeMillis) {
+public record CachedPresence(PresenceStatus status, long refreshAtMillis, long expiryTimeMillis) {
     
-    public boolean isExpired() {
-        return System.currentTimeMillis() > expiryTimeMillis;
+    public boolean isExpired(long nowMillis) {
+        return nowMillis > expiryTimeMillis;
     }
     
-    public static CachedPresence online(long ttlMillis) {
-        return new CachedPresence("online", System.currentTimeMillis() + ttlMillis);
+    public boolean needsRefresh(long nowMillis) {
+        return nowMillis >= refreshAtMillis;
     }
     
-    public static CachedPresence offline() {
-        return new CachedPresence("offline", System.currentTimeMillis() + 5000);
+    /**
+     * Negative entry: the user is known to be offline.
+     */
+    public boolean isNegative() {
+        return status == PresenceStatus.OFFLINE;
     }
 }
@@ -4,17 +4,25 @@ import com.flux.presence.cache.LocalPresenceCache;
 import com.flux.presence.redis.RedisPresenceStore;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
  * Main presence service with hybrid L1/L2 caching and write batching.
+ *
+ * L1 misses are single-flight: concurrent readers of the same user share
+ * one Redis load. Hot entries are reloaded in the background before they
+ * expire, and bulk lookups go out as a single batched MGET.
  */
 public class PresenceService implements AutoCloseable {
     
     private static final Logger logger = Logger.getLogger(PresenceService.class.getName());
     private static final long L1_CACHE_TTL_MILLIS = 5000; // 5 seconds
+    private static final long L1_NEGATIVE_TTL_MILLIS = 2000; // offline users come back online
+    private static final int L1_MAX_ENTRIES = 100_000;
     private static final int BATCH_FLUSH_INTERVAL_MS = 500;
     private static final int MAX_BATCH_SIZE = 1000;
     
@@ -22,10 +30,17 @@ public class PresenceService implements AutoCloseable {
     private final RedisPresenceStore redisStore;
     private final ConcurrentLinkedQueue<Long> pendingUpdates;
     private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<Long, CompletableFuture<PresenceStatus>> inFlight = new ConcurrentHashMap<>();
     private volatile boolean running = true;
     
+    // Metrics
+    private final AtomicLong coalescedLoads = new AtomicLong(0);
+    private final AtomicLong refreshAheads = new AtomicLong(0);
+    private final AtomicLong batchedLookups = new AtomicLong(0);
+    
     public PresenceService(String redisHost, int redisPort) {
-        this.localCache = new LocalPresenceCache(L1_CACHE_TTL_MILLIS);
+        this.localCache = new LocalPresenceCache(L1_MAX_ENTRIES, L1_CACHE_TTL_MILLIS,
+            L1_NEGATIVE_TTL_MILLIS, System::currentTimeMillis);
         this.redisStore = new RedisPresenceStore(redisHost, redisPort);
         this.pendingUpdates = new ConcurrentLinkedQueue<>();
         this.scheduler = Executors.newScheduledThreadPool(1);
@@ -45,7 +60,9 @@ public class PresenceService implements AutoCloseable {
      * Mark user as online. Queues update for batching.
      */
     public void markOnline(long userId) {
-        // Update L1 cache immediately for local reads
+        // Update L1 cache immediately for local reads; a load already in
+        // flight may carry the pre-write value and must not overwrite this
+        inFlight.remove(userId);
         localCache.put(userId, PresenceStatus.ONLINE);
         
         // Queue for Redis batch write
@@ -57,24 +74,120 @@ public class PresenceService implements AutoCloseable {
      */
     public CompletableFuture<PresenceStatus> getPresence(long userId) {
         // Check L1 cache
-        PresenceStatus cached = localCache.get(userId);
+        CachedPresence cached = localCache.getEntry(userId);
         if (cached != null) {
-            return CompletableFuture.completedFuture(cached);
+            if (localCache.isRefreshDue(cached)) {
+                refreshAhead(userId);
+            }
+            return CompletableFuture.completedFuture(cached.status());
         }
         
-        // L1 miss - fetch from Redis and populate cache
-        return redisStore.getPresence(userId)
-            .thenApply(status -> {
-                localCache.put(userId, status);
-                return status;
+        // L1 miss - fetch from Redis (shared with concurrent readers)
+        return load(userId);
+    }
+    
+    /**
+     * Get presence for many users at once. L1 hits are answered locally;
+     * misses and due refreshes go to Redis as one batched MGET. Duplicate
+     * ids and ids already being loaded share the same pending result.
+     */
+    public CompletableFuture<PresenceStatus[]> getPresences(long[] userIds) {
+        PresenceStatus[] result = new PresenceStatus[userIds.length];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<PresenceStatus>[] waiting = new CompletableFuture[userIds.length];
+        long[] fetchIds = new long[userIds.length];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<PresenceStatus>[] fetchFutures = new CompletableFuture[userIds.length];
+        int fetchCount = 0;
+        int waitCount = 0;
+        
+        for (int i = 0; i < userIds.length; i++) {
+            long userId = userIds[i];
+            CachedPresence cached = localCache.getEntry(userId);
+            boolean refresh = cached != null && localCache.isRefreshDue(cached);
+            if (cached != null) {
+                result[i] = cached.status();
+                if (!refresh) continue;
+            }
+            
+            CompletableFuture<PresenceStatus> pending = new CompletableFuture<>();
+            CompletableFuture<PresenceStatus> existing = inFlight.putIfAbsent(userId, pending);
+            if (existing == null) {
+                fetchIds[fetchCount] = userId;
+                fetchFutures[fetchCount++] = pending;
+                if (refresh) refreshAheads.incrementAndGet();
+                existing = pending;
+            } else if (!refresh) {
+                coalescedLoads.incrementAndGet();
+            }
+            if (cached == null) {
+                waiting[i] = existing;
+                waitCount++;
+            }
+        }
+        
+        if (fetchCount > 0) {
+            batchedLookups.incrementAndGet();
+            long[] ids = Arrays.copyOf(fetchIds, fetchCount);
+            CompletableFuture<PresenceStatus>[] futures = Arrays.copyOf(fetchFutures, fetchCount);
+            redisStore.getPresences(ids).whenComplete((statuses, ex) -> {
+                for (int j = 0; j < ids.length; j++) {
+                    complete(ids[j], futures[j], ex == null ? statuses[j] : PresenceStatus.UNKNOWN);
+                }
             });
+        }
+        
+        if (waitCount == 0) {
+            return CompletableFuture.completedFuture(result);
+        }
+        List<CompletableFuture<PresenceStatus>> pendingReads = new ArrayList<>(waitCount);
+        for (int i = 0; i < waiting.length; i++) {
+            if (waiting[i] != null) {
+                int slot = i;
+                pendingReads.add(waiting[i].thenApply(status -> result[slot] = status));
+            }
+        }
+        return CompletableFuture.allOf(pendingReads.toArray(new CompletableFuture[0]))
+            .thenApply(v -> result);
+    }
+    
+    private CompletableFuture<PresenceStatus> load(long userId) {
+        CompletableFuture<PresenceStatus> pending = new CompletableFuture<>();
+        CompletableFuture<PresenceStatus> existing = inFlight.putIfAbsent(userId, pending);
+        if (existing != null) {
+            coalescedLoads.incrementAndGet();
+            return existing;
+        }
+        redisStore.getPresence(userId)
+            .whenComplete((status, ex) -> complete(userId, pending, ex == null ? status : PresenceStatus.UNKNOWN));
+        return pending;
+    }
+    
+    private void refreshAhead(long userId) {
+        if (inFlight.containsKey(userId)) return;
+        refreshAheads.incrementAndGet();
+        load(userId);
+    }
+    
+    /**
+     * Publish a load result. The L1 cache is only populated if this load is
+     * still the registered one (a local write in between wins), and UNKNOWN
+     * from a Redis error is never cached.
+     */
+    private void complete(long userId, CompletableFuture<PresenceStatus> pending, PresenceStatus status) {
+        if (inFlight.remove(userId, pending) && status != PresenceStatus.UNKNOWN) {
+            localCache.put(userId, status);
+        }
+        pending.complete(status);
     }
     
     /**
      * Mark user as offline (explicit logout).
      */
     public CompletableFuture<Void> markOffline(long userId) {
-        localCache.invalidate(userId);
+        // Cached as a short-lived negative entry
+        inFlight.remove(userId);
+        localCache.put(userId, PresenceStatus.OFFLINE);
         return redisStore.setPresence(userId, PresenceStatus.OFFLINE);
     }
     
@@ -113,7 +226,14 @@ public class PresenceService implements AutoCloseable {
             redisStats.writes(),
             redisStats.reads(),
             redisStats.errors(),
-            pendingUpdates.size()
+            pendingUpdates.size(),
+            cacheStats.size(),
+            cacheStats.negativeHits(),
+            cacheStats.evictions(),
+            cacheStats.rejections(),
+            coalescedLoads.get(),
+            refreshAheads.get(),
+            batchedLookups.get()
         );
     }
     
@@ -124,7 +244,14 @@ public class PresenceService implements AutoCloseable {
         long redisWrites,
         long redisReads,
         long redisErrors,
-        int pendingQueueSize
+        int pendingQueueSize,
+        int cacheSize,
+        long negativeHits,
+        long cacheEvictions,
+        long admissionRejections,
+        long coalescedLoads,
+        long refreshAheads,
+        long batchedLookups
     ) {}
     
     @Override
@@ -203,10 +203,14 @@ public class DashboardHandler implements HttpHandler {
         var metrics = presenceService.getMetrics();
         String json = String.format(
             "{\"cacheHits\":%d,\"cacheMisses\":%d,\"cacheHitRate\":%.2f," +
-            "\"redisWrites\":%d,\"redisReads\":%d,\"redisErrors\":%d,\"pendingQueueSize\":%d}",
+            "\"redisWrites\":%d,\"redisReads\":%d,\"redisErrors\":%d,\"pendingQueueSize\":%d," +
+            "\"cacheSize\":%d,\"negativeHits\":%d,\"cacheEvictions\":%d,\"admissionRejections\":%d," +
+            "\"coalescedLoads\":%d,\"refreshAheads\":%d,\"batchedLookups\":%d}",
             metrics.cacheHits(), metrics.cacheMisses(), metrics.cacheHitRate(),
             metrics.redisWrites(), metrics.redisReads(), metrics.redisErrors(),
-            metrics.pendingQueueSize()
+            metrics.pendingQueueSize(), metrics.cacheSize(), metrics.negativeHits(),
+            metrics.cacheEvictions(), metrics.admissionRejections(),
+            metrics.coalescedLoads(), metrics.refreshAheads(), metrics.batchedLookups()
         );
         sendResponse(exchange, 200, json, "application/json");
     }
@@ -21,7 +21,8 @@ public class RedisPresenceStore implements AutoCloseable {
     
     private static final Logger logger = Logger.getLogger(RedisPresenceStore.class.getName());
     private static final int PRESENCE_TTL_SECONDS = 90; // 30s grace period beyond 60s heartbeat
-    
+    private static final int MGET_CHUNK = 500;
+
     private final RedisClient client;
     private final StatefulRedisConnection<String, String> connection;
     private final RedisAsyncCommands<String, String> asyncCommands;
@@ -85,6 +86,51 @@ public class RedisPresenceStore implements AutoCloseable {
             });
     }
     
+    /**
+     * Batch read presence with MGET, one round-trip per {@code MGET_CHUNK}
+     * keys. Result slots line up with {@code userIds}; a failed chunk
+     * reports UNKNOWN for its users rather than failing the whole batch.
+     */
+    public CompletableFuture<PresenceStatus[]> getPresences(long[] userIds) {
+        PresenceStatus[] result = new PresenceStatus[userIds.length];
+        if (userIds.length == 0) {
+            return CompletableFuture.completedFuture(result);
+        }
+        readCount.addAndGet(userIds.length);
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < userIds.length; from += MGET_CHUNK) {
+            int start = from;
+            int end = Math.min(userIds.length, from + MGET_CHUNK);
+            String[] keys = new String[end - start];
+            for (int i = start; i < end; i++) {
+                keys[i - start] = buildKey(userIds[i]);
+            }
+
+            chunks.add(asyncCommands.mget(keys)
+                .toCompletableFuture()
+                .thenAccept(values -> {
+                    for (int i = 0; i < values.size(); i++) {
+                        var kv = values.get(i);
+                        result[start + i] = kv.hasValue()
+                            ? PresenceStatus.fromString(kv.getValue())
+                            : PresenceStatus.OFFLINE;
+                    }
+                })
+                .exceptionally(ex -> {
+                    errorCount.incrementAndGet();
+                    logger.warning("Batch read failed for " + keys.length + " users: " + ex.getMessage());
+                    for (int i = start; i < end; i++) {
+                        result[i] = PresenceStatus.UNKNOWN;
+                    }
+                    return null;
+                }));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+            .thenApply(v -> result);
+    }
+
     /**
      * Batch write presence updates using pipelining.
      */
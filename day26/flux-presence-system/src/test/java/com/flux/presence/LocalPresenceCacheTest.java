@@ -0,0 +1,74 @@
+package com.flux.presence;
+
+import com.flux.presence.cache.LocalPresenceCache;
+import com.flux.presence.core.CachedPresence;
+import com.flux.presence.core.PresenceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalPresenceCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @Test
+    void testRefreshAheadBeforeExpiry() {
+        LocalPresenceCache cache = new LocalPresenceCache(1000, 5000, 2000, clock::get);
+        cache.put(1L, PresenceStatus.ONLINE);
+
+        CachedPresence entry = cache.getEntry(1L);
+        assertFalse(cache.isRefreshDue(entry));
+
+        clock.addAndGet(4500);
+        entry = cache.getEntry(1L);
+        assertNotNull(entry);
+        assertTrue(cache.isRefreshDue(entry));
+
+        clock.addAndGet(1000);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testNegativeEntriesUseShorterTtl() {
+        LocalPresenceCache cache = new LocalPresenceCache(1000, 5000, 2000, clock::get);
+        cache.put(1L, PresenceStatus.OFFLINE);
+
+        assertEquals(PresenceStatus.OFFLINE, cache.get(1L));
+        assertEquals(1, cache.getStats().negativeHits());
+
+        clock.addAndGet(2500);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testScanDoesNotEvictHotUsers() {
+        LocalPresenceCache cache = new LocalPresenceCache(1600, 60_000, 60_000, clock::get);
+
+        // Hot set, read repeatedly
+        for (long userId = 0; userId < 800; userId++) {
+            cache.put(userId, PresenceStatus.ONLINE);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (long userId = 0; userId < 800; userId++) {
+                cache.get(userId);
+            }
+        }
+
+        // One-off scan of a large member list while the hot set stays in use
+        for (long userId = 1_000_000; userId < 1_050_000; userId++) {
+            cache.get(userId);
+            cache.put(userId, PresenceStatus.ONLINE);
+            cache.get(userId % 800);
+        }
+
+        int retained = 0;
+        for (long userId = 0; userId < 800; userId++) {
+            if (cache.get(userId) != null) retained++;
+        }
+        assertTrue(retained > 700, "hot users retained: " + retained);
+        assertTrue(cache.size() <= 1600);
+        assertTrue(cache.getStats().rejections() > 0);
+    }
+}
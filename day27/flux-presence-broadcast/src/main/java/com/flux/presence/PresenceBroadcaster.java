@@ -1,8 +1,8 @@
 package com.flux.presence;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -13,65 +13,101 @@ import java.util.concurrent.atomic.AtomicLong;
  * 1. Serialize PresenceUpdate once to ByteBuffer
  * 2. Share read-only view across all recipients
  * 3. Spawn Virtual Thread per recipient for non-blocking I/O
- * 4. Coalesce rapid updates in 200ms window
+ * 4. Coalesce rapid updates in 200ms window into an off-heap
+ *    {@link PresenceStateTable}; each flush emits one delta per guild
  */
 public class PresenceBroadcaster {
     private final GuildMemberRegistry registry;
     private final ExecutorService fanOutExecutor;
     private final ScheduledExecutorService coalescer;
     
-    // Pending updates awaiting broadcast (coalescing window)
-    private final ConcurrentHashMap<CoalescingKey, PresenceUpdate> pendingUpdates;
+    private static final int DEFAULT_STATE_TABLE_CAPACITY = 1 << 16;  // 64K members, ~10MB off-heap
+    
+    // Last-known presence per member plus dirty bits for the coalescing window
+    private final PresenceStateTable stateTable;
+    private final PresenceStateTable.DeltaSink deltaSink = this::fanOutDelta;
     
     // Metrics
     private final AtomicLong broadcastCount = new AtomicLong(0);
+    private final AtomicLong updatesScheduled = new AtomicLong(0);
+    private final AtomicLong updatesFlushed = new AtomicLong(0);
     private final AtomicLong messagesSent = new AtomicLong(0);
     private final AtomicLong slowConsumerDetections = new AtomicLong(0);
     
-    // Thread-local buffer pool for serialization
-    private static final ThreadLocal<ByteBuffer> BUFFER_POOL = 
-        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(512));
-    
     public PresenceBroadcaster(GuildMemberRegistry registry) {
+        this(registry, DEFAULT_STATE_TABLE_CAPACITY);
+    }
+    
+    public PresenceBroadcaster(GuildMemberRegistry registry, int stateTableCapacity) {
         this.registry = registry;
         this.fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
         this.coalescer = Executors.newScheduledThreadPool(1);
-        this.pendingUpdates = new ConcurrentHashMap<>();
+        this.stateTable = new PresenceStateTable(stateTableCapacity);
         
         // Start coalescing task (flush every 200ms)
         coalescer.scheduleAtFixedRate(this::flushPendingUpdates, 200, 200, TimeUnit.MILLISECONDS);
     }
     
-    private record CoalescingKey(long guildId, long userId) {}
-    
     /**
      * Schedule a presence update for broadcasting.
      * Updates are coalesced in 200ms windows to reduce redundant broadcasts.
      */
     public void schedulePresenceUpdate(long guildId, PresenceUpdate update) {
-        pendingUpdates.merge(
-            new CoalescingKey(guildId, update.userId()),
-            update,
-            (oldUpdate, newUpdate) -> newUpdate  // Keep latest
-        );
+        schedulePresenceUpdate(guildId, update.userId(), update.status(), update.timestamp(), update.activity());
     }
     
     /**
-     * Flush all pending presence updates.
+     * Primitive variant: no record, no key object, nothing allocated per update.
+     * Last writer (by timestamp) wins within the window.
+     */
+    public void schedulePresenceUpdate(long guildId, long userId, PresenceStatus status,
+                                       long timestamp, String activity) {
+        updatesScheduled.incrementAndGet();
+        if (!stateTable.put(guildId, userId, status, timestamp, activity)) {
+            // Table full: degrade to an uncoalesced broadcast rather than lose the update
+            broadcastImmediate(guildId, new PresenceUpdate(userId, status, timestamp, activity));
+        }
+    }
+    
+    /**
+     * Flush all pending presence updates: one delta frame per dirty guild.
      */
     private void flushPendingUpdates() {
-        if (pendingUpdates.isEmpty()) return;
-        
-        // Atomically swap out pending map
-        Map<CoalescingKey, PresenceUpdate> batch = new ConcurrentHashMap<>(pendingUpdates);
-        pendingUpdates.clear();
-        
-        // Broadcast each update
-        batch.forEach((key, update) -> broadcastImmediate(key.guildId, update));
+        try {
+            updatesFlushed.addAndGet(stateTable.drainDirty(deltaSink));
+        } catch (Exception e) {
+            // Keep the scheduled task alive
+            System.err.println("Presence flush failed: " + e.getMessage());
+        }
     }
     
     /**
-     * Immediate broadcast (no coalescing).
+     * Deliver a guild's delta off the table lock: one task per guild, and the
+     * frame is shared read-only by every recipient. A single-update delta
+     * skips its sender, as before coalescing; a multi-update delta cannot be
+     * split per recipient, so senders receive their own entry and clients
+     * ignore updates carrying their own userId.
+     */
+    private void fanOutDelta(long guildId, ByteBuffer frame, int updateCount) {
+        broadcastCount.incrementAndGet();
+        boolean single = updateCount == 1;
+        long senderId = single ? frame.getLong(frame.position() + 4) : 0L;
+        fanOutExecutor.submit(() -> {
+            for (GatewayConnection conn : registry.getGuildMembers(guildId)) {
+                if (single && conn.getUserId() == senderId) {
+                    continue;
+                }
+                messagesSent.incrementAndGet();
+                if (!conn.getRingBuffer().offer(frame.asReadOnlyBuffer())) {
+                    slowConsumerDetections.incrementAndGet();
+                }
+            }
+        });
+    }
+    
+    /**
+     * Immediate broadcast (no coalescing). The frame is a count=1 delta, so
+     * clients see the same wire format as coalesced flushes.
      */
     public void broadcastImmediate(long guildId, PresenceUpdate update) {
         broadcastCount.incrementAndGet();
@@ -111,25 +147,24 @@ public class PresenceBroadcaster {
     }
     
     /**
-     * Serialize PresenceUpdate to ByteBuffer using thread-local pool.
-     * Wire format: [userId:8][status:1][timestamp:8][activityLen:2][activity:N]
+     * Serialize PresenceUpdate as a single-update delta frame in its own
+     * ByteBuffer. The buffer is read asynchronously by every recipient, so it
+     * must not be a reused thread-local; this path only runs when coalescing
+     * is bypassed.
+     * Wire format: [count:4 = 1][userId:8][status:1][timestamp:8][activityLen:2][activity:N]
      */
     private ByteBuffer serializePresenceUpdate(PresenceUpdate update) {
-        ByteBuffer buf = BUFFER_POOL.get();
-        buf.clear();
+        String activity = update.activity();
+        byte[] activityBytes = activity != null
+            ? activity.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        ByteBuffer buf = ByteBuffer.allocate(4 + 8 + 1 + 8 + 2 + activityBytes.length);
         
+        buf.putInt(1);
         buf.putLong(update.userId());
         buf.put((byte) update.status().getWireValue());
         buf.putLong(update.timestamp());
-        
-        String activity = update.activity();
-        if (activity != null) {
-            byte[] activityBytes = activity.getBytes();
-            buf.putShort((short) activityBytes.length);
-            buf.put(activityBytes);
-        } else {
-            buf.putShort((short) 0);
-        }
+        buf.putShort((short) activityBytes.length);
+        buf.put(activityBytes);
         
         buf.flip();
         return buf;
@@ -138,6 +173,9 @@ public class PresenceBroadcaster {
     public long getBroadcastCount() { return broadcastCount.get(); }
     public long getMessagesSent() { return messagesSent.get(); }
     public long getSlowConsumerDetections() { return slowConsumerDetections.get(); }
+    public long getUpdatesScheduled() { return updatesScheduled.get(); }
+    public long getUpdatesFlushed() { return updatesFlushed.get(); }
+    public PresenceStateTable getStateTable() { return stateTable; }
     
     public void shutdown() {
         coalescer.shutdown();
@@ -0,0 +1,363 @@
+package com.flux.presence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Off-heap presence state table with a dirty bitset.
+ *
+ * Open-addressing (linear probing) over a single direct ByteBuffer, keyed by
+ * the primitive (guildId, userId) pair. Each slot holds the last-known
+ * presence for that member; a newer update overwrites it in place
+ * (last-writer-wins by timestamp) and sets the slot's dirty bit. Nothing is
+ * allocated per update - no key record, no map node, no boxed long.
+ *
+ * The coalescing flush walks only the set bits of the dirty bitset, groups
+ * the dirty slots by guild and hands each guild one serialized delta frame.
+ *
+ * Slot layout (160 bytes):
+ *   [guildId:8][userId:8][timestamp:8][status:1][used:1][activityLen:2][activity:128][pad:4]
+ *
+ * Delta frame wire format:
+ *   [count:4] then count x [userId:8][status:1][timestamp:8][activityLen:2][activity:N]
+ *
+ * When the table reaches its load limit, clean entries (already broadcast,
+ * only kept as last-known state) are evicted to make room, so coalescing
+ * keeps working for new members instead of degrading for good.
+ *
+ * Writers and the flusher share the instance monitor; the critical sections
+ * are a handful of absolute puts, and the flush runs once per window.
+ */
+public final class PresenceStateTable {
+    public static final int MAX_ACTIVITY_BYTES = 128;
+    static final int ENTRY_BYTES = 160;
+
+    private static final int OFF_GUILD = 0;
+    private static final int OFF_USER = 8;
+    private static final int OFF_TIMESTAMP = 16;
+    private static final int OFF_STATUS = 24;
+    private static final int OFF_USED = 25;
+    private static final int OFF_ACTIVITY_LEN = 26;
+    private static final int OFF_ACTIVITY = 28;
+
+    private static final int UPDATE_HEADER_BYTES = 8 + 1 + 8 + 2;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Receives one delta per guild per flush. The frame is freshly allocated
+     * and may be shared read-only across recipients.
+     */
+    @FunctionalInterface
+    public interface DeltaSink {
+        void onGuildDelta(long guildId, ByteBuffer frame, int updateCount);
+    }
+
+    private final ByteBuffer table;
+    private final int capacity;
+    private final int mask;
+    private final int maxSize;
+    private final long[] dirty;
+    private int size = 0;
+    private int dirtyCount = 0;
+    private long evictions = 0;
+
+    // Flush scratch, reused every window
+    private final int[] scratchSlots;
+    private final long[] scratchGuilds;
+    private final long[] scratchUsers;
+
+    public PresenceStateTable(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("Capacity must be power of 2");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxSize = (int) (capacity * MAX_LOAD_FACTOR);
+        this.table = ByteBuffer.allocateDirect(capacity * ENTRY_BYTES);
+        this.dirty = new long[(capacity + 63) >>> 6];
+        this.scratchSlots = new int[capacity];
+        this.scratchGuilds = new long[capacity];
+        this.scratchUsers = new long[capacity];
+    }
+
+    /**
+     * Record a presence change. Older updates (by timestamp) for the same
+     * member are ignored. Returns false only if the table is full of pending
+     * (dirty) updates, in which case the caller should broadcast the update
+     * directly.
+     */
+    public synchronized boolean put(long guildId, long userId, PresenceStatus status,
+                                    long timestamp, String activity) {
+        int slot = findSlot(guildId, userId);
+        int base = slot * ENTRY_BYTES;
+
+        if (table.get(base + OFF_USED) == 0) {
+            if (size >= maxSize) {
+                if (!evictClean()) {
+                    return false;
+                }
+                slot = findSlot(guildId, userId);  // eviction shifted entries
+                base = slot * ENTRY_BYTES;
+            }
+            table.putLong(base + OFF_GUILD, guildId);
+            table.putLong(base + OFF_USER, userId);
+            table.put(base + OFF_USED, (byte) 1);
+            size++;
+        } else if (timestamp < table.getLong(base + OFF_TIMESTAMP)) {
+            return true;  // Stale: a newer update already won
+        }
+
+        table.putLong(base + OFF_TIMESTAMP, timestamp);
+        table.put(base + OFF_STATUS, (byte) status.getWireValue());
+        table.putShort(base + OFF_ACTIVITY_LEN, (short) encodeActivity(activity, base + OFF_ACTIVITY));
+
+        long bit = 1L << (slot & 63);
+        if ((dirty[slot >>> 6] & bit) == 0) {
+            dirty[slot >>> 6] |= bit;
+            dirtyCount++;
+        }
+        return true;
+    }
+
+    /**
+     * Emit one delta frame per guild covering every member that changed since
+     * the last drain, then clear the dirty bits. OFFLINE members are removed
+     * from the table once their final update has been emitted.
+     *
+     * @return number of member updates emitted
+     */
+    public synchronized int drainDirty(DeltaSink sink) {
+        if (dirtyCount == 0) {
+            return 0;
+        }
+
+        // Collect dirty slots by walking set bits only
+        int n = 0;
+        for (int word = 0; word < dirty.length; word++) {
+            long bits = dirty[word];
+            while (bits != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                scratchSlots[n] = slot;
+                scratchGuilds[n] = table.getLong(slot * ENTRY_BYTES + OFF_GUILD);
+                n++;
+            }
+            dirty[word] = 0;
+        }
+        dirtyCount = 0;
+
+        sortByGuild(0, n - 1);
+
+        // One frame per run of equal guild ids
+        int runStart = 0;
+        while (runStart < n) {
+            long guildId = scratchGuilds[runStart];
+            int runEnd = runStart;
+            int frameBytes = 4;
+            while (runEnd < n && scratchGuilds[runEnd] == guildId) {
+                frameBytes += UPDATE_HEADER_BYTES + table.getShort(scratchSlots[runEnd] * ENTRY_BYTES + OFF_ACTIVITY_LEN);
+                runEnd++;
+            }
+
+            ByteBuffer frame = ByteBuffer.allocate(frameBytes);
+            frame.putInt(runEnd - runStart);
+            for (int i = runStart; i < runEnd; i++) {
+                int base = scratchSlots[i] * ENTRY_BYTES;
+                int activityLen = table.getShort(base + OFF_ACTIVITY_LEN);
+                frame.putLong(table.getLong(base + OFF_USER));
+                frame.put(table.get(base + OFF_STATUS));
+                frame.putLong(table.getLong(base + OFF_TIMESTAMP));
+                frame.putShort((short) activityLen);
+                frame.put(frame.position(), table, base + OFF_ACTIVITY, activityLen);
+                frame.position(frame.position() + activityLen);
+            }
+            frame.flip();
+            sink.onGuildDelta(guildId, frame, runEnd - runStart);
+            runStart = runEnd;
+        }
+
+        // Forget members that went offline; their last delta is already out.
+        // Keys are gathered first because deletion shifts entries between slots.
+        int offline = 0;
+        for (int i = 0; i < n; i++) {
+            int base = scratchSlots[i] * ENTRY_BYTES;
+            if (table.get(base + OFF_STATUS) == PresenceStatus.OFFLINE.getWireValue()) {
+                scratchGuilds[offline] = scratchGuilds[i];
+                scratchUsers[offline] = table.getLong(base + OFF_USER);
+                offline++;
+            }
+        }
+        for (int i = 0; i < offline; i++) {
+            remove(scratchGuilds[i], scratchUsers[i]);
+        }
+        return n;
+    }
+
+    /**
+     * Evict every clean entry: its delta is already out, so only the
+     * last-known state (and last-writer-wins protection against a late,
+     * older update) is lost. Skipped unless it frees at least a quarter of
+     * the table, so a table full of pending updates does not rescan on
+     * every put.
+     *
+     * @return true if room was made
+     */
+    private boolean evictClean() {
+        if (size - dirtyCount < maxSize / 4) {
+            return false;
+        }
+        // Keys are gathered first because deletion shifts entries between slots
+        int n = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = slot * ENTRY_BYTES;
+            if (table.get(base + OFF_USED) != 0 && (dirty[slot >>> 6] & (1L << (slot & 63))) == 0) {
+                scratchGuilds[n] = table.getLong(base + OFF_GUILD);
+                scratchUsers[n] = table.getLong(base + OFF_USER);
+                n++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            remove(scratchGuilds[i], scratchUsers[i]);
+        }
+        evictions += n;
+        return true;
+    }
+
+    /**
+     * Last known status for a member, or null if not tracked.
+     */
+    public synchronized PresenceStatus getStatus(long guildId, long userId) {
+        int base = findSlot(guildId, userId) * ENTRY_BYTES;
+        if (table.get(base + OFF_USED) == 0) {
+            return null;
+        }
+        return PresenceStatus.fromWireValue(table.get(base + OFF_STATUS));
+    }
+
+    public synchronized int size() { return size; }
+    public synchronized int dirtyCount() { return dirtyCount; }
+    public synchronized long evictions() { return evictions; }
+    public int capacity() { return capacity; }
+    public long offHeapBytes() { return (long) capacity * ENTRY_BYTES; }
+
+    /**
+     * Slot holding the key, or the empty slot where it would be inserted.
+     */
+    private int findSlot(long guildId, long userId) {
+        int slot = hash(guildId, userId) & mask;
+        while (true) {
+            int base = slot * ENTRY_BYTES;
+            if (table.get(base + OFF_USED) == 0
+                    || (table.getLong(base + OFF_USER) == userId && table.getLong(base + OFF_GUILD) == guildId)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Backward-shift deletion keeps probe chains intact without tombstones.
+     */
+    private void remove(long guildId, long userId) {
+        int hole = findSlot(guildId, userId);
+        if (table.get(hole * ENTRY_BYTES + OFF_USED) == 0) {
+            return;
+        }
+        int next = (hole + 1) & mask;
+        while (table.get(next * ENTRY_BYTES + OFF_USED) != 0) {
+            int nextBase = next * ENTRY_BYTES;
+            int home = hash(table.getLong(nextBase + OFF_GUILD), table.getLong(nextBase + OFF_USER)) & mask;
+            // Move the entry back if the hole lies on its probe path (cyclic interval [home, next))
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table.put(hole * ENTRY_BYTES, table, nextBase, ENTRY_BYTES);
+                moveDirtyBit(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table.put(hole * ENTRY_BYTES + OFF_USED, (byte) 0);
+        size--;
+    }
+
+    private void moveDirtyBit(int from, int to) {
+        long fromBit = 1L << (from & 63);
+        long toBit = 1L << (to & 63);
+        if ((dirty[from >>> 6] & fromBit) != 0) {
+            dirty[from >>> 6] &= ~fromBit;
+            dirty[to >>> 6] |= toBit;
+        } else {
+            dirty[to >>> 6] &= ~toBit;
+        }
+    }
+
+    /**
+     * Encode activity as UTF-8 straight into the slot (no byte[] allocation),
+     * truncated to MAX_ACTIVITY_BYTES on a character boundary.
+     */
+    private int encodeActivity(String activity, int offset) {
+        if (activity == null) {
+            return 0;
+        }
+        int len = 0;
+        for (int i = 0; i < activity.length(); i++) {
+            char c = activity.charAt(i);
+            if (c < 0x80) {
+                if (len + 1 > MAX_ACTIVITY_BYTES) break;
+                table.put(offset + len++, (byte) c);
+            } else if (c < 0x800) {
+                if (len + 2 > MAX_ACTIVITY_BYTES) break;
+                table.put(offset + len++, (byte) (0xC0 | (c >> 6)));
+                table.put(offset + len++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < activity.length()
+                    && Character.isLowSurrogate(activity.charAt(i + 1))) {
+                if (len + 4 > MAX_ACTIVITY_BYTES) break;
+                int cp = Character.toCodePoint(c, activity.charAt(++i));
+                table.put(offset + len++, (byte) (0xF0 | (cp >> 18)));
+                table.put(offset + len++, (byte) (0x80 | ((cp >> 12) & 0x3F)));
+                table.put(offset + len++, (byte) (0x80 | ((cp >> 6) & 0x3F)));
+                table.put(offset + len++, (byte) (0x80 | (cp & 0x3F)));
+            } else {
+                if (len + 3 > MAX_ACTIVITY_BYTES) break;
+                table.put(offset + len++, (byte) (0xE0 | (c >> 12)));
+                table.put(offset + len++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                table.put(offset + len++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return len;
+    }
+
+    /**
+     * In-place quicksort of the scratch arrays by guild id (parallel arrays, no boxing).
+     */
+    private void sortByGuild(int lo, int hi) {
+        while (lo < hi) {
+            long pivot = scratchGuilds[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (scratchGuilds[i] < pivot) i++;
+                while (scratchGuilds[j] > pivot) j--;
+                if (i <= j) {
+                    long g = scratchGuilds[i]; scratchGuilds[i] = scratchGuilds[j]; scratchGuilds[j] = g;
+                    int s = scratchSlots[i]; scratchSlots[i] = scratchSlots[j]; scratchSlots[j] = s;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller half, loop on the larger
+            if (j - lo < hi - i) {
+                sortByGuild(lo, j);
+                lo = i;
+            } else {
+                sortByGuild(i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private static int hash(long guildId, long userId) {
+        long h = guildId * 0x9E3779B97F4A7C15L ^ userId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -1,6 +1,7 @@
 package com.flux.presence;
 
 import org.junit.jupiter.api.Test;
+import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +34,11 @@ class PresenceBroadcasterTest {
         // Wait for Virtual Threads to complete
         TimeUnit.MILLISECONDS.sleep(500);
         
+        // Same wire format as a coalesced flush: a delta with count=1
+        ByteBuffer frame = registry.getGuildMembers(guildId).get(0).getRingBuffer().poll();
+        assertEquals(1, frame.getInt(0));
+        assertEquals(42L, frame.getLong(4));
+        
         // Should have sent to all members except sender (42)
         long expectedMessages = memberCount - 1;
         assertEquals(1, broadcaster.getBroadcastCount());
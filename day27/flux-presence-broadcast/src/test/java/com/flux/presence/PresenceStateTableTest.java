@@ -0,0 +1,92 @@
+package com.flux.presence;
+
+import org.junit.jupiter.api.Test;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresenceStateTableTest {
+    
+    @Test
+    void testLastWriterWins() {
+        PresenceStateTable table = new PresenceStateTable(64);
+        
+        table.put(1L, 42L, PresenceStatus.IDLE, 200, null);
+        table.put(1L, 42L, PresenceStatus.DND, 100, null);  // older, ignored
+        
+        assertEquals(PresenceStatus.IDLE, table.getStatus(1L, 42L));
+        assertEquals(1, table.size());
+        assertEquals(1, table.dirtyCount());
+    }
+    
+    @Test
+    void testOneDeltaPerGuild() {
+        PresenceStateTable table = new PresenceStateTable(64);
+        for (long user = 0; user < 10; user++) {
+            table.put(1L, user, PresenceStatus.ONLINE, 1, "Playing");
+            table.put(2L, user, PresenceStatus.IDLE, 1, null);
+        }
+        table.put(1L, 3L, PresenceStatus.DND, 2, "Busy");  // coalesced into the same slot
+        
+        Map<Long, Integer> counts = new HashMap<>();
+        Map<Long, ByteBuffer> frames = new HashMap<>();
+        int emitted = table.drainDirty((guildId, frame, count) -> {
+            counts.put(guildId, count);
+            frames.put(guildId, frame);
+        });
+        
+        assertEquals(20, emitted);
+        assertEquals(Map.of(1L, 10, 2L, 10), counts);
+        assertEquals(10, frames.get(1L).getInt(0));
+        assertEquals(4 + 10 * (19 + "Playing".length()) - "Playing".length() + "Busy".length(),
+                     frames.get(1L).remaining());
+        
+        // Nothing dirty until the next change
+        assertEquals(0, table.drainDirty((g, f, c) -> fail("no delta expected")));
+    }
+    
+    @Test
+    void testOfflineMembersAreRemovedAfterFlush() {
+        PresenceStateTable table = new PresenceStateTable(16);
+        for (long user = 0; user < 12; user++) {
+            table.put(7L, user, PresenceStatus.ONLINE, 1, null);
+        }
+        table.drainDirty((g, f, c) -> { });
+        
+        for (long user = 0; user < 12; user += 2) {
+            table.put(7L, user, PresenceStatus.OFFLINE, 2, null);
+        }
+        table.drainDirty((g, f, c) -> assertEquals(6, c));
+        
+        assertEquals(6, table.size());
+        for (long user = 0; user < 12; user++) {
+            assertEquals(user % 2 == 0 ? null : PresenceStatus.ONLINE, table.getStatus(7L, user));
+        }
+    }
+    
+    @Test
+    void testFullTableRejects() {
+        PresenceStateTable table = new PresenceStateTable(8);  // 6 entries at 0.75 load
+        for (long user = 0; user < 6; user++) {
+            assertTrue(table.put(1L, user, PresenceStatus.ONLINE, 1, null));
+        }
+        assertFalse(table.put(1L, 99L, PresenceStatus.ONLINE, 1, null));
+        assertTrue(table.put(1L, 3L, PresenceStatus.IDLE, 2, null));  // existing member still updates
+    }
+    
+    @Test
+    void testCleanEntriesEvictedWhenFull() {
+        PresenceStateTable table = new PresenceStateTable(8);
+        for (long user = 0; user < 6; user++) {
+            table.put(1L, user, PresenceStatus.ONLINE, 1, null);
+        }
+        table.drainDirty((g, f, c) -> { });  // all six are now clean, not OFFLINE
+        
+        assertTrue(table.put(1L, 99L, PresenceStatus.IDLE, 2, null));
+        assertEquals(6, table.evictions());
+        assertEquals(1, table.size());
+        assertEquals(PresenceStatus.IDLE, table.getStatus(1L, 99L));
+        assertEquals(1, table.dirtyCount());
+    }
+}
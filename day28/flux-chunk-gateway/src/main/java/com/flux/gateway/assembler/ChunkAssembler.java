@@ -1,96 +1,279 @@
 package com.flux.gateway.assembler;
 
+import com.flux.gateway.index.GuildPrefixIndex;
+import com.flux.gateway.index.MemberPrefixIndex;
 import com.flux.gateway.protocol.ChunkRequest;
-import com.flux.gateway.protocol.ChunkResponse;
 import com.flux.gateway.protocol.Member;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.ScanArgs;
-import io.lettuce.core.ScanIterator;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ValueScanCursor;
 import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.api.async.RedisAsyncCommands;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Zero-allocation chunk assembly using Redis SCAN.
+ * Streaming chunk assembly using Redis SCAN.
  * Never loads the full member set into memory.
+ *
+ * Each request is an async pipeline: the next SSCAN page is already in
+ * flight while the current one is encoded, each chunk is handed to the
+ * {@link ChunkSink} as soon as it fills, and at most
+ * {@code MAX_IN_FLIGHT_FRAMES} written-but-unacknowledged frames are held
+ * per request. No thread is parked while Redis or the socket catches up.
+ * Pages are parsed and encoded on the gateway's executor, never on the
+ * Redis client's event loop, which is shared by every request.
+ *
+ * Queries with a username prefix are answered from the guild's
+ * {@link MemberPrefixIndex} once it is built: one chunk holding the first
+ * {@code limit} matches, without scanning the member set. A query served by
+ * scanning stops at the same {@code limit} matches, so the answer does not
+ * depend on whether the index exists yet.
+ *
+ * Member joins and leaves go through {@link #addMember} and
+ * {@link #removeMember}, which keep built indexes in step with Redis.
  */
 public class ChunkAssembler {
+    private static final int MAX_IN_FLIGHT_FRAMES = 4;
+    private static final int FRAME_INITIAL_CAPACITY = 16 * 1024;
+    private static final long UNKNOWN_GUILD_COST = 1000;
+    private static final int MAX_TRACKED_GUILD_SIZES = 100_000;
+
     private final RedisClient redisClient;
     private final StatefulRedisConnection<String, String> connection;
+    private final Executor encodeExecutor;
+    private final MemberRecordCache memberCache;
+    private final MemberPrefixIndex prefixIndex;
+    private final ConcurrentHashMap<String, Long> guildSizes = new ConcurrentHashMap<>();
     private final AtomicInteger chunksProcessed = new AtomicInteger(0);
-    
-    public ChunkAssembler(String redisUri) {
+    private final AtomicInteger indexedQueries = new AtomicInteger(0);
+    private final AtomicInteger activeStreams = new AtomicInteger(0);
+
+    public ChunkAssembler(String redisUri, Executor encodeExecutor) {
+        this.encodeExecutor = encodeExecutor;
         this.redisClient = RedisClient.create(redisUri);
         this.connection = redisClient.connect();
+        this.memberCache = new MemberRecordCache();
+        this.prefixIndex = new MemberPrefixIndex(connection.async());
     }
-    
+
     /**
-     * Assemble chunks for a request using cursor-based iteration.
-     * Returns list of chunk responses (one per SCAN iteration).
+     * Stream chunks for a request using cursor-based iteration.
+     * Completes with the number of chunks sent once the last one is written.
      */
-    public List<ChunkResponse> assembleChunks(ChunkRequest request) {
-        RedisCommands<String, String> commands = connection.sync();
-        List<ChunkResponse> chunks = new ArrayList<>();
-        
-        String setKey = "guild:" + request.guildId() + ":members";
-        
-        // Estimate total chunks (approximate)
-        long memberCount = commands.scard(setKey);
-        int estimatedChunks = (int) Math.ceil((double) memberCount / Math.max(1, request.limit()));
-        
-        List<Member> batch = new ArrayList<>(request.limit());
-        int chunkIndex = 0;
-        
-        ScanIterator<String> it = ScanIterator.sscan(commands, setKey,
-                ScanArgs.Builder.limit(request.limit()));
-        while (it.hasNext()) {
-            String redisValue = it.next();
-            Member m = Member.fromRedis(redisValue);
-            if (matchesQuery(m, request.query())) {
-                batch.add(m);
-            }
-            if (batch.size() >= request.limit()) {
-                chunks.add(new ChunkResponse(
-                    request.guildId(),
-                    new ArrayList<>(batch),
-                    chunkIndex++,
-                    estimatedChunks,
-                    request.nonce()
-                ));
-                batch.clear();
+    public CompletableFuture<Integer> streamChunks(ChunkRequest request, ChunkSink sink) {
+        if (request.query() != null && !request.query().isBlank()) {
+            GuildPrefixIndex index = prefixIndex.get(request.guildId());
+            if (index != null) {
+                return searchIndex(index, request, sink);
             }
         }
-        
-        if (!batch.isEmpty()) {
-            chunks.add(new ChunkResponse(
-                request.guildId(),
-                batch,
-                chunkIndex,
-                estimatedChunks,
-                request.nonce()
-            ));
+        ChunkStream stream = new ChunkStream(request, sink, connection.async());
+        activeStreams.incrementAndGet();
+        return stream.start().whenComplete((count, ex) -> activeStreams.decrementAndGet());
+    }
+
+    /**
+     * Estimated members this request will scan, for scheduling. Indexed
+     * prefix queries cost their limit; everything else costs the guild size
+     * last seen by SCARD.
+     */
+    public long estimateCost(ChunkRequest request) {
+        boolean hasQuery = request.query() != null && !request.query().isBlank();
+        if (hasQuery && prefixIndex.isIndexed(request.guildId())) {
+            return request.limit();
         }
-        
-        chunksProcessed.addAndGet(chunks.size());
-        return chunks;
+        return guildSizes.getOrDefault(request.guildId(), UNKNOWN_GUILD_COST);
     }
-    
-    private boolean matchesQuery(Member member, String query) {
-        if (query == null || query.isBlank()) {
-            return true;
+
+    /**
+     * Add a member to the guild's Redis set and to its prefix index.
+     */
+    public CompletableFuture<Void> addMember(String guildId, Member member) {
+        String redisValue = member.toRedis();
+        return connection.async().sadd(memberSetKey(guildId), redisValue).toCompletableFuture()
+            .thenAccept(added -> {
+                if (added > 0) {
+                    prefixIndex.memberAdded(guildId, redisValue);
+                    guildSizes.computeIfPresent(guildId, (id, size) -> size + 1);
+                }
+            });
+    }
+
+    /**
+     * Remove a member from the guild's Redis set and from its prefix index.
+     */
+    public CompletableFuture<Void> removeMember(String guildId, Member member) {
+        String redisValue = member.toRedis();
+        return connection.async().srem(memberSetKey(guildId), redisValue).toCompletableFuture()
+            .thenAccept(removed -> {
+                if (removed > 0) {
+                    prefixIndex.memberRemoved(guildId, redisValue);
+                    guildSizes.computeIfPresent(guildId, (id, size) -> Math.max(0, size - 1));
+                }
+            });
+    }
+
+    private static String memberSetKey(String guildId) {
+        return "guild:" + guildId + ":members";
+    }
+
+    private CompletableFuture<Integer> searchIndex(GuildPrefixIndex index, ChunkRequest request, ChunkSink sink) {
+        List<String> matches = index.search(request.query().toLowerCase(Locale.ROOT), request.limit());
+        ChunkFrameEncoder encoder = new ChunkFrameEncoder(FRAME_INITIAL_CAPACITY);
+        encoder.begin(request.guildId(), 0, 1, request.nonce());
+        for (String redisValue : matches) {
+            encoder.addMember(memberCache.get(redisValue).json());
         }
-        return member.username().toLowerCase().startsWith(query.toLowerCase());
+        indexedQueries.incrementAndGet();
+        chunksProcessed.incrementAndGet();
+        return sink.send(encoder.finish()).thenApply(v -> 1);
     }
-    
+
+    private boolean matchesQuery(MemberRecordCache.EncodedMember member, String queryLower) {
+        return queryLower.isEmpty() || member.usernameLower().startsWith(queryLower);
+    }
+
     public int getChunksProcessed() {
         return chunksProcessed.get();
     }
-    
+
+    public int getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    public MemberRecordCache getMemberCache() {
+        return memberCache;
+    }
+
+    public MemberPrefixIndex getPrefixIndex() {
+        return prefixIndex;
+    }
+
+    public int getIndexedQueries() {
+        return indexedQueries.get();
+    }
+
     public void close() {
         connection.close();
         redisClient.shutdown();
     }
+
+    /**
+     * State of one request's pipeline. Pages are processed strictly one at
+     * a time, so chunk indices stay in order without locking.
+     */
+    private final class ChunkStream {
+        private final ChunkRequest request;
+        private final ChunkSink sink;
+        private final RedisAsyncCommands<String, String> commands;
+        private final String setKey;
+        private final String queryLower;
+        private final boolean prefixQuery;  // answer is capped at limit matches, as on the index path
+        private final ScanArgs scanArgs;
+        private final ChunkFrameEncoder encoder = new ChunkFrameEncoder(FRAME_INITIAL_CAPACITY);
+        private final ArrayDeque<CompletableFuture<Void>> inFlight = new ArrayDeque<>();
+        private int estimatedChunks;
+        private int chunkIndex;
+
+        ChunkStream(ChunkRequest request, ChunkSink sink, RedisAsyncCommands<String, String> commands) {
+            this.request = request;
+            this.sink = sink;
+            this.commands = commands;
+            this.setKey = memberSetKey(request.guildId());
+            this.queryLower = request.query() == null ? "" : request.query().toLowerCase(Locale.ROOT);
+            this.prefixQuery = !queryLower.isEmpty();
+            this.scanArgs = ScanArgs.Builder.limit(request.limit());
+        }
+
+        CompletableFuture<Integer> start() {
+            // Estimate total chunks (approximate); SCARD and the first SSCAN are pipelined
+            CompletableFuture<Long> count = commands.scard(setKey).toCompletableFuture();
+            CompletableFuture<ValueScanCursor<String>> firstPage = scan(ScanCursor.INITIAL);
+            return count.thenCompose(memberCount -> {
+                if (guildSizes.size() >= MAX_TRACKED_GUILD_SIZES) {
+                    guildSizes.clear();
+                }
+                guildSizes.put(request.guildId(), memberCount);
+                estimatedChunks = prefixQuery
+                    ? 1
+                    : (int) Math.ceil((double) memberCount / Math.max(1, request.limit()));
+                encoder.begin(request.guildId(), chunkIndex, estimatedChunks, request.nonce());
+                return processPages(firstPage);
+            });
+        }
+
+        private CompletableFuture<ValueScanCursor<String>> scan(ScanCursor cursor) {
+            return commands.sscan(setKey, cursor, scanArgs).toCompletableFuture();
+        }
+
+        private CompletableFuture<Integer> processPages(CompletableFuture<ValueScanCursor<String>> pageFuture) {
+            return pageFuture.thenApplyAsync(this::encodePage, encodeExecutor).thenCompose(next -> {
+                if (next == null) {
+                    return drain();
+                }
+                return awaitCapacity().thenCompose(v -> processPages(next));
+            });
+        }
+
+        /**
+         * Encode one page, emitting frames as they fill. Returns the already
+         * issued next page, or null after the last page or once a prefix
+         * query has its {@code limit} matches.
+         */
+        private CompletableFuture<ValueScanCursor<String>> encodePage(ValueScanCursor<String> page) {
+            // Issue the next SSCAN before encoding this page
+            CompletableFuture<ValueScanCursor<String>> next = page.isFinished() ? null : scan(page);
+
+            for (String redisValue : page.getValues()) {
+                MemberRecordCache.EncodedMember member = memberCache.get(redisValue);
+                if (matchesQuery(member, queryLower)) {
+                    encoder.addMember(member.json());
+                    if (encoder.memberCount() >= request.limit()) {
+                        emitFrame();
+                        if (prefixQuery) {
+                            return null;  // the pipelined next page is simply dropped
+                        }
+                    }
+                }
+            }
+
+            // A prefix query always answers with exactly one chunk, even if nothing matched
+            if (next == null && (encoder.memberCount() > 0 || (prefixQuery && chunkIndex == 0))) {
+                emitFrame();
+            }
+            return next;
+        }
+
+        private void emitFrame() {
+            inFlight.addLast(sink.send(encoder.finish()));
+            chunksProcessed.incrementAndGet();
+            encoder.begin(request.guildId(), ++chunkIndex, estimatedChunks, request.nonce());
+        }
+
+        private CompletableFuture<Void> awaitCapacity() {
+            while (!inFlight.isEmpty() && inFlight.peekFirst().isDone()) {
+                CompletableFuture<Void> written = inFlight.pollFirst();
+                if (written.isCompletedExceptionally()) {
+                    return written; // Connection gone: stop scanning
+                }
+            }
+            if (inFlight.size() < MAX_IN_FLIGHT_FRAMES) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return inFlight.peekFirst().thenCompose(v -> awaitCapacity());
+        }
+
+        private CompletableFuture<Integer> drain() {
+            return CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> chunkIndex);
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.flux.gateway.assembler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Builds one opcode 9 chunk frame directly as bytes.
+ * Same layout as {@link com.flux.gateway.protocol.ChunkResponse#toJson()}
+ * plus the trailing newline, but member records are appended from their
+ * pre-encoded form instead of being formatted per chunk.
+ */
+public class ChunkFrameEncoder {
+    private static final byte[] MEMBERS_CLOSE = "]}}\n".getBytes(StandardCharsets.UTF_8);
+
+    private byte[] buf;
+    private int len;
+    private int members;
+
+    public ChunkFrameEncoder(int initialCapacity) {
+        this.buf = new byte[initialCapacity];
+    }
+
+    public void begin(String guildId, int chunkIndex, int chunkCount, String nonce) {
+        len = 0;
+        members = 0;
+        append(("{\"op\":9,\"d\":{\"guild_id\":\"" + guildId + "\",\"chunk_index\":" + chunkIndex +
+            ",\"chunk_count\":" + chunkCount + ",\"nonce\":\"" + nonce + "\",\"members\":[")
+            .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void addMember(byte[] encodedMember) {
+        if (members++ > 0) {
+            ensure(1);
+            buf[len++] = ',';
+        }
+        append(encodedMember);
+    }
+
+    public int memberCount() {
+        return members;
+    }
+
+    /**
+     * Close the frame and return an exact-size copy; the encoder can be reused.
+     */
+    public byte[] finish() {
+        append(MEMBERS_CLOSE);
+        return Arrays.copyOf(buf, len);
+    }
+
+    private void append(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+        len += bytes.length;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, len + extra));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.flux.gateway.assembler;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Destination for encoded chunk frames, completed once a frame is written.
+ * Frames must be written in the order they are sent.
+ */
+@FunctionalInterface
+public interface ChunkSink {
+    CompletableFuture<Void> send(byte[] frame);
+}
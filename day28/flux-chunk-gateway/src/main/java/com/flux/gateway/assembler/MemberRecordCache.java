@@ -0,0 +1,77 @@
+package com.flux.gateway.assembler;
+
+import com.flux.gateway.protocol.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU of member records already encoded as their chunk JSON.
+ * Keyed by the raw Redis set value, so a hit skips parsing and formatting
+ * entirely and the bytes are copied straight into the outgoing frame.
+ */
+public class MemberRecordCache {
+    public static final int DEFAULT_MAX_ENTRIES = 200_000;
+
+    /**
+     * Pre-encoded member: lower-cased username for query matching plus the
+     * UTF-8 bytes of {@link Member#toJson()}.
+     */
+    public record EncodedMember(String usernameLower, byte[] json) {}
+
+    private final Map<String, EncodedMember> entries;
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    public MemberRecordCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public MemberRecordCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EncodedMember> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public EncodedMember get(String redisValue) {
+        EncodedMember encoded;
+        synchronized (entries) {
+            encoded = entries.get(redisValue);
+        }
+        if (encoded != null) {
+            hits.incrementAndGet();
+            return encoded;
+        }
+
+        misses.incrementAndGet();
+        Member member = Member.fromRedis(redisValue);
+        encoded = new EncodedMember(
+            member.username().toLowerCase(Locale.ROOT),
+            member.toJson().getBytes(StandardCharsets.UTF_8)
+        );
+        synchronized (entries) {
+            entries.put(redisValue, encoded);
+        }
+        return encoded;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
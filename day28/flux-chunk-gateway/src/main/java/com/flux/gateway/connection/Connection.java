@@ -3,6 +3,10 @@ package com.flux.gateway.connection;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -10,11 +14,13 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class Connection {
     private static final int MAX_INFLIGHT_CHUNKS = 5;
+    private static final ExecutorService WRITERS = Executors.newVirtualThreadPerTaskExecutor();
     
     private final String id;
     private final SocketChannel channel;
     private final AtomicInteger inflightChunks = new AtomicInteger(0);
     private volatile boolean webSocketMode = false;
+    private CompletableFuture<Void> writeTail = CompletableFuture.completedFuture(null);
     
     public Connection(String id, SocketChannel channel) {
         this.id = id;
@@ -73,41 +79,67 @@ public class Connection {
      * In WebSocket mode, wraps payload in a WebSocket text frame.
      */
     public void send(String message) throws Exception {
-        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
-        ByteBuffer buffer;
-        if (webSocketMode) {
-            // WebSocket text frame: FIN=1, opcode=1 (text), no mask, payload
-            int len = payload.length;
-            if (len <= 125) {
-                buffer = ByteBuffer.allocate(2 + len);
-                buffer.put((byte) 0x81);
-                buffer.put((byte) len);
-            } else if (len <= 65535) {
-                buffer = ByteBuffer.allocate(4 + len);
-                buffer.put((byte) 0x81);
-                buffer.put((byte) 126);
-                buffer.put((byte) (len >> 8));
-                buffer.put((byte) (len & 0xFF));
-            } else {
-                buffer = ByteBuffer.allocate(10 + len);
-                buffer.put((byte) 0x81);
-                buffer.put((byte) 127);
-                buffer.putLong(len);
+        send(message.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Send pre-encoded payload. The frame header is written alongside the
+     * payload with a gathering write, so the payload is never copied.
+     */
+    public synchronized void send(byte[] payload) throws Exception {
+        ByteBuffer body = ByteBuffer.wrap(payload);
+        if (!webSocketMode) {
+            while (body.hasRemaining()) {
+                channel.write(body);
             }
-            buffer.put(payload);
-            buffer.flip();
+            return;
+        }
+        // WebSocket text frame: FIN=1, opcode=1 (text), no mask, payload
+        int len = payload.length;
+        ByteBuffer header;
+        if (len <= 125) {
+            header = ByteBuffer.allocate(2);
+            header.put((byte) 0x81);
+            header.put((byte) len);
+        } else if (len <= 65535) {
+            header = ByteBuffer.allocate(4);
+            header.put((byte) 0x81);
+            header.put((byte) 126);
+            header.put((byte) (len >> 8));
+            header.put((byte) (len & 0xFF));
         } else {
-            buffer = ByteBuffer.wrap(payload);
+            header = ByteBuffer.allocate(10);
+            header.put((byte) 0x81);
+            header.put((byte) 127);
+            header.putLong(len);
         }
-        while (buffer.hasRemaining()) {
-            channel.write(buffer);
+        header.flip();
+        ByteBuffer[] frame = { header, body };
+        while (body.hasRemaining()) {
+            channel.write(frame);
         }
     }
+    
+    /**
+     * Queue a payload behind any earlier async sends on this connection and
+     * write it on a virtual thread. Writes complete in submission order.
+     */
+    public synchronized CompletableFuture<Void> sendAsync(byte[] payload) {
+        CompletableFuture<Void> next = writeTail.thenRunAsync(() -> {
+            try {
+                send(payload);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, WRITERS);
+        writeTail = next;
+        return next;
+    }
 
     /**
      * Send WebSocket pong frame (opcode 10) in response to ping. Call only when webSocketMode is true.
      */
-    public void sendPong(byte[] payload) throws Exception {
+    public synchronized void sendPong(byte[] payload) throws Exception {
         if (!webSocketMode || payload == null) return;
         int len = payload.length;
         ByteBuffer buffer;
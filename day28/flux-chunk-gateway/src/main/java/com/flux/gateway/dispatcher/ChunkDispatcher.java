@@ -1,93 +1,279 @@
 package com.flux.gateway.dispatcher;
 
 import com.flux.gateway.protocol.ChunkRequest;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.VarHandle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
 
 /**
- * Lock-free ring buffer for chunk requests.
- * Prevents slow Redis queries from blocking new requests.
+ * Fair scheduler for chunk requests.
+ * Prevents one heavy tenant from starving everyone else.
+ *
+ * Each connection (tenant) has its own queue, split further into per-guild
+ * FIFOs served round-robin, so a bot chunking thousands of guilds competes
+ * with itself before it competes with anyone else. Tenants are drained by
+ * deficit round robin: every turn adds {@code QUANTUM} estimated members of
+ * credit, and a request is dispatched only once its tenant has credit for
+ * its estimated member count. A 500-member interactive request therefore
+ * goes out on the next turn while a 500k-member bulk request waits its
+ * proportional share.
+ *
+ * At most {@code maxConcurrentScans} dispatched requests may be running at
+ * once; {@link #dequeue()} returns null at the cap until {@link #complete}
+ * is called. Each dispatched request frees its slot once: completing it
+ * again, or completing a request that was never dispatched, is a no-op.
  */
 public class ChunkDispatcher {
-    private static final int BUFFER_SIZE = 8192; // Must be power of 2
-    private final ChunkRequest[] buffer = new ChunkRequest[BUFFER_SIZE];
-    
-    private static final VarHandle WRITE_SEQ;
-    private static final VarHandle READ_SEQ;
-    
-    static {
-        try {
-            MethodHandles.Lookup lookup = MethodHandles.lookup();
-            WRITE_SEQ = lookup.findVarHandle(ChunkDispatcher.class, "writeSequence", long.class);
-            READ_SEQ = lookup.findVarHandle(ChunkDispatcher.class, "readSequence", long.class);
-        } catch (ReflectiveOperationException e) {
-            throw new ExceptionInInitializerError(e);
-        }
-    }
-    
-    private volatile long writeSequence = 0L;
-    private volatile long readSequence = 0L;
-    
+    private static final int BUFFER_SIZE = 8192; // Total queued requests across tenants
+    private static final long QUANTUM = 1000; // Estimated members per tenant turn
+    public static final long DEFAULT_COST = 1000;
+    public static final int DEFAULT_MAX_CONCURRENT_SCANS = Integer.MAX_VALUE;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Tenant> tenants = new HashMap<>();
+    private final ArrayDeque<Tenant> activeTenants = new ArrayDeque<>();
+    private final ToLongFunction<ChunkRequest> costEstimator;
+    private final int maxConcurrentScans;
+    private int pending;
+    // By identity: two equal requests in flight hold two slots
+    private final Set<ChunkRequest> running = Collections.newSetFromMap(new IdentityHashMap<>());
+
     private final AtomicLong enqueueCount = new AtomicLong(0);
     private final AtomicLong rejectCount = new AtomicLong(0);
-    
+
+    public ChunkDispatcher() {
+        this(request -> DEFAULT_COST, DEFAULT_MAX_CONCURRENT_SCANS);
+    }
+
+    public ChunkDispatcher(ToLongFunction<ChunkRequest> costEstimator, int maxConcurrentScans) {
+        this.costEstimator = costEstimator;
+        this.maxConcurrentScans = maxConcurrentScans;
+    }
+
     /**
-     * Enqueue a chunk request. Returns false if buffer is full (backpressure).
+     * Queue wait statistics for one tenant.
      */
-    public boolean enqueue(ChunkRequest request) {
-        long current = writeSequence;
-        long next = current + 1;
-        int index = (int)(current & (BUFFER_SIZE - 1));
-        
-        // Check capacity (prevent overwriting unread data)
-        if (next - readSequence >= BUFFER_SIZE) {
-            rejectCount.incrementAndGet();
-            return false; // FULL - apply backpressure
+    public record TenantStats(String tenantId, int queued, long dispatched,
+                              double avgWaitMillis, double maxWaitMillis) {}
+
+    private record Entry(ChunkRequest request, long cost, long enqueuedNanos) {}
+
+    private static final class Tenant {
+        final String id;
+        final Map<String, ArrayDeque<Entry>> guildQueues = new HashMap<>();
+        final ArrayDeque<ArrayDeque<Entry>> guildRing = new ArrayDeque<>();
+        long deficit;
+        boolean inTurn;
+        int queued;
+        long dispatched;
+        long totalWaitNanos;
+        long maxWaitNanos;
+
+        Tenant(String id) {
+            this.id = id;
+        }
+
+        Entry head() {
+            return guildRing.peekFirst().peekFirst();
+        }
+
+        Entry poll() {
+            ArrayDeque<Entry> queue = guildRing.pollFirst();
+            Entry entry = queue.pollFirst();
+            if (queue.isEmpty()) {
+                guildQueues.remove(entry.request().guildId());
+            } else {
+                guildRing.addLast(queue); // Round-robin across this tenant's guilds
+            }
+            queued--;
+            return entry;
         }
-        
-        buffer[index] = request;
-        
-        // CAS-based publish (ensures visibility)
-        boolean success = (boolean) WRITE_SEQ.compareAndSet(this, current, next);
-        if (success) {
+    }
+
+    /**
+     * Enqueue a chunk request. Returns false if the scheduler is full (backpressure).
+     */
+    public boolean enqueue(ChunkRequest request) {
+        long cost = Math.max(1, costEstimator.applyAsLong(request));
+        lock.lock();
+        try {
+            if (pending >= BUFFER_SIZE) {
+                rejectCount.incrementAndGet();
+                return false; // FULL - apply backpressure
+            }
+            Tenant tenant = tenants.computeIfAbsent(request.connectionId(), Tenant::new);
+            ArrayDeque<Entry> queue = tenant.guildQueues.get(request.guildId());
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                tenant.guildQueues.put(request.guildId(), queue);
+                tenant.guildRing.addLast(queue);
+            }
+            queue.addLast(new Entry(request, cost, System.nanoTime()));
+            if (tenant.queued++ == 0) {
+                activeTenants.addLast(tenant);
+            }
+            pending++;
             enqueueCount.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
         }
-        return success;
     }
-    
+
     /**
-     * Dequeue next chunk request. Returns null if empty.
+     * Dequeue the next request by deficit round robin. Returns null if
+     * nothing is queued or the concurrent scan cap is reached.
      */
     public ChunkRequest dequeue() {
-        long current = readSequence;
-        
-        // Check if empty
-        if (current >= writeSequence) {
-            return null;
+        lock.lock();
+        try {
+            if (pending == 0 || running.size() >= maxConcurrentScans) {
+                return null;
+            }
+            int visitsWithoutDispatch = 0;
+            while (true) {
+                Tenant tenant = activeTenants.peekFirst();
+                if (!tenant.inTurn) {
+                    tenant.inTurn = true;
+                    tenant.deficit += QUANTUM;
+                }
+                Entry head = tenant.head();
+                if (head.cost() <= tenant.deficit) {
+                    return dispatch(tenant);
+                }
+                // Out of credit: turn passes to the next tenant
+                tenant.inTurn = false;
+                activeTenants.addLast(activeTenants.pollFirst());
+                if (++visitsWithoutDispatch >= activeTenants.size()) {
+                    skipIdleRounds();
+                    visitsWithoutDispatch = 0;
+                }
+            }
+        } finally {
+            lock.unlock();
         }
-        
-        int index = (int)(current & (BUFFER_SIZE - 1));
-        ChunkRequest request = buffer[index];
-        buffer[index] = null; // Allow GC
-        
-        // Advance read pointer
-        READ_SEQ.compareAndSet(this, current, current + 1);
-        return request;
     }
-    
+
+    /**
+     * Mark a dispatched request as finished, freeing its scan slot.
+     */
+    public void complete(ChunkRequest request) {
+        lock.lock();
+        try {
+            running.remove(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop a closed connection's queued requests and its statistics.
+     */
+    public void forgetTenant(String connectionId) {
+        lock.lock();
+        try {
+            Tenant tenant = tenants.remove(connectionId);
+            if (tenant != null && tenant.queued > 0) {
+                pending -= tenant.queued;
+                activeTenants.remove(tenant);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ChunkRequest dispatch(Tenant tenant) {
+        Entry entry = tenant.poll();
+        tenant.deficit -= entry.cost();
+        long wait = System.nanoTime() - entry.enqueuedNanos();
+        tenant.dispatched++;
+        tenant.totalWaitNanos += wait;
+        tenant.maxWaitNanos = Math.max(tenant.maxWaitNanos, wait);
+        if (tenant.queued == 0) {
+            // Idle tenants do not bank credit
+            activeTenants.pollFirst();
+            tenant.inTurn = false;
+            tenant.deficit = 0;
+        }
+        pending--;
+        running.add(entry.request());
+        return entry.request();
+    }
+
+    /**
+     * Every active tenant was visited without a dispatch: grant the number
+     * of whole rounds the closest tenant still needs, all at once, rather
+     * than spinning through them.
+     */
+    private void skipIdleRounds() {
+        long rounds = Long.MAX_VALUE;
+        for (Tenant tenant : activeTenants) {
+            long shortfall = tenant.head().cost() - tenant.deficit;
+            rounds = Math.min(rounds, (shortfall + QUANTUM - 1) / QUANTUM - 1);
+        }
+        if (rounds > 0) {
+            for (Tenant tenant : activeTenants) {
+                tenant.deficit += rounds * QUANTUM;
+            }
+        }
+    }
+
     /**
      * Calculate current utilization (0.0 to 1.0).
      */
     public double getUtilization() {
-        long pending = writeSequence - readSequence;
-        return (double) pending / BUFFER_SIZE;
+        lock.lock();
+        try {
+            return (double) pending / BUFFER_SIZE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunningScans() {
+        lock.lock();
+        try {
+            return running.size();
+        } finally {
+            lock.unlock();
+        }
     }
-    
+
+    /**
+     * Per-tenant queue wait, busiest queues first.
+     */
+    public List<TenantStats> getTenantStats(int limit) {
+        List<TenantStats> stats = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Tenant tenant : tenants.values()) {
+                double avg = tenant.dispatched == 0 ? 0.0
+                    : tenant.totalWaitNanos / (double) tenant.dispatched / 1_000_000.0;
+                stats.add(new TenantStats(tenant.id, tenant.queued, tenant.dispatched,
+                    avg, tenant.maxWaitNanos / 1_000_000.0));
+            }
+        } finally {
+            lock.unlock();
+        }
+        stats.sort((a, b) -> a.queued() != b.queued()
+            ? Integer.compare(b.queued(), a.queued())
+            : Double.compare(b.avgWaitMillis(), a.avgWaitMillis()));
+        return stats.size() > limit ? stats.subList(0, limit) : stats;
+    }
+
     public long getEnqueueCount() {
         return enqueueCount.get();
     }
-    
+
     public long getRejectCount() {
         return rejectCount.get();
     }
@@ -0,0 +1,201 @@
+package com.flux.gateway.index;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable sorted set of byte strings, front-coded into one direct buffer.
+ *
+ * Entries are grouped in blocks of {@code BLOCK_SIZE}. The first entry of a
+ * block is stored whole; every other entry stores only the length of the
+ * prefix it shares with its predecessor and the remaining suffix. A prefix
+ * seek binary-searches the block heads and decodes forward from there, so
+ * lookup costs O(log blocks + matches) and usernames that share prefixes
+ * (the common case) cost a few bytes each, off the Java heap.
+ *
+ * Ordering is unsigned byte order, which for UTF-8 equals code point order.
+ */
+public final class FrontCodedStringSet {
+    private static final int BLOCK_SIZE = 16;
+
+    private final ByteBuffer data;
+    private final int[] blockOffsets;
+    private final int size;
+
+    private FrontCodedStringSet(ByteBuffer data, int[] blockOffsets, int size) {
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.size = size;
+    }
+
+    public static FrontCodedStringSet empty() {
+        return new FrontCodedStringSet(ByteBuffer.allocateDirect(0), new int[0], 0);
+    }
+
+    /**
+     * @param sorted entries in unsigned byte order, without duplicates
+     */
+    public static FrontCodedStringSet build(List<byte[]> sorted) {
+        int blocks = (sorted.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[] offsets = new int[blocks];
+
+        // Size pass, so the direct buffer is allocated exactly once
+        int bytes = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            byte[] entry = sorted.get(i);
+            int shared = i % BLOCK_SIZE == 0 ? 0 : sharedPrefix(sorted.get(i - 1), entry);
+            bytes += varIntSize(shared) + varIntSize(entry.length - shared) + entry.length - shared;
+        }
+
+        ByteBuffer data = ByteBuffer.allocateDirect(bytes);
+        for (int i = 0; i < sorted.size(); i++) {
+            byte[] entry = sorted.get(i);
+            int shared = 0;
+            if (i % BLOCK_SIZE == 0) {
+                offsets[i / BLOCK_SIZE] = data.position();
+            } else {
+                shared = sharedPrefix(sorted.get(i - 1), entry);
+            }
+            putVarInt(data, shared);
+            putVarInt(data, entry.length - shared);
+            data.put(entry, shared, entry.length - shared);
+        }
+        return new FrontCodedStringSet(data, offsets, sorted.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int offHeapBytes() {
+        return data.capacity();
+    }
+
+    /**
+     * Cursor positioned at the first entry {@code >= from}.
+     */
+    public Cursor seek(byte[] from) {
+        // Last block whose head is <= from
+        int lo = 0;
+        int hi = blockOffsets.length - 1;
+        int block = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Arrays.compareUnsigned(blockHead(mid), from) <= 0) {
+                block = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        Cursor cursor = new Cursor(block);
+        while (cursor.peek() != null && Arrays.compareUnsigned(cursor.peek(), from) < 0) {
+            cursor.next();
+        }
+        return cursor;
+    }
+
+    public Cursor iterator() {
+        return new Cursor(0);
+    }
+
+    public boolean contains(byte[] entry) {
+        byte[] found = seek(entry).peek();
+        return found != null && Arrays.equals(found, entry);
+    }
+
+    private byte[] blockHead(int block) {
+        int pos = blockOffsets[block];
+        int[] read = new int[1];
+        readVarInt(pos, read); // shared, always 0 at a block head
+        pos = read[0];
+        int length = readVarInt(pos, read);
+        pos = read[0];
+        byte[] head = new byte[length];
+        data.get(pos, head);
+        return head;
+    }
+
+    /**
+     * Forward-only cursor over decoded entries.
+     */
+    public final class Cursor {
+        private int index;
+        private int pos;
+        private byte[] current;
+        private final int[] read = new int[1];
+
+        private Cursor(int block) {
+            this.index = block * BLOCK_SIZE;
+            this.pos = blockOffsets.length == 0 ? 0 : blockOffsets[block];
+            decode(null);
+        }
+
+        public byte[] peek() {
+            return current;
+        }
+
+        public byte[] next() {
+            byte[] result = current;
+            if (result != null) {
+                index++;
+                decode(result);
+            }
+            return result;
+        }
+
+        private void decode(byte[] previous) {
+            if (index >= size) {
+                current = null;
+                return;
+            }
+            int shared = readVarInt(pos, read);
+            pos = read[0];
+            int suffix = readVarInt(pos, read);
+            pos = read[0];
+            byte[] entry = new byte[shared + suffix];
+            if (shared > 0) {
+                System.arraycopy(previous, 0, entry, 0, shared);
+            }
+            data.get(pos, entry, shared, suffix);
+            pos += suffix;
+            current = entry;
+        }
+    }
+
+    private int readVarInt(int pos, int[] nextPos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get(pos++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        nextPos[0] = pos;
+        return value;
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int varIntSize(int value) {
+        int n = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            n++;
+        }
+        return n;
+    }
+
+    static int sharedPrefix(byte[] a, byte[] b) {
+        int mismatch = Arrays.mismatch(a, b);
+        return mismatch < 0 ? a.length : mismatch;
+    }
+}
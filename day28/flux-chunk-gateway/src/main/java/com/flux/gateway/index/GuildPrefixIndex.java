@@ -0,0 +1,159 @@
+package com.flux.gateway.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Username prefix index for one guild.
+ *
+ * Entries are {@code lower(username) \0 redisValue} so that sorting by the
+ * entry sorts by username and a prefix seek lands on the first matching
+ * member. The bulk lives in an immutable {@link FrontCodedStringSet}; member
+ * joins and leaves go to small on-heap add/remove sets that are merged into
+ * a fresh base once they grow past a fraction of it.
+ */
+public class GuildPrefixIndex {
+    private static final byte SEPARATOR = 0;
+    private static final int MIN_COMPACT_THRESHOLD = 1024;
+
+    private FrontCodedStringSet base;
+    private final TreeSet<byte[]> added = new TreeSet<>(Arrays::compareUnsigned);
+    private final TreeSet<byte[]> removed = new TreeSet<>(Arrays::compareUnsigned);
+    private final long builtAtMillis;
+
+    public GuildPrefixIndex(FrontCodedStringSet base, long builtAtMillis) {
+        this.base = base;
+        this.builtAtMillis = builtAtMillis;
+    }
+
+    /**
+     * Sort and deduplicate raw entries, then front-code them.
+     */
+    public static GuildPrefixIndex build(List<byte[]> entries, long nowMillis) {
+        entries.sort(Arrays::compareUnsigned);
+        List<byte[]> unique = new ArrayList<>(entries.size());
+        for (byte[] entry : entries) {
+            if (unique.isEmpty() || !Arrays.equals(unique.get(unique.size() - 1), entry)) {
+                unique.add(entry);
+            }
+        }
+        return new GuildPrefixIndex(FrontCodedStringSet.build(unique), nowMillis);
+    }
+
+    public static byte[] entry(String usernameLower, String redisValue) {
+        byte[] name = usernameLower.getBytes(StandardCharsets.UTF_8);
+        byte[] value = redisValue.getBytes(StandardCharsets.UTF_8);
+        byte[] entry = new byte[name.length + 1 + value.length];
+        System.arraycopy(name, 0, entry, 0, name.length);
+        entry[name.length] = SEPARATOR;
+        System.arraycopy(value, 0, entry, name.length + 1, value.length);
+        return entry;
+    }
+
+    public synchronized void add(String usernameLower, String redisValue) {
+        byte[] entry = entry(usernameLower, redisValue);
+        removed.remove(entry);
+        if (!base.contains(entry)) {
+            added.add(entry);
+        }
+        maybeCompact();
+    }
+
+    public synchronized void remove(String usernameLower, String redisValue) {
+        byte[] entry = entry(usernameLower, redisValue);
+        if (!added.remove(entry) && base.contains(entry)) {
+            removed.add(entry);
+        }
+        maybeCompact();
+    }
+
+    /**
+     * Up to {@code limit} Redis member values whose lower-cased username
+     * starts with {@code prefixLower}, in username order.
+     */
+    public synchronized List<String> search(String prefixLower, int limit) {
+        byte[] prefix = prefixLower.getBytes(StandardCharsets.UTF_8);
+        List<String> results = new ArrayList<>(Math.min(limit, 64));
+
+        // Both streams start at the first entry >= prefix, so their matches
+        // are contiguous runs; a stream ends at its first non-match
+        FrontCodedStringSet.Cursor fromBase = base.seek(prefix);
+        Iterator<byte[]> fromDelta = added.tailSet(prefix, true).iterator();
+        byte[] a = matching(nextLive(fromBase), prefix);
+        byte[] b = fromDelta.hasNext() ? matching(fromDelta.next(), prefix) : null;
+
+        while (results.size() < limit && (a != null || b != null)) {
+            if (b == null || (a != null && Arrays.compareUnsigned(a, b) <= 0)) {
+                results.add(memberValue(a));
+                a = matching(nextLive(fromBase), prefix);
+            } else {
+                results.add(memberValue(b));
+                b = fromDelta.hasNext() ? matching(fromDelta.next(), prefix) : null;
+            }
+        }
+        return results;
+    }
+
+    public synchronized int size() {
+        return base.size() + added.size() - removed.size();
+    }
+
+    public synchronized int offHeapBytes() {
+        return base.offHeapBytes();
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+
+    private byte[] nextLive(FrontCodedStringSet.Cursor cursor) {
+        byte[] entry = cursor.next();
+        while (entry != null && !removed.isEmpty() && removed.contains(entry)) {
+            entry = cursor.next();
+        }
+        return entry;
+    }
+
+    private void maybeCompact() {
+        if (added.size() + removed.size() < Math.max(MIN_COMPACT_THRESHOLD, base.size() / 8)) {
+            return;
+        }
+        List<byte[]> merged = new ArrayList<>(size());
+        FrontCodedStringSet.Cursor cursor = base.iterator();
+        Iterator<byte[]> delta = added.iterator();
+        byte[] a = nextLive(cursor);
+        byte[] b = delta.hasNext() ? delta.next() : null;
+        while (a != null || b != null) {
+            if (b == null || (a != null && Arrays.compareUnsigned(a, b) <= 0)) {
+                merged.add(a);
+                a = nextLive(cursor);
+            } else {
+                merged.add(b);
+                b = delta.hasNext() ? delta.next() : null;
+            }
+        }
+        base = FrontCodedStringSet.build(merged);
+        added.clear();
+        removed.clear();
+    }
+
+    private static byte[] matching(byte[] entry, byte[] prefix) {
+        if (entry == null || entry.length < prefix.length
+            || !Arrays.equals(entry, 0, prefix.length, prefix, 0, prefix.length)) {
+            return null;
+        }
+        return entry;
+    }
+
+    private static String memberValue(byte[] entry) {
+        int separator = 0;
+        while (entry[separator] != SEPARATOR) {
+            separator++;
+        }
+        return new String(entry, separator + 1, entry.length - separator - 1, StandardCharsets.UTF_8);
+    }
+}
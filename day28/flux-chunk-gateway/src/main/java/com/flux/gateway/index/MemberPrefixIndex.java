@@ -0,0 +1,188 @@
+package com.flux.gateway.index;
+
+import com.flux.gateway.protocol.Member;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-guild username prefix indexes, built in the gateway on first query.
+ *
+ * The first query for a guild triggers one async SSCAN over its member set
+ * and is served the old way; later queries are answered from the index in
+ * O(matches) with no Redis traffic. Joins and leaves written through the
+ * gateway are applied through {@link #memberAdded} and {@link #memberRemoved};
+ * writes made to Redis behind the gateway's back are picked up by a rebuild
+ * once an index is older than {@code REBUILD_INTERVAL_MILLIS}. Deltas that
+ * arrive while a build is scanning are buffered and replayed onto the new
+ * index before it replaces the old one, so none are lost to the swap.
+ *
+ * At most {@code MAX_INDEXED_GUILDS} indexes are kept; the least recently
+ * queried guild is evicted to make room for a new one.
+ */
+public class MemberPrefixIndex {
+    private static final int MAX_INDEXED_GUILDS = 1024;
+    private static final long REBUILD_INTERVAL_MILLIS = 10 * 60_000L;
+    private static final int BUILD_SCAN_COUNT = 1000;
+
+    private final RedisAsyncCommands<String, String> commands;
+    private final Map<String, GuildPrefixIndex> indexes = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GuildPrefixIndex> eldest) {
+            return size() > MAX_INDEXED_GUILDS;
+        }
+    };
+    private final ConcurrentHashMap<String, CompletableFuture<GuildPrefixIndex>> building = new ConcurrentHashMap<>();
+    // Deltas seen while a guild's build is in flight; guarded by the indexes lock
+    private final Map<String, List<Delta>> pendingDeltas = new HashMap<>();
+    private final AtomicLong builds = new AtomicLong(0);
+
+    public MemberPrefixIndex(RedisAsyncCommands<String, String> commands) {
+        this.commands = commands;
+    }
+
+    /**
+     * Index for the guild, or null if it is not built yet. Starts a build
+     * (at most one per guild) when the index is missing or stale.
+     */
+    public GuildPrefixIndex get(String guildId) {
+        GuildPrefixIndex index = indexFor(guildId);  // access order: marks the guild recently used
+        long now = System.currentTimeMillis();
+        if (index == null || now - index.getBuiltAtMillis() > REBUILD_INTERVAL_MILLIS) {
+            build(guildId);
+        }
+        return index;
+    }
+
+    public CompletableFuture<GuildPrefixIndex> build(String guildId) {
+        CompletableFuture<GuildPrefixIndex> pending = new CompletableFuture<>();
+        CompletableFuture<GuildPrefixIndex> existing = building.putIfAbsent(guildId, pending);
+        if (existing != null) {
+            return existing;
+        }
+
+        synchronized (indexes) {
+            pendingDeltas.put(guildId, new ArrayList<>());
+        }
+
+        String setKey = "guild:" + guildId + ":members";
+        scanInto(setKey, ScanCursor.INITIAL, new ArrayList<>())
+            .thenApply(entries -> GuildPrefixIndex.build(entries, System.currentTimeMillis()))
+            .whenComplete((index, ex) -> {
+                building.remove(guildId, pending);
+                synchronized (indexes) {
+                    List<Delta> deltas = pendingDeltas.remove(guildId);
+                    if (ex == null) {
+                        for (Delta delta : deltas) {
+                            delta.applyTo(index);
+                        }
+                        indexes.put(guildId, index);
+                    }
+                }
+                if (ex != null) {
+                    pending.completeExceptionally(ex);
+                    return;
+                }
+                builds.incrementAndGet();
+                pending.complete(index);
+            });
+        return pending;
+    }
+
+    private CompletableFuture<List<byte[]>> scanInto(String setKey, ScanCursor cursor, List<byte[]> entries) {
+        return commands.sscan(setKey, cursor, ScanArgs.Builder.limit(BUILD_SCAN_COUNT))
+            .toCompletableFuture()
+            .thenCompose((ValueScanCursor<String> page) -> {
+                for (String value : page.getValues()) {
+                    entries.add(GuildPrefixIndex.entry(usernameLower(value), value));
+                }
+                return page.isFinished()
+                    ? CompletableFuture.completedFuture(entries)
+                    : scanInto(setKey, page, entries);
+            });
+    }
+
+    public boolean isIndexed(String guildId) {
+        synchronized (indexes) {
+            return indexes.containsKey(guildId);
+        }
+    }
+
+    public void memberAdded(String guildId, String redisValue) {
+        apply(guildId, new Delta(true, usernameLower(redisValue), redisValue));
+    }
+
+    public void memberRemoved(String guildId, String redisValue) {
+        apply(guildId, new Delta(false, usernameLower(redisValue), redisValue));
+    }
+
+    private void apply(String guildId, Delta delta) {
+        GuildPrefixIndex index;
+        synchronized (indexes) {
+            index = indexes.get(guildId);
+            List<Delta> buffered = pendingDeltas.get(guildId);
+            if (buffered != null) {
+                // The scan may already be past this member; replay it on the rebuilt index
+                buffered.add(delta);
+            }
+        }
+        if (index != null) {
+            delta.applyTo(index);
+        }
+    }
+
+    public void evict(String guildId) {
+        synchronized (indexes) {
+            indexes.remove(guildId);
+        }
+    }
+
+    public int getIndexedGuilds() {
+        synchronized (indexes) {
+            return indexes.size();
+        }
+    }
+
+    public long getOffHeapBytes() {
+        List<GuildPrefixIndex> snapshot;
+        synchronized (indexes) {
+            snapshot = new ArrayList<>(indexes.values());
+        }
+        long total = 0;
+        for (GuildPrefixIndex index : snapshot) {
+            total += index.offHeapBytes();
+        }
+        return total;
+    }
+
+    private GuildPrefixIndex indexFor(String guildId) {
+        synchronized (indexes) {
+            return indexes.get(guildId);
+        }
+    }
+
+    private static String usernameLower(String redisValue) {
+        return Member.fromRedis(redisValue).username().toLowerCase(Locale.ROOT);
+    }
+
+    private record Delta(boolean added, String usernameLower, String redisValue) {
+        void applyTo(GuildPrefixIndex index) {
+            if (added) {
+                index.add(usernameLower, redisValue);
+            } else {
+                index.remove(usernameLower, redisValue);
+            }
+        }
+    }
+}
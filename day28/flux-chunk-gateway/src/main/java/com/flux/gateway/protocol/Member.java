@@ -17,6 +17,13 @@ public record Member(
         );
     }
     
+    /**
+     * Redis stored format, the inverse of {@link #fromRedis(String)}.
+     */
+    public String toRedis() {
+        return userId + ":" + username + ":" + discriminator + ":" + avatar;
+    }
+    
     public static Member fromRedis(String redisJson) {
         // Parse Redis stored format: "userId:username:discriminator:avatar"
         String[] parts = redisJson.split(":");
@@ -5,7 +5,6 @@ import com.flux.gateway.connection.Connection;
 import com.flux.gateway.connection.ConnectionRegistry;
 import com.flux.gateway.dispatcher.ChunkDispatcher;
 import com.flux.gateway.protocol.ChunkRequest;
-import com.flux.gateway.protocol.ChunkResponse;
 
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
@@ -14,8 +13,10 @@ import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.Base64;
-import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -28,9 +29,12 @@ import java.util.regex.Pattern;
 public class GatewayServer {
     private static final int PORT = 9000;
     private static final String REDIS_URI = "redis://localhost:6379";
+    private static final int MAX_CONCURRENT_SCANS = 8; // Per Redis connection
     
-    private final ChunkDispatcher dispatcher = new ChunkDispatcher();
-    private final ChunkAssembler assembler = new ChunkAssembler(REDIS_URI);
+    // Member parsing and frame encoding run here, off the shared Redis event loop
+    private final ExecutorService chunkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ChunkAssembler assembler = new ChunkAssembler(REDIS_URI, chunkExecutor);
+    private final ChunkDispatcher dispatcher = new ChunkDispatcher(assembler::estimateCost, MAX_CONCURRENT_SCANS);
     private final ConnectionRegistry registry = new ConnectionRegistry();
     private final ScheduledExecutorService metricsExecutor = Executors.newScheduledThreadPool(1);
     
@@ -92,27 +96,33 @@ public class GatewayServer {
     private void processChunkRequest(ChunkRequest request) {
         Connection conn = registry.get(request.connectionId());
         if (conn == null) {
+            dispatcher.complete(request);
             return; // Connection closed
         }
         
+        // Stream chunks to client as they fill; the worker is free immediately
+        CompletableFuture<Integer> streaming;
         try {
-            // Assemble chunks using cursor-based pagination
-            List<ChunkResponse> chunks = assembler.assembleChunks(request);
-            
-            // Stream chunks to client
-            for (ChunkResponse chunk : chunks) {
-                conn.send(chunk.toJson() + "\n");
-            }
-            
-            conn.decrementChunks();
-            
-        } catch (Exception e) {
-            System.err.println("❌ Chunk processing failed: " + e.getMessage());
+            streaming = assembler.streamChunks(request, conn::sendAsync);
+        } catch (RuntimeException e) {
+            // A synchronous throw takes the failure path too, so the slot is still released
+            streaming = CompletableFuture.failedFuture(e);
+        }
+        streaming.whenComplete((chunkCount, ex) -> {
             try {
-                conn.send("{\"op\":9,\"d\":{\"error\":\"" + e.getMessage() + "\"}}\n");
+                if (ex != null) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    System.err.println("❌ Chunk processing failed: " + cause.getMessage());
+                    // May run on the Redis event loop: never block here, and queue
+                    // behind chunks already written so the error cannot overtake them
+                    conn.sendAsync(("{\"op\":9,\"d\":{\"error\":\"" + cause.getMessage() + "\"}}\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                }
+            } finally {
                 conn.decrementChunks();
-            } catch (Exception ignored) {}
-        }
+                dispatcher.complete(request);
+            }
+        });
     }
     
     private static final String WS_MAGIC = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
@@ -153,7 +163,7 @@ public class GatewayServer {
                         continue; // need more data
                     }
                     String headers = data.substring(0, headerEnd);
-                    if (headers.startsWith("GET ") && headers.toLowerCase().contains("upgrade") && headers.toLowerCase().contains("websocket")) {
+                    if (headers.startsWith("GET ") && headers.toLowerCase(Locale.ROOT).contains("upgrade") && headers.toLowerCase(Locale.ROOT).contains("websocket")) {
                         String acceptKey = performWebSocketHandshake(conn, headers);
                         if (acceptKey != null) {
                             conn.setWebSocketMode(true);
@@ -237,6 +247,7 @@ public class GatewayServer {
             e.printStackTrace();
         } finally {
             registry.unregister(conn.getId());
+            dispatcher.forgetTenant(conn.getId());
             try {
                 conn.getChannel().close();
             } catch (Exception ignored) {}
@@ -282,10 +293,17 @@ public class GatewayServer {
             conn.incrementChunks();
             
             // Enqueue to ring buffer
-            boolean enqueued = dispatcher.enqueue(request);
+            boolean enqueued = false;
+            try {
+                enqueued = dispatcher.enqueue(request);
+            } finally {
+                if (!enqueued) {
+                    // Rejected or thrown: no worker will release this chunk
+                    conn.decrementChunks();
+                }
+            }
             if (!enqueued) {
                 conn.send("{\"op\":9,\"d\":{\"error\":\"Server overloaded\"}}\n");
-                conn.decrementChunks();
             } else {
                 conn.send("{\"op\":9,\"d\":{\"status\":\"processing\",\"nonce\":\"" + 
                     request.nonce() + "\"}}\n");
@@ -309,14 +327,29 @@ public class GatewayServer {
         double queuePct = dispatcher.getUtilization() * 100;
         int chunks = assembler.getChunksProcessed();
         long rejects = dispatcher.getRejectCount();
+        int streams = assembler.getActiveStreams();
+        long memberCacheHits = assembler.getMemberCache().getHits();
+        int indexedQueries = assembler.getIndexedQueries();
+        int indexedGuilds = assembler.getPrefixIndex().getIndexedGuilds();
+        int runningScans = dispatcher.getRunningScans();
+        StringBuilder tenants = new StringBuilder("[");
+        for (ChunkDispatcher.TenantStats t : dispatcher.getTenantStats(20)) {
+            if (tenants.length() > 1) tenants.append(",");
+            tenants.append(String.format("{\"id\":\"%s\",\"queued\":%d,\"dispatched\":%d,\"avgWaitMs\":%.2f,\"maxWaitMs\":%.2f}",
+                t.tenantId(), t.queued(), t.dispatched(), t.avgWaitMillis(), t.maxWaitMillis()));
+        }
+        tenants.append("]");
         System.out.printf(
-            "📊 Connections: %d | Queue: %.1f%% | Chunks: %d | Rejects: %d%n",
-            connections, queuePct, chunks, rejects
+            "📊 Connections: %d | Queue: %.1f%% | Chunks: %d | Streams: %d | Rejects: %d%n",
+            connections, queuePct, chunks, streams, rejects
         );
         try {
             java.nio.file.Files.writeString(java.nio.file.Path.of(METRICS_FILE),
-                String.format("{\"connections\":%d,\"chunks\":%d,\"queue\":%.1f,\"rejects\":%d}",
-                    connections, chunks, queuePct, rejects));
+                String.format("{\"connections\":%d,\"chunks\":%d,\"queue\":%.1f,\"rejects\":%d," +
+                    "\"activeStreams\":%d,\"memberCacheHits\":%d,\"indexedQueries\":%d,\"indexedGuilds\":%d," +
+                    "\"runningScans\":%d,\"tenants\":%s}",
+                    connections, chunks, queuePct, rejects, streams, memberCacheHits, indexedQueries, indexedGuilds,
+                    runningScans, tenants));
         } catch (Exception e) { /* ignore */ }
     }
     
@@ -324,6 +357,7 @@ public class GatewayServer {
         running = false;
         metricsExecutor.shutdown();
         assembler.close();
+        chunkExecutor.shutdown();
     }
     
     public static void main(String[] args) throws Exception {
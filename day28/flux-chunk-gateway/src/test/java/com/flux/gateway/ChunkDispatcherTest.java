@@ -60,4 +60,78 @@ class ChunkDispatcherTest {
         
         assertEquals(0.5, dispatcher.getUtilization(), 0.01);
     }
+    
+    @Test
+    void testInteractiveRequestNotStarvedByBulkTenant() {
+        // Bot guilds are huge, the interactive guild is small
+        ChunkDispatcher dispatcher = new ChunkDispatcher(
+            req -> req.guildId().startsWith("bot-guild") ? 500_000 : 500, Integer.MAX_VALUE);
+        
+        for (int i = 0; i < 100; i++) {
+            assertTrue(dispatcher.enqueue(new ChunkRequest(
+                "bot", "bot-guild-" + i, "", 1000, "bot-" + i)));
+        }
+        assertTrue(dispatcher.enqueue(new ChunkRequest(
+            "user", "small-guild", "", 100, "user-1")));
+        
+        // The interactive request goes out within the first two dispatches
+        ChunkRequest first = dispatcher.dequeue();
+        ChunkRequest second = dispatcher.dequeue();
+        assertTrue("user".equals(first.connectionId()) || "user".equals(second.connectionId()),
+            "Interactive request should not wait behind the bot's queue");
+        
+        var stats = dispatcher.getTenantStats(10);
+        assertEquals("bot", stats.get(0).tenantId(), "Busiest queue listed first");
+        assertTrue(stats.get(0).queued() >= 98);
+    }
+    
+    @Test
+    void testConcurrentScanCap() {
+        ChunkDispatcher dispatcher = new ChunkDispatcher(req -> 100, 2);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.enqueue(new ChunkRequest("conn-" + i, "guild-" + i, "", 100, "nonce-" + i));
+        }
+        
+        ChunkRequest a = dispatcher.dequeue();
+        assertNotNull(a);
+        assertNotNull(dispatcher.dequeue());
+        assertNull(dispatcher.dequeue(), "Cap of 2 running scans reached");
+        
+        dispatcher.complete(a);
+        assertNotNull(dispatcher.dequeue());
+        assertEquals(2, dispatcher.getRunningScans());
+    }
+    
+    @Test
+    void testDuplicateCompleteFreesOneSlot() {
+        ChunkDispatcher dispatcher = new ChunkDispatcher(req -> 100, 2);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.enqueue(new ChunkRequest("conn-" + i, "guild-" + i, "", 100, "nonce-" + i));
+        }
+        
+        ChunkRequest a = dispatcher.dequeue();
+        assertNotNull(dispatcher.dequeue());
+        dispatcher.complete(a);
+        dispatcher.complete(a);
+        dispatcher.complete(new ChunkRequest("conn-x", "guild-x", "", 100, "never-dispatched"));
+        assertEquals(1, dispatcher.getRunningScans());
+        
+        assertNotNull(dispatcher.dequeue());
+        assertNull(dispatcher.dequeue(), "Repeated completes must not lift the cap");
+    }
+    
+    @Test
+    void testGuildsRoundRobinWithinTenant() {
+        ChunkDispatcher dispatcher = new ChunkDispatcher(req -> 100, Integer.MAX_VALUE);
+        dispatcher.enqueue(new ChunkRequest("bot", "guild-a", "", 100, "a-1"));
+        dispatcher.enqueue(new ChunkRequest("bot", "guild-a", "", 100, "a-2"));
+        dispatcher.enqueue(new ChunkRequest("bot", "guild-b", "", 100, "b-1"));
+        
+        assertEquals("a-1", dispatcher.dequeue().nonce());
+        assertEquals("b-1", dispatcher.dequeue().nonce());
+        assertEquals("a-2", dispatcher.dequeue().nonce());
+        
+        dispatcher.forgetTenant("bot");
+        assertEquals(0.0, dispatcher.getUtilization(), 0.001);
+    }
 }
@@ -0,0 +1,46 @@
+package com.flux.gateway;
+
+import com.flux.gateway.assembler.ChunkFrameEncoder;
+import com.flux.gateway.assembler.MemberRecordCache;
+import com.flux.gateway.protocol.ChunkResponse;
+import com.flux.gateway.protocol.Member;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkFrameEncoderTest {
+
+    @Test
+    void testFrameMatchesChunkResponse() {
+        MemberRecordCache cache = new MemberRecordCache(16);
+        ChunkFrameEncoder encoder = new ChunkFrameEncoder(8);
+
+        encoder.begin("guild-1", 2, 5, "nonce-1");
+        encoder.addMember(cache.get("1:alice:0001:a1").json());
+        encoder.addMember(cache.get("2:bob:0002:b2").json());
+        String frame = new String(encoder.finish(), StandardCharsets.UTF_8);
+
+        ChunkResponse expected = new ChunkResponse("guild-1", List.of(
+            Member.fromRedis("1:alice:0001:a1"),
+            Member.fromRedis("2:bob:0002:b2")
+        ), 2, 5, "nonce-1");
+        assertEquals(expected.toJson() + "\n", frame);
+    }
+
+    @Test
+    void testMemberCacheReusesEncoding() {
+        MemberRecordCache cache = new MemberRecordCache(2);
+
+        var first = cache.get("1:Alice:0001:a1");
+        assertSame(first, cache.get("1:Alice:0001:a1"));
+        assertEquals("alice", first.usernameLower());
+        assertEquals(1, cache.getHits());
+
+        cache.get("2:bob:0002:b2");
+        cache.get("3:carol:0003:c3");
+        assertEquals(2, cache.size(), "Cache should stay bounded");
+    }
+}
@@ -0,0 +1,70 @@
+package com.flux.gateway;
+
+import com.flux.gateway.index.GuildPrefixIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuildPrefixIndexTest {
+
+    private static GuildPrefixIndex buildIndex(int members) {
+        List<byte[]> entries = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            String username = "user" + i;
+            entries.add(GuildPrefixIndex.entry(username, i + ":" + username + ":0001:avatar"));
+        }
+        return GuildPrefixIndex.build(entries, 0);
+    }
+
+    @Test
+    void testPrefixSearchReturnsTopN() {
+        GuildPrefixIndex index = buildIndex(10_000);
+
+        List<String> matches = index.search("user12", 5);
+
+        // Username order: user12, user120, user1200, user1201, user1202
+        assertEquals(List.of(
+            "12:user12:0001:avatar",
+            "120:user120:0001:avatar",
+            "1200:user1200:0001:avatar",
+            "1201:user1201:0001:avatar",
+            "1202:user1202:0001:avatar"
+        ), matches);
+        assertEquals(111, index.search("user12", 1000).size());
+        assertTrue(index.search("nobody", 10).isEmpty());
+    }
+
+    @Test
+    void testAddAndRemoveStayInSync() {
+        GuildPrefixIndex index = buildIndex(100);
+
+        index.add("abby", "500:Abby:0001:avatar");
+        index.remove("user5", "5:user5:0001:avatar");
+
+        assertEquals(List.of("500:Abby:0001:avatar"), index.search("ab", 10));
+        assertEquals(List.of(
+            "50:user50:0001:avatar",
+            "51:user51:0001:avatar"
+        ), index.search("user5", 2));
+        assertEquals(100, index.size());
+    }
+
+    @Test
+    void testCompactionKeepsResults() {
+        GuildPrefixIndex index = buildIndex(0);
+
+        for (int i = 0; i < 3000; i++) {
+            index.add("zed" + i, "z" + i + ":zed" + i + ":0001:avatar");
+        }
+        for (int i = 0; i < 3000; i += 2) {
+            index.remove("zed" + i, "z" + i + ":zed" + i + ":0001:avatar");
+        }
+
+        assertEquals(1500, index.size());
+        assertEquals(1500, index.search("zed", 5000).size());
+        assertTrue(index.offHeapBytes() > 0, "Compacted entries should live off-heap");
+    }
+}
@@ -0,0 +1,87 @@
+package com.flux.gateway;
+
+import com.flux.gateway.index.GuildPrefixIndex;
+import com.flux.gateway.index.MemberPrefixIndex;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberPrefixIndexTest {
+
+    /** Scan result the test completes by hand, so deltas can land mid-build. */
+    static class PendingScan extends CompletableFuture<ValueScanCursor<String>>
+            implements RedisFuture<ValueScanCursor<String>> {
+        @Override
+        public String getError() {
+            return null;
+        }
+
+        @Override
+        public boolean await(long timeout, TimeUnit unit) {
+            return isDone();
+        }
+
+        void finish(String... members) {
+            ValueScanCursor<String> page = new ValueScanCursor<>();
+            page.getValues().addAll(List.of(members));
+            page.setFinished(true);
+            complete(page);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisAsyncCommands<String, String> scanning(PendingScan scan) {
+        return (RedisAsyncCommands<String, String>) Proxy.newProxyInstance(
+            RedisAsyncCommands.class.getClassLoader(),
+            new Class<?>[] { RedisAsyncCommands.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("sscan")) {
+                    return scan;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    @Test
+    void testDeltasDuringBuildSurviveTheSwap() {
+        PendingScan scan = new PendingScan();
+        MemberPrefixIndex indexes = new MemberPrefixIndex(scanning(scan));
+
+        CompletableFuture<GuildPrefixIndex> build = indexes.build("g1");
+        // Both land after the scan has read the set
+        indexes.memberAdded("g1", "3:bob:0001:a");
+        indexes.memberRemoved("g1", "1:alice:0001:a");
+        scan.finish("1:alice:0001:a", "2:carol:0001:a");
+
+        GuildPrefixIndex index = build.join();
+        assertEquals(List.of("3:bob:0001:a"), index.search("b", 10));
+        assertTrue(index.search("a", 10).isEmpty());
+        assertEquals(List.of("2:carol:0001:a"), index.search("c", 10));
+    }
+
+    @Test
+    void testLowerCasingIgnoresDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            PendingScan scan = new PendingScan();
+            MemberPrefixIndex indexes = new MemberPrefixIndex(scanning(scan));
+            CompletableFuture<GuildPrefixIndex> build = indexes.build("g1");
+            scan.finish("1:IRIS:0001:a");
+
+            // Turkish lower-casing would turn I into a dotless i
+            assertEquals(List.of("1:IRIS:0001:a"), build.join().search("iris", 10));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
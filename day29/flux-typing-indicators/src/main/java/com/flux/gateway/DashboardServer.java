@@ -207,10 +207,11 @@ public class DashboardServer {
         long throttled = metrics.getThrottled();
         long dropped = metrics.getDropped();
         double saturation = typingService.getRing().getSaturation() * 100;
+        int activeChannels = typingService.getIndex().getActiveChannels();
         
         String json = String.format(
-            "{\"published\":%d,\"throttled\":%d,\"dropped\":%d,\"saturation\":%.2f}",
-            published, throttled, dropped, saturation
+            "{\"published\":%d,\"throttled\":%d,\"dropped\":%d,\"saturation\":%.2f,\"activeChannels\":%d}",
+            published, throttled, dropped, saturation, activeChannels
         );
         
         sendJson(exchange, json);
@@ -2,47 +2,170 @@ package com.flux.typing;
 
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Per-user rate limit (one event per window) in a fixed-size primitive table.
+ *
+ * EXACT mode is a set-associative hash table: each user hashes to a bucket of
+ * {@code WAYS} slots, and each slot is one long packing a 24-bit key
+ * fingerprint with the 40-bit millisecond timestamp of the last accepted
+ * event. Acquire is a single CAS, allocates nothing, and never needs a sweep:
+ * a slot whose timestamp is older than the window is free for reuse. If every
+ * slot in a bucket is still live the oldest is overwritten, so under extreme
+ * churn a user can be let through early, but memory never grows.
+ *
+ * APPROXIMATE mode drops the fingerprints and keeps count-min-style rows of
+ * last-seen timestamps: a user is throttled only if every row they hash to
+ * saw an event within the window. Collisions can only throttle, never admit
+ * extra events.
+ */
 public class ThrottleGate {
     private static final long THROTTLE_NANOS = 3_000_000_000L; // 3 seconds
-    
-    private final ConcurrentHashMap<Long, ThrottleState> userStates;
-    
-    private static class ThrottleState {
-        volatile long lastEventNanos;
-        
-        private static final VarHandle LAST_EVENT;
-        
-        static {
-            try {
-                LAST_EVENT = MethodHandles.lookup()
-                    .findVarHandle(ThrottleState.class, "lastEventNanos", long.class);
-            } catch (Exception e) {
-                throw new ExceptionInInitializerError(e);
+    private static final int DEFAULT_CAPACITY = 1 << 20; // 8 MB of slots
+
+    private static final int WAYS = 8;
+    private static final int ROWS = 4;
+    private static final int STAMP_BITS = 40;
+    private static final long STAMP_MASK = (1L << STAMP_BITS) - 1;
+    private static final long[] ROW_SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    public enum Mode { EXACT, APPROXIMATE }
+
+    private final Mode mode;
+    private final long[] slots;
+    private final int mask;
+    private final long throttleMillis;
+    private final long epochNanos;
+    private final AtomicLong overwrites = new AtomicLong();
+
+    public ThrottleGate() {
+        this(DEFAULT_CAPACITY, THROTTLE_NANOS, Mode.EXACT);
+    }
+
+    /**
+     * @param capacity total slots, rounded up to a power of two; the table
+     *                 never holds more than this many users
+     */
+    public ThrottleGate(int capacity, long throttleNanos, Mode mode) {
+        int minimum = mode == Mode.EXACT ? WAYS : ROWS;
+        int size = Integer.highestOneBit(Math.max(minimum, capacity) - 1) << 1;
+        this.mode = mode;
+        this.slots = new long[size];
+        this.mask = mode == Mode.EXACT ? size / WAYS - 1 : size / ROWS - 1;
+        this.throttleMillis = throttleNanos / 1_000_000L;
+        this.epochNanos = System.nanoTime();
+    }
+
+    public boolean tryAcquire(long userId) {
+        return tryAcquire(userId, System.nanoTime());
+    }
+
+    public boolean tryAcquire(long userId, long nowNanos) {
+        // Stored stamps are offset by one so 0 always means "never used"
+        long now = (nowNanos - epochNanos) / 1_000_000L + 1;
+        return mode == Mode.EXACT ? acquireExact(userId, now) : acquireApproximate(userId, now);
+    }
+
+    private boolean acquireExact(long userId, long now) {
+        long h = mix(userId);
+        int base = (int) (h & mask) * WAYS;
+        long fingerprint = (h >>> STAMP_BITS) & 0xFFFFFF;
+        if (fingerprint == 0) fingerprint = 1;
+        long updated = (fingerprint << STAMP_BITS) | (now & STAMP_MASK);
+
+        while (true) {
+            int victim = -1;
+            long victimValue = 0;
+            long victimStamp = Long.MAX_VALUE;
+
+            for (int i = 0; i < WAYS; i++) {
+                long value = (long) SLOTS.getVolatile(slots, base + i);
+                long stamp = value & STAMP_MASK;
+                if (value != 0 && (value >>> STAMP_BITS) == fingerprint) {
+                    if (now - stamp < throttleMillis) return false;
+                    if (SLOTS.compareAndSet(slots, base + i, value, updated)) return true;
+                    victim = -2; // Lost a race on our own slot, rescan
+                    break;
+                }
+                // Empty slots sort first (stamp 0), then the oldest
+                if (stamp < victimStamp) {
+                    victim = i;
+                    victimValue = value;
+                    victimStamp = stamp;
+                }
+            }
+            if (victim == -2) continue;
+
+            if (SLOTS.compareAndSet(slots, base + victim, victimValue, updated)) {
+                if (victimValue != 0 && now - victimStamp < throttleMillis) {
+                    overwrites.incrementAndGet();
+                }
+                return true;
             }
         }
-        
-        boolean tryAcquire(long now) {
-            long last = (long) LAST_EVENT.getOpaque(this);
-            if (now - last < THROTTLE_NANOS) return false;
-            return LAST_EVENT.compareAndSet(this, last, now);
+    }
+
+    private boolean acquireApproximate(long userId, long now) {
+        int width = mask + 1;
+        boolean throttled = true;
+        for (int row = 0; row < ROWS; row++) {
+            int index = row * width + rowIndex(userId, row);
+            long stamp = (long) SLOTS.getVolatile(slots, index);
+            if (stamp == 0 || now - stamp >= throttleMillis) {
+                throttled = false;
+                break;
+            }
         }
+        if (throttled) return false;
+
+        for (int row = 0; row < ROWS; row++) {
+            SLOTS.setRelease(slots, row * width + rowIndex(userId, row), now);
+        }
+        return true;
     }
-    
-    public ThrottleGate() {
-        this.userStates = new ConcurrentHashMap<>();
+
+    /**
+     * Clears slots idle for longer than {@code cutoffNanos}. Never required
+     * for correctness, since expired slots are reused in place.
+     */
+    public void cleanup(long cutoffNanos) {
+        long now = (System.nanoTime() - epochNanos) / 1_000_000L + 1;
+        long cutoffMillis = cutoffNanos / 1_000_000L;
+        for (int i = 0; i < slots.length; i++) {
+            long value = (long) SLOTS.getVolatile(slots, i);
+            if (value != 0 && now - (value & STAMP_MASK) > cutoffMillis) {
+                SLOTS.compareAndSet(slots, i, value, 0L);
+            }
+        }
     }
-    
-    public boolean tryAcquire(long userId) {
-        long now = System.nanoTime();
-        ThrottleState state = userStates.computeIfAbsent(userId, k -> new ThrottleState());
-        return state.tryAcquire(now);
+
+    /**
+     * Live users evicted early because their whole bucket was live (EXACT only).
+     */
+    public long getOverwrites() {
+        return overwrites.get();
     }
-    
-    public void cleanup(long cutoffNanos) {
-        userStates.entrySet().removeIf(entry -> 
-            System.nanoTime() - entry.getValue().lastEventNanos > cutoffNanos
-        );
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private int rowIndex(long userId, int row) {
+        long h = (userId + ROW_SEEDS[row]) * ROW_SEEDS[(row + 1) & 3];
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
     }
 }
@@ -0,0 +1,317 @@
+package com.flux.typing;
+
+import java.util.Arrays;
+
+/**
+ * Per-channel index of who is currently typing.
+ *
+ * Each shard is an open-addressing long map from channelId to a fixed-capacity
+ * list of (userId, expiry) pairs, all held in flat primitive arrays. Queries
+ * touch only the channel's own list, so cost scales with active typers rather
+ * than with the ring size. When a list is full the typer closest to expiry is
+ * replaced.
+ *
+ * Expiry is driven by a timing wheel per shard: a channel is scheduled into
+ * the bucket of its latest expiry tick, and every elapsed bucket prunes the
+ * channels it names, removing those left empty. Queries additionally filter
+ * on expiry, so correctness never depends on how often the wheel turns.
+ */
+public class TypingIndex {
+    public static final int DEFAULT_PER_CHANNEL_CAPACITY = 32;
+    private static final long TTL_NANOS = 5_000_000_000L; // matches TypingEventRing
+    private static final long TICK_NANOS = 250_000_000L;
+    private static final int WHEEL_SLOTS = 32; // 8s span, must exceed TTL
+    private static final int SHARDS = 16;
+    private static final int INITIAL_CHANNELS = 256;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final Shard[] shards = new Shard[SHARDS];
+    private final int perChannelCapacity;
+
+    public TypingIndex() {
+        this(DEFAULT_PER_CHANNEL_CAPACITY);
+    }
+
+    public TypingIndex(int perChannelCapacity) {
+        this.perChannelCapacity = perChannelCapacity;
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    public void publish(long userId, long channelId) {
+        publish(userId, channelId, System.nanoTime());
+    }
+
+    public void publish(long userId, long channelId, long nowNanos) {
+        shardFor(channelId).publish(userId, channelId, nowNanos);
+    }
+
+    /**
+     * Copy the channel's live typers into {@code output}; returns how many.
+     */
+    public int collectActiveTypers(long channelId, long[] output) {
+        return collectActiveTypers(channelId, output, System.nanoTime());
+    }
+
+    public int collectActiveTypers(long channelId, long[] output, long nowNanos) {
+        return shardFor(channelId).collect(channelId, output, nowNanos);
+    }
+
+    /**
+     * Turn every shard's wheel up to {@code nowNanos}, even if idle.
+     */
+    public void expire(long nowNanos) {
+        for (Shard shard : shards) {
+            shard.expire(nowNanos);
+        }
+    }
+
+    public int getActiveChannels() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.activeChannels();
+        }
+        return total;
+    }
+
+    public int getPerChannelCapacity() {
+        return perChannelCapacity;
+    }
+
+    private Shard shardFor(long channelId) {
+        long h = channelId * 0x9E3779B97F4A7C15L;
+        return shards[(int) (h >>> 60) & (SHARDS - 1)];
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private final class Shard {
+        // Channel map: slot -> channelId, typer count, last scheduled tick,
+        // and perChannelCapacity (userId, expiry) pairs
+        private long[] channelIds;
+        private int[] counts;
+        private long[] scheduledTicks;
+        private long[] userIds;
+        private long[] expiries;
+        private int mask;
+        private int size;
+
+        // Timing wheel: each bucket lists channels due for pruning at that tick
+        private final long[][] wheel = new long[WHEEL_SLOTS][];
+        private final int[] wheelSizes = new int[WHEEL_SLOTS];
+        private long currentTick;
+        private boolean started;
+
+        Shard() {
+            allocate(INITIAL_CHANNELS);
+            for (int i = 0; i < WHEEL_SLOTS; i++) {
+                wheel[i] = new long[16];
+            }
+        }
+
+        synchronized void publish(long userId, long channelId, long now) {
+            advance(now);
+            long expiry = now + TTL_NANOS;
+
+            int slot = find(channelId);
+            if (slot < 0) {
+                if (size + 1 > (mask + 1) >> 1) {
+                    rehash((mask + 1) << 1);
+                }
+                slot = insert(channelId);
+            }
+
+            int base = slot * perChannelCapacity;
+            int count = counts[slot];
+            int target = -1;
+            int soonest = -1;
+            for (int i = 0; i < count; i++) {
+                if (userIds[base + i] == userId) {
+                    target = i;
+                    break;
+                }
+                if (soonest < 0 || expiries[base + i] < expiries[base + soonest]) {
+                    soonest = i;
+                }
+            }
+            if (target < 0) {
+                if (count < perChannelCapacity) {
+                    target = count;
+                    counts[slot] = count + 1;
+                } else {
+                    target = soonest;
+                }
+            }
+            userIds[base + target] = userId;
+            expiries[base + target] = expiry;
+
+            long tick = Math.floorDiv(expiry, TICK_NANOS);
+            if (scheduledTicks[slot] != tick) {
+                scheduledTicks[slot] = tick;
+                schedule(channelId, tick);
+            }
+        }
+
+        synchronized int collect(long channelId, long[] output, long now) {
+            advance(now);
+            int slot = find(channelId);
+            if (slot < 0) return 0;
+
+            int base = slot * perChannelCapacity;
+            int n = 0;
+            for (int i = 0; i < counts[slot] && n < output.length; i++) {
+                if (expiries[base + i] > now) {
+                    output[n++] = userIds[base + i];
+                }
+            }
+            return n;
+        }
+
+        synchronized void expire(long now) {
+            advance(now);
+        }
+
+        synchronized int activeChannels() {
+            return size;
+        }
+
+        private void advance(long now) {
+            // nanoTime may be negative, hence floorDiv
+            long nowTick = Math.floorDiv(now, TICK_NANOS);
+            if (!started) {
+                started = true;
+                currentTick = nowTick;
+                return;
+            }
+            if (nowTick - currentTick > WHEEL_SLOTS) {
+                currentTick = nowTick - WHEEL_SLOTS;
+            }
+            // Only fully elapsed ticks: entries in nowTick may not have expired yet
+            while (currentTick < nowTick) {
+                int bucket = (int) (currentTick & (WHEEL_SLOTS - 1));
+                long[] due = wheel[bucket];
+                int dueCount = wheelSizes[bucket];
+                wheelSizes[bucket] = 0;
+                for (int i = 0; i < dueCount; i++) {
+                    prune(due[i], now);
+                }
+                currentTick++;
+            }
+        }
+
+        private void schedule(long channelId, long tick) {
+            int bucket = (int) (tick & (WHEEL_SLOTS - 1));
+            int n = wheelSizes[bucket];
+            if (n == wheel[bucket].length) {
+                long[] grown = new long[n << 1];
+                System.arraycopy(wheel[bucket], 0, grown, 0, n);
+                wheel[bucket] = grown;
+            }
+            wheel[bucket][n] = channelId;
+            wheelSizes[bucket] = n + 1;
+        }
+
+        private void prune(long channelId, long now) {
+            int slot = find(channelId);
+            if (slot < 0) return;
+
+            int base = slot * perChannelCapacity;
+            int count = counts[slot];
+            for (int i = 0; i < count; ) {
+                if (expiries[base + i] <= now) {
+                    count--;
+                    userIds[base + i] = userIds[base + count];
+                    expiries[base + i] = expiries[base + count];
+                } else {
+                    i++;
+                }
+            }
+            counts[slot] = count;
+            if (count == 0) {
+                remove(slot);
+            }
+        }
+
+        private int find(long channelId) {
+            int slot = mix(channelId) & mask;
+            while (channelIds[slot] != EMPTY) {
+                if (channelIds[slot] == channelId) return slot;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int insert(long channelId) {
+            int slot = mix(channelId) & mask;
+            while (channelIds[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            channelIds[slot] = channelId;
+            counts[slot] = 0;
+            scheduledTicks[slot] = EMPTY;
+            size++;
+            return slot;
+        }
+
+        /**
+         * Backward-shift delete, so lookups never need tombstones.
+         */
+        private void remove(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (channelIds[next] != EMPTY) {
+                int home = mix(channelIds[next]) & mask;
+                // Move next into the hole if its home is not in (hole, next]
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    move(next, hole);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            channelIds[hole] = EMPTY;
+            counts[hole] = 0;
+            size--;
+        }
+
+        private void move(int from, int to) {
+            channelIds[to] = channelIds[from];
+            counts[to] = counts[from];
+            scheduledTicks[to] = scheduledTicks[from];
+            System.arraycopy(userIds, from * perChannelCapacity, userIds, to * perChannelCapacity, counts[from]);
+            System.arraycopy(expiries, from * perChannelCapacity, expiries, to * perChannelCapacity, counts[from]);
+        }
+
+        private void rehash(int newCapacity) {
+            long[] oldIds = channelIds;
+            int[] oldCounts = counts;
+            long[] oldTicks = scheduledTicks;
+            long[] oldUsers = userIds;
+            long[] oldExpiries = expiries;
+
+            allocate(newCapacity);
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] == EMPTY) continue;
+                int slot = insert(oldIds[i]);
+                counts[slot] = oldCounts[i];
+                scheduledTicks[slot] = oldTicks[i];
+                System.arraycopy(oldUsers, i * perChannelCapacity, userIds, slot * perChannelCapacity, oldCounts[i]);
+                System.arraycopy(oldExpiries, i * perChannelCapacity, expiries, slot * perChannelCapacity, oldCounts[i]);
+            }
+        }
+
+        private void allocate(int capacity) {
+            channelIds = new long[capacity];
+            Arrays.fill(channelIds, EMPTY);
+            counts = new int[capacity];
+            scheduledTicks = new long[capacity];
+            userIds = new long[capacity * perChannelCapacity];
+            expiries = new long[capacity * perChannelCapacity];
+            mask = capacity - 1;
+            size = 0;
+        }
+    }
+}
@@ -4,11 +4,13 @@ import com.flux.metrics.Metrics;
 
 public class TypingIndicatorService {
     private final TypingEventRing ring;
+    private final TypingIndex index;
     private final ThrottleGate throttle;
     private final Metrics metrics;
     
     public TypingIndicatorService(Metrics metrics) {
         this.ring = new TypingEventRing();
+        this.index = new TypingIndex();
         this.throttle = new ThrottleGate();
         this.metrics = metrics;
     }
@@ -20,18 +22,18 @@ public class TypingIndicatorService {
         }
         
         ring.publish(userId, channelId);
+        index.publish(userId, channelId);
         metrics.incrementPublished();
         return true;
     }
     
     public long[] getActiveTypers(long channelId) {
-        long[] result = new long[100]; // Max 100 concurrent typers per channel
-        int[] count = new int[1];
+        // Served from the per-channel index; the ring stays as the event log
+        long[] result = new long[index.getPerChannelCapacity()];
+        int count = index.collectActiveTypers(channelId, result);
         
-        ring.collectActiveTypers(channelId, result, count);
-        
-        long[] trimmed = new long[count[0]];
-        System.arraycopy(result, 0, trimmed, 0, count[0]);
+        long[] trimmed = new long[count];
+        System.arraycopy(result, 0, trimmed, 0, count);
         return trimmed;
     }
     
@@ -39,7 +41,16 @@ public class TypingIndicatorService {
         return ring;
     }
     
+    public TypingIndex getIndex() {
+        return index;
+    }
+    
+    public ThrottleGate getThrottle() {
+        return throttle;
+    }
+    
+    // ThrottleGate reuses expired slots in place and needs no sweep
     public void periodicCleanup() {
-        throttle.cleanup(30_000_000_000L); // Cleanup throttle states older than 30 sec
+        index.expire(System.nanoTime()); // Drop channels idle since their last typer expired
     }
 }
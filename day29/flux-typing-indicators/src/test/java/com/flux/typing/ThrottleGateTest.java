@@ -31,4 +31,31 @@ class ThrottleGateTest {
         assertFalse(gate.tryAcquire(2000), "User 2000 throttled");
         assertFalse(gate.tryAcquire(2001), "User 2001 throttled");
     }
+    
+    @Test
+    void testChurnStaysWithinFixedCapacity() {
+        ThrottleGate gate = new ThrottleGate(1024, 3_000_000_000L, ThrottleGate.Mode.EXACT);
+        long t0 = System.nanoTime();
+        
+        // Far more distinct users than slots, spread over time so old ones expire
+        for (long userId = 0; userId < 100_000; userId++) {
+            long now = t0 + userId * 1_000_000L; // 1ms apart
+            assertTrue(gate.tryAcquire(userId, now), "Fresh user " + userId);
+        }
+        assertEquals(1024, gate.getCapacity());
+        
+        // A recent user is still throttled
+        assertFalse(gate.tryAcquire(99_999, t0 + 100_000 * 1_000_000L));
+    }
+    
+    @Test
+    void testApproximateMode() {
+        ThrottleGate gate = new ThrottleGate(4096, 3_000_000_000L, ThrottleGate.Mode.APPROXIMATE);
+        long t0 = System.nanoTime();
+        
+        assertTrue(gate.tryAcquire(3000, t0));
+        assertFalse(gate.tryAcquire(3000, t0 + 1_000_000_000L));
+        assertTrue(gate.tryAcquire(3001, t0 + 1_000_000_000L));
+        assertTrue(gate.tryAcquire(3000, t0 + 3_100_000_000L));
+    }
 }
@@ -0,0 +1,78 @@
+package com.flux.typing;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypingIndexTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testPublishAndCollect() {
+        TypingIndex index = new TypingIndex();
+        long now = 0;
+
+        index.publish(100, 1001, now);
+        index.publish(101, 1001, now);
+        index.publish(100, 1001, now); // Same user again
+        index.publish(102, 1002, now);
+
+        long[] output = new long[10];
+        int count = index.collectActiveTypers(1001, output, now);
+
+        assertEquals(2, count, "Should have 2 typers in channel 1001");
+        assertEquals(2, index.getActiveChannels());
+    }
+
+    @Test
+    void testExpirationDropsChannel() {
+        TypingIndex index = new TypingIndex();
+
+        index.publish(200, 2001, 0);
+        index.publish(201, 2001, 3 * SECOND);
+
+        long[] output = new long[10];
+        assertEquals(1, index.collectActiveTypers(2001, output, 6 * SECOND));
+        assertEquals(201, output[0]);
+
+        index.expire(9 * SECOND);
+        assertEquals(0, index.collectActiveTypers(2001, output, 9 * SECOND));
+        assertEquals(0, index.getActiveChannels(), "Wheel should remove the empty channel");
+    }
+
+    @Test
+    void testFullChannelReplacesSoonestExpiry() {
+        TypingIndex index = new TypingIndex(4);
+
+        for (int i = 0; i < 4; i++) {
+            index.publish(300 + i, 3001, i * 100_000_000L);
+        }
+        index.publish(999, 3001, SECOND);
+
+        long[] output = new long[10];
+        int count = index.collectActiveTypers(3001, output, SECOND);
+
+        assertEquals(4, count);
+        for (int i = 0; i < count; i++) {
+            assertNotEquals(300, output[i], "Oldest typer should be replaced");
+        }
+    }
+
+    @Test
+    void testManyChannelsSurviveRehash() {
+        TypingIndex index = new TypingIndex();
+
+        for (long channel = 0; channel < 20_000; channel++) {
+            index.publish(channel + 1, channel, 0);
+        }
+
+        long[] output = new long[4];
+        for (long channel = 0; channel < 20_000; channel++) {
+            assertEquals(1, index.collectActiveTypers(channel, output, SECOND));
+            assertEquals(channel + 1, output[0]);
+        }
+
+        index.expire(10 * SECOND);
+        assertEquals(0, index.getActiveChannels());
+    }
+}
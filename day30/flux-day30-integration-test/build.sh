@@ -1,6 +1,8 @@
 #!/bin/bash
 
 echo "📦 Building Flux Day 30 Integration Test..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 if [ $? -eq 0 ]; then
@@ -1,5 +1,6 @@
 package com.flux.integrationtest.dashboard;
 
+import com.flux.common.LatencyHistogram;
 import com.flux.integrationtest.gateway.FluxGateway;
 import com.flux.integrationtest.client.LoadTestOrchestrator;
 import com.flux.integrationtest.metrics.LatencyAggregator;
@@ -65,7 +66,8 @@ public class DashboardServer {
     }
     
     private Map<String, Object> getLoadTestMetrics() {
-        LatencyAggregator.Percentiles latency = loadTest.getLatencyAggregator().calculate();
+        LatencyHistogram.Snapshot histogram = loadTest.getLatencyAggregator().getHistogram().snapshot();
+        LatencyAggregator.Percentiles latency = LatencyAggregator.Percentiles.of(histogram);
         
         Map<String, Object> metrics = new HashMap<>();
         metrics.put("phase", loadTest.getCurrentPhase().name());
@@ -77,6 +79,7 @@ public class DashboardServer {
         metrics.put("latencyP95Ms", latency.p95Ms());
         metrics.put("latencyP99Ms", latency.p99Ms());
         metrics.put("latencyMaxMs", latency.maxMs());
+        metrics.put("latencyHistogram", histogram.toCompactString());
         
         return metrics;
     }
@@ -1,61 +1,33 @@
 package com.flux.integrationtest.metrics;
 
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.VarHandle;
-import java.util.Arrays;
+import com.flux.common.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Lock-free latency aggregator using ring buffer and VarHandle atomics.
- * Computes percentiles (P50, P95, P99) without synchronized blocks.
+ * Lock-free latency aggregator backed by a log-linear histogram.
+ * Computes percentiles (P50, P95, P99) in O(buckets) without copying or
+ * sorting samples, so the dashboard can poll it during a 1M-sample run.
  */
 public class LatencyAggregator {
-    private static final int CAPACITY = 1_000_000;
-    private static final VarHandle WRITE_INDEX;
-    
-    static {
-        try {
-            MethodHandles.Lookup lookup = MethodHandles.lookup();
-            WRITE_INDEX = lookup.findVarHandle(LatencyAggregator.class, "writeIndex", long.class);
-        } catch (Exception e) {
-            throw new ExceptionInInitializerError(e);
-        }
-    }
-    
-    private final long[] samples = new long[CAPACITY];
-    private volatile long writeIndex = 0;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder totalSamples = new LongAdder();
     
     public void record(long latencyNanos) {
-        long index = (long) WRITE_INDEX.getAndAdd(this, 1L);
-        samples[(int)(index % CAPACITY)] = latencyNanos;
+        histogram.record(latencyNanos);
+        totalSamples.increment();
     }
     
     public Percentiles calculate() {
-        long totalSamples = (long) WRITE_INDEX.getAcquire(this);
-        int validSamples = (int) Math.min(totalSamples, CAPACITY);
-        
-        if (validSamples == 0) {
-            return new Percentiles(0, 0, 0, 0, 0);
-        }
-        
-        long[] sorted = Arrays.copyOf(samples, validSamples);
-        Arrays.sort(sorted);
-        
-        long p50 = sorted[validSamples / 2];
-        long p95 = sorted[(int)(validSamples * 0.95)];
-        long p99 = sorted[(int)(validSamples * 0.99)];
-        long max = sorted[validSamples - 1];
-        
-        long sum = 0;
-        for (int i = 0; i < validSamples; i++) {
-            sum += sorted[i];
-        }
-        long avg = sum / validSamples;
-        
-        return new Percentiles(avg, p50, p95, p99, max);
+        return Percentiles.of(histogram.snapshot());
+    }
+    
+    public LatencyHistogram getHistogram() {
+        return histogram;
     }
     
     public long getTotalSamples() {
-        return (long) WRITE_INDEX.getAcquire(this);
+        return totalSamples.sum();
     }
     
     public record Percentiles(
@@ -65,6 +37,16 @@ public class LatencyAggregator {
         long p99Nanos,
         long maxNanos
     ) {
+        public static Percentiles of(LatencyHistogram.Snapshot snapshot) {
+            return new Percentiles(
+                snapshot.mean(),
+                snapshot.percentile(50.0),
+                snapshot.percentile(95.0),
+                snapshot.percentile(99.0),
+                snapshot.max()
+            );
+        }
+        
         public double avgMs() { return avgNanos / 1_000_000.0; }
         public double p50Ms() { return p50Nanos / 1_000_000.0; }
         public double p95Ms() { return p95Nanos / 1_000_000.0; }
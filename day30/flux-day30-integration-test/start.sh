@@ -13,6 +13,8 @@ echo "✅ Redis is running"
 
 # Compile
 echo "📦 Compiling..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 if [ $? -ne 0 ]; then
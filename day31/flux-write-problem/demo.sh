@@ -27,6 +27,8 @@ fi
 
 echo "✓ Postgres is running"
 
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 echo "✓ Compilation complete"
 
@@ -1,11 +1,13 @@
 package com.flux.core;
 
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.VarHandle;
+import com.flux.common.SnowflakeLayout;
 
 /**
  * Lock-free Snowflake ID generator.
  * 64-bit structure: [41 bits timestamp][5 bits datacenter][5 bits worker][12 bits sequence]
+ * 
+ * Datacenter and worker are packed into the 10 worker bits of the shared
+ * generator, which claims each ID with one CAS on packed state.
  */
 public class SnowflakeGenerator {
     
@@ -22,24 +24,10 @@ public class SnowflakeGenerator {
     private static final long DATACENTER_SHIFT = SEQUENCE_BITS + WORKER_BITS;
     private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_BITS + DATACENTER_BITS;
     
-    private final long datacenterId;
-    private final long workerId;
+    private static final SnowflakeLayout LAYOUT =
+        new SnowflakeLayout(EPOCH, (int) (DATACENTER_BITS + WORKER_BITS), (int) SEQUENCE_BITS);
     
-    private volatile long lastTimestamp = -1L;
-    private volatile int sequence = 0;
-    
-    private static final VarHandle SEQUENCE_HANDLE;
-    private static final VarHandle LAST_TIMESTAMP_HANDLE;
-    
-    static {
-        try {
-            var lookup = MethodHandles.lookup();
-            SEQUENCE_HANDLE = lookup.findVarHandle(SnowflakeGenerator.class, "sequence", int.class);
-            LAST_TIMESTAMP_HANDLE = lookup.findVarHandle(SnowflakeGenerator.class, "lastTimestamp", long.class);
-        } catch (ReflectiveOperationException e) {
-            throw new ExceptionInInitializerError(e);
-        }
-    }
+    private final com.flux.common.SnowflakeGenerator ids;
     
     public SnowflakeGenerator(long datacenterId, long workerId) {
         if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
@@ -48,45 +36,11 @@ public class SnowflakeGenerator {
         if (workerId > MAX_WORKER_ID || workerId < 0) {
             throw new IllegalArgumentException("Worker ID must be between 0 and " + MAX_WORKER_ID);
         }
-        this.datacenterId = datacenterId;
-        this.workerId = workerId;
-    }
-    
-    public synchronized long nextId() {
-        long timestamp = currentTimestamp();
-        
-        if (timestamp < lastTimestamp) {
-            throw new IllegalStateException("Clock moved backwards. Refusing to generate ID");
-        }
-        
-        if (timestamp == lastTimestamp) {
-            int seq = ((int) SEQUENCE_HANDLE.getAndAdd(this, 1)) & (int) MAX_SEQUENCE;
-            if (seq == 0) {
-                // Sequence exhausted, wait for next millisecond
-                timestamp = waitNextMillis(lastTimestamp);
-            }
-        } else {
-            SEQUENCE_HANDLE.setVolatile(this, 0);
-        }
-        
-        LAST_TIMESTAMP_HANDLE.setVolatile(this, timestamp);
-        
-        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT)
-             | (datacenterId << DATACENTER_SHIFT)
-             | (workerId << WORKER_SHIFT)
-             | sequence;
-    }
-    
-    private long waitNextMillis(long lastTimestamp) {
-        long timestamp = currentTimestamp();
-        while (timestamp <= lastTimestamp) {
-            timestamp = currentTimestamp();
-        }
-        return timestamp;
+        this.ids = new com.flux.common.SnowflakeGenerator(LAYOUT, (datacenterId << WORKER_BITS) | workerId);
     }
     
-    private long currentTimestamp() {
-        return System.currentTimeMillis();
+    public long nextId() {
+        return ids.nextId();
     }
     
     public static long extractTimestamp(long id) {
@@ -25,6 +25,8 @@ if ! lsof -iTCP:5432 -sTCP:LISTEN >/dev/null 2>&1; then
 fi
 
 echo "🔨 Compiling Flux Day 31..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 echo "🚀 Starting application..."
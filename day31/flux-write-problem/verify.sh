@@ -6,6 +6,8 @@ echo "🔍 Verifying Flux Day 31 Implementation"
 echo "========================================"
 
 echo "Running unit tests..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn test -q
 echo "✓ All tests passed"
 
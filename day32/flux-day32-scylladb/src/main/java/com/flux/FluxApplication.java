@@ -23,17 +23,18 @@ public class FluxApplication {
             connection.initializeSchema();
             
             // Create services
-            MessageService messageService = new MessageService(connection);
-            MetricsCollector metrics = new MetricsCollector();
-            
-            // Start dashboard
-            DashboardServer dashboard = new DashboardServer(8080, messageService, connection, metrics);
-            dashboard.start();
-            
-            logger.info("Flux application running. Press Ctrl+C to stop.");
-            
-            // Keep application alive
-            Thread.currentThread().join();
+            try (MessageService messageService = new MessageService(connection)) {
+                MetricsCollector metrics = new MetricsCollector();
+                
+                // Start dashboard
+                DashboardServer dashboard = new DashboardServer(8080, messageService, connection, metrics);
+                dashboard.start();
+                
+                logger.info("Flux application running. Press Ctrl+C to stop.");
+                
+                // Keep application alive
+                Thread.currentThread().join();
+            }
             
         } catch (Exception e) {
             logger.error("Application failed", e);
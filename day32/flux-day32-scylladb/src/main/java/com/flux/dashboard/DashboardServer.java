@@ -67,13 +67,19 @@ public class DashboardServer implements AutoCloseable {
                 "totalWrites": %d,
                 "totalErrors": %d,
                 "p99LatencyMicros": %d,
-                "writesPerSecond": %.2f
+                "writesPerSecond": %.2f,
+                "recentCacheHitRate": %.3f,
+                "recentCacheLoads": %d,
+                "recentCacheChannels": %d
             }
             """,
             metrics.getTotalWrites(),
             metrics.getTotalErrors(),
             metrics.getWriteLatency().getP99(),
-            metrics.getWritesPerSecond()
+            metrics.getWritesPerSecond(),
+            messageService.getRecentMessagesCache().getHitRate(),
+            messageService.getRecentMessagesCache().getLoads(),
+            messageService.getRecentMessagesCache().getResidentChannels()
         );
         
         sendResponse(exchange, 200, json, "application/json");
@@ -2,6 +2,9 @@ package com.flux.service;
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.*;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.flux.common.RecentMessagesCache;
+import com.flux.common.WriteCoalescer;
 import com.flux.model.ChannelStats;
 import com.flux.model.Message;
 import org.slf4j.Logger;
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Optional;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -17,22 +22,47 @@ import java.util.concurrent.CompletionStage;
 /**
  * Production-grade message persistence service using prepared statements
  * and async execution patterns.
+ *
+ * Latest-message reads are served from a {@link RecentMessagesCache} that
+ * every insert and delete writes through. Async inserts go through a
+ * {@link WriteCoalescer}: messages for the same channel that arrive within
+ * 2ms are sent as one UNLOGGED batch to that channel's replica. Close the
+ * service before its connection so inserts still inside that window are
+ * sent.
  */
-public class MessageService {
+public class MessageService implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(MessageService.class);
     
+    // TIMEUUID clustering order: by embedded timestamp, newest first
+    private static final Comparator<Message> NEWEST_FIRST = Comparator
+        .comparingLong((Message m) -> m.messageId().timestamp())
+        .thenComparing(Message::messageId)
+        .reversed();
+    
     private final CqlSession session;
     private final PreparedStatement insertStmt;
     private final PreparedStatement selectLatestStmt;
     private final PreparedStatement countByChannelStmt;
+    private final PreparedStatement deleteStmt;
+    private final RecentMessagesCache<Message, UUID> recentMessages;
+    private final WriteCoalescer<Long, BoundStatement> insertCoalescer;
 
     public MessageService(ScyllaConnection connection) {
+        this(connection, 100, 10_000);
+    }
+
+    /**
+     * @param recentPerChannel newest messages cached per channel
+     * @param maxCachedChannels channels cached before the least recently read is evicted
+     */
+    public MessageService(ScyllaConnection connection, int recentPerChannel, int maxCachedChannels) {
         this.session = connection.getSession();
         
-        // Prepare statements once during initialization
+        // Prepare statements once during initialization.
+        // The id is generated here rather than by now() so the cache learns the stored key.
         this.insertStmt = session.prepare(
             "INSERT INTO flux.messages (channel_id, message_id, user_id, content, created_at) " +
-            "VALUES (?, now(), ?, ?, toTimestamp(now()))"
+            "VALUES (?, ?, ?, ?, ?)"
         );
         
         this.selectLatestStmt = session.prepare(
@@ -46,26 +76,27 @@ public class MessageService {
             "SELECT COUNT(*) as count FROM flux.messages WHERE channel_id = ?"
         );
         
+        this.deleteStmt = session.prepare(
+            "DELETE FROM flux.messages WHERE channel_id = ? AND message_id = ?"
+        );
+        
+        this.recentMessages = new RecentMessagesCache<>(
+            recentPerChannel, maxCachedChannels, NEWEST_FIRST, Message::messageId, this::queryLatest);
+        
+        this.insertCoalescer = new WriteCoalescer<>(this::insertBatch, this::replicaOf, 2_000, 100, 64);
+        
         logger.info("MessageService initialized with prepared statements");
     }
 
     /**
-     * Insert a message asynchronously.
-     * Returns CompletionStage for non-blocking execution.
+     * Insert a message asynchronously, batched with other inserts to the
+     * same channel. Returns CompletionStage for non-blocking execution.
      */
     public CompletionStage<Void> insertMessageAsync(Message message) {
-        BoundStatement bound = insertStmt.bind(
-            message.channelId(),
-            message.userId(),
-            message.content()
-        );
+        Message stored = assignId(message);
         
-        return session.executeAsync(bound)
-            .thenAccept(rs -> {
-                if (!rs.wasApplied()) {
-                    logger.warn("Insert not applied for message: {}", message.messageId());
-                }
-            })
+        return insertCoalescer.submit(stored.channelId(), bind(stored))
+            .thenRun(() -> recentMessages.onInsert(stored.channelId(), stored))
             .exceptionally(error -> {
                 logger.error("Failed to insert message: {}", error.getMessage());
                 return null;
@@ -74,22 +105,82 @@ public class MessageService {
 
     /**
      * Insert message synchronously (uses Virtual Thread internally if called from one).
+     * Returns the message as stored, with its TIMEUUID.
+     */
+    public Message insertMessage(Message message) {
+        Message stored = assignId(message);
+        session.execute(bind(stored));
+        recentMessages.onInsert(stored.channelId(), stored);
+        return stored;
+    }
+
+    /**
+     * Delete one message and drop it from the recent-messages cache.
      */
-    public void insertMessage(Message message) {
-        BoundStatement bound = insertStmt.bind(
+    public void deleteMessage(long channelId, UUID messageId) {
+        session.execute(deleteStmt.bind(channelId, messageId));
+        recentMessages.onDelete(channelId, messageId);
+    }
+
+    /**
+     * One channel's inserts as a single request; every row shares the
+     * partition, so the batch is one mutation on the replica.
+     */
+    private CompletionStage<AsyncResultSet> insertBatch(long channelId, List<BoundStatement> inserts) {
+        if (inserts.size() == 1) {
+            return session.executeAsync(inserts.get(0));
+        }
+        return session.executeAsync(BatchStatement.builder(BatchType.UNLOGGED)
+            .addStatements(List.<BatchableStatement<?>>copyOf(inserts))
+            .build());
+    }
+
+    /**
+     * First replica of the statement's partition, or one shared slot when
+     * token metadata is unavailable.
+     */
+    private Object replicaOf(BoundStatement insert) {
+        return session.getMetadata().getTokenMap()
+            .flatMap(tokens -> insert.getRoutingKeyspace() == null || insert.getRoutingKey() == null
+                ? Optional.empty()
+                : tokens.getReplicas(insert.getRoutingKeyspace(), insert.getRoutingKey()).stream().findFirst())
+            .map(node -> (Object) node)
+            .orElse("cluster");
+    }
+
+    private static Message assignId(Message message) {
+        UUID messageId = Uuids.timeBased();
+        return new Message(
             message.channelId(),
+            messageId,
             message.userId(),
-            message.content()
+            message.content(),
+            Instant.ofEpochMilli(Uuids.unixTimestamp(messageId))
+        );
+    }
+
+    private BoundStatement bind(Message stored) {
+        return insertStmt.bind(
+            stored.channelId(),
+            stored.messageId(),
+            stored.userId(),
+            stored.content(),
+            stored.createdAt()
         );
-        
-        session.execute(bound);
     }
 
     /**
-     * Retrieve latest N messages from a channel.
-     * Efficient due to clustering key ordering.
+     * Retrieve latest N messages from a channel, newest first.
+     * Served from the recent-messages cache when the channel is resident.
      */
     public List<Message> getLatestMessages(long channelId, int limit) {
+        return recentMessages.latest(channelId, limit);
+    }
+
+    /**
+     * Efficient due to clustering key ordering.
+     */
+    private List<Message> queryLatest(long channelId, int limit) {
         BoundStatement bound = selectLatestStmt.bind(channelId, limit);
         ResultSet rs = session.execute(bound);
         
@@ -107,6 +198,10 @@ public class MessageService {
         return messages;
     }
 
+    public RecentMessagesCache<Message, UUID> getRecentMessagesCache() {
+        return recentMessages;
+    }
+
     /**
      * Get message count for a channel.
      * NOTE: COUNT(*) is expensive in Cassandra - avoid in production at scale.
@@ -131,4 +226,12 @@ public class MessageService {
             500.0
         );
     }
+
+    /**
+     * Send inserts still waiting in the coalescer and stop its timer.
+     */
+    @Override
+    public void close() {
+        insertCoalescer.close();
+    }
 }
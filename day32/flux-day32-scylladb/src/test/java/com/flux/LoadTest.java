@@ -22,8 +22,8 @@ public class LoadTest {
         logger.info("Starting load test: {} messages, {} concurrent threads", 
             messageCount, concurrency);
         
-        try (ScyllaConnection connection = new ScyllaConnection("127.0.0.1", 9042, "datacenter1")) {
-            MessageService service = new MessageService(connection);
+        try (ScyllaConnection connection = new ScyllaConnection("127.0.0.1", 9042, "datacenter1");
+             MessageService service = new MessageService(connection)) {
             MetricsCollector metrics = new MetricsCollector();
             
             long startTime = System.nanoTime();
@@ -23,6 +23,7 @@ class MessageServiceTest {
 
     @AfterAll
     static void teardown() {
+        if (messageService != null) messageService.close();
         if (connection != null) connection.close();
     }
 
@@ -10,6 +10,8 @@ pkill -f "flux.FluxApplication" 2>/dev/null || true
 sleep 1
 
 echo "Compiling Flux application..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 echo "Starting Flux application..."
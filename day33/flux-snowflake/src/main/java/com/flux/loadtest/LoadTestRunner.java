@@ -1,6 +1,6 @@
 package com.flux.loadtest;
 
-import com.flux.snowflake.SnowflakeGenerator;
+import com.flux.common.SnowflakeGenerator;
 
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
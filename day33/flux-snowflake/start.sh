@@ -3,6 +3,8 @@
 set -e
 
 echo "🔨 Compiling Flux Snowflake Generator..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 echo "🚀 Starting Snowflake Server..."
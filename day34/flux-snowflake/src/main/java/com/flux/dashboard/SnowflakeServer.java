@@ -1,7 +1,7 @@
 package com.flux.dashboard;
 
-import com.flux.snowflake.SnowflakeGenerator;
-import com.flux.snowflake.SnowflakeId;
+import com.flux.common.SnowflakeGenerator;
+import com.flux.common.SnowflakeId;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 
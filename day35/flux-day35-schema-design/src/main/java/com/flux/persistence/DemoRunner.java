@@ -37,7 +37,8 @@ public class DemoRunner {
                 if ((hour + 1) % 6 == 0) System.out.printf("  Completed %d/%d hours%n", hour + 1, hoursToSimulate);
             }
             CompletableFuture.allOf(allWrites.toArray(new CompletableFuture[0])).join();
-            System.out.printf("Wrote %d messages total%n", writer.getWriteCount());
+            System.out.printf("Wrote %d messages total, %.1f per batch%n", writer.getWriteCount(), writer.getAverageBatchSize());
+            writer.close();
             System.out.println("Fetching latest 50 messages...");
             var latest = reader.fetchLatestMessages(channelId, 50);
             System.out.printf("Retrieved %d messages%n", latest.size());
@@ -1,16 +1,27 @@
 package com.flux.persistence;
 
-import java.time.Instant;
-import java.time.ZoneOffset;
+import com.flux.common.TimeBuckets;
 
 public record MessagePartition(long channelId, int bucket) {
+    /**
+     * UTC hour as yyyyMMddHH, computed with integer arithmetic only
+     * (days-to-civil conversion, as in LocalDate.ofEpochDay).
+     */
     public static int hourlyBucket(long epochMilli) {
-        var instant = Instant.ofEpochMilli(epochMilli);
-        var zdt = instant.atZone(ZoneOffset.UTC);
-        return zdt.getYear() * 1_000_000 +
-               zdt.getMonthValue() * 10_000 +
-               zdt.getDayOfMonth() * 100 +
-               zdt.getHour();
+        long hours = TimeBuckets.HOURLY.bucketOf(epochMilli);
+        long days = Math.floorDiv(hours, 24);
+        long hour = Math.floorMod(hours, 24);
+
+        long z = days + 719_468; // Shift the epoch to 0000-03-01
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 1_000_000 + month * 10_000 + day * 100 + hour);
     }
 
     public static int decrementBucket(int bucket) {
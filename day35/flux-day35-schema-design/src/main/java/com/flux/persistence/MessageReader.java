@@ -1,38 +1,78 @@
 package com.flux.persistence;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.Row;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class MessageReader implements ReadPlanner.BucketSource {
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int LOOKBACK_HOURS = 24;
+    private static final long METADATA_TTL_MS = 5_000;
 
-public class MessageReader {
     private final CqlSession session;
     private final PreparedStatement queryStmt;
+    private final PreparedStatement activeBucketsStmt;
+    private final ReadPlanner planner;
 
     public MessageReader(CqlSession session) {
+        this(session, DEFAULT_PARALLELISM);
+    }
+
+    public MessageReader(CqlSession session, int parallelism) {
         this.session = session;
         this.queryStmt = session.prepare(
             "SELECT channel_id, message_id, user_id, content, created_at FROM messages WHERE channel_id = ? AND bucket = ? LIMIT ?");
+        this.activeBucketsStmt = session.prepare(
+            "SELECT bucket, message_count FROM partition_metrics WHERE channel_id = ? AND bucket >= ? AND bucket <= ? ORDER BY bucket DESC");
+        this.planner = new ReadPlanner(this, parallelism, LOOKBACK_HOURS, METADATA_TTL_MS);
     }
 
     public List<Message> fetchLatestMessages(long channelId, int limit) {
-        int currentBucket = MessagePartition.hourlyBucket(System.currentTimeMillis());
-        var messages = new ArrayList<Message>();
-        messages.addAll(queryBucket(channelId, currentBucket, limit));
-        for (int i = 1; messages.size() < limit && i < 24; i++) {
-            currentBucket = MessagePartition.decrementBucket(currentBucket);
-            messages.addAll(queryBucket(channelId, currentBucket, limit - messages.size()));
-        }
-        return messages.subList(0, Math.min(messages.size(), limit));
+        return planner.fetchLatest(channelId, limit, System.currentTimeMillis());
     }
 
-    private List<Message> queryBucket(long channelId, int bucket, int limit) {
-        var messages = new ArrayList<Message>();
-        for (Row row : session.execute(queryStmt.bind(channelId, bucket, limit))) {
+    public ReadPlanner getPlanner() { return planner; }
+
+    @Override
+    public CompletableFuture<List<Message>> query(long channelId, int bucket, int limit) {
+        // LIMIT is well under the default page size, so the first page is the whole result
+        CompletableFuture<AsyncResultSet> request =
+            session.executeAsync(queryStmt.bind(channelId, bucket, limit)).toCompletableFuture();
+        CompletableFuture<List<Message>> messages = request.thenApply(MessageReader::toMessages);
+        // Cancelling the derived future alone leaves the driver request running;
+        // cancel the driver's own future so it stops retries and speculative executions
+        messages.whenComplete((rows, error) -> {
+            if (messages.isCancelled()) request.cancel(false);
+        });
+        return messages;
+    }
+
+    private static List<Message> toMessages(AsyncResultSet rs) {
+        var messages = new ArrayList<Message>(rs.remaining());
+        for (Row row : rs.currentPage()) {
             messages.add(new Message(row.getLong("channel_id"), row.getUuid("message_id"),
                 row.getLong("user_id"), row.getString("content"), row.getInstant("created_at").toEpochMilli()));
         }
         return messages;
     }
+
+    @Override
+    public CompletableFuture<List<Integer>> activeBuckets(long channelId, int fromBucket, int toBucket) {
+        return session.executeAsync(activeBucketsStmt.bind(channelId, fromBucket, toBucket))
+            .thenApply(MessageReader::nonEmptyBuckets)
+            .toCompletableFuture();
+    }
+
+    private static List<Integer> nonEmptyBuckets(AsyncResultSet rs) {
+        // At most one row per hour in the window, so a single page
+        var buckets = new ArrayList<Integer>(rs.remaining());
+        for (Row row : rs.currentPage()) {
+            if (row.getLong("message_count") > 0) buckets.add(row.getInt("bucket"));
+        }
+        return buckets;
+    }
 }
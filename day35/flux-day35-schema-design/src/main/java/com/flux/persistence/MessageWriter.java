@@ -1,36 +1,109 @@
 package com.flux.persistence;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.flux.common.WriteCoalescer;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.LongAdder;
 
-public class MessageWriter {
+/**
+ * Writes messages and their partition_metrics counters.
+ *
+ * By default inserts go through a {@link WriteCoalescer}: messages for the
+ * same (channel, bucket) partition that arrive within 2ms share one
+ * UNLOGGED batch, plus one counter update for the whole batch. Each
+ * partition's batch is routed to its replica, and at most 64 batches are
+ * in flight per replica.
+ */
+public class MessageWriter implements AutoCloseable {
+    private static final long WINDOW_MICROS = 2_000;
+    private static final int MAX_BATCH_SIZE = 100; // Well under batch_size_fail_threshold for chat rows
+    private static final int MAX_IN_FLIGHT_PER_HOST = 64;
+
     private final CqlSession session;
     private final PreparedStatement insertStmt;
     private final PreparedStatement updateMetricsStmt;
+    private final WriteCoalescer<MessagePartition, BoundStatement> coalescer;
     private final LongAdder writeCounter = new LongAdder();
 
     public MessageWriter(CqlSession session) {
+        this(session, true);
+    }
+
+    /**
+     * @param coalesce false sends one insert and one counter update per message
+     */
+    public MessageWriter(CqlSession session, boolean coalesce) {
         this.session = session;
         this.insertStmt = session.prepare(
             "INSERT INTO messages (channel_id, bucket, message_id, user_id, content, created_at) VALUES (?, ?, ?, ?, ?, ?)");
         this.updateMetricsStmt = session.prepare(
-            "UPDATE partition_metrics SET message_count = message_count + 1 WHERE channel_id = ? AND bucket = ?");
+            "UPDATE partition_metrics SET message_count = message_count + ? WHERE channel_id = ? AND bucket = ?");
+        this.coalescer = coalesce
+            ? new WriteCoalescer<>(this::writeBatch, this::replicaOf, WINDOW_MICROS, MAX_BATCH_SIZE, MAX_IN_FLIGHT_PER_HOST)
+            : null;
     }
 
     public CompletableFuture<Void> writeMessage(Message msg) {
         int bucket = MessagePartition.hourlyBucket(msg.timestamp());
         var messageId = Uuids.timeBased();
-        var insertFuture = session.executeAsync(insertStmt.bind(
+        BoundStatement insert = insertStmt.bind(
             msg.channelId(), bucket, messageId, msg.userId(), msg.content(),
-            Instant.ofEpochMilli(msg.timestamp()))).toCompletableFuture();
-        var metricsFuture = session.executeAsync(updateMetricsStmt.bind(msg.channelId(), bucket)).toCompletableFuture();
+            Instant.ofEpochMilli(msg.timestamp()));
         writeCounter.increment();
+        if (coalescer != null) {
+            return coalescer.submit(new MessagePartition(msg.channelId(), bucket), insert);
+        }
+        return writeBatch(new MessagePartition(msg.channelId(), bucket), List.of(insert));
+    }
+
+    /**
+     * One partition's inserts as a single statement, and one counter
+     * update for all of them. Counters cannot share a batch with regular
+     * writes, so they go separately.
+     */
+    private CompletableFuture<Void> writeBatch(MessagePartition partition, List<BoundStatement> inserts) {
+        Statement<?> insert = inserts.size() == 1
+            ? inserts.get(0)
+            : BatchStatement.builder(BatchType.UNLOGGED).addStatements(List.<BatchableStatement<?>>copyOf(inserts)).build();
+        var insertFuture = session.executeAsync(insert).toCompletableFuture();
+        var metricsFuture = session.executeAsync(
+            updateMetricsStmt.bind((long) inserts.size(), partition.channelId(), partition.bucket())).toCompletableFuture();
         return CompletableFuture.allOf(insertFuture, metricsFuture);
     }
 
+    /**
+     * First replica of the row's partition, or one shared slot when token
+     * metadata is unavailable.
+     */
+    private Object replicaOf(BoundStatement insert) {
+        return session.getMetadata().getTokenMap()
+            .flatMap(tokens -> insert.getRoutingKeyspace() == null || insert.getRoutingKey() == null
+                ? Optional.empty()
+                : tokens.getReplicas(insert.getRoutingKeyspace(), insert.getRoutingKey()).stream().findFirst())
+            .map(node -> (Object) node)
+            .orElse("cluster");
+    }
+
     public long getWriteCount() { return writeCounter.sum(); }
+
+    public double getAverageBatchSize() {
+        return coalescer == null ? 1.0 : coalescer.getAverageBatchSize();
+    }
+
+    @Override
+    public void close() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
 }
@@ -0,0 +1,157 @@
+package com.flux.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plans "latest N messages" reads across hourly buckets.
+ *
+ * Instead of walking back one bucket per round-trip, the planner:
+ * 1. Asks partition_metrics which buckets in the lookback window hold
+ *    messages (cached per channel for a few seconds), so empty hours of a
+ *    quiet channel are never queried. The current hour is always read, so
+ *    its query starts before the lookup; on a cache miss only the older
+ *    buckets wait one metadata round trip.
+ * 2. Keeps up to {@code parallelism} bucket queries in flight, newest
+ *    first, topping up as each one completes.
+ * 3. Consumes results strictly in bucket order. Buckets cover disjoint
+ *    hours and each returns rows in clustering order (message_id DESC), so
+ *    concatenation is already newest-first.
+ * 4. Abandons whatever is still in flight once the limit is reached. The
+ *    futures are cancelled, but a request already sent may still run on
+ *    the server, so the metric counts abandoned reads, not saved ones.
+ */
+public class ReadPlanner {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    /**
+     * Async access to the buckets; {@link MessageReader} implements it over CQL.
+     */
+    public interface BucketSource {
+        /** Up to {@code limit} messages of one bucket, newest first. */
+        CompletableFuture<List<Message>> query(long channelId, int bucket, int limit);
+
+        /** Buckets in {@code [fromBucket, toBucket]} that hold messages, newest first. */
+        CompletableFuture<List<Integer>> activeBuckets(long channelId, int fromBucket, int toBucket);
+    }
+
+    private record CachedBuckets(List<Integer> buckets, int newestAtFetch, long expiresAtNanos) {}
+
+    private final BucketSource source;
+    private final int parallelism;
+    private final int lookbackHours;
+    private final long metadataTtlNanos;
+    private final ConcurrentHashMap<Long, CachedBuckets> activeBuckets = new ConcurrentHashMap<>();
+
+    private final LongAdder queriesIssued = new LongAdder();
+    private final LongAdder queriesAbandoned = new LongAdder();
+    private final LongAdder bucketsSkipped = new LongAdder();
+
+    public ReadPlanner(BucketSource source, int parallelism, int lookbackHours, long metadataTtlMillis) {
+        if (parallelism < 1 || lookbackHours < 1) {
+            throw new IllegalArgumentException("Parallelism and lookback must be positive");
+        }
+        this.source = source;
+        this.parallelism = parallelism;
+        this.lookbackHours = lookbackHours;
+        this.metadataTtlNanos = TimeUnit.MILLISECONDS.toNanos(metadataTtlMillis);
+    }
+
+    public List<Message> fetchLatest(long channelId, int limit, long nowMillis) {
+        List<CompletableFuture<List<Message>>> inFlight = new ArrayList<>();
+        List<Message> result = new ArrayList<>(limit);
+        try {
+            // plan() always starts with the current hour; read it while
+            // plan() may be waiting on the metadata query
+            inFlight.add(issue(channelId, MessagePartition.hourlyBucket(nowMillis), limit));
+            List<Integer> plan = plan(channelId, nowMillis);
+            int launched = 1;
+            for (; launched < Math.min(parallelism, plan.size()); launched++) {
+                inFlight.add(issue(channelId, plan.get(launched), limit));
+            }
+
+            for (int i = 0; i < plan.size() && result.size() < limit; i++) {
+                for (Message message : inFlight.get(i).join()) {
+                    if (result.size() == limit) break;
+                    result.add(message);
+                }
+                if (result.size() < limit && launched < plan.size()) {
+                    inFlight.add(issue(channelId, plan.get(launched++), limit - result.size()));
+                }
+            }
+        } finally {
+            for (CompletableFuture<List<Message>> future : inFlight) {
+                if (future.cancel(true)) {
+                    queriesAbandoned.increment();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Buckets to read, newest first: the current hour plus every older
+     * bucket in the lookback window that metadata says is non-empty. If
+     * metadata is unavailable, every bucket in the window. Blocks on the
+     * metadata query when the cached entry is missing or expired.
+     */
+    List<Integer> plan(long channelId, long nowMillis) {
+        int newest = MessagePartition.hourlyBucket(nowMillis);
+        int oldest = MessagePartition.hourlyBucket(nowMillis - (lookbackHours - 1) * HOUR_MS);
+
+        CachedBuckets cached = activeBuckets.get(channelId);
+        long now = System.nanoTime();
+        if (cached == null || now - cached.expiresAtNanos() > 0) {
+            try {
+                cached = new CachedBuckets(source.activeBuckets(channelId, oldest, newest).join(),
+                    newest, now + metadataTtlNanos);
+                activeBuckets.put(channelId, cached);
+            } catch (RuntimeException e) {
+                List<Integer> all = new ArrayList<>(lookbackHours);
+                for (int h = 0; h < lookbackHours; h++) {
+                    all.add(MessagePartition.hourlyBucket(nowMillis - h * HOUR_MS));
+                }
+                return all;
+            }
+        }
+
+        // Hours that started since the metadata was fetched may have
+        // messages it does not know about; always read those
+        List<Integer> plan = new ArrayList<>();
+        for (int h = 0; ; h++) {
+            int bucket = MessagePartition.hourlyBucket(nowMillis - h * HOUR_MS);
+            if (bucket < cached.newestAtFetch() || bucket < oldest) break;
+            plan.add(bucket);
+        }
+        for (int bucket : cached.buckets()) {
+            if (bucket >= oldest && !plan.contains(bucket)) {
+                plan.add(bucket);
+            }
+        }
+        bucketsSkipped.add(lookbackHours - plan.size());
+        return plan;
+    }
+
+    /**
+     * Forget cached bucket metadata, e.g. after a write to an older bucket.
+     */
+    public void invalidate(long channelId) {
+        activeBuckets.remove(channelId);
+    }
+
+    private CompletableFuture<List<Message>> issue(long channelId, int bucket, int limit) {
+        queriesIssued.increment();
+        return source.query(channelId, bucket, limit);
+    }
+
+    public long getQueriesIssued() { return queriesIssued.sum(); }
+
+    public long getQueriesAbandoned() { return queriesAbandoned.sum(); }
+
+    public long getBucketsSkipped() { return bucketsSkipped.sum(); }
+}
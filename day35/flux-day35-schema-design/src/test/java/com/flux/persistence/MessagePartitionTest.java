@@ -10,6 +10,16 @@ class MessagePartitionTest {
         var zdt = ZonedDateTime.of(2025, 2, 4, 14, 30, 45, 0, ZoneOffset.UTC);
         assertEquals(2025020414, MessagePartition.hourlyBucket(zdt.toInstant().toEpochMilli()));
     }
+    @Test void testHourlyBucketMatchesCalendar() {
+        // Every 7 hours across leap years, century rules and month ends
+        long start = ZonedDateTime.of(1999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+        for (long t = start; t < start + 30L * 366 * 24 * 3_600_000L; t += 7 * 3_600_000L + 1234) {
+            var zdt = java.time.Instant.ofEpochMilli(t).atZone(ZoneOffset.UTC);
+            int expected = zdt.getYear() * 1_000_000 + zdt.getMonthValue() * 10_000
+                + zdt.getDayOfMonth() * 100 + zdt.getHour();
+            assertEquals(expected, MessagePartition.hourlyBucket(t), zdt.toString());
+        }
+    }
     @Test void testDecrementBucket() {
         assertEquals(2025020413, MessagePartition.decrementBucket(2025020414));
         assertEquals(2025020323, MessagePartition.decrementBucket(2025020400));
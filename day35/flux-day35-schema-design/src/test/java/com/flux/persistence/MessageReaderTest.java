@@ -0,0 +1,38 @@
+package com.flux.persistence;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import org.junit.jupiter.api.Test;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageReaderTest {
+
+    /** Driver interfaces answered by a lambda, so no cluster is needed. */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, BiFunction<Method, Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> answer.apply(method, args));
+    }
+
+    @Test void testCancellingQueryCancelsDriverRequest() {
+        var request = new CompletableFuture<AsyncResultSet>();
+        var bound = stub(BoundStatement.class, (m, a) -> null);
+        var prepared = stub(PreparedStatement.class, (m, a) -> m.getName().equals("bind") ? bound : null);
+        var session = stub(CqlSession.class, (m, a) -> switch (m.getName()) {
+            case "prepare" -> prepared;
+            case "executeAsync" -> request;
+            default -> null;
+        });
+
+        var messages = new MessageReader(session).query(1L, 2, 10);
+        assertFalse(request.isDone());
+        assertTrue(messages.cancel(true));
+        assertTrue(request.isCancelled());
+    }
+}
@@ -0,0 +1,163 @@
+package com.flux.persistence;
+
+import org.junit.jupiter.api.Test;
+import java.time.ZonedDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadPlannerTest {
+    private static final long HOUR_MS = 3_600_000L;
+    private static final long NOW = ZonedDateTime.of(2025, 3, 1, 1, 30, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+
+    /** Buckets complete only when the test says so, to observe what is in flight. */
+    static class FakeSource implements ReadPlanner.BucketSource {
+        final Map<Integer, List<Message>> data = new HashMap<>();
+        final Map<Integer, CompletableFuture<List<Message>>> pending = new ConcurrentHashMap<>();
+        final List<Integer> queried = new CopyOnWriteArrayList<>();
+        boolean autoComplete = true;
+        boolean metadataFails;
+        CompletableFuture<Void> metadataGate = CompletableFuture.completedFuture(null);
+
+        void put(int hoursAgo, int count) {
+            long hourStart = NOW - hoursAgo * HOUR_MS;
+            var messages = new ArrayList<Message>();
+            for (int i = 0; i < count; i++) {
+                messages.add(new Message(1L, UUID.randomUUID(), 7L, hoursAgo + ":" + i, hourStart - i));
+            }
+            data.put(MessagePartition.hourlyBucket(hourStart), messages);
+        }
+
+        @Override
+        public CompletableFuture<List<Message>> query(long channelId, int bucket, int limit) {
+            queried.add(bucket);
+            var rows = data.getOrDefault(bucket, List.of());
+            var result = new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+            if (autoComplete) return CompletableFuture.completedFuture(result);
+            var future = new CompletableFuture<List<Message>>();
+            pending.put(bucket, future);
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<List<Integer>> activeBuckets(long channelId, int fromBucket, int toBucket) {
+            if (metadataFails) return CompletableFuture.failedFuture(new IllegalStateException("metadata down"));
+            return metadataGate.thenApply(v -> data.keySet().stream()
+                .filter(b -> b >= fromBucket && b <= toBucket)
+                .sorted((a, b) -> Integer.compare(b, a))
+                .toList());
+        }
+    }
+
+    @Test void testQuietChannelSkipsEmptyBuckets() {
+        var source = new FakeSource();
+        source.put(5, 3);
+        source.put(20, 3);
+        var planner = new ReadPlanner(source, 4, 24, 60_000);
+
+        var latest = planner.fetchLatest(1L, 10, NOW);
+        assertEquals(6, latest.size());
+        // Current hour is always read, then only the two non-empty buckets
+        assertEquals(List.of(bucket(0), bucket(5), bucket(20)), source.queried);
+        assertEquals(21, planner.getBucketsSkipped());
+    }
+
+    @Test void testResultsAreNewestFirstAcrossBuckets() {
+        var source = new FakeSource();
+        source.put(0, 2);
+        source.put(3, 2);
+        source.put(23, 2);
+        var planner = new ReadPlanner(source, 3, 24, 60_000);
+
+        var latest = planner.fetchLatest(1L, 5, NOW);
+        assertEquals(5, latest.size());
+        for (int i = 1; i < latest.size(); i++) {
+            assertTrue(latest.get(i - 1).timestamp() >= latest.get(i).timestamp());
+        }
+        assertEquals("0:0", latest.get(0).content());
+    }
+
+    @Test void testAbandonsSpeculativeQueriesOnceLimitIsMet() {
+        var source = new FakeSource();
+        for (int h = 0; h < 6; h++) source.put(h, 10);
+        source.autoComplete = false;
+        var planner = new ReadPlanner(source, 3, 24, 60_000);
+
+        var fetch = CompletableFuture.supplyAsync(() -> planner.fetchLatest(1L, 10, NOW));
+        while (source.pending.size() < 3) Thread.onSpinWait();
+        assertEquals(List.of(bucket(0), bucket(1), bucket(2)), source.queried);
+
+        source.pending.get(bucket(0)).complete(source.data.get(bucket(0)));
+        var latest = fetch.join();
+
+        assertEquals(10, latest.size());
+        assertTrue(source.pending.get(bucket(1)).isCancelled());
+        assertTrue(source.pending.get(bucket(2)).isCancelled());
+        assertEquals(3, planner.getQueriesIssued());
+        assertEquals(2, planner.getQueriesAbandoned());
+    }
+
+    @Test void testCurrentHourReadOverlapsMetadataLookup() {
+        var source = new FakeSource();
+        source.put(0, 2);
+        source.put(4, 2);
+        source.metadataGate = new CompletableFuture<>();
+        var planner = new ReadPlanner(source, 4, 24, 60_000);
+
+        var fetch = CompletableFuture.supplyAsync(() -> planner.fetchLatest(1L, 10, NOW));
+        while (source.queried.isEmpty()) Thread.onSpinWait();
+        assertEquals(List.of(bucket(0)), source.queried);
+        assertFalse(fetch.isDone());
+
+        source.metadataGate.complete(null);
+        assertEquals(4, fetch.join().size());
+        assertEquals(List.of(bucket(0), bucket(4)), source.queried);
+    }
+
+    @Test void testKeepsParallelismWindowFull() {
+        var source = new FakeSource();
+        for (int h = 0; h < 6; h++) source.put(h, 1);
+        var planner = new ReadPlanner(source, 2, 24, 60_000);
+
+        var latest = planner.fetchLatest(1L, 4, NOW);
+        assertEquals(4, latest.size());
+        // Two up front, then one more per consumed bucket until the limit is met
+        assertEquals(5, planner.getQueriesIssued());
+    }
+
+    @Test void testCachedMetadataStillReadsNewHours() {
+        var source = new FakeSource();
+        source.put(2, 1);
+        var planner = new ReadPlanner(source, 4, 24, 60_000);
+        planner.fetchLatest(1L, 10, NOW);
+
+        // An hour later the previous "current" hour gained messages the cache never saw
+        source.put(0, 1);
+        source.queried.clear();
+        var latest = planner.fetchLatest(1L, 10, NOW + HOUR_MS);
+        assertEquals(2, latest.size());
+        assertEquals(List.of(bucket(-1), bucket(0), bucket(2)), source.queried);
+    }
+
+    @Test void testFallsBackToFullWindowWithoutMetadata() {
+        var source = new FakeSource();
+        source.put(23, 1);
+        source.metadataFails = true;
+        var planner = new ReadPlanner(source, 4, 24, 60_000);
+
+        var latest = planner.fetchLatest(1L, 10, NOW);
+        assertEquals(1, latest.size());
+        assertEquals(24, source.queried.size());
+    }
+
+    private static int bucket(int hoursAgo) {
+        return MessagePartition.hourlyBucket(NOW - hoursAgo * HOUR_MS);
+    }
+}
@@ -0,0 +1,90 @@
+package com.flux.persistence;
+
+import com.flux.common.WriteCoalescer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single inserts vs per-partition batches against a stand-in session.
+ *
+ * The stand-in models what limits ingestion on a real cluster: every
+ * request costs a fixed amount of replica CPU (parsing, coordination,
+ * commit-log append) on top of a small per-row cost, each replica serves
+ * requests one after another, and every response takes a round trip.
+ */
+public class WriteCoalescerBenchmark {
+    private static final int HOSTS = 3;
+    private static final long REQUEST_NANOS = 40_000;
+    private static final long ROW_NANOS = 4_000;
+    private static final long RTT_NANOS = 400_000;
+
+    static class StandInSession implements WriteCoalescer.Flusher<MessagePartition, Message> {
+        private final AtomicLong[] busyUntil = new AtomicLong[HOSTS];
+        private final ScheduledExecutorService network = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "stand-in-network");
+            t.setDaemon(true);
+            return t;
+        });
+        final AtomicLong requests = new AtomicLong();
+
+        StandInSession() {
+            for (int i = 0; i < HOSTS; i++) busyUntil[i] = new AtomicLong();
+        }
+
+        static int hostOf(long channelId) {
+            return (int) Math.floorMod(channelId, (long) HOSTS);
+        }
+
+        @Override
+        public CompletableFuture<Void> flush(MessagePartition partition, List<Message> rows) {
+            requests.incrementAndGet();
+            long service = REQUEST_NANOS + ROW_NANOS * rows.size();
+            long now = System.nanoTime();
+            long done = busyUntil[hostOf(partition.channelId())].accumulateAndGet(service,
+                (busy, cost) -> Math.max(busy, now) + cost);
+            var response = new CompletableFuture<Void>();
+            network.schedule(() -> response.complete(null), done - now + RTT_NANOS, TimeUnit.NANOSECONDS);
+            return response;
+        }
+    }
+
+    public static void main(String[] args) {
+        int messages = 200_000;
+        int channels = 500;
+        System.out.printf("%d messages over %d channels, %d replicas, %dus/request + %dus/row, %dus RTT%n",
+            messages, channels, HOSTS, REQUEST_NANOS / 1000, ROW_NANOS / 1000, RTT_NANOS / 1000);
+        run("single inserts", messages, channels, false);
+        run("coalesced", messages, channels, true);
+    }
+
+    private static void run(String label, int messages, int channels, boolean coalesce) {
+        var session = new StandInSession();
+        var coalescer = new WriteCoalescer<MessagePartition, Message>(
+            session, m -> StandInSession.hostOf(m.channelId()), 2_000, 100, 64);
+        var random = ThreadLocalRandom.current();
+        int bucket = MessagePartition.hourlyBucket(System.currentTimeMillis());
+        var writes = new ArrayList<CompletableFuture<Void>>(messages);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            var msg = new Message(random.nextInt(channels), UUID.randomUUID(), 7L, "message " + i, System.currentTimeMillis());
+            var partition = new MessagePartition(msg.channelId(), bucket);
+            writes.add(coalesce ? coalescer.submit(partition, msg) : session.flush(partition, List.of(msg)));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        long elapsedNanos = System.nanoTime() - start;
+        coalescer.close();
+
+        System.out.printf("  %-15s %,9.0f msgs/s  %,7d requests  %5.1f rows/request  %,6dms%n", label,
+            messages / (elapsedNanos / 1e9), session.requests.get(),
+            (double) messages / session.requests.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+}
@@ -1,6 +1,8 @@
 #!/bin/bash
 cd "$(dirname "$0")"
 echo "Starting Flux Day 35: Schema Design"
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 echo "Initializing Cassandra schema..."
 mvn exec:java -Dexec.mainClass="com.flux.persistence.SchemaInitializer" -q
@@ -13,6 +13,8 @@ if pgrep -f "com.flux.server.DashboardServer" > /dev/null; then
 fi
 
 echo "🔨 Building Flux Hot Partition Simulator..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 echo "🚀 Starting dashboard server..."
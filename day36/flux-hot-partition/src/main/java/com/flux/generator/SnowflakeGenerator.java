@@ -1,5 +1,7 @@
 package com.flux.generator;
 
+import com.flux.common.SnowflakeLayout;
+
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 
@@ -20,6 +22,9 @@ public final class SnowflakeGenerator {
     private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
     private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
 
+    public static final SnowflakeLayout LAYOUT =
+            new SnowflakeLayout(CUSTOM_EPOCH, (int) WORKER_ID_BITS, (int) SEQUENCE_BITS);
+
     private final long workerId;
     private volatile long sequence = 0L;
     private volatile long lastTimestamp = -1L;
@@ -95,21 +100,21 @@ public final class SnowflakeGenerator {
      * Extract timestamp from a Snowflake ID.
      */
     public static long getTimestamp(long snowflakeId) {
-        return ((snowflakeId >> TIMESTAMP_SHIFT) + CUSTOM_EPOCH);
+        return LAYOUT.timestampOf(snowflakeId);
     }
 
     /**
      * Extract worker ID from a Snowflake ID.
      */
     public static long getWorkerId(long snowflakeId) {
-        return (snowflakeId >> WORKER_ID_SHIFT) & MAX_WORKER_ID;
+        return LAYOUT.workerOf(snowflakeId);
     }
 
     /**
      * Extract sequence number from a Snowflake ID.
      */
     public static long getSequence(long snowflakeId) {
-        return snowflakeId & MAX_SEQUENCE;
+        return LAYOUT.sequenceOf(snowflakeId);
     }
 
     private long waitForNextMillis(long lastTimestamp) {
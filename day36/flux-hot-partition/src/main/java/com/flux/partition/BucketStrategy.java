@@ -1,42 +1,71 @@
 package com.flux.partition;
 
+import com.flux.common.TimeBuckets;
+
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
 
 /**
  * Strategies for bucketing messages into partitions by time.
+ *
+ * Buckets are integer keys (hours, days or ISO weeks since the Unix epoch),
+ * so the write path does one division; {@link #format} turns a key into a
+ * date string only for display.
  */
 public enum BucketStrategy {
-    NAIVE {
+    NAIVE(null) {
         @Override
-        public String computeBucket(long timestamp) {
+        public String format(int bucket) {
             return "ALL";
         }
     },
-    HOURLY {
+    HOURLY(TimeBuckets.HOURLY) {
         @Override
-        public String computeBucket(long timestamp) {
-            return ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC)
-                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH"));
+        public String format(int bucket) {
+            return utc(bucket).format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH"));
         }
     },
-    DAILY {
+    DAILY(TimeBuckets.DAILY) {
         @Override
-        public String computeBucket(long timestamp) {
-            return ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC)
-                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        public String format(int bucket) {
+            return utc(bucket).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
         }
     },
-    WEEKLY {
+    WEEKLY(TimeBuckets.WEEKLY) {
         @Override
-        public String computeBucket(long timestamp) {
-            ZonedDateTime date = ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
-            int weekOfYear = date.get(java.time.temporal.IsoFields.WEEK_OF_WEEK_BASED_YEAR);
-            return "%d-W%02d".formatted(date.getYear(), weekOfYear);
+        public String format(int bucket) {
+            ZonedDateTime date = utc(bucket);
+            return "%d-W%02d".formatted(date.get(IsoFields.WEEK_BASED_YEAR),
+                    date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
         }
     };
 
-    public abstract String computeBucket(long timestamp);
+    private final TimeBuckets buckets;
+
+    BucketStrategy(TimeBuckets buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Bucket key for a Unix-millisecond timestamp; always 0 for NAIVE.
+     */
+    public int computeBucket(long timestamp) {
+        return buckets == null ? 0 : buckets.bucketOf(timestamp);
+    }
+
+    /**
+     * Fixed-width buckets behind this strategy, or null for NAIVE.
+     */
+    public TimeBuckets buckets() {
+        return buckets;
+    }
+
+    public abstract String format(int bucket);
+
+    ZonedDateTime utc(int bucket) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(buckets.startOf(bucket)), ZoneOffset.UTC);
+    }
 }
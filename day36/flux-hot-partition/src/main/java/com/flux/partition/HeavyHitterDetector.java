@@ -0,0 +1,111 @@
+package com.flux.partition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming heavy-hitter detection with the Space-Saving algorithm.
+ *
+ * At most {@code capacity} keys are counted per tumbling window. When a new
+ * key arrives and the table is full, it takes over the smallest counter and
+ * inherits its count as error. Any key with more than
+ * {@code windowTotal / capacity} writes is guaranteed to be counted, and
+ * {@code count - error} never overestimates, so a key reported hot really
+ * did cross the threshold.
+ *
+ * Memory is O(capacity) regardless of how many partitions are written.
+ */
+public class HeavyHitterDetector<K> {
+
+    private final int capacity;
+    private final long windowMillis;
+    private final long threshold;
+
+    // Guarded by this
+    private final Map<K, Counter> counters;
+    private long windowStart = Long.MIN_VALUE;
+    private long windowTotal;
+
+    private static final class Counter {
+        long count;
+        long error;
+        boolean reported;
+    }
+
+    public record HeavyHitter<K>(K key, long minCount, long maxCount) {}
+
+    /**
+     * @param threshold writes per window at which a key is reported hot
+     */
+    public HeavyHitterDetector(int capacity, long windowMillis, long threshold) {
+        if (capacity < 1 || windowMillis < 1 || threshold < 1) {
+            throw new IllegalArgumentException("Capacity, window and threshold must be positive");
+        }
+        this.capacity = capacity;
+        this.windowMillis = windowMillis;
+        this.threshold = threshold;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Count one write to {@code key} at {@code timestampMs}.
+     *
+     * @return true exactly once per window, on the write that makes the key
+     *         provably cross the threshold
+     */
+    public synchronized boolean offer(K key, long timestampMs) {
+        if (timestampMs >= windowStart + windowMillis) {
+            counters.clear();
+            windowStart = timestampMs - Math.floorMod(timestampMs, windowMillis);
+            windowTotal = 0;
+        }
+        windowTotal++;
+
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = new Counter();
+            if (counters.size() >= capacity) {
+                Map.Entry<K, Counter> min = null;
+                for (Map.Entry<K, Counter> e : counters.entrySet()) {
+                    if (min == null || e.getValue().count < min.getValue().count) min = e;
+                }
+                counters.remove(min.getKey());
+                counter.count = min.getValue().count;
+                counter.error = min.getValue().count;
+            }
+            counters.put(key, counter);
+        }
+        counter.count++;
+
+        if (!counter.reported && counter.count - counter.error >= threshold) {
+            counter.reported = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Keys counted in the current window, heaviest first.
+     */
+    public synchronized List<HeavyHitter<K>> topK(int k) {
+        List<HeavyHitter<K>> top = new ArrayList<>(counters.size());
+        counters.forEach((key, c) -> top.add(new HeavyHitter<>(key, c.count - c.error, c.count)));
+        top.sort(Comparator.comparingLong((HeavyHitter<K> h) -> h.maxCount()).reversed());
+        return top.size() > k ? top.subList(0, k) : top;
+    }
+
+    public synchronized long windowTotal() {
+        return windowTotal;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+}
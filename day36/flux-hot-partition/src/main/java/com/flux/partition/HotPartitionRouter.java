@@ -0,0 +1,135 @@
+package com.flux.partition;
+
+import com.flux.generator.SnowflakeGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Write-path router that splits hot partitions on the fly.
+ *
+ * Every write is offered to a {@link HeavyHitterDetector}. Once a partition
+ * crosses {@code hotWritesPerSecond}, the router records a split into
+ * {@code subPartitions} in the {@link SaltingRegistry}, so later messages
+ * spread across that many replica sets instead of one. The sub-partition of
+ * a message is a hash of its Snowflake ID, so the same ID always maps to
+ * the same place.
+ *
+ * A split takes effect {@link #ACTIVATION_DELAY_MS} after detection, by
+ * message time. Writes already routed with an earlier timestamp therefore
+ * stay where the log says they are.
+ */
+public class HotPartitionRouter {
+
+    public static final int DEFAULT_SUB_PARTITIONS = 8;
+    public static final long ACTIVATION_DELAY_MS = 250;
+
+    private static final int TRACKED_PARTITIONS = 64;
+    private static final long WINDOW_MS = 1000;
+
+    private final int subPartitions;
+    private final HeavyHitterDetector<PartitionKey> detector;
+    private final SaltingRegistry registry;
+
+    public HotPartitionRouter(long hotWritesPerSecond) {
+        this(hotWritesPerSecond, DEFAULT_SUB_PARTITIONS, new SaltingRegistry());
+    }
+
+    public HotPartitionRouter(long hotWritesPerSecond, int subPartitions, SaltingRegistry registry) {
+        if (subPartitions < 2) {
+            throw new IllegalArgumentException("A split needs at least 2 sub-partitions");
+        }
+        this.subPartitions = subPartitions;
+        this.detector = new HeavyHitterDetector<>(TRACKED_PARTITIONS, WINDOW_MS, hotWritesPerSecond);
+        this.registry = registry;
+    }
+
+    /**
+     * Partition (possibly salted) a new message is written to.
+     */
+    public PartitionKey route(long channelId, long snowflakeId, BucketStrategy strategy) {
+        PartitionKey partition = PartitionKey.fromMessage(channelId, snowflakeId, strategy);
+        long timestamp = SnowflakeGenerator.LAYOUT.timestampOf(snowflakeId);
+        if (detector.offer(partition, timestamp)) {
+            registry.split(partition, subPartitions, timestamp + ACTIVATION_DELAY_MS);
+        }
+        return salted(partition, snowflakeId, timestamp);
+    }
+
+    /**
+     * Partition an existing message lives in. Read-only: not counted as a write.
+     */
+    public PartitionKey locate(long channelId, long snowflakeId, BucketStrategy strategy) {
+        PartitionKey partition = PartitionKey.fromMessage(channelId, snowflakeId, strategy);
+        return salted(partition, snowflakeId, SnowflakeGenerator.LAYOUT.timestampOf(snowflakeId));
+    }
+
+    /**
+     * Every sub-partition a full read of {@code partition} has to cover.
+     */
+    public List<PartitionKey> readPlan(PartitionKey partition) {
+        PartitionKey base = partition.unsalted();
+        int count = registry.maxSubPartitions(base);
+        List<PartitionKey> plan = new ArrayList<>(count);
+        for (int salt = 0; salt < count; salt++) {
+            plan.add(base.withSalt(salt));
+        }
+        return plan;
+    }
+
+    /**
+     * Latest {@code limit} messages of {@code partition}, merged across its
+     * sub-partitions. {@code reader} returns one sub-partition's messages
+     * newest first, as the clustering order does; the merge keeps that
+     * order by Snowflake ID.
+     */
+    public List<Message> mergeRead(PartitionKey partition, Function<PartitionKey, List<Message>> reader, int limit) {
+        List<PartitionKey> plan = readPlan(partition);
+        if (plan.size() == 1) {
+            List<Message> messages = reader.apply(plan.get(0));
+            return messages.size() > limit ? messages.subList(0, limit) : messages;
+        }
+
+        List<List<Message>> sources = new ArrayList<>(plan.size());
+        // Heads of each source as {source, position}, newest message first
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> Long.compare(
+                sources.get(b[0]).get(b[1]).messageId(), sources.get(a[0]).get(a[1]).messageId()));
+        for (PartitionKey key : plan) {
+            List<Message> messages = reader.apply(key);
+            sources.add(messages);
+            if (!messages.isEmpty()) heads.add(new int[] {sources.size() - 1, 0});
+        }
+
+        List<Message> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<Message> source = sources.get(head[0]);
+            merged.add(source.get(head[1]));
+            if (++head[1] < source.size()) heads.add(head);
+        }
+        return merged;
+    }
+
+    public HeavyHitterDetector<PartitionKey> getDetector() {
+        return detector;
+    }
+
+    public SaltingRegistry getRegistry() {
+        return registry;
+    }
+
+    private PartitionKey salted(PartitionKey partition, long snowflakeId, long timestamp) {
+        int count = registry.subPartitionsAt(partition, timestamp);
+        return count == 1 ? partition : partition.withSalt(saltOf(snowflakeId, count));
+    }
+
+    /**
+     * Spread IDs evenly even when only the sequence bits differ.
+     */
+    static int saltOf(long snowflakeId, int count) {
+        long h = snowflakeId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) count);
+    }
+}
@@ -2,31 +2,46 @@ package com.flux.partition;
 
 import com.flux.generator.SnowflakeGenerator;
 
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-
 /**
  * Represents a partition key in the wide-column store.
- * Combines channel ID with a time bucket for distributed partitioning.
+ * Combines channel ID with a time bucket for distributed partitioning,
+ * plus a salt when a hot partition has been split into sub-partitions
+ * (salt 0 is the original partition).
  */
-public record PartitionKey(long channelId, String timeBucket) implements Comparable<PartitionKey> {
+public record PartitionKey(long channelId, BucketStrategy strategy, int timeBucket, int salt)
+        implements Comparable<PartitionKey> {
+
+    public PartitionKey(long channelId, BucketStrategy strategy, int timeBucket) {
+        this(channelId, strategy, timeBucket, 0);
+    }
 
     /**
      * Create a partition key from a message using the specified bucketing strategy.
      */
     public static PartitionKey fromMessage(long channelId, long snowflakeId, BucketStrategy strategy) {
-        long timestamp = SnowflakeGenerator.getTimestamp(snowflakeId);
-        String bucket = strategy.computeBucket(timestamp);
-        return new PartitionKey(channelId, bucket);
+        long timestamp = SnowflakeGenerator.LAYOUT.timestampOf(snowflakeId);
+        return new PartitionKey(channelId, strategy, strategy.computeBucket(timestamp));
     }
 
     /**
      * Create a naive partition key (channel ID only - BAD for production).
      */
     public static PartitionKey naive(long channelId) {
-        return new PartitionKey(channelId, "ALL");
+        return new PartitionKey(channelId, BucketStrategy.NAIVE, 0);
+    }
+
+    /**
+     * Sub-partition {@code salt} of this partition.
+     */
+    public PartitionKey withSalt(int salt) {
+        return new PartitionKey(channelId, strategy, timeBucket, salt);
+    }
+
+    /**
+     * The partition this key was split from; itself if unsalted.
+     */
+    public PartitionKey unsalted() {
+        return salt == 0 ? this : withSalt(0);
     }
 
     @Override
@@ -35,11 +50,17 @@ public record PartitionKey(long channelId, String timeBucket) implements Compara
         if (channelCompare != 0) {
             return channelCompare;
         }
-        return this.timeBucket.compareTo(other.timeBucket);
+        int bucketCompare = Integer.compare(this.timeBucket, other.timeBucket);
+        if (bucketCompare != 0) {
+            return bucketCompare;
+        }
+        return Integer.compare(this.salt, other.salt);
     }
 
     @Override
     public String toString() {
-        return "(%d, %s)".formatted(channelId, timeBucket);
+        return salt == 0
+                ? "(%d, %s)".formatted(channelId, strategy.format(timeBucket))
+                : "(%d, %s, #%d)".formatted(channelId, strategy.format(timeBucket), salt);
     }
 }
@@ -0,0 +1,87 @@
+package com.flux.partition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Log of split decisions for hot partitions.
+ *
+ * A decision says: from {@code effectiveFromMillis} on, messages of this
+ * partition are spread over {@code subPartitions} sub-partitions. It is
+ * keyed by message time, not arrival time, so where a message lives is a
+ * pure function of its ID and the log. Point lookups and range reads then
+ * agree with the write that placed it. In production the log is a small
+ * table replicated alongside the messages.
+ *
+ * Splits only ever widen within a partition; a partition stops being
+ * written once its time bucket ends, so there is nothing to merge back.
+ */
+public class SaltingRegistry {
+
+    public record SaltDecision(PartitionKey partition, int subPartitions, long effectiveFromMillis) {}
+
+    private final ConcurrentHashMap<PartitionKey, List<SaltDecision>> decisions = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<SaltDecision> log = new CopyOnWriteArrayList<>();
+
+    /**
+     * Record a split; ignored unless it widens the partition's latest one.
+     *
+     * @return the decision in effect from {@code effectiveFromMillis} on
+     */
+    public SaltDecision split(PartitionKey partition, int subPartitions, long effectiveFromMillis) {
+        PartitionKey key = partition.unsalted();
+        SaltDecision[] result = new SaltDecision[1];
+        decisions.compute(key, (k, history) -> {
+            SaltDecision latest = history == null ? null : history.get(history.size() - 1);
+            if (latest != null && latest.subPartitions() >= subPartitions) {
+                result[0] = latest;
+                return history;
+            }
+            List<SaltDecision> updated = history == null ? new ArrayList<>() : new ArrayList<>(history);
+            long from = latest == null ? effectiveFromMillis : Math.max(effectiveFromMillis, latest.effectiveFromMillis());
+            result[0] = new SaltDecision(k, subPartitions, from);
+            updated.add(result[0]);
+            log.add(result[0]);
+            return List.copyOf(updated);
+        });
+        return result[0];
+    }
+
+    /**
+     * Sub-partition count for a message of {@code partition} written at
+     * {@code timestampMs}; 1 if it was not split then.
+     */
+    public int subPartitionsAt(PartitionKey partition, long timestampMs) {
+        List<SaltDecision> history = decisions.get(partition.unsalted());
+        if (history == null) return 1;
+        for (int i = history.size() - 1; i >= 0; i--) {
+            if (history.get(i).effectiveFromMillis() <= timestampMs) {
+                return history.get(i).subPartitions();
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Widest split ever recorded for {@code partition}: how many
+     * sub-partitions a full read has to cover.
+     */
+    public int maxSubPartitions(PartitionKey partition) {
+        List<SaltDecision> history = decisions.get(partition.unsalted());
+        return history == null ? 1 : history.get(history.size() - 1).subPartitions();
+    }
+
+    /**
+     * Every decision, in the order it was made.
+     */
+    public List<SaltDecision> decisions() {
+        return List.copyOf(log);
+    }
+
+    public void clear() {
+        decisions.clear();
+        log.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package com.flux.server;
 
 import com.flux.partition.BucketStrategy;
+import com.flux.partition.HotPartitionRouter;
 import com.flux.partition.PartitionKey;
 import com.flux.simulator.PartitionSimulator;
 import com.sun.net.httpserver.HttpServer;
@@ -18,13 +19,19 @@ import java.util.stream.Collectors;
  * Embedded HTTP server serving the real-time partition visualization dashboard.
  */
 public class DashboardServer {
+    private static final long HOT_WRITES_PER_SECOND = 500;
+
     private final HttpServer server;
     private final PartitionSimulator simulator;
+    private final PartitionSimulator saltedSimulator;
     private volatile PartitionSimulator.SimulationResult lastResult;
+    private volatile int lastSplits;
 
     public DashboardServer(int port, long workerId) throws IOException {
         this.server = HttpServer.create(new InetSocketAddress(port), 0);
         this.simulator = new PartitionSimulator(workerId);
+        this.saltedSimulator = new PartitionSimulator((workerId + 1) & 1023,
+                new HotPartitionRouter(HOT_WRITES_PER_SECOND));
         this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
         setupEndpoints();
     }
@@ -54,14 +61,17 @@ public class DashboardServer {
             BucketStrategy strategy = BucketStrategy.valueOf(params.getOrDefault("strategy", "NAIVE"));
             int messagesPerSecond = Integer.parseInt(params.getOrDefault("rate", "100"));
             int durationSeconds = Integer.parseInt(params.getOrDefault("duration", "10"));
+            boolean salting = Boolean.parseBoolean(params.getOrDefault("salting", "false"));
+            PartitionSimulator target = salting ? saltedSimulator : simulator;
 
-            simulator.reset();
-            lastResult = simulator.simulateWrites(
+            target.reset();
+            lastResult = target.simulateWrites(
                     12345L, // Fixed channel ID
                     messagesPerSecond,
                     Duration.ofSeconds(durationSeconds),
                     strategy
             );
+            lastSplits = salting ? target.getRouter().getRegistry().decisions().size() : 0;
 
             String json = resultToJson(lastResult);
             byte[] response = json.getBytes(StandardCharsets.UTF_8);
@@ -108,6 +118,7 @@ public class DashboardServer {
         json.append("\"throughput\":").append(result.throughputPerSecond()).append(",");
         json.append("\"maxPartitionSize\":").append(result.maxPartitionSize()).append(",");
         json.append("\"avgPartitionSize\":").append(result.avgPartitionSize()).append(",");
+        json.append("\"splitPartitions\":").append(lastSplits).append(",");
         json.append("\"partitions\":[");
 
         String partitionsJson = result.partitionStats().entrySet().stream()
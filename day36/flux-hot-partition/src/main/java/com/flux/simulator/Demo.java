@@ -1,8 +1,10 @@
 package com.flux.simulator;
 
 import com.flux.partition.BucketStrategy;
+import com.flux.partition.HotPartitionRouter;
 
 import java.time.Duration;
+import java.time.Instant;
 
 /**
  * Demo program that runs partition simulation scenarios.
@@ -22,5 +24,14 @@ public class Demo {
         System.out.println("====================================================");
         var result2 = simulator.simulateWrites(12345L, 100, Duration.ofSeconds(10), BucketStrategy.HOURLY);
         System.out.println(result2.summary());
+
+        System.out.println("\nScenario 3: Viral Channel with Hot-Partition Splitting");
+        System.out.println("======================================================");
+        PartitionSimulator salted = new PartitionSimulator(2, new HotPartitionRouter(500));
+        var result3 = salted.simulateWrites(12345L, 2000, Duration.ofSeconds(5), BucketStrategy.HOURLY);
+        System.out.println(result3.summary());
+        salted.getRouter().getRegistry().decisions().forEach(d ->
+                System.out.printf("Split %s into %d sub-partitions from %s%n",
+                        d.partition(), d.subPartitions(), Instant.ofEpochMilli(d.effectiveFromMillis())));
     }
 }
@@ -2,6 +2,7 @@ package com.flux.simulator;
 
 import com.flux.generator.SnowflakeGenerator;
 import com.flux.partition.BucketStrategy;
+import com.flux.partition.HotPartitionRouter;
 import com.flux.partition.Message;
 import com.flux.partition.PartitionKey;
 
@@ -18,10 +19,20 @@ import java.util.stream.Collectors;
 public class PartitionSimulator {
     private final SnowflakeGenerator generator;
     private final ConcurrentHashMap<PartitionKey, PartitionStats> partitionMap;
+    private final HotPartitionRouter router;
 
     public PartitionSimulator(long workerId) {
+        this(workerId, null);
+    }
+
+    /**
+     * With a router, hot partitions are detected during the run and their
+     * writes salted across sub-partitions.
+     */
+    public PartitionSimulator(long workerId, HotPartitionRouter router) {
         this.generator = new SnowflakeGenerator(workerId);
         this.partitionMap = new ConcurrentHashMap<>();
+        this.router = router;
     }
 
     /**
@@ -51,7 +62,9 @@ public class PartitionSimulator {
                                 System.currentTimeMillis()
                         );
 
-                        PartitionKey key = PartitionKey.fromMessage(channelId, snowflakeId, strategy);
+                        PartitionKey key = router != null
+                                ? router.route(channelId, snowflakeId, strategy)
+                                : PartitionKey.fromMessage(channelId, snowflakeId, strategy);
                         partitionMap.computeIfAbsent(key, k -> new PartitionStats())
                                 .recordWrite(message);
                     } finally {
@@ -101,6 +114,16 @@ public class PartitionSimulator {
      */
     public void reset() {
         partitionMap.clear();
+        if (router != null) {
+            router.getRegistry().clear();
+        }
+    }
+
+    /**
+     * Router splitting hot partitions, or null if salting is off.
+     */
+    public HotPartitionRouter getRouter() {
+        return router;
     }
 
     /**
@@ -0,0 +1,121 @@
+package com.flux;
+
+import com.flux.generator.SnowflakeGenerator;
+import com.flux.partition.BucketStrategy;
+import com.flux.partition.HeavyHitterDetector;
+import com.flux.partition.HotPartitionRouter;
+import com.flux.partition.Message;
+import com.flux.partition.PartitionKey;
+import com.flux.partition.SaltingRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotPartitionRouterTest {
+
+    private static final long T0 = 1_750_000_000_000L - 1_750_000_000_000L % 3_600_000L; // Hour-aligned
+
+    /** Snowflake ID at {@code timestampMs} with sequence {@code seq}. */
+    private static long id(long timestampMs, int seq) {
+        return SnowflakeGenerator.LAYOUT.minIdForTime(timestampMs) + seq;
+    }
+
+    @Test
+    void testDetectorReportsHeavyHitterOncePerWindow() {
+        var detector = new HeavyHitterDetector<String>(8, 1000, 100);
+        int reports = 0;
+        for (int i = 0; i < 500; i++) {
+            // Far more distinct cold keys than counters
+            assertFalse(detector.offer("cold-" + i, T0 + i));
+            if (detector.offer("hot", T0 + i)) reports++;
+        }
+        assertEquals(1, reports);
+        assertEquals("hot", detector.topK(1).get(0).key());
+
+        // A new window starts counting from zero
+        assertFalse(detector.offer("hot", T0 + 1000));
+    }
+
+    @Test
+    void testRegistrySplitsOnlyWiden() {
+        var registry = new SaltingRegistry();
+        var partition = new PartitionKey(1L, BucketStrategy.HOURLY, 10);
+        registry.split(partition, 4, T0);
+        registry.split(partition, 2, T0 + 10);
+        registry.split(partition.withSalt(3), 8, T0 + 20);
+
+        assertEquals(1, registry.subPartitionsAt(partition, T0 - 1));
+        assertEquals(4, registry.subPartitionsAt(partition, T0 + 10));
+        assertEquals(8, registry.subPartitionsAt(partition, T0 + 20));
+        assertEquals(8, registry.maxSubPartitions(partition));
+        assertEquals(2, registry.decisions().size());
+    }
+
+    @Test
+    void testColdChannelIsNeverSalted() {
+        var router = new HotPartitionRouter(1000);
+        for (int i = 0; i < 500; i++) {
+            assertEquals(0, router.route(1L, id(T0 + i, 0), BucketStrategy.HOURLY).salt());
+        }
+        assertTrue(router.getRegistry().decisions().isEmpty());
+        assertEquals(1, router.readPlan(new PartitionKey(1L, BucketStrategy.HOURLY, 0)).size());
+    }
+
+    @Test
+    void testHotChannelSplitsAfterActivationDelay() {
+        var router = new HotPartitionRouter(100, 4, new SaltingRegistry());
+        Map<Long, PartitionKey> placed = new HashMap<>();
+        for (int ms = 0; ms < 2000; ms++) {
+            long snowflakeId = id(T0 + ms, 0);
+            placed.put(snowflakeId, router.route(7L, snowflakeId, BucketStrategy.HOURLY));
+        }
+
+        var decisions = router.getRegistry().decisions();
+        assertEquals(1, decisions.size());
+        long from = decisions.get(0).effectiveFromMillis();
+        assertEquals(T0 + 99 + HotPartitionRouter.ACTIVATION_DELAY_MS, from);
+
+        var salts = new HashSet<Integer>();
+        placed.forEach((snowflakeId, key) -> {
+            long ts = SnowflakeGenerator.getTimestamp(snowflakeId);
+            if (ts < from) assertEquals(0, key.salt(), "Salted before the split took effect");
+            else salts.add(key.salt());
+            // Placement is reproducible from the ID and the log alone
+            assertEquals(key, router.locate(7L, snowflakeId, BucketStrategy.HOURLY));
+        });
+        assertEquals(4, salts.size());
+    }
+
+    @Test
+    void testMergeReadReturnsNewestFirstAcrossSubPartitions() {
+        var router = new HotPartitionRouter(50, 4, new SaltingRegistry());
+        Map<PartitionKey, List<Message>> store = new HashMap<>();
+        for (int ms = 0; ms < 1000; ms++) {
+            long snowflakeId = id(T0 + ms, 1);
+            PartitionKey key = router.route(7L, snowflakeId, BucketStrategy.HOURLY);
+            store.computeIfAbsent(key, k -> new ArrayList<>())
+                    .add(new Message(snowflakeId, 7L, 1L, "m" + ms, T0 + ms));
+        }
+        // Clustering order: newest first within each sub-partition
+        store.values().forEach(l -> l.sort(Comparator.comparingLong(Message::messageId).reversed()));
+        assertTrue(store.size() > 1);
+
+        PartitionKey partition = PartitionKey.fromMessage(7L, id(T0, 0), BucketStrategy.HOURLY);
+        List<Message> latest = router.mergeRead(partition, k -> store.getOrDefault(k, List.of()), 100);
+        assertEquals(100, latest.size());
+        assertEquals("m999", latest.get(0).content());
+        for (int i = 1; i < latest.size(); i++) {
+            assertTrue(latest.get(i - 1).messageId() > latest.get(i).messageId());
+        }
+
+        List<Message> all = router.mergeRead(partition, k -> store.getOrDefault(k, List.of()), 5000);
+        assertEquals(1000, all.size());
+    }
+}
@@ -1,6 +1,7 @@
 package com.flux;
 
 import com.flux.simulator.MessageSimulator;
+import com.flux.simulator.PartitionSizeReport;
 import com.flux.simulator.SimulationResult;
 
 public class DemoRunner {
@@ -22,5 +23,21 @@ public class DemoRunner {
             (double) naive.maxPartitionSize() / bucketed.maxPartitionSize());
         System.out.printf("  Distribution improvement: %d partitions vs %d\n",
             bucketed.numPartitions(), naive.numPartitions());
+        
+        System.out.println("\nSimulating 10,000 channels with Zipfian load (s=1.1, 2M msgs/day) over 60 days...\n");
+        
+        System.out.println("⏳ Running FIXED simulation (10-day windows for every channel)...");
+        PartitionSizeReport fixed = sim.simulateZipfian(10_000, 60, 2_000_000, 1.1, false, 37);
+        System.out.println(fixed);
+        
+        System.out.println("⏳ Running ADAPTIVE simulation (per-channel widths from write rate)...");
+        PartitionSizeReport adaptive = sim.simulateZipfian(10_000, 60, 2_000_000, 1.1, true, 37);
+        System.out.println(adaptive);
+        
+        System.out.println("📊 ANALYSIS:");
+        System.out.printf("  Largest partition: %,d vs %,d messages\n",
+            adaptive.maxPartitionSize(), fixed.maxPartitionSize());
+        System.out.printf("  Partitions: %,d vs %,d\n",
+            adaptive.numPartitions(), fixed.numPartitions());
     }
 }
@@ -0,0 +1,229 @@
+package com.flux.bucketing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-channel time buckets whose width follows the channel's write rate.
+ *
+ * Widths are powers of two of a one-hour base window, from 1 hour (hot
+ * channels) up to 256 hours (about the 10 days {@link PartitionKeyGenerator}
+ * uses for everyone). Each channel keeps a small metadata record: the
+ * history of width changes ("epochs") plus a rate estimate. In production
+ * that record lives in its own table next to the messages; here it is in
+ * memory.
+ *
+ * A width change never moves data that is already written. Growing takes
+ * effect at the end of the current bucket; shrinking takes effect at the
+ * next base-window boundary and cuts the current bucket short. Bucket IDs
+ * are the bucket's start in base windows since {@link PartitionKeyGenerator}'s
+ * epoch, so they stay unique and ordered across epochs.
+ */
+public class AdaptiveBucketing<K> {
+
+    public static final long BASE_WINDOW_MS = 60L * 60 * 1000; // 1 hour
+    public static final int MAX_EXPONENT = 8; // 256 hours
+    public static final long DEFAULT_TARGET_MESSAGES = 100_000;
+
+    private static final long EPOCH_START = PartitionKeyGenerator.getEpochStart();
+    private static final double RATE_SMOOTHING = 0.2; // EWMA weight of the newest window
+    private static final int MAX_IDLE_WINDOWS = 64; // Beyond this the EWMA is ~0 anyway
+
+    private final long targetMessagesPerBucket;
+    private final ConcurrentHashMap<K, ChannelBuckets> channels = new ConcurrentHashMap<>();
+
+    public AdaptiveBucketing() {
+        this(DEFAULT_TARGET_MESSAGES);
+    }
+
+    public AdaptiveBucketing(long targetMessagesPerBucket) {
+        if (targetMessagesPerBucket < 1) {
+            throw new IllegalArgumentException("Target bucket size must be positive");
+        }
+        this.targetMessagesPerBucket = targetMessagesPerBucket;
+    }
+
+    /**
+     * Write path: record one message for {@code channel} and return its bucket.
+     */
+    public int bucketFor(K channel, long timestampMs) {
+        checkEpoch(timestampMs);
+        return channels.computeIfAbsent(channel, c -> new ChannelBuckets()).record(timestampMs);
+    }
+
+    /**
+     * Read path: bucket of {@code timestampMs} under the channel's current
+     * history, without recording a write.
+     */
+    public int bucketOf(K channel, long timestampMs) {
+        checkEpoch(timestampMs);
+        return history(channel).bucketOf(timestampMs);
+    }
+
+    /**
+     * Buckets overlapping [startMs, endMs], oldest first, following every
+     * width change in the range.
+     */
+    public List<Integer> bucketsForRange(K channel, long startMs, long endMs) {
+        if (startMs > endMs) {
+            throw new IllegalArgumentException("Start time after end time");
+        }
+        checkEpoch(startMs);
+        return history(channel).bucketsForRange(startMs, endMs);
+    }
+
+    /**
+     * Width history of a channel; a single max-width epoch if it never wrote.
+     */
+    public History history(K channel) {
+        ChannelBuckets buckets = channels.get(channel);
+        return buckets == null ? History.INITIAL : buckets.history;
+    }
+
+    public int channelCount() {
+        return channels.size();
+    }
+
+    /**
+     * Start of a bucket (inclusive). The end depends on the channel's history.
+     */
+    public static long bucketStartTime(int bucketId) {
+        return EPOCH_START + bucketId * BASE_WINDOW_MS;
+    }
+
+    private static void checkEpoch(long timestampMs) {
+        if (timestampMs < EPOCH_START) {
+            throw new IllegalArgumentException("Timestamp before epoch start: " + timestampMs);
+        }
+    }
+
+    private static long window(long timestampMs) {
+        return (timestampMs - EPOCH_START) / BASE_WINDOW_MS;
+    }
+
+    /**
+     * Immutable width history: epoch {@code i} starts at {@code starts[i]}
+     * (in base windows) with width {@code 1 << exponents[i]} base windows.
+     */
+    public record History(long[] starts, int[] exponents) {
+
+        static final History INITIAL = new History(new long[] {0}, new int[] {MAX_EXPONENT});
+
+        public int epochCount() {
+            return starts.length;
+        }
+
+        public int currentExponent() {
+            return exponents[exponents.length - 1];
+        }
+
+        public int bucketOf(long timestampMs) {
+            return (int) bucketStart(window(timestampMs));
+        }
+
+        /** Start of the bucket containing base window {@code w}. */
+        long bucketStart(long w) {
+            int epoch = epochOf(w);
+            long offset = w - starts[epoch];
+            return starts[epoch] + (offset >>> exponents[epoch] << exponents[epoch]);
+        }
+
+        /** End of the bucket containing {@code w}, cut short by the next epoch. */
+        long bucketEnd(long w) {
+            int epoch = epochOf(w);
+            long end = bucketStart(w) + (1L << exponents[epoch]);
+            return epoch + 1 < starts.length ? Math.min(end, starts[epoch + 1]) : end;
+        }
+
+        List<Integer> bucketsForRange(long startMs, long endMs) {
+            long last = window(endMs);
+            List<Integer> buckets = new ArrayList<>();
+            for (long w = bucketStart(window(startMs)); w <= last; w = bucketEnd(w)) {
+                buckets.add((int) w);
+            }
+            return buckets;
+        }
+
+        int epochOf(long w) {
+            int i = Arrays.binarySearch(starts, w);
+            return i >= 0 ? i : -i - 2;
+        }
+
+        History withEpoch(long start, int exponent) {
+            // An epoch that has not started yet is replaced, not stacked
+            int keep = starts[starts.length - 1] >= start ? starts.length - 1 : starts.length;
+            long[] newStarts = Arrays.copyOf(starts, keep + 1);
+            int[] newExponents = Arrays.copyOf(exponents, keep + 1);
+            newStarts[keep] = start;
+            newExponents[keep] = exponent;
+            return new History(newStarts, newExponents);
+        }
+    }
+
+    /**
+     * Metadata for one channel. The history is read without locking; writes
+     * for the same channel serialize on the record.
+     */
+    private final class ChannelBuckets {
+        private volatile History history = History.INITIAL;
+        private long window = -1;
+        private long windowCount;
+        private double messagesPerWindow;
+        private boolean measured;
+
+        synchronized int record(long timestampMs) {
+            long w = window(timestampMs);
+            if (w > window) {
+                if (window >= 0) {
+                    rollover(w);
+                }
+                window = w;
+            }
+            windowCount++;
+            return history.bucketOf(timestampMs);
+        }
+
+        /**
+         * Fold finished windows into the rate and re-pick the width at the
+         * start of window {@code next}.
+         */
+        private void rollover(long next) {
+            // The first full window seeds the rate so hot channels react within an hour
+            messagesPerWindow = measured
+                ? messagesPerWindow + RATE_SMOOTHING * (windowCount - messagesPerWindow)
+                : windowCount;
+            measured = true;
+            long idle = Math.min(next - window - 1, MAX_IDLE_WINDOWS);
+            for (long i = 0; i < idle; i++) {
+                messagesPerWindow -= RATE_SMOOTHING * messagesPerWindow;
+            }
+            windowCount = 0;
+
+            History current = history;
+            int exponent = current.currentExponent();
+            double perBucket = messagesPerWindow * (1L << exponent);
+            // Hysteresis: keep the width while buckets hold between a quarter and twice the
+            // target. A fresh pick lands in (target/2, target], so that is one doubling of slack each way
+            if (perBucket <= 2.0 * targetMessagesPerBucket && perBucket >= targetMessagesPerBucket / 4.0) {
+                return;
+            }
+            int wanted = exponentFor(messagesPerWindow);
+            if (wanted == exponent) {
+                return;
+            }
+            long start = wanted < exponent ? next : current.bucketEnd(next - 1);
+            history = current.withEpoch(start, wanted);
+        }
+
+        /** Largest width that keeps the expected bucket at or under the target. */
+        private int exponentFor(double perWindow) {
+            if (perWindow <= 0) return MAX_EXPONENT;
+            double windows = targetMessagesPerBucket / perWindow;
+            if (windows < 2) return 0;
+            int exponent = 63 - Long.numberOfLeadingZeros((long) windows);
+            return Math.min(exponent, MAX_EXPONENT);
+        }
+    }
+}
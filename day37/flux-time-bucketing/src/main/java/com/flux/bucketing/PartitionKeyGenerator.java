@@ -1,5 +1,8 @@
 package com.flux.bucketing;
 
+import com.flux.common.SnowflakeLayout;
+import com.flux.common.TimeBuckets;
+
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
@@ -15,24 +18,32 @@ public class PartitionKeyGenerator {
     private static final long BUCKET_SIZE_MS = 10L * 24 * 60 * 60 * 1000; // 10 days
     private static final long EPOCH_START = 1704067200000L; // 2024-01-01 00:00:00 UTC
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_INSTANT;
+    private static final TimeBuckets BUCKETS = new TimeBuckets(EPOCH_START, BUCKET_SIZE_MS);
     
     /**
      * Calculate bucket ID for a given timestamp.
      * Bucket 0 starts at EPOCH_START.
      */
     public static int calculateBucket(long timestampMs) {
-        long offsetMs = timestampMs - EPOCH_START;
-        if (offsetMs < 0) {
+        if (timestampMs < EPOCH_START) {
             throw new IllegalArgumentException("Timestamp before epoch start: " + timestampMs);
         }
-        return (int) (offsetMs / BUCKET_SIZE_MS);
+        return BUCKETS.bucketOf(timestampMs);
+    }
+    
+    /**
+     * Bucket IDs for a batch of Snowflake IDs, without allocating.
+     * {@code layout} must match the generator that produced the IDs.
+     */
+    public static void calculateBuckets(long[] snowflakeIds, int[] out, int n, SnowflakeLayout layout) {
+        layout.decodeBuckets(snowflakeIds, out, n, BUCKETS);
     }
     
     /**
      * Get the start timestamp (inclusive) of a bucket.
      */
     public static long bucketStartTime(int bucketId) {
-        return EPOCH_START + (bucketId * BUCKET_SIZE_MS);
+        return BUCKETS.startOf(bucketId);
     }
     
     /**
@@ -80,4 +91,8 @@ public class PartitionKeyGenerator {
     public static long getEpochStart() {
         return EPOCH_START;
     }
+    
+    public static TimeBuckets getBuckets() {
+        return BUCKETS;
+    }
 }
@@ -1,5 +1,6 @@
 package com.flux.simulator;
 
+import com.flux.bucketing.AdaptiveBucketing;
 import com.flux.bucketing.PartitionKeyGenerator;
 import com.flux.model.Message;
 
@@ -107,6 +108,60 @@ public class MessageSimulator {
         );
     }
     
+    /**
+     * Simulate channels whose write rates follow a Zipf distribution
+     * ({@code rate(rank) ~ 1 / rank^skew}) and report partition-size
+     * percentiles. Time advances hour by hour, so adaptive bucketing sees
+     * writes in order as it would in production. With {@code adaptive}
+     * false every channel uses the fixed 10-day buckets.
+     */
+    public PartitionSizeReport simulateZipfian(
+        int numChannels,
+        int daysToSimulate,
+        long messagesPerDay,
+        double skew,
+        boolean adaptive,
+        long seed
+    ) {
+        Random rng = new Random(seed);
+        long hourMs = AdaptiveBucketing.BASE_WINDOW_MS;
+        long endTimeMs = System.currentTimeMillis() / hourMs * hourMs;
+        long startTimeMs = endTimeMs - daysToSimulate * 24 * hourMs;
+
+        double harmonic = 0;
+        for (int rank = 1; rank <= numChannels; rank++) harmonic += 1 / Math.pow(rank, skew);
+        double[] perHour = new double[numChannels];
+        for (int i = 0; i < numChannels; i++) {
+            perHour[i] = messagesPerDay / 24.0 / Math.pow(i + 1, skew) / harmonic;
+        }
+
+        AdaptiveBucketing<Long> bucketing = new AdaptiveBucketing<>();
+        Map<Long, long[]> partitionSizes = new HashMap<>();
+        for (long hourStart = startTimeMs; hourStart < endTimeMs; hourStart += hourMs) {
+            for (int channel = 0; channel < numChannels; channel++) {
+                // Integer part plus a coin flip for the fraction keeps the mean rate
+                int n = (int) perHour[channel];
+                if (rng.nextDouble() < perHour[channel] - n) n++;
+                for (int i = 0; i < n; i++) {
+                    long timestamp = hourStart + (long) (rng.nextDouble() * hourMs);
+                    int bucket = adaptive
+                        ? bucketing.bucketFor((long) channel, timestamp)
+                        : PartitionKeyGenerator.calculateBucket(timestamp);
+                    partitionSizes.computeIfAbsent(((long) channel << 32) | bucket, k -> new long[1])[0]++;
+                }
+            }
+        }
+
+        int widthChanges = 0;
+        if (adaptive) {
+            for (long channel = 0; channel < numChannels; channel++) {
+                widthChanges += bucketing.history(channel).epochCount() - 1;
+            }
+        }
+        long[] sizes = partitionSizes.values().stream().mapToLong(c -> c[0]).toArray();
+        return PartitionSizeReport.of(adaptive ? "ADAPTIVE" : "FIXED 10-DAY", sizes, widthChanges);
+    }
+
     private List<UserProfile> generateUserProfiles(int numUsers) {
         List<UserProfile> users = new ArrayList<>();
         
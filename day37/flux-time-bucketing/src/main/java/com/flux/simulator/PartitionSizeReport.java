@@ -0,0 +1,51 @@
+package com.flux.simulator;
+
+import java.util.Arrays;
+
+/**
+ * Partition-size distribution of a Zipfian simulation run.
+ */
+public record PartitionSizeReport(
+    String mode,
+    long totalMessages,
+    int numPartitions,
+    long p50,
+    long p90,
+    long p99,
+    long p999,
+    long maxPartitionSize,
+    int widthChanges
+) {
+    /**
+     * Build a report from per-partition message counts; sorts {@code sizes}.
+     */
+    static PartitionSizeReport of(String mode, long[] sizes, int widthChanges) {
+        Arrays.sort(sizes);
+        long total = 0;
+        for (long size : sizes) total += size;
+        return new PartitionSizeReport(mode, total, sizes.length,
+            percentile(sizes, 0.50), percentile(sizes, 0.90), percentile(sizes, 0.99),
+            percentile(sizes, 0.999), sizes.length == 0 ? 0 : sizes[sizes.length - 1], widthChanges);
+    }
+
+    /** Nearest-rank percentile of sorted values. */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+            Partition Sizes (%s):
+            - Total Messages: %,d
+            - Partitions: %,d
+            - p50 / p90 / p99 / p99.9: %,d / %,d / %,d / %,d messages
+            - Max Partition Size: %,d messages
+            - Bucket Width Changes: %,d
+            """,
+            mode, totalMessages, numPartitions, p50, p90, p99, p999, maxPartitionSize, widthChanges
+        );
+    }
+}
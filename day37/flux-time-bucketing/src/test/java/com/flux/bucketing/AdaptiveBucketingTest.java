@@ -0,0 +1,112 @@
+package com.flux.bucketing;
+
+import com.flux.simulator.MessageSimulator;
+import com.flux.simulator.PartitionSizeReport;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBucketingTest {
+
+    private static final long HOUR = AdaptiveBucketing.BASE_WINDOW_MS;
+    private static final long EPOCH = PartitionKeyGenerator.getEpochStart();
+    private static final long T0 = EPOCH + 2560 * HOUR; // On a 256-hour boundary
+
+    /** {@code perHour} evenly spaced writes in each of {@code hours} hours from {@code start}. */
+    private static List<long[]> write(AdaptiveBucketing<String> bucketing, String channel,
+                                      long start, int hours, int perHour) {
+        List<long[]> written = new ArrayList<>();
+        for (int h = 0; h < hours; h++) {
+            for (int i = 0; i < perHour; i++) {
+                long timestamp = start + h * HOUR + i * (HOUR / perHour);
+                written.add(new long[] {timestamp, bucketing.bucketFor(channel, timestamp)});
+            }
+        }
+        return written;
+    }
+
+    @Test
+    void testNewChannelUsesWidestBuckets() {
+        var bucketing = new AdaptiveBucketing<String>();
+        assertEquals(2560, bucketing.bucketOf("quiet", T0));
+        assertEquals(2560, bucketing.bucketOf("quiet", T0 + 255 * HOUR));
+        assertEquals(List.of(2560, 2816), bucketing.bucketsForRange("quiet", T0, T0 + 256 * HOUR));
+    }
+
+    @Test
+    void testQuietChannelKeepsWidth() {
+        var bucketing = new AdaptiveBucketing<String>();
+        write(bucketing, "quiet", T0, 48, 5);
+        assertEquals(1, bucketing.history("quiet").epochCount());
+        assertEquals(AdaptiveBucketing.MAX_EXPONENT, bucketing.history("quiet").currentExponent());
+    }
+
+    @Test
+    void testHotChannelShrinksAtNextWindow() {
+        var bucketing = new AdaptiveBucketing<String>(100_000);
+        // 10k/hour: 8-hour buckets hold 80k, the widest under target
+        write(bucketing, "hot", T0, 3, 10_000);
+
+        var history = bucketing.history("hot");
+        assertEquals(2, history.epochCount());
+        assertEquals(3, history.currentExponent());
+        assertEquals(2560, bucketing.bucketOf("hot", T0 + HOUR - 1));
+        assertEquals(2561, bucketing.bucketOf("hot", T0 + HOUR));
+        assertEquals(2561, bucketing.bucketOf("hot", T0 + 9 * HOUR - 1));
+        assertEquals(2569, bucketing.bucketOf("hot", T0 + 9 * HOUR));
+    }
+
+    @Test
+    void testQuietedChannelGrowsAtBucketEnd() {
+        var bucketing = new AdaptiveBucketing<String>(100_000);
+        write(bucketing, "burst", T0, 2, 150_000); // Shrinks to 1-hour buckets
+        assertEquals(0, bucketing.history("burst").currentExponent());
+
+        write(bucketing, "burst", T0 + 2 * HOUR, 30, 10);
+        var history = bucketing.history("burst");
+        assertTrue(history.currentExponent() > 0);
+        // Growing waits for the current bucket to end, so IDs stay strictly ordered
+        List<Integer> buckets = bucketing.bucketsForRange("burst", T0, T0 + 40 * HOUR);
+        for (int i = 1; i < buckets.size(); i++) {
+            assertTrue(buckets.get(i) > buckets.get(i - 1), "Buckets must be strictly ordered");
+        }
+    }
+
+    @Test
+    void testWidthChangesAreNeverRetroactive() {
+        var bucketing = new AdaptiveBucketing<String>(50_000);
+        List<long[]> written = new ArrayList<>();
+        written.addAll(write(bucketing, "ch", T0, 5, 200));
+        written.addAll(write(bucketing, "ch", T0 + 5 * HOUR, 6, 20_000));
+        written.addAll(write(bucketing, "ch", T0 + 11 * HOUR, 40, 100));
+        written.addAll(write(bucketing, "ch", T0 + 51 * HOUR, 4, 30_000));
+        assertTrue(bucketing.history("ch").epochCount() > 2);
+
+        List<Integer> range = bucketing.bucketsForRange("ch", T0, T0 + 55 * HOUR - 1);
+        for (long[] w : written) {
+            assertEquals(w[1], bucketing.bucketOf("ch", w[0]), "Bucket moved for " + w[0]);
+            assertTrue(range.contains((int) w[1]), "Range query misses bucket " + w[1]);
+        }
+    }
+
+    @Test
+    void testBucketsForRange_InvalidRange_ThrowsException() {
+        var bucketing = new AdaptiveBucketing<String>();
+        assertThrows(IllegalArgumentException.class, () -> bucketing.bucketsForRange("ch", T0, T0 - 1));
+        assertThrows(IllegalArgumentException.class, () -> bucketing.bucketFor("ch", EPOCH - 1));
+    }
+
+    @Test
+    void testZipfianSimulationCapsHotPartitions() {
+        var sim = new MessageSimulator();
+        PartitionSizeReport fixed = sim.simulateZipfian(1_000, 30, 300_000, 1.1, false, 7);
+        PartitionSizeReport adaptive = sim.simulateZipfian(1_000, 30, 300_000, 1.1, true, 7);
+
+        assertEquals(fixed.totalMessages(), adaptive.totalMessages());
+        assertTrue(fixed.maxPartitionSize() > 2 * AdaptiveBucketing.DEFAULT_TARGET_MESSAGES);
+        assertTrue(adaptive.maxPartitionSize() <= 2 * AdaptiveBucketing.DEFAULT_TARGET_MESSAGES,
+            adaptive.toString());
+        assertTrue(adaptive.p50() <= adaptive.p99());
+    }
+}
@@ -1,127 +1,391 @@
 package com.flux.persistence;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
+/**
+ * Routes requests to replicas and completes them at the requested
+ * consistency level, without blocking a thread per request.
+ *
+ * Writes go to every replica; a {@link QuorumFuture} completes on the Nth
+ * ack. Reads go only to as many replicas as the level needs, fastest first
+ * by each replica's latency EWMA. With speculative retry on, a read that
+ * has not reached its quorum after the slowest contacted replica's
+ * {@link ReplicaLatency#speculationDelayNanos() speculation delay} is sent
+ * to the next replica too. That is rapid read protection for QUORUM and a
+ * hedged read for ONE. Whichever responses arrive first win.
+ *
+ * With digest reads on, only one contacted replica returns the payload; the
+ * others return {@link Message#digest()}. If a digest disagrees, the read
+ * fetches the full versions from those replicas, returns the newest
+ * (last-write-wins), and writes it back to every stale replica in the
+ * background. That is read repair. A write rejected by a partitioned
+ * replica is kept as a hint and replayed when the replica comes back; see
+ * {@link HintedHandoff}.
+ */
 public class CoordinatorNode {
+    private static final long WRITE_TIMEOUT_MS = 150;
+    private static final long READ_TIMEOUT_MS = 100;
+    private static final long MIN_SPECULATION_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long DEFAULT_HINT_WINDOW_MS = 10_000;
+    private static final long HINT_DELIVERY_INTERVAL_MS = 50;
+    // Per request and per response: message id, consistency level, framing
+    static final int HEADER_BYTES = 32;
+    static final int DIGEST_BYTES = 8;
+
     private final List<ReplicaNode> replicas;
     private final int replicationFactor;
-    
+    private final ReplicaLatency[] latencies;
+    private final boolean speculativeRetry;
+    private final boolean digestReads;
+    private final HintedHandoff hints;
+    private final LongAdder speculativeReads = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder readBytes = new LongAdder();
+    private final LongAdder readRepairs = new LongAdder();
+    private final LongAdder repairBytes = new LongAdder();
+
     public CoordinatorNode(List<ReplicaNode> replicas) {
+        this(replicas, true);
+    }
+
+    /**
+     * @param speculativeRetry false reads a fixed set of replicas in list
+     *        order and only moves on when one fails, like a coordinator
+     *        with no latency tracking
+     */
+    public CoordinatorNode(List<ReplicaNode> replicas, boolean speculativeRetry) {
+        this(replicas, speculativeRetry, true, DEFAULT_HINT_WINDOW_MS);
+    }
+
+    /**
+     * @param digestReads false fetches the full payload from every
+     *        contacted replica
+     * @param hintWindowMs how long a replica may be down and still have
+     *        writes held for it
+     */
+    public CoordinatorNode(List<ReplicaNode> replicas, boolean speculativeRetry, boolean digestReads, long hintWindowMs) {
         this.replicas = new ArrayList<>(replicas);
         this.replicationFactor = replicas.size();
+        this.speculativeRetry = speculativeRetry;
+        this.digestReads = digestReads;
+        this.hints = new HintedHandoff(this.replicas, hintWindowMs, HINT_DELIVERY_INTERVAL_MS);
+        this.latencies = new ReplicaLatency[replicationFactor];
+        for (int i = 0; i < replicationFactor; i++) {
+            latencies[i] = new ReplicaLatency();
+        }
     }
-    
+
     public WriteResult write(Message message, ConsistencyLevel level) {
-        long startTime = System.currentTimeMillis();
-        int requiredAcks = level.getRequiredAcks(replicationFactor);
-        
-        // Send write to all replicas in parallel
-        List<CompletableFuture<WriteResult>> futures = replicas.stream()
-            .map(replica -> replica.write(message))
-            .collect(Collectors.toList());
-        
-        try {
-            if (level == ConsistencyLevel.ONE) {
-                // Return as soon as ANY replica acknowledges
-                WriteResult result = (WriteResult) CompletableFuture.anyOf(
-                    futures.toArray(new CompletableFuture[0])
-                ).get(100, TimeUnit.MILLISECONDS);
-                
-                long totalLatency = System.currentTimeMillis() - startTime;
-                return new WriteResult(result.replicaId(), true, totalLatency);
-                
-            } else {
-                // Wait for required number of acknowledgments
-                AtomicInteger acknowledged = new AtomicInteger(0);
-                AtomicInteger replicaId = new AtomicInteger(-1);
-                
-                futures.forEach(future -> future.thenAccept(result -> {
-                    if (result.success()) {
-                        acknowledged.incrementAndGet();
-                        replicaId.compareAndSet(-1, result.replicaId());
-                    }
-                }));
-                
-                // Poll until quorum reached or timeout
-                long deadline = System.currentTimeMillis() + 150; // 150ms timeout
-                while (acknowledged.get() < requiredAcks) {
-                    if (System.currentTimeMillis() > deadline) {
-                        long totalLatency = System.currentTimeMillis() - startTime;
-                        return new WriteResult(-1, false, totalLatency, 
-                            "Timeout: only " + acknowledged.get() + "/" + requiredAcks + " acks");
-                    }
-                    Thread.onSpinWait();
+        return writeAsync(message, level).join();
+    }
+
+    public ReadResult read(long messageId, ConsistencyLevel level) {
+        return readAsync(messageId, level).join();
+    }
+
+    /**
+     * Never completes exceptionally: failures and timeouts come back as an
+     * unsuccessful {@link WriteResult}.
+     */
+    public CompletableFuture<WriteResult> writeAsync(Message message, ConsistencyLevel level) {
+        long startNanos = System.nanoTime();
+        QuorumFuture<WriteResult> quorum = new QuorumFuture<>(level.getRequiredAcks(replicationFactor), replicationFactor);
+
+        for (int i = 0; i < replicationFactor; i++) {
+            int index = i;
+            ReplicaLatency latency = latencies[i];
+            long sentNanos = System.nanoTime();
+            replicas.get(i).write(message).whenComplete((result, error) -> {
+                if (error == null && result.success()) {
+                    latency.record(System.nanoTime() - sentNanos);
+                    quorum.success(result);
+                } else {
+                    hints.store(index, message);
+                    quorum.failure();
                 }
-                
-                long totalLatency = System.currentTimeMillis() - startTime;
-                return new WriteResult(replicaId.get(), true, totalLatency);
-            }
-            
-        } catch (TimeoutException e) {
-            long totalLatency = System.currentTimeMillis() - startTime;
-            return new WriteResult(-1, false, totalLatency, "Timeout waiting for replicas");
-        } catch (Exception e) {
-            long totalLatency = System.currentTimeMillis() - startTime;
-            return new WriteResult(-1, false, totalLatency, e.getMessage());
+            });
+        }
+
+        return quorum.completeOnTimeout(null, WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .handle((acks, error) -> {
+                long latencyMs = elapsedMs(startNanos);
+                if (error != null) {
+                    return new WriteResult(-1, false, latencyMs, error.getMessage());
+                }
+                if (acks == null) {
+                    return new WriteResult(-1, false, latencyMs,
+                        "Timeout: only " + quorum.successes() + "/" + quorum.getRequired() + " acks");
+                }
+                return new WriteResult(acks.get(0).replicaId(), true, latencyMs);
+            });
+    }
+
+    /**
+     * Never completes exceptionally: an unreachable quorum or a timeout
+     * comes back as a {@link ReadResult} with replica -1.
+     */
+    public CompletableFuture<ReadResult> readAsync(long messageId, ConsistencyLevel level) {
+        long startNanos = System.nanoTime();
+        int required = level.getRequiredAcks(replicationFactor);
+        Read read = new Read(messageId, new QuorumFuture<>(required, replicationFactor), replicaOrder());
+        reads.increment();
+
+        for (int i = 0; i < required; i++) {
+            read.sendNext(false);
+        }
+        if (speculativeRetry && required < replicationFactor) {
+            scheduleSpeculation(read);
         }
+
+        return read.quorum.thenCombine(read.firstData, (responses, data) -> resolve(read, responses, data))
+            .thenCompose(resolved -> resolved)
+            .completeOnTimeout(null, READ_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .handle((chosen, error) -> {
+                long latencyMs = elapsedMs(startNanos);
+                if (error != null || chosen == null) {
+                    return new ReadResult(-1, null, latencyMs);
+                }
+                return new ReadResult(chosen.replicaId(), chosen.message(), latencyMs, chosen.isStale());
+            });
     }
-    
-    public ReadResult read(long messageId, ConsistencyLevel level) {
-        long startTime = System.currentTimeMillis();
-        int requiredResponses = level.getRequiredAcks(replicationFactor);
-        
-        List<CompletableFuture<ReadResult>> futures = replicas.stream()
-            .map(replica -> replica.read(messageId))
-            .collect(Collectors.toList());
-        
-        try {
-            if (level == ConsistencyLevel.ONE) {
-                ReadResult result = (ReadResult) CompletableFuture.anyOf(
-                    futures.toArray(new CompletableFuture[0])
-                ).get(100, TimeUnit.MILLISECONDS);
-                
-                return result;
-                
+
+    /**
+     * A replica's answer: the full result for a data read, only the digest
+     * otherwise (0 when the replica does not have the message).
+     */
+    private record Response(int index, ReadResult data, long digest) {}
+
+    /**
+     * One read in flight: which replicas to try, in order, and how far along.
+     */
+    private final class Read {
+        final long messageId;
+        final QuorumFuture<Response> quorum;
+        final CompletableFuture<Response> firstData = new CompletableFuture<>();
+        final int[] order;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicBoolean dataRequested = new AtomicBoolean();
+
+        Read(long messageId, QuorumFuture<Response> quorum, int[] order) {
+            this.messageId = messageId;
+            this.quorum = quorum;
+            this.order = order;
+        }
+
+        /** Enough responses and a payload to return. */
+        boolean settled() {
+            return quorum.isDone() && firstData.isDone();
+        }
+
+        /**
+         * Send to the next untried replica: a data read if no payload has
+         * been asked for yet (or {@code forceData}), a digest read
+         * otherwise. Returns its index, or -1 if none left.
+         */
+        int sendNext(boolean forceData) {
+            int position = next.getAndIncrement();
+            if (position >= order.length) {
+                if (!dataRequested.get()) {
+                    firstData.completeExceptionally(new IllegalStateException("No replica returned data"));
+                }
+                return -1;
+            }
+            int index = order[position];
+            boolean data = !digestReads || dataRequested.compareAndSet(false, true) || forceData;
+            ReplicaLatency latency = latencies[index];
+            ReplicaNode replica = replicas.get(index);
+            long sentNanos = System.nanoTime();
+            readBytes.add(HEADER_BYTES);
+            if (data) {
+                replica.read(messageId).whenComplete((result, error) -> {
+                    if (error == null) {
+                        latency.record(System.nanoTime() - sentNanos);
+                        readBytes.add(HEADER_BYTES + payloadBytes(result));
+                        Response response = new Response(index, result, result.message().map(Message::digest).orElse(0L));
+                        firstData.complete(response);
+                        quorum.success(response);
+                    } else {
+                        dataRequested.set(false);
+                        failed();
+                    }
+                });
             } else {
-                // Wait for required number of responses
-                List<ReadResult> results = new ArrayList<>();
-                
-                for (CompletableFuture<ReadResult> future : futures) {
-                    try {
-                        ReadResult result = future.get(50, TimeUnit.MILLISECONDS);
-                        results.add(result);
-                        if (results.size() >= requiredResponses) {
-                            break;
-                        }
-                    } catch (Exception ignored) {
-                        // Skip failed replicas
+                replica.readDigest(messageId).whenComplete((digest, error) -> {
+                    if (error == null) {
+                        latency.record(System.nanoTime() - sentNanos);
+                        readBytes.add(HEADER_BYTES + DIGEST_BYTES);
+                        quorum.success(new Response(index, null, digest));
+                    } else {
+                        failed();
                     }
+                });
+            }
+            return index;
+        }
+
+        private void failed() {
+            quorum.failure();
+            // Replace a failed replica right away rather than waiting for the timer
+            if (!settled()) sendNext(false);
+        }
+    }
+
+    /**
+     * Return the payload if every digest agrees with it. Otherwise fetch the
+     * disagreeing versions, return the newest and repair the rest.
+     */
+    private CompletableFuture<ReadResult> resolve(Read read, List<Response> responses, Response data) {
+        List<Response> contacted = new ArrayList<>(responses);
+        if (!contacted.contains(data)) {
+            contacted.add(data); // Arrived after the quorum
+        }
+        List<Response> mismatched = contacted.stream()
+            .filter(r -> r.digest() != data.digest())
+            .toList();
+        if (mismatched.isEmpty()) {
+            return CompletableFuture.completedFuture(data.data());
+        }
+
+        readRepairs.increment();
+        List<CompletableFuture<ReadResult>> versions = new ArrayList<>();
+        versions.add(CompletableFuture.completedFuture(data.data()));
+        for (Response response : mismatched) {
+            versions.add(response.data() != null
+                ? CompletableFuture.completedFuture(response.data())
+                : fetch(response.index(), read.messageId));
+        }
+        return CompletableFuture.allOf(versions.toArray(CompletableFuture[]::new)).thenApply(v -> {
+            ReadResult newest = data.data();
+            for (CompletableFuture<ReadResult> version : versions) {
+                ReadResult candidate = version.join();
+                if (candidate != null && candidate.message().isPresent()
+                        && candidate.message().get().supersedes(newest.message().orElse(null))) {
+                    newest = candidate;
                 }
-                
-                if (results.size() < requiredResponses) {
-                    return new ReadResult(-1, null, 
-                        System.currentTimeMillis() - startTime);
-                }
-                
-                // Return the most recent version (highest message ID wins)
-                return results.stream()
-                    .filter(r -> r.message().isPresent())
-                    .findFirst()
-                    .orElse(results.get(0));
             }
-            
-        } catch (Exception e) {
-            return new ReadResult(-1, null, System.currentTimeMillis() - startTime);
+            newest.message().ifPresent(winner -> repair(contacted, winner));
+            return newest;
+        });
+    }
+
+    /**
+     * Full read of one replica during resolution; null if it fails.
+     */
+    private CompletableFuture<ReadResult> fetch(int index, long messageId) {
+        readBytes.add(HEADER_BYTES);
+        return replicas.get(index).read(messageId)
+            .thenApply(result -> {
+                readBytes.add(HEADER_BYTES + payloadBytes(result));
+                return result;
+            })
+            .exceptionally(error -> null);
+    }
+
+    /**
+     * Write the winning version back to every contacted replica that
+     * disagreed. Fire and forget: the read has already been answered.
+     */
+    private void repair(List<Response> contacted, Message winner) {
+        long digest = winner.digest();
+        for (Response response : contacted) {
+            if (response.digest() != digest) {
+                repairBytes.add(HEADER_BYTES + winner.estimatedBytes());
+                replicas.get(response.index()).write(winner);
+            }
+        }
+    }
+
+    private static int payloadBytes(ReadResult result) {
+        return result.message().map(Message::estimatedBytes).orElse(0);
+    }
+
+    private void scheduleSpeculation(Read read) {
+        long delayNanos = MIN_SPECULATION_NANOS;
+        int sent = Math.min(read.next.get(), read.order.length);
+        for (int i = 0; i < sent; i++) {
+            delayNanos = Math.max(delayNanos, latencies[read.order[i]].speculationDelayNanos());
+        }
+        Executor timer = CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, Runnable::run);
+        timer.execute(() -> {
+            if (read.settled()) return;
+            // If the payload is what is late, the hedge has to carry one too
+            if (read.sendNext(!read.firstData.isDone()) < 0) return;
+            speculativeReads.increment();
+            scheduleSpeculation(read);
+        });
+    }
+
+    /**
+     * Replica indexes to read from: fastest first when speculating, list
+     * order otherwise.
+     */
+    private int[] replicaOrder() {
+        IntStream indexes = IntStream.range(0, replicationFactor);
+        if (!speculativeRetry) {
+            return indexes.toArray();
         }
+        return indexes.boxed()
+            .sorted(Comparator.comparingLong(i -> latencies[i].meanNanos()))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Reads sent to an extra replica because the first ones were slow.
+     */
+    public long getSpeculativeReads() {
+        return speculativeReads.sum();
     }
-    
+
+    public long getReplicaLatencyMicros(int index) {
+        return TimeUnit.NANOSECONDS.toMicros(latencies[index].meanNanos());
+    }
+
     public List<ReplicaNode> getReplicas() {
         return replicas;
     }
+
+    public long getReads() {
+        return reads.sum();
+    }
+
+    /**
+     * Request and response bytes between coordinator and replicas on the
+     * read path, including the full fetches of a mismatch.
+     */
+    public long getReadBytes() {
+        return readBytes.sum();
+    }
+
+    /**
+     * Reads that found a digest mismatch and repaired it.
+     */
+    public long getReadRepairs() {
+        return readRepairs.sum();
+    }
+
+    public long getRepairBytes() {
+        return repairBytes.sum();
+    }
+
+    public HintedHandoff getHintedHandoff() {
+        return hints;
+    }
+
+    public void shutdown() {
+        hints.shutdown();
+    }
 }
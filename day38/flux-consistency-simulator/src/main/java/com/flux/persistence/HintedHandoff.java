@@ -0,0 +1,118 @@
+package com.flux.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes held by the coordinator for replicas that could not take them.
+ *
+ * A write that a partitioned replica rejects is queued as a hint. A
+ * delivery pass every few milliseconds replays the queue once the replica
+ * is reachable again; replicas apply writes last-write-wins, so a late hint
+ * never overwrites a newer version.
+ *
+ * As in Cassandra's max_hint_window, hints stop being stored once a replica
+ * has been down longer than {@code hintWindowMs}. Beyond that, catching up
+ * is left to read repair, because an unbounded queue would be the next
+ * outage.
+ */
+public final class HintedHandoff {
+    public record Hint(Message message, long storedAtMillis) {}
+
+    private final List<ReplicaNode> replicas;
+    private final long hintWindowMs;
+    private final List<ConcurrentLinkedQueue<Hint>> queues;
+    private final AtomicLongArray downSince; // First hint of the current outage, 0 if up
+    private final ScheduledExecutorService deliverer;
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public HintedHandoff(List<ReplicaNode> replicas, long hintWindowMs, long deliveryIntervalMs) {
+        this.replicas = replicas;
+        this.hintWindowMs = hintWindowMs;
+        this.queues = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            queues.add(new ConcurrentLinkedQueue<>());
+        }
+        this.downSince = new AtomicLongArray(replicas.size());
+        this.deliverer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hint-delivery");
+            t.setDaemon(true);
+            return t;
+        });
+        deliverer.scheduleWithFixedDelay(this::deliver, deliveryIntervalMs, deliveryIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hold {@code message} for replica {@code index}, unless it has been
+     * down for longer than the hint window.
+     */
+    public void store(int index, Message message) {
+        long now = System.currentTimeMillis();
+        downSince.compareAndSet(index, 0, now);
+        if (now - downSince.get(index) > hintWindowMs) {
+            dropped.increment();
+            return;
+        }
+        queues.get(index).add(new Hint(message, now));
+        stored.increment();
+    }
+
+    /**
+     * One delivery pass over every reachable replica. Each pass replays only
+     * the hints queued when it started: a hint that fails goes to the back
+     * of the queue for the next pass, not back into this one.
+     */
+    void deliver() {
+        for (int i = 0; i < queues.size(); i++) {
+            ReplicaNode replica = replicas.get(i);
+            if (replica.isPartitioned()) {
+                continue;
+            }
+            downSince.set(i, 0);
+            ConcurrentLinkedQueue<Hint> queue = queues.get(i);
+            Hint hint;
+            for (int n = queue.size(); n > 0 && (hint = queue.poll()) != null; n--) {
+                Hint pending = hint;
+                replica.write(hint.message()).whenComplete((result, error) -> {
+                    if (error == null && result.success()) {
+                        delivered.increment();
+                    } else {
+                        queue.add(pending); // Went down again; retry next pass
+                    }
+                });
+            }
+        }
+    }
+
+    public int pending() {
+        int total = 0;
+        for (ConcurrentLinkedQueue<Hint> queue : queues) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    public long getStored() {
+        return stored.sum();
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public void shutdown() {
+        deliverer.shutdown();
+    }
+}
@@ -11,4 +11,45 @@ public record Message(
         long id = idGen.nextId();
         return new Message(id, channelId, userId, content, System.currentTimeMillis());
     }
+
+    /**
+     * Last-write-wins: true if this version should replace {@code other}.
+     * Ties on timestamp go to the higher digest so every replica agrees.
+     */
+    public boolean supersedes(Message other) {
+        if (other == null) return true;
+        if (timestamp != other.timestamp) return timestamp > other.timestamp;
+        return Long.compareUnsigned(digest(), other.digest()) > 0;
+    }
+
+    /**
+     * 64-bit FNV-1a over every field: what replicas send instead of the
+     * payload on a digest read.
+     */
+    public long digest() {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, id);
+        h = mix(h, timestamp);
+        for (String field : new String[] {channelId, userId, content}) {
+            for (int i = 0; i < field.length(); i++) {
+                h = (h ^ field.charAt(i)) * 0x100000001b3L;
+            }
+            h = (h ^ 0xff) * 0x100000001b3L; // Field separator
+        }
+        return h;
+    }
+
+    /**
+     * Approximate payload size on the wire.
+     */
+    public int estimatedBytes() {
+        return 8 + 8 + channelId.length() + userId.length() + content.length();
+    }
+
+    private static long mix(long h, long value) {
+        for (int i = 0; i < 8; i++) {
+            h = (h ^ ((value >>> (i * 8)) & 0xff)) * 0x100000001b3L;
+        }
+        return h;
+    }
 }
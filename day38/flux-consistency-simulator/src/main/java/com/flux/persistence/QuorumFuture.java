@@ -0,0 +1,65 @@
+package com.flux.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Countdown future for a quorum of replica responses.
+ *
+ * Completes with the first {@code required} successes as soon as the last
+ * of them arrives, or exceptionally as soon as enough replicas have failed
+ * that the quorum can no longer be reached. Nobody waits on it: replica
+ * callbacks drive it, so an in-flight request costs a few objects, not a
+ * thread.
+ */
+public class QuorumFuture<T> extends CompletableFuture<List<T>> {
+    private final int required;
+    private final int maxFailures;
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicInteger stored = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicReferenceArray<T> results;
+
+    public QuorumFuture(int required, int total) {
+        if (required < 1 || required > total) {
+            throw new IllegalArgumentException("Need 1.." + total + " responses, got " + required);
+        }
+        this.required = required;
+        this.maxFailures = total - required;
+        this.results = new AtomicReferenceArray<>(required);
+    }
+
+    public void success(T result) {
+        int slot = claimed.getAndIncrement();
+        if (slot >= required) {
+            return;
+        }
+        results.set(slot, result);
+        // Complete only once every claimed slot is written
+        if (stored.incrementAndGet() == required) {
+            List<T> quorum = new ArrayList<>(required);
+            for (int i = 0; i < required; i++) {
+                quorum.add(results.get(i));
+            }
+            complete(quorum);
+        }
+    }
+
+    public void failure() {
+        if (failures.incrementAndGet() == maxFailures + 1) {
+            completeExceptionally(new IllegalStateException(
+                "Quorum unreachable: " + failures.get() + " replicas failed, " + required + " responses required"));
+        }
+    }
+
+    public int successes() {
+        return Math.min(claimed.get(), required);
+    }
+
+    public int getRequired() {
+        return required;
+    }
+}
@@ -0,0 +1,41 @@
+package com.flux.persistence;
+
+/**
+ * Smoothed response time of one replica, kept the way TCP keeps RTT
+ * (RFC 6298): an EWMA of latency plus an EWMA of its deviation.
+ * {@code mean + 4 * deviation} is a cheap stand-in for the replica's tail
+ * latency and serves as the speculative-retry delay.
+ */
+public class ReplicaLatency {
+    private static final double ALPHA = 0.125;
+    private static final double BETA = 0.25;
+
+    private double meanNanos;
+    private double deviationNanos;
+    private boolean sampled;
+
+    public synchronized void record(long latencyNanos) {
+        if (!sampled) {
+            meanNanos = latencyNanos;
+            deviationNanos = latencyNanos / 2.0;
+            sampled = true;
+            return;
+        }
+        deviationNanos += BETA * (Math.abs(latencyNanos - meanNanos) - deviationNanos);
+        meanNanos += ALPHA * (latencyNanos - meanNanos);
+    }
+
+    /**
+     * Expected latency; 0 until the first response, so unknown replicas get tried.
+     */
+    public synchronized long meanNanos() {
+        return (long) meanNanos;
+    }
+
+    /**
+     * How long to wait on this replica before asking another one.
+     */
+    public synchronized long speculationDelayNanos() {
+        return (long) (meanNanos + 4 * deviationNanos);
+    }
+}
@@ -1,82 +1,129 @@
 package com.flux.persistence;
 
-import java.util.Optional;
-import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class ReplicaNode {
     private final int nodeId;
     private final ConcurrentHashMap<Long, Message> storage = new ConcurrentHashMap<>();
-    private final Random latencyJitter = new Random();
-    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Network latency is a timer, not a sleeping thread
+    private final ScheduledExecutorService scheduler;
     private volatile boolean isPartitioned = false;
     private volatile int baseLatencyMs = 5;
-    
+    private volatile double spikeProbability = 0;
+    private volatile int spikeLatencyMs = 0;
+
     public ReplicaNode(int nodeId) {
         this.nodeId = nodeId;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-" + nodeId);
+            t.setDaemon(true);
+            return t;
+        });
     }
-    
+
     public CompletableFuture<WriteResult> write(Message message) {
         long startTime = System.currentTimeMillis();
-        
-        return CompletableFuture.supplyAsync(() -> {
-            if (isPartitioned) {
-                return new WriteResult(nodeId, false, 0, "Node partitioned");
-            }
-            
-            simulateNetworkLatency();
-            storage.put(message.id(), message);
-            
+        if (isPartitioned) {
+            return CompletableFuture.completedFuture(new WriteResult(nodeId, false, 0, "Node partitioned"));
+        }
+
+        CompletableFuture<WriteResult> future = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            // Hints and read repairs can arrive after newer writes
+            storage.merge(message.id(), message, (current, incoming) -> incoming.supersedes(current) ? incoming : current);
             long latency = System.currentTimeMillis() - startTime;
-            return new WriteResult(nodeId, true, latency);
-        }, executor);
+            future.complete(new WriteResult(nodeId, true, latency));
+        }, networkLatencyMs(), TimeUnit.MILLISECONDS);
+        return future;
     }
-    
+
+    /**
+     * Fails if the node is partitioned, so an unreachable replica is never
+     * mistaken for one that does not have the message.
+     */
     public CompletableFuture<ReadResult> read(long messageId) {
         long startTime = System.currentTimeMillis();
-        
-        return CompletableFuture.supplyAsync(() -> {
-            if (isPartitioned) {
-                return new ReadResult(nodeId, Optional.empty(), 0, false);
-            }
-            
-            simulateNetworkLatency();
+        if (isPartitioned) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Node " + nodeId + " partitioned"));
+        }
+
+        CompletableFuture<ReadResult> future = new CompletableFuture<>();
+        scheduler.schedule(() -> {
             Message msg = storage.get(messageId);
-            
             long latency = System.currentTimeMillis() - startTime;
-            return new ReadResult(nodeId, msg, latency);
-        }, executor);
+            future.complete(new ReadResult(nodeId, msg, latency));
+        }, networkLatencyMs(), TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    /**
+     * Digest of the stored version, 0 if absent. Costs the same round trip
+     * as a read but returns 8 bytes instead of the payload.
+     */
+    public CompletableFuture<Long> readDigest(long messageId) {
+        if (isPartitioned) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Node " + nodeId + " partitioned"));
+        }
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            Message msg = storage.get(messageId);
+            future.complete(msg == null ? 0L : msg.digest());
+        }, networkLatencyMs(), TimeUnit.MILLISECONDS);
+        return future;
     }
-    
-    private void simulateNetworkLatency() {
-        try {
-            int jitter = latencyJitter.nextInt(10); // 0-10ms jitter
-            Thread.sleep(baseLatencyMs + jitter);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+
+    /**
+     * Local lookup with no simulated latency, for convergence checks.
+     */
+    public Message peek(long messageId) {
+        return storage.get(messageId);
+    }
+
+    private long networkLatencyMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int latency = baseLatencyMs + random.nextInt(10); // 0-10ms jitter
+        if (spikeProbability > 0 && random.nextDouble() < spikeProbability) {
+            latency += spikeLatencyMs;
         }
+        return latency;
     }
-    
+
     public void setPartitioned(boolean partitioned) {
         this.isPartitioned = partitioned;
     }
-    
+
+    public boolean isPartitioned() {
+        return isPartitioned;
+    }
+
     public void setBaseLatency(int latencyMs) {
         this.baseLatencyMs = latencyMs;
     }
-    
+
+    /**
+     * Add {@code latencyMs} to a random {@code probability} of requests
+     * (GC pauses, compaction, a noisy neighbour).
+     */
+    public void setLatencySpikes(double probability, int latencyMs) {
+        this.spikeProbability = probability;
+        this.spikeLatencyMs = latencyMs;
+    }
+
     public int getStorageSize() {
         return storage.size();
     }
-    
+
     public int getNodeId() {
         return nodeId;
     }
-    
+
     public void shutdown() {
-        executor.shutdown();
+        scheduler.shutdown();
     }
 }
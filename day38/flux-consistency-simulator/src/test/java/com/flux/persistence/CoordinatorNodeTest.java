@@ -0,0 +1,105 @@
+package com.flux.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoordinatorNodeTest {
+    private List<ReplicaNode> replicas;
+    private SnowflakeGenerator idGen;
+
+    @BeforeEach
+    void setup() {
+        replicas = List.of(new ReplicaNode(1), new ReplicaNode(2), new ReplicaNode(3));
+        idGen = new SnowflakeGenerator(1);
+    }
+
+    @AfterEach
+    void teardown() {
+        replicas.forEach(ReplicaNode::shutdown);
+    }
+
+    @Test
+    void testQuorumFutureCompletesOnNthSuccess() {
+        QuorumFuture<String> quorum = new QuorumFuture<>(2, 3);
+        quorum.success("a");
+        assertFalse(quorum.isDone());
+        quorum.failure();
+        assertFalse(quorum.isDone());
+        quorum.success("b");
+        assertEquals(List.of("a", "b"), quorum.join());
+    }
+
+    @Test
+    void testQuorumFutureFailsOnceUnreachable() {
+        QuorumFuture<String> quorum = new QuorumFuture<>(2, 3);
+        quorum.failure();
+        assertFalse(quorum.isDone());
+        quorum.failure();
+        assertTrue(quorum.isCompletedExceptionally());
+    }
+
+    @Test
+    void testThousandsOfWritesInFlight() {
+        CoordinatorNode coordinator = new CoordinatorNode(replicas);
+        List<CompletableFuture<WriteResult>> writes = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            writes.add(coordinator.writeAsync(Message.create("channel-1", "user-1", "m" + i, idGen), ConsistencyLevel.QUORUM));
+        }
+        // Nothing has blocked yet: every write is a pending future
+        assertTrue(writes.stream().filter(CompletableFuture::isDone).count() < writes.size());
+        for (CompletableFuture<WriteResult> write : writes) {
+            assertTrue(write.join().success());
+        }
+    }
+
+    @Test
+    void testQuorumReadAvoidsSlowReplica() {
+        CoordinatorNode coordinator = new CoordinatorNode(replicas);
+        replicas.get(0).setBaseLatency(60);
+        Message msg = Message.create("channel-1", "user-1", "Test", idGen);
+        coordinator.write(msg, ConsistencyLevel.ALL); // Teaches the coordinator replica latencies
+
+        ReadResult result = coordinator.read(msg.id(), ConsistencyLevel.QUORUM);
+        assertTrue(result.message().isPresent());
+        assertTrue(result.latencyMs() < 40, "Read waited on the slow replica: " + result.latencyMs() + "ms");
+    }
+
+    @Test
+    void testHedgedReadBeatsSpikingReplica() {
+        CoordinatorNode coordinator = new CoordinatorNode(replicas);
+        Message msg = Message.create("channel-1", "user-1", "Test", idGen);
+        for (int i = 0; i < 20; i++) {
+            coordinator.write(msg, ConsistencyLevel.ALL);
+        }
+        // 5% of requests stall; without hedging ~10 of 200 reads would wait them out
+        replicas.forEach(r -> r.setLatencySpikes(0.05, 80));
+
+        long slow = 0;
+        for (int i = 0; i < 200; i++) {
+            ReadResult result = coordinator.read(msg.id(), ConsistencyLevel.ONE);
+            assertTrue(result.message().isPresent());
+            if (result.latencyMs() >= 80) slow++;
+        }
+        assertTrue(coordinator.getSpeculativeReads() > 0);
+        assertTrue(slow < 5, slow + " of 200 reads waited out a spike");
+    }
+
+    @Test
+    void testReadFallsBackWhenReplicaPartitioned() {
+        CoordinatorNode coordinator = new CoordinatorNode(replicas, false);
+        Message msg = Message.create("channel-1", "user-1", "Test", idGen);
+        coordinator.write(msg, ConsistencyLevel.ALL);
+        replicas.get(0).setPartitioned(true);
+
+        ReadResult result = coordinator.read(msg.id(), ConsistencyLevel.QUORUM);
+        assertTrue(result.message().isPresent());
+        assertNotEquals(1, result.replicaId());
+    }
+}
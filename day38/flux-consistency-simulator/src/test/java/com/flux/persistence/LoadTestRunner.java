@@ -59,5 +59,147 @@ public class LoadTestRunner {
         
         executor.shutdown();
         replicas.forEach(ReplicaNode::shutdown);
+
+        System.out.println("\n🐢 Slow-replica scenario: replica 1 at +50ms, 2% of requests on every replica spike +60ms");
+        for (boolean speculative : new boolean[] {false, true}) {
+            for (ConsistencyLevel level : new ConsistencyLevel[] {ConsistencyLevel.ONE, ConsistencyLevel.QUORUM}) {
+                long[] latencies = runSlowReplicaReads(speculative, level, 5000);
+                System.out.printf("  %-6s %-16s p50=%dms p99=%dms max=%dms%n", level,
+                    speculative ? "speculative" : "no speculation",
+                    latencies[latencies.length / 2], latencies[(int) (latencies.length * 0.99)],
+                    latencies[latencies.length - 1]);
+            }
+        }
+
+        System.out.println("\n📦 Network bytes per QUORUM read, 1KB messages");
+        for (boolean digest : new boolean[] {false, true}) {
+            System.out.printf("  %-12s %d bytes/read%n", digest ? "digest" : "full data", runBytesPerRead(digest, 2000));
+        }
+
+        System.out.println("\n🔁 Convergence after partitioning replica 3 for 250 writes at QUORUM");
+        for (long hintWindowMs : new long[] {10_000, 100}) {
+            runConvergence(hintWindowMs, 250);
+        }
+    }
+
+    private static long runBytesPerRead(boolean digestReads, int reads) {
+        List<ReplicaNode> replicas = List.of(new ReplicaNode(1), new ReplicaNode(2), new ReplicaNode(3));
+        CoordinatorNode coordinator = new CoordinatorNode(replicas, true, digestReads, 10_000);
+        SnowflakeGenerator idGen = new SnowflakeGenerator(3);
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Message msg = Message.create("channel-1", "user-" + i, "x".repeat(1024), idGen);
+            messages.add(msg);
+            coordinator.write(msg, ConsistencyLevel.ALL);
+        }
+
+        List<CompletableFuture<ReadResult>> results = new ArrayList<>(reads);
+        for (int i = 0; i < reads; i++) {
+            results.add(coordinator.readAsync(messages.get(i % messages.size()).id(), ConsistencyLevel.QUORUM));
+        }
+        results.forEach(CompletableFuture::join);
+        long bytesPerRead = coordinator.getReadBytes() / coordinator.getReads();
+        coordinator.shutdown();
+        replicas.forEach(ReplicaNode::shutdown);
+        return bytesPerRead;
+    }
+
+    /**
+     * Partition replica 3 while writing, heal it, and time how long until
+     * it holds every message: by hints alone, then by read repair from
+     * QUORUM reads over the keyspace for whatever the hint window dropped.
+     */
+    private static void runConvergence(long hintWindowMs, int writes) {
+        List<ReplicaNode> replicas = List.of(new ReplicaNode(1), new ReplicaNode(2), new ReplicaNode(3));
+        CoordinatorNode coordinator = new CoordinatorNode(replicas, true, true, hintWindowMs);
+        SnowflakeGenerator idGen = new SnowflakeGenerator(4);
+        ReplicaNode healed = replicas.get(2);
+
+        healed.setPartitioned(true);
+        long partitionedAt = System.currentTimeMillis();
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < writes; i++) {
+            Message msg = Message.create("channel-1", "user-" + i, "Partitioned write", idGen);
+            messages.add(msg);
+            coordinator.writeAsync(msg, ConsistencyLevel.QUORUM);
+            pause(1);
+        }
+        pause(20);
+        HintedHandoff hints = coordinator.getHintedHandoff();
+        long healedAt = System.currentTimeMillis();
+        healed.setPartitioned(false);
+        long outageMs = healedAt - partitionedAt;
+
+        while (hints.pending() > 0 || missing(healed, messages) > 0 && hints.getDelivered() < hints.getStored()) {
+            pause(1);
+        }
+        long hintMs = System.currentTimeMillis() - healedAt;
+        int missingAfterHints = (int) missing(healed, messages);
+
+        int passes = 0;
+        while (missing(healed, messages) > 0 && passes < 20) {
+            List<CompletableFuture<ReadResult>> reads = new ArrayList<>();
+            for (Message msg : messages) {
+                reads.add(coordinator.readAsync(msg.id(), ConsistencyLevel.QUORUM));
+            }
+            reads.forEach(CompletableFuture::join);
+            pause(20); // Let background repairs land
+            passes++;
+        }
+        System.out.printf("  hint window %5dms, %dms outage: hints stored=%d dropped=%d, hints done in %dms, "
+                + "%d missing after hints, %d read repairs over %d QUORUM passes, converged=%s in %dms%n",
+            hintWindowMs, outageMs, hints.getStored(), hints.getDropped(), hintMs, missingAfterHints,
+            coordinator.getReadRepairs(), passes, missing(healed, messages) == 0,
+            System.currentTimeMillis() - healedAt);
+        coordinator.shutdown();
+        replicas.forEach(ReplicaNode::shutdown);
+    }
+
+    private static long missing(ReplicaNode replica, List<Message> messages) {
+        return messages.stream().filter(m -> replica.peek(m.id()) == null).count();
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sorted read latencies against a cluster with one slow replica. Reads
+     * are issued asynchronously in waves of 500, all in flight at once.
+     */
+    private static long[] runSlowReplicaReads(boolean speculative, ConsistencyLevel level, int reads) {
+        List<ReplicaNode> replicas = List.of(new ReplicaNode(1), new ReplicaNode(2), new ReplicaNode(3));
+        replicas.get(0).setBaseLatency(55);
+        replicas.forEach(r -> r.setLatencySpikes(0.02, 60));
+        CoordinatorNode coordinator = new CoordinatorNode(replicas, speculative);
+        SnowflakeGenerator idGen = new SnowflakeGenerator(2);
+
+        List<Message> messages = new ArrayList<>();
+        List<CompletableFuture<WriteResult>> writes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Message msg = Message.create("channel-1", "user-" + i, "Slow replica message", idGen);
+            messages.add(msg);
+            writes.add(coordinator.writeAsync(msg, ConsistencyLevel.ALL));
+        }
+        writes.forEach(CompletableFuture::join);
+
+        List<CompletableFuture<ReadResult>> results = new ArrayList<>(reads);
+        for (int i = 0; i < reads; i++) {
+            results.add(coordinator.readAsync(messages.get(i % messages.size()).id(), level));
+            if (i % 500 == 499) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        long[] latencies = results.stream().mapToLong(f -> f.join().latencyMs()).sorted().toArray();
+        replicas.forEach(ReplicaNode::shutdown);
+        return latencies;
     }
 }
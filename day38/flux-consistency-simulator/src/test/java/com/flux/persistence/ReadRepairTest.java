@@ -0,0 +1,143 @@
+package com.flux.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadRepairTest {
+    private List<ReplicaNode> replicas;
+    private List<CoordinatorNode> coordinators;
+    private SnowflakeGenerator idGen;
+
+    @BeforeEach
+    void setup() {
+        replicas = List.of(new ReplicaNode(1), new ReplicaNode(2), new ReplicaNode(3));
+        coordinators = new ArrayList<>();
+        idGen = new SnowflakeGenerator(1);
+    }
+
+    @AfterEach
+    void teardown() {
+        coordinators.forEach(CoordinatorNode::shutdown);
+        replicas.forEach(ReplicaNode::shutdown);
+    }
+
+    private CoordinatorNode coordinator(boolean digestReads, long hintWindowMs) {
+        // No speculation: reads go to replicas in list order, data from the first
+        CoordinatorNode coordinator = new CoordinatorNode(replicas, false, digestReads, hintWindowMs);
+        coordinators.add(coordinator);
+        return coordinator;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Replicas did not converge");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testDigestReadsCostLessThanFullReads() {
+        Message msg = Message.create("channel-1", "user-1", "x".repeat(1024), idGen);
+        CoordinatorNode full = coordinator(false, 10_000);
+        CoordinatorNode digest = coordinator(true, 10_000);
+        full.write(msg, ConsistencyLevel.ALL);
+
+        assertEquals(msg, full.read(msg.id(), ConsistencyLevel.QUORUM).message().orElseThrow());
+        assertEquals(msg, digest.read(msg.id(), ConsistencyLevel.QUORUM).message().orElseThrow());
+        assertEquals(0, digest.getReadRepairs());
+        assertTrue(digest.getReadBytes() < full.getReadBytes() * 0.6,
+            digest.getReadBytes() + " digest bytes vs " + full.getReadBytes() + " full");
+    }
+
+    @Test
+    void testMismatchReturnsNewestAndRepairs() throws InterruptedException {
+        CoordinatorNode coordinator = coordinator(true, 10_000);
+        Message original = Message.create("channel-1", "user-1", "v1", idGen);
+        Message edited = new Message(original.id(), "channel-1", "user-1", "v2", original.timestamp() + 1);
+        coordinator.write(original, ConsistencyLevel.ALL);
+        // Replica 1, which serves the data read, missed the edit
+        replicas.get(1).write(edited).join();
+        replicas.get(2).write(edited).join();
+
+        ReadResult result = coordinator.read(original.id(), ConsistencyLevel.QUORUM);
+        assertEquals(edited, result.message().orElseThrow());
+        assertEquals(1, coordinator.getReadRepairs());
+        await(() -> edited.equals(replicas.get(0).peek(original.id())));
+        assertTrue(coordinator.getRepairBytes() > 0);
+    }
+
+    @Test
+    void testLateRepairNeverOverwritesNewerVersion() {
+        Message original = Message.create("channel-1", "user-1", "v1", idGen);
+        Message edited = new Message(original.id(), "channel-1", "user-1", "v2", original.timestamp() + 1);
+        ReplicaNode replica = replicas.get(0);
+        replica.write(edited).join();
+        replica.write(original).join();
+        assertEquals(edited, replica.peek(original.id()));
+    }
+
+    @Test
+    void testHintsDeliveredAfterPartitionHeals() throws InterruptedException {
+        CoordinatorNode coordinator = coordinator(true, 10_000);
+        replicas.get(2).setPartitioned(true);
+        Message msg = Message.create("channel-1", "user-1", "Test", idGen);
+        assertTrue(coordinator.write(msg, ConsistencyLevel.QUORUM).success());
+        assertEquals(1, coordinator.getHintedHandoff().getStored());
+        assertNull(replicas.get(2).peek(msg.id()));
+
+        replicas.get(2).setPartitioned(false);
+        await(() -> msg.equals(replicas.get(2).peek(msg.id())));
+        assertEquals(1, coordinator.getHintedHandoff().getDelivered());
+        assertEquals(0, coordinator.getHintedHandoff().pending());
+    }
+
+    @Test
+    void testFailedHintWaitsForNextPass() {
+        // Reports reachable but rejects every write synchronously
+        ReplicaNode flaky = new ReplicaNode(4) {
+            @Override
+            public CompletableFuture<WriteResult> write(Message message) {
+                return CompletableFuture.completedFuture(new WriteResult(4, false, 0, "Rejected"));
+            }
+        };
+        HintedHandoff handoff = new HintedHandoff(List.of(flaky), 10_000, 60_000);
+        try {
+            handoff.store(0, Message.create("channel-1", "user-1", "Test", idGen));
+            handoff.deliver(); // Would never return if the failed hint rejoined this pass
+            assertEquals(1, handoff.pending());
+            assertEquals(0, handoff.getDelivered());
+        } finally {
+            handoff.shutdown();
+            flaky.shutdown();
+        }
+    }
+
+    @Test
+    void testReadRepairCatchesUpPastHintWindow() throws InterruptedException {
+        CoordinatorNode coordinator = coordinator(true, 20);
+        replicas.get(0).setPartitioned(true);
+        Message early = Message.create("channel-1", "user-1", "early", idGen);
+        coordinator.write(early, ConsistencyLevel.QUORUM);
+        Thread.sleep(40);
+        Message late = Message.create("channel-1", "user-1", "late", idGen);
+        coordinator.write(late, ConsistencyLevel.QUORUM);
+        assertEquals(1, coordinator.getHintedHandoff().getDropped());
+
+        replicas.get(0).setPartitioned(false);
+        await(() -> replicas.get(0).peek(early.id()) != null);
+        assertNull(replicas.get(0).peek(late.id()));
+
+        // Replica 1 serves the data read and has nothing; the digests disagree
+        assertEquals(late, coordinator.read(late.id(), ConsistencyLevel.QUORUM).message().orElseThrow());
+        await(() -> late.equals(replicas.get(0).peek(late.id())));
+    }
+}
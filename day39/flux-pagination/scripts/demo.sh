@@ -4,4 +4,6 @@ cd "${SCRIPT_DIR}/.."
 
 echo "📝 Running load test demo..."
 
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile exec:java -Dexec.mainClass="com.flux.LoadTestDemo" -Dexec.args="1 1000" -q
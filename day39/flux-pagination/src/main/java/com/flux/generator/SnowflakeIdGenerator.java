@@ -1,7 +1,14 @@
 package com.flux.generator;
 
+import com.flux.common.SnowflakeGenerator;
+import com.flux.common.SnowflakeLayout;
+
 import java.time.Instant;
 
+/**
+ * Datacenter and worker share the 10 worker bits of the lock-free shared
+ * generator.
+ */
 public class SnowflakeIdGenerator {
     
     private static final long EPOCH = 1609459200000L; // 2021-01-01T00:00:00Z
@@ -11,16 +18,13 @@ public class SnowflakeIdGenerator {
     
     private static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS);
     private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
-    private static final long MAX_SEQUENCE = ~(-1L << SEQUENCE_BITS);
     
-    private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
-    private static final long DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
     private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
     
-    private final long datacenterId;
-    private final long workerId;
-    private long sequence = 0L;
-    private long lastTimestamp = -1L;
+    private static final SnowflakeLayout LAYOUT = new SnowflakeLayout(
+        EPOCH, (int) (DATACENTER_ID_BITS + WORKER_ID_BITS), (int) SEQUENCE_BITS);
+    
+    private final SnowflakeGenerator ids;
     
     public SnowflakeIdGenerator(long datacenterId, long workerId) {
         if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
@@ -29,41 +33,11 @@ public class SnowflakeIdGenerator {
         if (workerId > MAX_WORKER_ID || workerId < 0) {
             throw new IllegalArgumentException("Worker ID must be between 0 and " + MAX_WORKER_ID);
         }
-        this.datacenterId = datacenterId;
-        this.workerId = workerId;
+        this.ids = new SnowflakeGenerator(LAYOUT, (datacenterId << WORKER_ID_BITS) | workerId);
     }
     
-    public synchronized long nextId() {
-        long timestamp = System.currentTimeMillis();
-        
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException("Clock moved backwards. Refusing to generate ID");
-        }
-        
-        if (timestamp == lastTimestamp) {
-            sequence = (sequence + 1) & MAX_SEQUENCE;
-            if (sequence == 0) {
-                // Sequence exhausted, wait for next millisecond
-                timestamp = waitNextMillis(lastTimestamp);
-            }
-        } else {
-            sequence = 0L;
-        }
-        
-        lastTimestamp = timestamp;
-        
-        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT)
-            | (datacenterId << DATACENTER_ID_SHIFT)
-            | (workerId << WORKER_ID_SHIFT)
-            | sequence;
-    }
-    
-    private long waitNextMillis(long lastTimestamp) {
-        long timestamp = System.currentTimeMillis();
-        while (timestamp <= lastTimestamp) {
-            timestamp = System.currentTimeMillis();
-        }
-        return timestamp;
+    public long nextId() {
+        return ids.nextId();
     }
     
     public static Instant extractTimestamp(long snowflakeId) {
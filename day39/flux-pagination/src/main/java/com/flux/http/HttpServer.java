@@ -2,6 +2,7 @@ package com.flux.http;
 
 import com.flux.pagination.CassandraClient;
 import com.flux.pagination.PaginationService;
+import com.flux.pagination.PrefetchingPaginator;
 import com.flux.model.PageResult;
 import com.sun.net.httpserver.*;
 
@@ -18,12 +19,12 @@ import java.util.concurrent.Executors;
 public class HttpServer {
     
     private final com.sun.net.httpserver.HttpServer server;
-    private final PaginationService paginationService;
+    private final PrefetchingPaginator paginator;
     private final CassandraClient cassandraClient;
     
     public HttpServer(int port, CassandraClient cassandraClient) throws IOException {
         this.cassandraClient = cassandraClient;
-        this.paginationService = new PaginationService(cassandraClient.getSession());
+        this.paginator = new PrefetchingPaginator(cassandraClient.getSession());
         this.server = com.sun.net.httpserver.HttpServer.create(new InetSocketAddress(port), 0);
         this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
         
@@ -35,6 +36,8 @@ public class HttpServer {
         server.createContext("/stats", this::handleStats);
         server.createContext("/dashboard.html", this::handleDashboard);
         server.createContext("/insert", this::handleInsert);
+        server.createContext("/edit", this::handleEdit);
+        server.createContext("/delete", this::handleDelete);
     }
     
     private void handleMessages(HttpExchange exchange) throws IOException {
@@ -55,8 +58,13 @@ public class HttpServer {
                 ? PaginationService.Direction.PREVIOUS 
                 : PaginationService.Direction.NEXT;
             
-            PageResult result = paginationService.fetchPage(channelId, cursor, limit, dir);
+            PageResult result = paginator.fetchPage(channelId, cursor, limit, dir);
             
+            // Cursors are deterministic, so a full page past one can be cached like a
+            // static file, but no longer than the server keeps it: edits change pages
+            exchange.getResponseHeaders().set("Cache-Control",
+                PrefetchingPaginator.isImmutable(cursor, limit, result)
+                    ? "private, max-age=" + PrefetchingPaginator.PAGE_TTL_SECONDS : "no-cache");
             sendJsonResponse(exchange, 200, result.toJson());
         } catch (NumberFormatException e) {
             sendResponse(exchange, 400, "Invalid parameters");
@@ -65,9 +73,12 @@ public class HttpServer {
     
     private void handleStats(HttpExchange exchange) throws IOException {
         String json = String.format(
-            "{\"totalQueries\":%d,\"averageLatencyMs\":%.2f}",
-            paginationService.getTotalQueries(),
-            paginationService.getAverageLatencyMs()
+            "{\"totalRequests\":%d,\"totalQueries\":%d,\"prefetchHits\":%d,\"cacheHits\":%d,\"averageLatencyMs\":%.2f}",
+            paginator.getTotalRequests(),
+            paginator.getTotalQueries(),
+            paginator.getPrefetchHits(),
+            paginator.getCacheHits(),
+            paginator.getAverageLatencyMs()
         );
         sendJsonResponse(exchange, 200, json);
     }
@@ -94,6 +105,65 @@ public class HttpServer {
         }
     }
     
+    private void handleEdit(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> params = parseQueryParams(body);
+        
+        try {
+            long channelId = Long.parseLong(params.get("channel_id"));
+            long messageId = Long.parseLong(params.get("message_id"));
+            String content = params.getOrDefault("content", "");
+            
+            boolean edited = cassandraClient.editMessage(channelId, messageId, content);
+            // Cached pages past any cursor may hold the old content
+            paginator.invalidateChannel(channelId);
+            
+            if (edited) {
+                sendJsonResponse(exchange, 200, "{\"edited\":" + messageId + "}");
+            } else {
+                sendResponse(exchange, 404, "Message not found");
+            }
+        } catch (NumberFormatException e) {
+            sendResponse(exchange, 400, "Invalid parameters");
+        } catch (Exception e) {
+            sendResponse(exchange, 500, "Error: " + e.getMessage());
+        }
+    }
+    
+    private void handleDelete(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> params = parseQueryParams(body);
+        
+        try {
+            long channelId = Long.parseLong(params.get("channel_id"));
+            long messageId = Long.parseLong(params.get("message_id"));
+            
+            boolean deleted = cassandraClient.deleteMessage(channelId, messageId);
+            // A delete shifts every later page of the channel by one message
+            paginator.invalidateChannel(channelId);
+            
+            if (deleted) {
+                sendJsonResponse(exchange, 200, "{\"deleted\":" + messageId + "}");
+            } else {
+                sendResponse(exchange, 404, "Message not found");
+            }
+        } catch (NumberFormatException e) {
+            sendResponse(exchange, 400, "Invalid parameters");
+        } catch (Exception e) {
+            sendResponse(exchange, 500, "Error: " + e.getMessage());
+        }
+    }
+    
     private void handleDashboard(HttpExchange exchange) throws IOException {
         try {
             java.nio.file.Path dashboardPath = java.nio.file.Paths.get(System.getProperty("user.dir"), "dashboard.html");
@@ -4,6 +4,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 public record PaginationCursor(long messageId, long timestamp) {
+
+    /**
+     * Cursor at {@code message}. Built only from the message, so the same
+     * page always hands out the same cursor and responses can be cached.
+     */
+    public static PaginationCursor at(Message message) {
+        return new PaginationCursor(message.messageId(), message.createdAt().toEpochMilli());
+    }
     
     public String encode() {
         String raw = messageId + "|" + timestamp;
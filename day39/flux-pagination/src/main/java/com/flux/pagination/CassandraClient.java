@@ -16,6 +16,8 @@ public class CassandraClient implements AutoCloseable {
     private final CqlSession session;
     private final SnowflakeIdGenerator idGenerator;
     private final PreparedStatement insertStmt;
+    private final PreparedStatement editStmt;
+    private final PreparedStatement deleteStmt;
     
     public CassandraClient(String contactPoint, int port) {
         this.session = CqlSession.builder()
@@ -30,6 +32,13 @@ public class CassandraClient implements AutoCloseable {
             "INSERT INTO flux.messages (channel_id, message_id, author_id, content, created_at) " +
             "VALUES (?, ?, ?, ?, ?)"
         );
+        // IF EXISTS so an edit or delete of an unknown message is reported, not upserted
+        this.editStmt = session.prepare(
+            "UPDATE flux.messages SET content = ? WHERE channel_id = ? AND message_id = ? IF EXISTS"
+        );
+        this.deleteStmt = session.prepare(
+            "DELETE FROM flux.messages WHERE channel_id = ? AND message_id = ? IF EXISTS"
+        );
         
         System.out.println("✅ Connected to Cassandra at " + contactPoint + ":" + port);
     }
@@ -65,6 +74,20 @@ public class CassandraClient implements AutoCloseable {
         return new Message(messageId, channelId, authorId, content, now);
     }
     
+    /**
+     * @return false if the message does not exist
+     */
+    public boolean editMessage(long channelId, long messageId, String content) {
+        return session.execute(editStmt.bind(content, channelId, messageId)).wasApplied();
+    }
+    
+    /**
+     * @return false if the message does not exist
+     */
+    public boolean deleteMessage(long channelId, long messageId) {
+        return session.execute(deleteStmt.bind(channelId, messageId)).wasApplied();
+    }
+    
     public void bulkInsert(long channelId, int count) {
         System.out.println("📝 Inserting " + count + " messages into channel " + channelId + "...");
         BatchStatement batch = BatchStatement.newInstance(BatchType.UNLOGGED);
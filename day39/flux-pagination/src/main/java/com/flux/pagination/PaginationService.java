@@ -87,6 +87,18 @@ public class PaginationService {
         
         boolean hasMore = iterator.hasNext();
         
+        long latency = System.currentTimeMillis() - startTime;
+        totalQueries.incrementAndGet();
+        totalLatencyMs.addAndGet(latency);
+        
+        return toPageResult(messages, cursorToken, hasMore, direction, latency);
+    }
+    
+    /**
+     * Assemble a page and its cursors from rows in query order.
+     */
+    static PageResult toPageResult(List<Message> messages, String cursorToken, boolean hasMore,
+                                   Direction direction, long latencyMs) {
         // For previous page queries, reverse the list to maintain chronological order
         if (direction == Direction.PREVIOUS && !messages.isEmpty()) {
             Collections.reverse(messages);
@@ -100,30 +112,24 @@ public class PaginationService {
                 // Set next cursor if there are more messages
                 if (hasMore) {
                     Message lastMsg = messages.get(messages.size() - 1);
-                    nextCursor = new PaginationCursor(lastMsg.messageId(), System.currentTimeMillis()).encode();
+                    nextCursor = PaginationCursor.at(lastMsg).encode();
                 }
                 // Set previous cursor if this is not the first page
                 if (cursorToken != null) {
                     Message firstMsg = messages.get(0);
-                    previousCursor = new PaginationCursor(firstMsg.messageId(), System.currentTimeMillis()).encode();
+                    previousCursor = PaginationCursor.at(firstMsg).encode();
                 }
             } else {
                 // Direction.PREVIOUS
                 Message firstMsg = messages.get(0);
-                previousCursor = new PaginationCursor(firstMsg.messageId(), System.currentTimeMillis()).encode();
+                previousCursor = PaginationCursor.at(firstMsg).encode();
                 
-                if (!messages.isEmpty()) {
-                    Message lastMsg = messages.get(messages.size() - 1);
-                    nextCursor = new PaginationCursor(lastMsg.messageId(), System.currentTimeMillis()).encode();
-                }
+                Message lastMsg = messages.get(messages.size() - 1);
+                nextCursor = PaginationCursor.at(lastMsg).encode();
             }
         }
         
-        long latency = System.currentTimeMillis() - startTime;
-        totalQueries.incrementAndGet();
-        totalLatencyMs.addAndGet(latency);
-        
-        return new PageResult(messages, nextCursor, previousCursor, hasMore, count, latency);
+        return new PageResult(messages, nextCursor, previousCursor, hasMore, messages.size(), latencyMs);
     }
     
     public double getAverageLatencyMs() {
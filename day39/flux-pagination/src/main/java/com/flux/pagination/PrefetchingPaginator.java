@@ -0,0 +1,232 @@
+package com.flux.pagination;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.*;
+import com.flux.model.Message;
+import com.flux.model.PageResult;
+import com.flux.model.PaginationCursor;
+import com.flux.pagination.PaginationService.Direction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cursor pagination that fetches the next page before it is asked for.
+ *
+ * Each page is the same {@code LIMIT limit+1} keyset query on message_id as
+ * {@link PaginationService#fetchPage}; the extra row only tells whether
+ * another page exists. Serving a NEXT page immediately issues the query for
+ * the following one and parks it under the cursor the client will send
+ * back, so infinite scroll finds its next page done or already in flight.
+ * A cursor with nothing parked (first hit, another server, expired) simply
+ * queries.
+ *
+ * Cursors are built from the boundary message only, so a page always hands
+ * out the same cursors. New messages only land at the head, so a full page
+ * past a cursor changes only when one of its messages is edited or deleted.
+ * Those pages are kept in a small LRU for a minute for "scroll back to
+ * where I was"; code that edits or deletes messages drops a channel's pages
+ * with {@link #invalidateChannel}. A prefetched page older than 30 seconds
+ * is queried again rather than served.
+ */
+public class PrefetchingPaginator {
+
+    private static final String SELECT =
+        "SELECT message_id, channel_id, author_id, content, created_at FROM flux.messages ";
+    /** How long a full page past a cursor is served from the LRU. */
+    public static final int PAGE_TTL_SECONDS = 60;
+
+    private static final long PREFETCH_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long PAGE_TTL_NANOS = TimeUnit.SECONDS.toNanos(PAGE_TTL_SECONDS);
+
+    private record PageKey(long channelId, String cursor, int limit, Direction direction) {}
+
+    private record Prefetch(CompletableFuture<AsyncResultSet> page, long issuedAtNanos) {}
+
+    private record CachedPage(PageResult page, long cachedAtNanos) {}
+
+    private final CqlSession session;
+    private final PreparedStatement queryInitial;
+    private final PreparedStatement queryNext;
+    private final PreparedStatement queryPrevious;
+    private final int maxPrefetched;
+    private final Map<PageKey, CachedPage> recentPages;
+    private final ConcurrentHashMap<PageKey, Prefetch> prefetched = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalRequests = new AtomicLong();
+    private final AtomicLong totalQueries = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private final AtomicLong prefetchHits = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    public PrefetchingPaginator(CqlSession session) {
+        this(session, 1024, 1024);
+    }
+
+    /**
+     * @param cachedPages full pages kept for scrolling back
+     * @param maxPrefetched next pages held at once; prefetching stops when full
+     */
+    public PrefetchingPaginator(CqlSession session, int cachedPages, int maxPrefetched) {
+        this.session = session;
+        this.maxPrefetched = maxPrefetched;
+        this.recentPages = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, CachedPage> eldest) {
+                return size() > cachedPages;
+            }
+        });
+
+        // LIMIT limit+1: the extra row says whether another page exists
+        this.queryInitial = session.prepare(SELECT + "WHERE channel_id = ? LIMIT ?");
+        this.queryNext = session.prepare(SELECT + "WHERE channel_id = ? AND message_id < ? LIMIT ?");
+        this.queryPrevious = session.prepare(
+            SELECT + "WHERE channel_id = ? AND message_id > ? ORDER BY message_id ASC LIMIT ?");
+    }
+
+    public PageResult fetchPage(long channelId, String cursorToken, int limit, Direction direction) {
+        long startTime = System.currentTimeMillis();
+        String cursor = cursorToken == null || cursorToken.isBlank() ? null : cursorToken;
+        PageKey key = new PageKey(channelId, cursor, limit, direction);
+        totalRequests.incrementAndGet();
+
+        CachedPage cached = recentPages.get(key);
+        if (cached != null) {
+            if (System.nanoTime() - cached.cachedAtNanos() <= PAGE_TTL_NANOS) {
+                cacheHits.incrementAndGet();
+                return withLatency(cached.page(), startTime);
+            }
+            recentPages.remove(key, cached);
+        }
+
+        Prefetch prefetch = prefetched.remove(key);
+        if (prefetch != null && System.nanoTime() - prefetch.issuedAtNanos() > PREFETCH_TTL_NANOS) {
+            prefetch = null; // May predate an edit or delete
+        }
+        CompletableFuture<AsyncResultSet> pending;
+        if (prefetch != null) {
+            prefetchHits.incrementAndGet();
+            pending = prefetch.page().exceptionallyCompose(error -> query(key));
+        } else {
+            pending = query(key);
+        }
+        AsyncResultSet rs = pending.join();
+
+        Iterator<Row> rows = rs.currentPage().iterator();
+        List<Message> messages = new ArrayList<>(limit);
+        while (rows.hasNext() && messages.size() < limit) {
+            Row row = rows.next();
+            messages.add(new Message(
+                row.getLong(0),
+                row.getLong(1),
+                row.getLong(2),
+                row.getString(3),
+                row.getInstant(4)
+            ));
+        }
+        PageResult page = PaginationService.toPageResult(messages, cursor, rows.hasNext(), direction,
+            System.currentTimeMillis() - startTime);
+
+        if (isImmutable(cursor, limit, page)) {
+            recentPages.put(key, new CachedPage(page, System.nanoTime()));
+        }
+        if (direction == Direction.NEXT && page.nextCursor() != null) {
+            prefetch(new PageKey(channelId, page.nextCursor(), limit, Direction.NEXT));
+        }
+
+        totalLatencyMs.addAndGet(page.queryLatencyMs());
+        return page;
+    }
+
+    /**
+     * A full page past a cursor: the same request returns the same page
+     * until messages are edited or deleted, so it can be cached.
+     */
+    public static boolean isImmutable(String cursorToken, int limit, PageResult page) {
+        return cursorToken != null && !cursorToken.isBlank() && page.messages().size() == limit;
+    }
+
+    /**
+     * Drop cached and prefetched pages of {@code channelId}. Call after
+     * editing or deleting one of its messages.
+     */
+    public void invalidateChannel(long channelId) {
+        synchronized (recentPages) {
+            recentPages.keySet().removeIf(key -> key.channelId() == channelId);
+        }
+        prefetched.keySet().removeIf(key -> key.channelId() == channelId);
+    }
+
+    private CompletableFuture<AsyncResultSet> query(PageKey key) {
+        int limit = key.limit() + 1;
+        BoundStatement bound;
+        if (key.cursor() == null) {
+            bound = queryInitial.bind(key.channelId(), limit);
+        } else {
+            long messageId = PaginationCursor.decode(key.cursor()).messageId();
+            bound = key.direction() == Direction.NEXT
+                ? queryNext.bind(key.channelId(), messageId, limit)
+                : queryPrevious.bind(key.channelId(), messageId, limit);
+        }
+        totalQueries.incrementAndGet();
+        // One driver page holds the whole result, probe row included
+        return session.executeAsync(bound.setPageSize(limit)).toCompletableFuture();
+    }
+
+    /**
+     * Start fetching {@code next}, unless too many prefetched pages are
+     * already waiting for their reader.
+     */
+    private void prefetch(PageKey next) {
+        if (prefetched.size() >= maxPrefetched) {
+            long now = System.nanoTime();
+            prefetched.values().removeIf(p -> now - p.issuedAtNanos() > PREFETCH_TTL_NANOS);
+            if (prefetched.size() >= maxPrefetched) {
+                return;
+            }
+        }
+        if (prefetched.containsKey(next) || recentPages.containsKey(next)) {
+            return;
+        }
+        prefetched.put(next, new Prefetch(query(next), System.nanoTime()));
+    }
+
+    private PageResult withLatency(PageResult page, long startTime) {
+        long latency = System.currentTimeMillis() - startTime;
+        totalLatencyMs.addAndGet(latency);
+        return new PageResult(page.messages(), page.nextCursor(), page.previousCursor(),
+            page.hasMore(), page.totalFetched(), latency);
+    }
+
+    public double getAverageLatencyMs() {
+        long requests = totalRequests.get();
+        return requests == 0 ? 0.0 : (double) totalLatencyMs.get() / requests;
+    }
+
+    public long getTotalRequests() {
+        return totalRequests.get();
+    }
+
+    /**
+     * Queries sent to Cassandra, prefetches included.
+     */
+    public long getTotalQueries() {
+        return totalQueries.get();
+    }
+
+    public long getPrefetchHits() {
+        return prefetchHits.get();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+}
@@ -0,0 +1,131 @@
+package com.flux.pagination;
+
+import com.flux.model.Message;
+import com.flux.model.PageResult;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefetchingPaginatorTest {
+    
+    private static CassandraClient cassandraClient;
+    private static PaginationService paginationService;
+    private static final long TEST_CHANNEL_ID = 9998L;
+    
+    private PrefetchingPaginator paginator;
+    
+    @BeforeAll
+    static void setup() {
+        cassandraClient = new CassandraClient("localhost", 9042);
+        cassandraClient.initializeSchema();
+        paginationService = new PaginationService(cassandraClient.getSession());
+        
+        // Insert test data
+        cassandraClient.bulkInsert(TEST_CHANNEL_ID, 500);
+    }
+    
+    @AfterAll
+    static void teardown() {
+        cassandraClient.close();
+    }
+    
+    @BeforeEach
+    void createPaginator() {
+        paginator = new PrefetchingPaginator(cassandraClient.getSession());
+    }
+    
+    private static List<Long> ids(PageResult page) {
+        return page.messages().stream().map(Message::messageId).toList();
+    }
+    
+    @Test
+    void testSamePagesAsPaginationService() {
+        String expectedCursor = null;
+        String cursor = null;
+        for (int i = 0; i < 5; i++) {
+            PageResult expected = paginationService.fetchPage(TEST_CHANNEL_ID, expectedCursor, 50, PaginationService.Direction.NEXT);
+            PageResult actual = paginator.fetchPage(TEST_CHANNEL_ID, cursor, 50, PaginationService.Direction.NEXT);
+            assertEquals(ids(expected), ids(actual));
+            assertEquals(expected.nextCursor(), actual.nextCursor());
+            expectedCursor = expected.nextCursor();
+            cursor = actual.nextCursor();
+        }
+    }
+    
+    @Test
+    void testNextPageServedFromPrefetch() {
+        PageResult page1 = paginator.fetchPage(TEST_CHANNEL_ID, null, 50, PaginationService.Direction.NEXT);
+        PageResult page2 = paginator.fetchPage(TEST_CHANNEL_ID, page1.nextCursor(), 50, PaginationService.Direction.NEXT);
+        
+        assertEquals(1, paginator.getPrefetchHits());
+        assertEquals(50, page2.messages().size());
+        assertTrue(page2.messages().get(0).messageId() < page1.messages().get(49).messageId());
+    }
+    
+    @Test
+    void testCursorsAreDeterministic() {
+        PageResult first = paginator.fetchPage(TEST_CHANNEL_ID, null, 50, PaginationService.Direction.NEXT);
+        PageResult again = paginationService.fetchPage(TEST_CHANNEL_ID, null, 50, PaginationService.Direction.NEXT);
+        assertEquals(first.nextCursor(), again.nextCursor());
+    }
+    
+    @Test
+    void testScrollBackServedFromCache() {
+        List<String> cursors = new ArrayList<>();
+        String cursor = paginator.fetchPage(TEST_CHANNEL_ID, null, 50, PaginationService.Direction.NEXT).nextCursor();
+        for (int i = 0; i < 3; i++) {
+            cursors.add(cursor);
+            cursor = paginator.fetchPage(TEST_CHANNEL_ID, cursor, 50, PaginationService.Direction.NEXT).nextCursor();
+        }
+        long queries = paginator.getTotalQueries();
+        
+        PageResult revisited = paginator.fetchPage(TEST_CHANNEL_ID, cursors.get(0), 50, PaginationService.Direction.NEXT);
+        assertEquals(1, paginator.getCacheHits());
+        assertEquals(queries, paginator.getTotalQueries());
+        assertEquals(cursors.get(1), revisited.nextCursor());
+    }
+    
+    @Test
+    void testLastPage() {
+        String cursor = null;
+        PageResult result;
+        int pageCount = 0;
+        
+        do {
+            result = paginator.fetchPage(TEST_CHANNEL_ID, cursor, 50, PaginationService.Direction.NEXT);
+            cursor = result.nextCursor();
+            pageCount++;
+        } while (result.hasMore() && pageCount < 20);
+        
+        assertFalse(result.hasMore(), "Last page should have hasMore=false");
+        assertNull(result.nextCursor(), "Last page should have null nextCursor");
+    }
+    
+    @Test
+    void testExactlyFullLastPageHasNoMore() {
+        long channelId = System.nanoTime(); // Fresh channel: exactly 100 messages
+        cassandraClient.bulkInsert(channelId, 100);
+        
+        PageResult first = paginator.fetchPage(channelId, null, 50, PaginationService.Direction.NEXT);
+        assertTrue(first.hasMore());
+        PageResult last = paginator.fetchPage(channelId, first.nextCursor(), 50, PaginationService.Direction.NEXT);
+        assertEquals(50, last.messages().size());
+        assertFalse(last.hasMore(), "A full last page must not promise another page");
+        assertNull(last.nextCursor());
+    }
+    
+    @Test
+    void testInvalidateChannelDropsCachedPages() {
+        String cursor = paginator.fetchPage(TEST_CHANNEL_ID, null, 50, PaginationService.Direction.NEXT).nextCursor();
+        paginator.fetchPage(TEST_CHANNEL_ID, cursor, 50, PaginationService.Direction.NEXT);
+        
+        paginator.invalidateChannel(TEST_CHANNEL_ID);
+        long queries = paginator.getTotalQueries();
+        paginator.fetchPage(TEST_CHANNEL_ID, cursor, 50, PaginationService.Direction.NEXT);
+        assertEquals(0, paginator.getCacheHits());
+        assertTrue(paginator.getTotalQueries() > queries);
+    }
+}
@@ -1,5 +1,6 @@
 package com.flux.gateway.server;
 
+import com.flux.common.PrometheusHandler;
 import com.flux.gateway.util.Metrics;
 import com.sun.net.httpserver.*;
 
@@ -22,6 +23,7 @@ public class DashboardServer {
         
         server.createContext("/", this::handleDashboard);
         server.createContext("/api/metrics", this::handleMetrics);
+        server.createContext("/metrics", new PrometheusHandler(gateway.getMetrics().getRegistry()));
         server.setExecutor(null); // Default executor
         
         System.out.println("Dashboard running on http://localhost:" + port);
@@ -110,6 +110,7 @@ public class GatewayServer implements AutoCloseable {
             if (bytesRead == 0) return;
             
             buffer.flip();
+            long startNanos = System.nanoTime();
             
             // Decode packet (zero-copy)
             GatewayPacket packet = GatewayPacket.decode(buffer);
@@ -122,6 +123,7 @@ public class GatewayServer implements AutoCloseable {
             if (state != null) {
                 handlePacket(channel, state, packet);
             }
+            metrics.recordPacketLatency(System.nanoTime() - startNanos);
             
         } catch (IOException e) {
             closeConnection(channel);
@@ -1,48 +1,91 @@
 package com.flux.gateway.util;
 
+import com.flux.common.LatencyHistogram;
+import com.flux.common.MetricsRegistry;
+
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Thread-safe metrics collection.
+ *
+ * Backed by a {@link MetricsRegistry}: opcode counters are handles in a
+ * 256-slot array indexed by opcode, so recording a packet is an array read
+ * and a striped add rather than a map lookup.
  */
 public class Metrics {
-    
+
     private static final Metrics INSTANCE = new Metrics();
-    
+    private static final String OPCODE_METRIC = "flux_gateway_packets_total";
+
+    private final MetricsRegistry registry = new MetricsRegistry();
     private final AtomicLong activeConnections = new AtomicLong(0);
-    private final Map<Byte, AtomicLong> opcodeCounters = new ConcurrentHashMap<>();
-    
-    private Metrics() {}
-    
+    private final AtomicReferenceArray<MetricsRegistry.Counter> opcodeCounters = new AtomicReferenceArray<>(256);
+    private final LatencyHistogram packetLatency;
+
+    private Metrics() {
+        registry.gauge("flux_gateway_active_connections", "Open gateway connections", activeConnections::get);
+        packetLatency = registry.histogram("flux_gateway_packet_latency_seconds",
+            "Time to decode and handle one packet", new LatencyHistogram(), 1e-9);
+    }
+
     public static Metrics getInstance() {
         return INSTANCE;
     }
-    
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
     public void incrementConnections() {
         activeConnections.incrementAndGet();
     }
-    
+
     public void decrementConnections() {
         activeConnections.updateAndGet(v -> Math.max(0, v - 1));
     }
-    
+
     public long getActiveConnections() {
         return activeConnections.get();
     }
-    
+
     public void recordOpcode(byte opcode) {
-        opcodeCounters.computeIfAbsent(opcode, k -> new AtomicLong()).incrementAndGet();
+        MetricsRegistry.Counter counter = opcodeCounters.get(opcode & 0xFF);
+        if (counter == null) {
+            counter = registerOpcode(opcode);
+        }
+        counter.increment();
+    }
+
+    private MetricsRegistry.Counter registerOpcode(byte opcode) {
+        MetricsRegistry.Counter counter = registry.counter(OPCODE_METRIC, "Packets received by opcode",
+            "opcode", String.valueOf(opcode));
+        opcodeCounters.compareAndSet(opcode & 0xFF, null, counter);
+        return opcodeCounters.get(opcode & 0xFF);
     }
-    
+
+    public void recordPacketLatency(long nanos) {
+        packetLatency.record(nanos);
+    }
+
     public Map<Byte, Long> getOpcodeDistribution() {
-        Map<Byte, Long> snapshot = new ConcurrentHashMap<>();
-        opcodeCounters.forEach((k, v) -> snapshot.put(k, v.get()));
+        Map<Byte, Long> snapshot = new TreeMap<>();
+        for (int i = 0; i < opcodeCounters.length(); i++) {
+            MetricsRegistry.Counter counter = opcodeCounters.get(i);
+            if (counter != null) {
+                snapshot.put((byte) i, counter.get());
+            }
+        }
         return snapshot;
     }
-    
+
     public void reset() {
-        opcodeCounters.clear();
+        for (int i = 0; i < opcodeCounters.length(); i++) {
+            if (opcodeCounters.getAndSet(i, null) != null) {
+                registry.unregister(OPCODE_METRIC, "opcode", String.valueOf((byte) i));
+            }
+        }
     }
 }
@@ -4,10 +4,12 @@ cd "$(dirname "$0")"
 
 echo "🔨 Compiling project..."
 if command -v mvn &> /dev/null; then
+    # Shared flux-common module must be installed before this module resolves
+    mvn -q -f ../../flux-common/pom.xml install -DskipTests
     mvn clean compile -q
 else
     echo "Maven not found, using javac..."
-    find src/main/java -name "*.java" > sources.txt
+    find src/main/java ../../flux-common/src/main/java -name "*.java" > sources.txt
     javac --enable-preview --source 21 -d target/classes @sources.txt
     rm sources.txt
 fi
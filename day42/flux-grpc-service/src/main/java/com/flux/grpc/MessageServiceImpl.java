@@ -3,13 +3,27 @@ package com.flux.grpc;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
+import com.flux.common.RecentMessagesCache;
 import com.flux.grpc.proto.*;
 import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 public class MessageServiceImpl extends MessageServiceGrpc.MessageServiceImplBase {
     
+    // Snowflake ids sort by time; the history query reads newest first
+    private final RecentMessagesCache<Message, Long> recentMessages = new RecentMessagesCache<>(
+        100, 10_000, Comparator.comparingLong(Message::getMessageId).reversed(),
+        Message::getMessageId, MessageServiceImpl::queryHistory);
+    
+    public MessageServiceImpl() {
+        MetricsCollector.registerRecentMessagesCache(recentMessages);
+    }
+    
+    
     @Override
     public void insertMessage(InsertMessageRequest request, 
                             StreamObserver<InsertMessageResponse> responseObserver) {
@@ -23,15 +37,23 @@ public class MessageServiceImpl extends MessageServiceGrpc.MessageServiceImplBas
                 return;
             }
             
+            long timestamp = Instant.now().toEpochMilli();
             BoundStatement bound = ScyllaDBClient.getInsertStatement().bind(
                 request.getChannelId(),
                 request.getMessageId(),
                 request.getAuthorId(),
                 request.getContent(),
-                Instant.now().toEpochMilli()
+                timestamp
             );
             
             ScyllaDBClient.getSession().execute(bound);
+            recentMessages.onInsert(request.getChannelId(), Message.newBuilder()
+                .setChannelId(request.getChannelId())
+                .setMessageId(request.getMessageId())
+                .setAuthorId(request.getAuthorId())
+                .setContent(request.getContent())
+                .setTimestamp(timestamp)
+                .build());
             
             responseObserver.onNext(InsertMessageResponse.newBuilder()
                 .setSuccess(true)
@@ -59,6 +81,14 @@ public class MessageServiceImpl extends MessageServiceGrpc.MessageServiceImplBas
                 return;
             }
             
+            Message cached = recentMessages.find(request.getChannelId(), request.getMessageId());
+            if (cached != null) {
+                MetricsCollector.recordRequest("GetMessage");
+                responseObserver.onNext(cached);
+                responseObserver.onCompleted();
+                return;
+            }
+            
             BoundStatement bound = ScyllaDBClient.getSelectStatement().bind(
                 request.getChannelId(),
                 request.getMessageId()
@@ -76,15 +106,7 @@ public class MessageServiceImpl extends MessageServiceGrpc.MessageServiceImplBas
             
             MetricsCollector.recordRequest("GetMessage");
             
-            Message message = Message.newBuilder()
-                .setChannelId(row.getLong("channel_id"))
-                .setMessageId(row.getLong("message_id"))
-                .setAuthorId(row.getLong("author_id"))
-                .setContent(row.getString("content"))
-                .setTimestamp(row.getLong("timestamp"))
-                .build();
-            
-            responseObserver.onNext(message);
+            responseObserver.onNext(toMessage(row));
             responseObserver.onCompleted();
             
         } catch (Exception e) {
@@ -108,23 +130,8 @@ public class MessageServiceImpl extends MessageServiceGrpc.MessageServiceImplBas
             
             int limit = request.getLimit() > 0 ? request.getLimit() : 100;
             
-            BoundStatement bound = ScyllaDBClient.getSelectHistoryStatement().bind(
-                request.getChannelId(),
-                limit
-            );
-            
-            ResultSet rs = ScyllaDBClient.getSession().execute(bound);
-            
             int count = 0;
-            for (Row row : rs) {
-                Message message = Message.newBuilder()
-                    .setChannelId(row.getLong("channel_id"))
-                    .setMessageId(row.getLong("message_id"))
-                    .setAuthorId(row.getLong("author_id"))
-                    .setContent(row.getString("content"))
-                    .setTimestamp(row.getLong("timestamp"))
-                    .build();
-                
+            for (Message message : recentMessages.latest(request.getChannelId(), limit)) {
                 responseObserver.onNext(message);
                 count++;
             }
@@ -159,6 +166,7 @@ public class MessageServiceImpl extends MessageServiceGrpc.MessageServiceImplBas
             );
             
             ScyllaDBClient.getSession().execute(bound);
+            recentMessages.onDelete(request.getChannelId(), request.getMessageId());
             
             MetricsCollector.recordRequest("DeleteMessage");
             
@@ -173,4 +181,23 @@ public class MessageServiceImpl extends MessageServiceGrpc.MessageServiceImplBas
                 .asRuntimeException());
         }
     }
+    
+    private static List<Message> queryHistory(long channelId, int limit) {
+        BoundStatement bound = ScyllaDBClient.getSelectHistoryStatement().bind(channelId, limit);
+        List<Message> messages = new ArrayList<>(limit);
+        for (Row row : ScyllaDBClient.getSession().execute(bound)) {
+            messages.add(toMessage(row));
+        }
+        return messages;
+    }
+    
+    private static Message toMessage(Row row) {
+        return Message.newBuilder()
+            .setChannelId(row.getLong("channel_id"))
+            .setMessageId(row.getLong("message_id"))
+            .setAuthorId(row.getLong("author_id"))
+            .setContent(row.getString("content"))
+            .setTimestamp(row.getLong("timestamp"))
+            .build();
+    }
 }
@@ -1,5 +1,7 @@
 package com.flux.grpc;
 
+import com.flux.common.RecentMessagesCache;
+
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
@@ -9,6 +11,11 @@ public class MetricsCollector {
     private static final AtomicLong totalRequests = new AtomicLong(0);
     private static final AtomicLong totalStreamedMessages = new AtomicLong(0);
     private static final AtomicLong startTime = new AtomicLong(System.currentTimeMillis());
+    private static volatile RecentMessagesCache<?, ?> recentMessages;
+    
+    public static void registerRecentMessagesCache(RecentMessagesCache<?, ?> cache) {
+        recentMessages = cache;
+    }
     
     public static void recordRequest(String method) {
         requestCounts.computeIfAbsent(method, k -> new LongAdder()).increment();
@@ -46,7 +53,10 @@ public class MetricsCollector {
               "delete_message": %d,
               "streamed_messages": %d,
               "uptime_seconds": %d,
-              "db_connected": %s
+              "db_connected": %s,
+              "cache_hit_rate": %.3f,
+              "cache_loads": %d,
+              "cache_channels": %d
             }
             """,
             getTotalRequests(),
@@ -56,7 +66,10 @@ public class MetricsCollector {
             getRequestCount("DeleteMessage"),
             getTotalStreamedMessages(),
             getUptimeSeconds(),
-            ScyllaDBClient.isConnected()
+            ScyllaDBClient.isConnected(),
+            recentMessages == null ? 0.0 : recentMessages.getHitRate(),
+            recentMessages == null ? 0 : recentMessages.getLoads(),
+            recentMessages == null ? 0 : recentMessages.getResidentChannels()
         );
     }
 }
@@ -1,55 +1,32 @@
 package com.flux.grpc;
 
+import com.flux.common.SnowflakeGenerator;
+import com.flux.common.SnowflakeLayout;
+
+/**
+ * Lock-free shared generator in this service's layout: 2021 epoch,
+ * 10 worker bits, 12 sequence bits.
+ */
 public class SnowflakeIdGenerator {
     private static final long EPOCH = 1609459200000L; // 2021-01-01
     private static final long WORKER_ID_BITS = 10L;
     private static final long SEQUENCE_BITS = 12L;
     
     private static final long MAX_WORKER_ID = (1L << WORKER_ID_BITS) - 1;
-    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
     
-    private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
-    private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+    private static final SnowflakeLayout LAYOUT =
+        new SnowflakeLayout(EPOCH, (int) WORKER_ID_BITS, (int) SEQUENCE_BITS);
     
-    private final long workerId;
-    private long sequence = 0L;
-    private long lastTimestamp = -1L;
+    private final SnowflakeGenerator ids;
     
     public SnowflakeIdGenerator(long workerId) {
         if (workerId > MAX_WORKER_ID || workerId < 0) {
             throw new IllegalArgumentException("Worker ID out of range");
         }
-        this.workerId = workerId;
-    }
-    
-    public synchronized long nextId() {
-        long timestamp = System.currentTimeMillis();
-        
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException("Clock moved backwards");
-        }
-        
-        if (timestamp == lastTimestamp) {
-            sequence = (sequence + 1) & MAX_SEQUENCE;
-            if (sequence == 0) {
-                timestamp = waitNextMillis(lastTimestamp);
-            }
-        } else {
-            sequence = 0L;
-        }
-        
-        lastTimestamp = timestamp;
-        
-        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT) |
-               (workerId << WORKER_ID_SHIFT) |
-               sequence;
+        this.ids = new SnowflakeGenerator(LAYOUT, workerId);
     }
     
-    private long waitNextMillis(long lastTimestamp) {
-        long timestamp = System.currentTimeMillis();
-        while (timestamp <= lastTimestamp) {
-            timestamp = System.currentTimeMillis();
-        }
-        return timestamp;
+    public long nextId() {
+        return ids.nextId();
     }
 }
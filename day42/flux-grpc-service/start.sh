@@ -8,6 +8,9 @@ cd "$SCRIPT_DIR"
 
 echo "🔧 Compiling Flux gRPC Service..."
 
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
+
 # Compile with Maven
 mvn clean compile -q
 
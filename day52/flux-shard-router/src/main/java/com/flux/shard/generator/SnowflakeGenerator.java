@@ -1,8 +1,13 @@
 package com.flux.shard.generator;
 
+import com.flux.common.SnowflakeLayout;
+
 /**
  * Discord/Twitter Snowflake ID generator.
  * Format: | 42 bits: timestamp | 5 bits: worker | 5 bits: process | 12 bits: sequence |
+ *
+ * Worker and process share the Discord layout's 10 worker bits, so IDs come
+ * from the lock-free shared generator.
  */
 public class SnowflakeGenerator {
     
@@ -11,8 +16,7 @@ public class SnowflakeGenerator {
     
     private final long workerId;
     private final long processId;
-    private long lastTimestamp = -1L;
-    private long sequence = 0L;
+    private final com.flux.common.SnowflakeGenerator ids;
     
     public SnowflakeGenerator(long workerId, long processId) {
         if (workerId < 0 || workerId >= 32) {
@@ -23,35 +27,11 @@ public class SnowflakeGenerator {
         }
         this.workerId = workerId;
         this.processId = processId;
+        this.ids = new com.flux.common.SnowflakeGenerator(SnowflakeLayout.DISCORD, (workerId << 5) | processId);
     }
     
-    public synchronized long nextId() {
-        long timestamp = System.currentTimeMillis();
-        
-        if (timestamp < lastTimestamp) {
-            throw new IllegalStateException("Clock moved backwards!");
-        }
-        
-        if (timestamp == lastTimestamp) {
-            // Same millisecond - increment sequence
-            sequence = (sequence + 1) & 0xFFF;
-            if (sequence == 0) {
-                // Sequence overflow - wait for next millisecond
-                timestamp = waitNextMillis(lastTimestamp);
-            }
-        } else {
-            // New millisecond - reset sequence
-            sequence = 0L;
-        }
-        
-        lastTimestamp = timestamp;
-        
-        // Build the Snowflake ID
-        long timeDiff = timestamp - DISCORD_EPOCH;
-        return (timeDiff << 22) 
-             | (workerId << 17) 
-             | (processId << 12) 
-             | sequence;
+    public long nextId() {
+        return ids.nextId();
     }
     
     /**
@@ -63,19 +43,11 @@ public class SnowflakeGenerator {
         return (timestamp << 22) | (workerId << 17) | (processId << 12) | seq;
     }
     
-    private long waitNextMillis(long lastTimestamp) {
-        long timestamp = System.currentTimeMillis();
-        while (timestamp <= lastTimestamp) {
-            timestamp = System.currentTimeMillis();
-        }
-        return timestamp;
-    }
-    
     /**
      * Extract timestamp from Snowflake ID
      */
     public static long extractTimestamp(long snowflakeId) {
-        return (snowflakeId >> 22) + DISCORD_EPOCH;
+        return SnowflakeLayout.DISCORD.timestampOf(snowflakeId);
     }
     
     /**
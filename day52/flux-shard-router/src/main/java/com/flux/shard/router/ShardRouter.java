@@ -1,5 +1,7 @@
 package com.flux.shard.router;
 
+import com.flux.common.SnowflakeLayout;
+
 /**
  * Discord-style shard routing using Snowflake ID bitwise operations.
  * Zero-allocation, pure function design for maximum throughput.
@@ -10,7 +12,7 @@ public final class ShardRouter {
      * Discord Snowflake IDs have timestamp in upper bits.
      * Shifting right by 22 isolates timestamp portion for temporal locality.
      */
-    private static final int SNOWFLAKE_SHIFT = 22;
+    private static final SnowflakeLayout LAYOUT = SnowflakeLayout.DISCORD;
     
     private ShardRouter() {
         throw new AssertionError("Utility class - do not instantiate");
@@ -28,7 +30,7 @@ public final class ShardRouter {
             throw new IllegalArgumentException("Total shards must be positive");
         }
         // Extract timestamp bits and modulo into shard range
-        return (int) ((guildId >> SNOWFLAKE_SHIFT) % totalShards);
+        return LAYOUT.shardOf(guildId, totalShards);
     }
     
     /**
@@ -37,12 +39,20 @@ public final class ShardRouter {
      */
     public static int[] calculateShards(long[] guildIds, int totalShards) {
         int[] shards = new int[guildIds.length];
-        for (int i = 0; i < guildIds.length; i++) {
-            shards[i] = calculateShard(guildIds[i], totalShards);
-        }
+        calculateShards(guildIds, shards, guildIds.length, totalShards);
         return shards;
     }
     
+    /**
+     * Batch variant that writes into a caller-owned array.
+     */
+    public static void calculateShards(long[] guildIds, int[] out, int n, int totalShards) {
+        if (totalShards <= 0) {
+            throw new IllegalArgumentException("Total shards must be positive");
+        }
+        LAYOUT.shardsOf(guildIds, out, n, totalShards);
+    }
+    
     /**
      * Validate if a guild should route to this gateway instance.
      * 
@@ -25,6 +25,8 @@ fi
 
 # Compile
 echo "📦 Compiling..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 if [ $? -ne 0 ]; then
@@ -63,7 +63,7 @@ echo ""
 echo "⏳ Waiting 3 seconds for metrics to update..."
 sleep 3
 
-curl -s http://localhost:9090/metrics | python3 -c "
+curl -s http://localhost:9090/api/metrics | python3 -c "
 import json
 import sys
 data = json.load(sys.stdin)
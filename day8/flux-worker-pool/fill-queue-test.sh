@@ -58,7 +58,7 @@ sleep 2
 for i in {1..5}; do
     echo ""
     echo "[Check $i]"
-    curl -s http://localhost:9090/metrics | python3 -c "
+    curl -s http://localhost:9090/api/metrics | python3 -c "
 import json, sys
 d = json.load(sys.stdin)
 print(f\"  Queue Depth: {d['queueDepth']}\")
@@ -7,7 +7,7 @@ echo ""
 # Start monitoring in background
 (
     for i in {1..30}; do
-        METRICS=$(curl -s http://localhost:9090/metrics)
+        METRICS=$(curl -s http://localhost:9090/api/metrics)
         QUEUE=$(echo $METRICS | python3 -c "import json,sys; d=json.load(sys.stdin); print(d['queueDepth'])")
         REJECTED=$(echo $METRICS | python3 -c "import json,sys; d=json.load(sys.stdin); print(d['rejected'])")
         PROCESSED=$(echo $METRICS | python3 -c "import json,sys; d=json.load(sys.stdin); print(d['processed'])")
@@ -57,4 +57,4 @@ wait $MONITOR_PID
 
 echo ""
 echo "📊 Final metrics:"
-curl -s http://localhost:9090/metrics | python3 -m json.tool
+curl -s http://localhost:9090/api/metrics | python3 -m json.tool
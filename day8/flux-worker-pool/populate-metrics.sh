@@ -22,4 +22,4 @@ echo "✅ Load test completed!"
 echo "📊 Check dashboard at http://localhost:9090"
 echo ""
 echo "Current metrics:"
-curl -s http://localhost:9090/metrics | python3 -c "import sys, json; d=json.load(sys.stdin); print(f'  Processed: {d[\"processed\"]} tasks'); print(f'  p50 Latency: {d[\"p50Latency\"]/1000:.2f}ms'); print(f'  p99 Latency: {d[\"p99Latency\"]/1000:.2f}ms')" 2>/dev/null || curl -s http://localhost:9090/metrics
+curl -s http://localhost:9090/api/metrics | python3 -c "import sys, json; d=json.load(sys.stdin); print(f'  Processed: {d[\"processed\"]} tasks'); print(f'  p50 Latency: {d[\"p50Latency\"]/1000:.2f}ms'); print(f'  p99 Latency: {d[\"p99Latency\"]/1000:.2f}ms')" 2>/dev/null || curl -s http://localhost:9090/api/metrics
@@ -1,5 +1,7 @@
 package com.flux.gateway;
 
+import com.flux.common.LatencyHistogram;
+import com.flux.common.PrometheusHandler;
 import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -40,8 +42,9 @@ public class Dashboard {
             }
         });
 
-        server.createContext("/metrics", exchange -> {
+        server.createContext("/api/metrics", exchange -> {
             try {
+                LatencyHistogram.Snapshot latency = workerPool.getLatencyHistogram().snapshot();
                 String json = String.format("""
                     {
                         "queueDepth": %d,
@@ -49,14 +52,16 @@ public class Dashboard {
                         "rejected": %d,
                         "p50Latency": %d,
                         "p99Latency": %d,
+                        "latencyHistogram": "%s",
                         "timestamp": %d
                     }
                     """,
                     workerPool.getQueueDepth(),
                     workerPool.getProcessedCount(),
                     workerPool.getRejectedCount(),
-                    workerPool.getP50Latency(),
-                    workerPool.getP99Latency(),
+                    latency.percentile(50.0),
+                    latency.percentile(99.0),
+                    latency.toCompactString(),
                     System.currentTimeMillis()
                 );
                 byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
@@ -75,6 +80,8 @@ public class Dashboard {
             }
         });
 
+        server.createContext("/metrics", new PrometheusHandler(Metrics.REGISTRY));
+
         server.setExecutor(null);
         server.start();
         System.out.println("📊 Dashboard running at http://localhost:" + PORT);
@@ -208,7 +215,7 @@ public class Dashboard {
                 
                 <script>
                     function updateMetrics() {
-                        fetch('/metrics')
+                        fetch('/api/metrics')
                             .then(r => {
                                 if (!r.ok) {
                                     throw new Error('HTTP error! status: ' + r.status);
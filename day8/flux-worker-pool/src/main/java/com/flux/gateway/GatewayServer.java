@@ -68,7 +68,7 @@ public class GatewayServer {
             long connId = nextConnectionId.incrementAndGet();
             client.register(selector, SelectionKey.OP_READ, connId);
             
-            Metrics.incrementCounter("connections.accepted");
+            Metrics.CONNECTIONS_ACCEPTED.increment();
             System.out.println("✅ Connection #" + connId + " from " + client.getRemoteAddress());
         }
     }
@@ -83,7 +83,7 @@ public class GatewayServer {
         if (bytesRead == -1) {
             // Client disconnected
             client.close();
-            Metrics.incrementCounter("connections.closed");
+            Metrics.CONNECTIONS_CLOSED.increment();
             System.out.println("👋 Connection #" + connId + " closed");
             return;
         }
@@ -103,7 +103,7 @@ public class GatewayServer {
             // Hand off to worker pool (non-blocking)
             workerPool.submit(task);
             
-            Metrics.incrementCounter("messages.received");
+            Metrics.MESSAGES_RECEIVED.increment();
         }
     }
 
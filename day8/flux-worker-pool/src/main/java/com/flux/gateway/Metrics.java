@@ -1,39 +1,31 @@
 package com.flux.gateway;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.LongAdder;
+import com.flux.common.MetricsRegistry;
 
 /**
- * Lightweight metrics system using atomic counters.
- * In production, integrate with Prometheus/Micrometer.
+ * Process-wide metric handles, registered once at class load.
+ * Hot paths increment the handles directly; the registry is scraped at
+ * {@code /metrics} by the dashboard.
  */
-public class Metrics {
-    private static final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+public final class Metrics {
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
 
-    public static void incrementCounter(String name) {
-        counters.computeIfAbsent(name, k -> new LongAdder()).increment();
-    }
-
-    public static void setGauge(String name, long value) {
-        gauges.computeIfAbsent(name, k -> new AtomicLong()).set(value);
-    }
+    public static final MetricsRegistry.Counter CONNECTIONS_ACCEPTED =
+        REGISTRY.counter("flux_connections_accepted_total", "Connections accepted by the gateway");
+    public static final MetricsRegistry.Counter CONNECTIONS_CLOSED =
+        REGISTRY.counter("flux_connections_closed_total", "Connections closed by clients");
+    public static final MetricsRegistry.Counter MESSAGES_RECEIVED =
+        REGISTRY.counter("flux_messages_received_total", "Messages read and handed to the worker pool");
+    public static final MetricsRegistry.Counter TASKS_PROCESSED =
+        REGISTRY.counter("flux_worker_pool_processed_total", "Tasks completed by workers");
+    public static final MetricsRegistry.Counter TASKS_REJECTED =
+        REGISTRY.counter("flux_worker_pool_rejected_total", "Tasks rejected because the queue was full");
+    public static final MetricsRegistry.Counter TASK_ERRORS =
+        REGISTRY.counter("flux_worker_pool_errors_total", "Tasks that failed with an exception");
 
-    public static long getCounter(String name) {
-        LongAdder adder = counters.get(name);
-        return adder != null ? adder.sum() : 0;
-    }
-
-    public static long getGauge(String name) {
-        AtomicLong gauge = gauges.get(name);
-        return gauge != null ? gauge.get() : 0;
-    }
+    private Metrics() {}
 
     public static String snapshot() {
-        StringBuilder sb = new StringBuilder("=== Metrics Snapshot ===\n");
-        counters.forEach((k, v) -> sb.append(k).append(": ").append(v.sum()).append("\n"));
-        gauges.forEach((k, v) -> sb.append(k).append(": ").append(v.get()).append("\n"));
-        return sb.toString();
+        return REGISTRY.scrape();
     }
 }
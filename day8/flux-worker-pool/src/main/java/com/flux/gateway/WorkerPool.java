@@ -1,5 +1,7 @@
 package com.flux.gateway;
 
+import com.flux.common.LatencyHistogram;
+
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -15,13 +17,16 @@ public class WorkerPool {
     private final AtomicLong processedTasks = new AtomicLong();
     private final AtomicLong rejectedTasks = new AtomicLong();
     
-    // For latency tracking (p50, p99)
-    private final ConcurrentLinkedQueue<Long> latencySamples = new ConcurrentLinkedQueue<>();
-    private static final int MAX_SAMPLES = 10000; // Increased to keep more historical data
+    // For latency tracking (p50, p99), in microseconds
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
 
     public WorkerPool(int queueCapacity) {
         this.taskQueue = new ArrayBlockingQueue<>(queueCapacity);
         this.workerExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        Metrics.REGISTRY.gauge("flux_worker_pool_queue_depth", "Tasks waiting in the worker queue",
+            taskQueue::size);
+        Metrics.REGISTRY.histogram("flux_worker_pool_task_latency_seconds", "Task processing latency",
+            latencyHistogram, 1e-6);
         
         // Start consumer thread (also a Virtual Thread)
         Thread.ofVirtual().name("queue-consumer").start(this::consumeLoop);
@@ -35,10 +40,8 @@ public class WorkerPool {
         if (!taskQueue.offer(task)) {
             // Queue full → reject
             rejectedTasks.incrementAndGet();
-            Metrics.incrementCounter("worker_pool.rejected");
+            Metrics.TASKS_REJECTED.increment();
             System.err.println("⚠️  Task rejected - queue full");
-        } else {
-            Metrics.setGauge("worker_pool.queue_depth", taskQueue.size());
         }
     }
 
@@ -87,23 +90,20 @@ public class WorkerPool {
             };
             
             processedTasks.incrementAndGet();
-            Metrics.incrementCounter("worker_pool.processed");
+            Metrics.TASKS_PROCESSED.increment();
             
             // Track latency
             long latencyMicros = (System.nanoTime() - startNanos) / 1_000;
             recordLatency(latencyMicros);
             
         } catch (Exception e) {
-            Metrics.incrementCounter("worker_pool.errors");
+            Metrics.TASK_ERRORS.increment();
             System.err.println("❌ Worker error: " + e.getMessage());
         }
     }
 
     private void recordLatency(long micros) {
-        if (latencySamples.size() > MAX_SAMPLES) {
-            latencySamples.poll(); // Drop oldest
-        }
-        latencySamples.offer(micros);
+        latencyHistogram.record(micros);
     }
 
     public long getProcessedCount() {
@@ -119,16 +119,15 @@ public class WorkerPool {
     }
 
     public long getP99Latency() {
-        var samples = latencySamples.stream().sorted().toList();
-        if (samples.isEmpty()) return 0;
-        int p99Index = (int) (samples.size() * 0.99);
-        return samples.get(Math.min(p99Index, samples.size() - 1));
+        return latencyHistogram.snapshot().percentile(99.0);
     }
 
     public long getP50Latency() {
-        var samples = latencySamples.stream().sorted().toList();
-        if (samples.isEmpty()) return 0;
-        return samples.get(samples.size() / 2);
+        return latencyHistogram.snapshot().percentile(50.0);
+    }
+
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
     }
 
     public void shutdown() {
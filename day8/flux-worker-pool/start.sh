@@ -1,5 +1,7 @@
 #!/bin/bash
 echo "🔨 Compiling project..."
+# Shared flux-common module must be installed before this module resolves
+mvn -q -f ../../flux-common/pom.xml install -DskipTests
 mvn clean compile -q
 
 echo "🚀 Starting Gateway Server..."
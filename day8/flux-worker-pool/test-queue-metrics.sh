@@ -12,7 +12,7 @@ echo ""
 
 # Function to check metrics
 check_metrics() {
-    curl -s http://localhost:9090/metrics | python3 -c "
+    curl -s http://localhost:9090/api/metrics | python3 -c "
 import json, sys
 d = json.load(sys.stdin)
 print(f\"Queue Depth: {d['queueDepth']:>6} | Rejected: {d['rejected']:>6} | Processed: {d['processed']:>6}\")
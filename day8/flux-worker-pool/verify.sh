@@ -3,7 +3,7 @@ echo "🔍 Verifying system health..."
 echo ""
 
 # Fetch metrics from dashboard API
-METRICS=$(curl -s http://localhost:9090/metrics)
+METRICS=$(curl -s http://localhost:9090/api/metrics)
 
 QUEUE=$(echo $METRICS | grep -o '"queueDepth":[0-9]*' | cut -d: -f2)
 REJECTED=$(echo $METRICS | grep -o '"rejected":[0-9]*' | cut -d: -f2)
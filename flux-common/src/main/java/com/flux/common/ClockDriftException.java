@@ -1,4 +1,4 @@
-package com.flux.snowflake;
+package com.flux.common;
 
 /**
  * Thrown when system clock moves backwards beyond acceptable threshold.
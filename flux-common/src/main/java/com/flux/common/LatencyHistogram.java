@@ -0,0 +1,268 @@
+package com.flux.common;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Base64;
+
+/**
+ * Lock-free log-linear latency histogram (HDR-style).
+ *
+ * Values below {@code 2^precisionBits} get one bucket each; above that every
+ * power of two is split into {@code 2^(precisionBits-1)} linear sub-buckets,
+ * so any recorded value is reported within a relative error of
+ * {@code 2^-(precisionBits-1)} (about 1.6% at the default of 7 bits) across
+ * the whole positive long range.
+ *
+ * Recording is a couple of atomic adds into one of several striped count
+ * arrays chosen by thread id, so concurrent writers rarely share a cache
+ * line. Stripes stand in for per-thread recorders because callers may be
+ * virtual threads, where a recorder per thread would be a recorder per task.
+ * Readers merge the stripes on demand; a percentile query is O(buckets) and
+ * never sorts or copies samples, so polling does not disturb the writers.
+ */
+public class LatencyHistogram {
+    public static final int DEFAULT_PRECISION_BITS = 7;
+
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int precisionBits;
+    private final int bucketCount;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    // Cumulative counts at the last interval snapshot
+    private long[] lastIntervalCounts;
+    private long lastIntervalSum;
+
+    private static final class Stripe {
+        final long[] counts;
+        // sum and max live in a separate array so they can be updated atomically
+        final long[] totals = new long[2];
+
+        Stripe(int buckets) {
+            this.counts = new long[buckets];
+        }
+    }
+
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    public LatencyHistogram(int precisionBits) {
+        if (precisionBits < 2 || precisionBits > 14) {
+            throw new IllegalArgumentException("precisionBits must be between 2 and 14");
+        }
+        this.precisionBits = precisionBits;
+        this.bucketCount = indexFor(Long.MAX_VALUE) + 1;
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int stripeCount = Math.min(16, Integer.highestOneBit(Math.max(1, cpus - 1)) << 1);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(bucketCount);
+        }
+        this.stripeMask = stripeCount - 1;
+        this.lastIntervalCounts = new long[bucketCount];
+    }
+
+    /**
+     * Record one value. Negative values are clamped to zero.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        Stripe stripe = stripes[(int) (h >>> 32) & stripeMask];
+        COUNTS.getAndAdd(stripe.counts, indexFor(v), 1L);
+        COUNTS.getAndAdd(stripe.totals, 0, v);
+        long max;
+        while (v > (max = (long) COUNTS.getOpaque(stripe.totals, 1))) {
+            if (COUNTS.compareAndSet(stripe.totals, 1, max, v)) break;
+        }
+    }
+
+    /**
+     * Everything recorded since creation.
+     */
+    public Snapshot snapshot() {
+        long[] merged = new long[bucketCount];
+        long sum = mergeInto(merged);
+        long max = 0;
+        for (Stripe stripe : stripes) {
+            max = Math.max(max, (long) COUNTS.getOpaque(stripe.totals, 1));
+        }
+        return new Snapshot(precisionBits, merged, sum, max);
+    }
+
+    /**
+     * Everything recorded since the previous call to this method. The
+     * interval max is the upper bound of the highest non-empty bucket.
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        long[] cumulative = new long[bucketCount];
+        long sum = mergeInto(cumulative);
+        long[] interval = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            interval[i] = cumulative[i] - lastIntervalCounts[i];
+        }
+        long intervalSum = sum - lastIntervalSum;
+        lastIntervalCounts = cumulative;
+        lastIntervalSum = sum;
+        return new Snapshot(precisionBits, interval, intervalSum, maxOf(interval));
+    }
+
+    public int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    private long mergeInto(long[] merged) {
+        long sum = 0;
+        for (Stripe stripe : stripes) {
+            for (int i = 0; i < bucketCount; i++) {
+                merged[i] += (long) COUNTS.getOpaque(stripe.counts, i);
+            }
+            sum += (long) COUNTS.getOpaque(stripe.totals, 0);
+        }
+        return sum;
+    }
+
+    private long maxOf(long[] counts) {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] != 0) return highestValueIn(precisionBits, i);
+        }
+        return 0;
+    }
+
+    private int indexFor(long value) {
+        return indexFor(precisionBits, value);
+    }
+
+    static int indexFor(int precisionBits, long value) {
+        if (value < (1L << precisionBits)) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (precisionBits - 1);
+        int sub = (int) (value >>> shift); // in [half, 2 * half)
+        return (shift << (precisionBits - 1)) + sub;
+    }
+
+    static long highestValueIn(int precisionBits, int index) {
+        if (index < (1 << precisionBits)) {
+            return index;
+        }
+        int half = 1 << (precisionBits - 1);
+        int shift = index / half - 1;
+        long sub = index - (long) shift * half;
+        long upper = ((sub + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    /**
+     * Immutable merged view of bucket counts.
+     */
+    public static final class Snapshot {
+        private final int precisionBits;
+        private final long[] counts;
+        private final long totalCount;
+        private final long sum;
+        private final long max;
+
+        Snapshot(int precisionBits, long[] counts, long sum, long max) {
+            this.precisionBits = precisionBits;
+            this.counts = counts;
+            this.sum = sum;
+            this.max = max;
+            long total = 0;
+            for (long c : counts) total += c;
+            this.totalCount = total;
+        }
+
+        public long count() {
+            return totalCount;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        public long sum() {
+            return sum;
+        }
+
+        public long mean() {
+            return totalCount == 0 ? 0 : sum / totalCount;
+        }
+
+        /**
+         * Value at the given percentile (0-100), reported as the highest
+         * value equivalent to its bucket.
+         */
+        public long percentile(double percentile) {
+            if (totalCount == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(precisionBits, i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Compact form for dashboards: precision bits, then the non-empty
+         * buckets as varint (index gap, count) pairs, Base64 encoded.
+         */
+        public String toCompactString() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeVarLong(out, precisionBits);
+            writeVarLong(out, sum);
+            int previous = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) continue;
+                writeVarLong(out, i - previous);
+                writeVarLong(out, counts[i]);
+                previous = i;
+            }
+            return Base64.getEncoder().withoutPadding().encodeToString(out.toByteArray());
+        }
+
+        public static Snapshot fromCompactString(String compact) {
+            byte[] bytes = Base64.getDecoder().decode(compact);
+            int[] pos = {0};
+            int precisionBits = (int) readVarLong(bytes, pos);
+            long sum = readVarLong(bytes, pos);
+            long[] counts = new long[indexFor(precisionBits, Long.MAX_VALUE) + 1];
+            int index = 0;
+            int last = -1;
+            while (pos[0] < bytes.length) {
+                index += (int) readVarLong(bytes, pos);
+                counts[index] = readVarLong(bytes, pos);
+                last = index;
+            }
+            long max = last < 0 ? 0 : highestValueIn(precisionBits, last);
+            return new Snapshot(precisionBits, counts, sum, max);
+        }
+
+        private static void writeVarLong(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long readVarLong(byte[] bytes, int[] pos) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos[0]++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
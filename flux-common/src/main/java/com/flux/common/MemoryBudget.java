@@ -0,0 +1,71 @@
+package com.flux.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-wide byte budget shared by every connection's outbound queue or
+ * ring buffer. Connections reserve bytes when they buffer a message and
+ * release them when it is written or discarded, so total queued memory is
+ * bounded no matter how the traffic mixes large and small payloads. Each
+ * connection is already capped on its own; this caps the sum, so thousands
+ * of half-full buffers cannot add up to an OOM.
+ */
+public class MemoryBudget {
+    private final long limitBytes;
+    private final AtomicLong usedBytes = new AtomicLong(0);
+
+    public MemoryBudget(long limitBytes) {
+        if (limitBytes <= 0) {
+            throw new IllegalArgumentException("Budget must be positive");
+        }
+        this.limitBytes = limitBytes;
+    }
+
+    /**
+     * Unbounded budget for standalone buffers (tests, single client).
+     */
+    public static MemoryBudget unlimited() {
+        return new MemoryBudget(Long.MAX_VALUE);
+    }
+
+    /**
+     * Reserve bytes against the budget. Returns false if that would exceed the limit.
+     */
+    public boolean tryReserve(long bytes) {
+        while (true) {
+            long current = usedBytes.get();
+            if (bytes > limitBytes - current) {
+                return false;
+            }
+            if (usedBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserve bytes even if that exceeds the limit (for traffic that must never be dropped).
+     */
+    public void forceReserve(long bytes) {
+        usedBytes.addAndGet(bytes);
+    }
+
+    public void release(long bytes) {
+        usedBytes.addAndGet(-bytes);
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getLimitBytes() {
+        return limitBytes;
+    }
+
+    /**
+     * Get budget utilization percentage (0-100).
+     */
+    public int getUtilization() {
+        return (int) Math.min(100, usedBytes.get() * 100.0 / limitBytes);
+    }
+}
@@ -0,0 +1,177 @@
+package com.flux.common;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registry of pre-registered metric handles with Prometheus text exposition.
+ *
+ * Metrics are registered once, typically into a static final field, and the
+ * hot path touches only the returned handle: a counter increment is a
+ * striped {@link LongAdder} add with no map lookup or allocation. Gauges
+ * are suppliers read at scrape time, and latency histograms are exported as
+ * summaries computed from a merged {@link LatencyHistogram} snapshot. All
+ * aggregation happens in {@link #scrape()}, on the scraping thread.
+ *
+ * Registration is synchronized and idempotent per name and label set:
+ * counters return the existing handle, gauges and histograms replace the
+ * previous source.
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * Monotonic counter handle.
+     */
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+
+        public void increment() {
+            adder.increment();
+        }
+
+        public void add(long delta) {
+            adder.add(delta);
+        }
+
+        public long get() {
+            return adder.sum();
+        }
+    }
+
+    private record HistogramSource(LatencyHistogram histogram, double scale) {}
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        final Map<String, Object> series = new LinkedHashMap<>(); // labels -> source
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Register (or look up) a counter. Labels are alternating name/value pairs.
+     */
+    public synchronized Counter counter(String name, String help, String... labels) {
+        Family family = family(name, help, "counter");
+        return (Counter) family.series.computeIfAbsent(formatLabels(labels), k -> new Counter());
+    }
+
+    public synchronized void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").series.put(formatLabels(labels), value);
+    }
+
+    /**
+     * Export a histogram as a summary. {@code scale} converts recorded
+     * values to the metric's base unit, e.g. 1e-6 for microseconds to seconds.
+     */
+    public synchronized LatencyHistogram histogram(String name, String help, LatencyHistogram histogram,
+                                                   double scale, String... labels) {
+        family(name, help, "summary").series.put(formatLabels(labels), new HistogramSource(histogram, scale));
+        return histogram;
+    }
+
+    public synchronized void unregister(String name, String... labels) {
+        Family family = families.get(name);
+        if (family != null) {
+            family.series.remove(formatLabels(labels));
+        }
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, k -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Render every metric in Prometheus text format (version 0.0.4).
+     */
+    public String scrape() {
+        List<Family> snapshot;
+        List<List<Map.Entry<String, Object>>> series = new ArrayList<>();
+        synchronized (this) {
+            snapshot = new ArrayList<>(families.values());
+            for (Family family : snapshot) {
+                series.add(new ArrayList<>(family.series.entrySet()));
+            }
+        }
+
+        StringBuilder out = new StringBuilder(4096);
+        for (int i = 0; i < snapshot.size(); i++) {
+            Family family = snapshot.get(i);
+            if (series.get(i).isEmpty()) continue;
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> entry : series.get(i)) {
+                writeSeries(out, family.name, entry.getKey(), entry.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private static void writeSeries(StringBuilder out, String name, String labels, Object source) {
+        if (source instanceof Counter counter) {
+            writeSample(out, name, labels, counter.get());
+        } else if (source instanceof DoubleSupplier gauge) {
+            writeSample(out, name, labels, gauge.getAsDouble());
+        } else if (source instanceof HistogramSource h) {
+            LatencyHistogram.Snapshot snapshot = h.histogram().snapshot();
+            for (double q : QUANTILES) {
+                String quantile = "quantile=\"" + q + "\"";
+                String merged = labels.isEmpty() ? "{" + quantile + "}"
+                    : labels.substring(0, labels.length() - 1) + "," + quantile + "}";
+                writeSample(out, name, merged, snapshot.percentile(q * 100.0) * h.scale());
+            }
+            writeSample(out, name + "_sum", labels, snapshot.sum() * h.scale());
+            writeSample(out, name + "_count", labels, snapshot.count());
+        }
+    }
+
+    private static void writeSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String formatLabels(String... labels) {
+        if (labels.length == 0) return "";
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '\\' -> sb.append("\\\\");
+                    case '"' -> sb.append("\\\"");
+                    case '\n' -> sb.append("\\n");
+                    default -> sb.append(ch);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.append('}').toString();
+    }
+}
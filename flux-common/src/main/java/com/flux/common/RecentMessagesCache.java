@@ -0,0 +1,273 @@
+package com.flux.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Write-through cache of the newest messages of recently read channels.
+ *
+ * Most reads are "last 50 messages" of a channel someone just opened. Each
+ * resident channel keeps a ring of its newest {@code perChannel} messages.
+ * Inserts and deletes are applied to the ring after the database write
+ * succeeds, so the ring always equals the head of the partition. Channels
+ * are evicted least-recently-used once {@code maxChannels} are resident,
+ * which bounds memory at {@code maxChannels * perChannel} messages.
+ *
+ * A miss loads the channel once, however many readers are waiting on it.
+ * Writes that land while that load is in flight are replayed onto the
+ * loaded ring. Replaying is idempotent, so it does not matter whether the
+ * query already saw them.
+ *
+ * @param <M> message type
+ * @param <I> message id type
+ */
+public class RecentMessagesCache<M, I> {
+
+    /**
+     * Newest-first query for a channel's latest {@code limit} messages.
+     */
+    @FunctionalInterface
+    public interface Loader<M> {
+        List<M> loadLatest(long channelId, int limit);
+    }
+
+    private final int perChannel;
+    private final Comparator<M> newestFirst;
+    private final Function<M, I> idOf;
+    private final Loader<M> loader;
+    private final LinkedHashMap<Long, Ring> rings; // Access order; guarded by itself
+    private final ConcurrentHashMap<Long, Load> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RecentMessagesCache(int perChannel, int maxChannels, Comparator<M> newestFirst,
+                               Function<M, I> idOf, Loader<M> loader) {
+        if (perChannel < 1 || maxChannels < 1) {
+            throw new IllegalArgumentException("Cache needs room for at least one message and channel");
+        }
+        this.perChannel = perChannel;
+        this.newestFirst = newestFirst;
+        this.idOf = idOf;
+        this.loader = loader;
+        this.rings = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ring> eldest) {
+                if (size() > maxChannels) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The channel's newest {@code limit} messages, newest first. Limits
+     * beyond the ring size go straight to the loader.
+     */
+    public List<M> latest(long channelId, int limit) {
+        if (limit > perChannel) {
+            misses.increment();
+            return loader.loadLatest(channelId, limit);
+        }
+        Ring ring = resident(channelId);
+        List<M> messages = ring == null ? null : ring.latest(limit);
+        if (messages != null) {
+            hits.increment();
+            return messages;
+        }
+        // Not resident, or deletes have left fewer than limit messages in the ring
+        misses.increment();
+        messages = load(channelId).latest(limit);
+        return messages != null ? messages : loader.loadLatest(channelId, limit);
+    }
+
+    /**
+     * The message if it is among the cached newest of its channel, null
+     * otherwise. Never loads.
+     */
+    public M find(long channelId, I messageId) {
+        Ring ring = resident(channelId);
+        M message = ring == null ? null : ring.find(messageId);
+        if (message != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return message;
+    }
+
+    /**
+     * Apply a message the database has accepted.
+     */
+    public void onInsert(long channelId, M message) {
+        mutate(channelId, ring -> ring.insert(message));
+    }
+
+    /**
+     * Apply a delete the database has accepted.
+     */
+    public void onDelete(long channelId, I messageId) {
+        mutate(channelId, ring -> ring.delete(messageId));
+    }
+
+    public void invalidate(long channelId) {
+        synchronized (rings) {
+            rings.remove(channelId);
+        }
+    }
+
+    private Ring resident(long channelId) {
+        synchronized (rings) {
+            return rings.get(channelId);
+        }
+    }
+
+    private void mutate(long channelId, Consumer<Ring> change) {
+        Load load = loading.get(channelId);
+        if (load != null) {
+            synchronized (load) {
+                if (loading.get(channelId) == load) {
+                    load.pending.add(change);
+                    return;
+                }
+            }
+        }
+        Ring ring = resident(channelId);
+        if (ring != null) {
+            change.accept(ring);
+        }
+    }
+
+    /**
+     * Single-flight: the first caller queries, everyone else waits on it.
+     */
+    private Ring load(long channelId) {
+        Load mine = new Load();
+        Load existing = loading.putIfAbsent(channelId, mine);
+        if (existing != null) {
+            return existing.ring.join();
+        }
+        try {
+            Ring ring = new Ring(loader.loadLatest(channelId, perChannel));
+            synchronized (mine) {
+                mine.pending.forEach(change -> change.accept(ring));
+                synchronized (rings) {
+                    rings.put(channelId, ring);
+                }
+                loading.remove(channelId, mine);
+            }
+            loads.increment();
+            mine.ring.complete(ring);
+            return ring;
+        } catch (RuntimeException e) {
+            loading.remove(channelId, mine);
+            mine.ring.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private final class Load {
+        final CompletableFuture<Ring> ring = new CompletableFuture<>();
+        final List<Consumer<Ring>> pending = new ArrayList<>(); // Guarded by this
+    }
+
+    /**
+     * Newest messages of one channel, newest first. Always a contiguous
+     * head of the partition: a message older than the ring's oldest is
+     * only taken if the ring holds the whole channel.
+     */
+    private final class Ring {
+        private final ArrayList<M> messages;
+        private boolean complete; // Holds every message in the channel
+
+        Ring(List<M> newest) {
+            this.messages = new ArrayList<>(perChannel);
+            this.messages.addAll(newest.subList(0, Math.min(newest.size(), perChannel)));
+            this.complete = newest.size() < perChannel;
+        }
+
+        synchronized List<M> latest(int limit) {
+            if (limit > messages.size() && !complete) {
+                return null;
+            }
+            return List.copyOf(messages.subList(0, Math.min(limit, messages.size())));
+        }
+
+        synchronized M find(I messageId) {
+            for (M message : messages) {
+                if (Objects.equals(idOf.apply(message), messageId)) {
+                    return message;
+                }
+            }
+            return null;
+        }
+
+        synchronized void insert(M message) {
+            remove(idOf.apply(message));
+            int position = Collections.binarySearch(messages, message, newestFirst);
+            if (position < 0) {
+                position = -position - 1;
+            }
+            if (position == messages.size() && !complete) {
+                return; // Older than the head we hold
+            }
+            messages.add(position, message);
+            if (messages.size() > perChannel) {
+                messages.remove(messages.size() - 1);
+                complete = false;
+            }
+        }
+
+        synchronized void delete(I messageId) {
+            remove(messageId);
+        }
+
+        private void remove(I messageId) {
+            messages.removeIf(m -> Objects.equals(idOf.apply(m), messageId));
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long total = hits.sum() + misses.sum();
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
+    }
+
+    /**
+     * Database queries issued to fill the cache.
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getResidentChannels() {
+        synchronized (rings) {
+            return rings.size();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.flux.common;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free distributed ID generator using Twitter's Snowflake algorithm.
+ * Generates 64-bit IDs in a {@link SnowflakeLayout}, by default Discord's:
+ * [timestamp(42) | worker(10) | sequence(12)]. Modules that split the
+ * worker bits (datacenter/worker, worker/process) pack them into one
+ * worker ID.
+ * 
+ * Thread-safe for concurrent access via VarHandle CAS operations: the last
+ * (timestamp, sequence) pair is packed into one long, so claiming an ID is
+ * a single compareAndSet with no lock. {@link #nextIds} claims a whole
+ * sequence range with one CAS, and {@link #nextIdLeased} serves IDs from a
+ * per-thread block for rates where even one CAS per ID contends.
+ */
+public class SnowflakeGenerator {
+    
+    // Maximum acceptable clock drift (5 seconds)
+    private static final long MAX_BACKWARD_DRIFT_MS = 5000L;
+    
+    private static final int DEFAULT_LEASE_SIZE = 64;
+    
+    // VarHandles for lock-free atomic operations
+    private static final VarHandle STATE;
+    private static final VarHandle CLOCK_DRIFT_EVENTS;
+    private static final VarHandle SEQUENCE_EXHAUSTION_EVENTS;
+    
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STATE = lookup.findVarHandle(
+                SnowflakeGenerator.class, "state", long.class);
+            CLOCK_DRIFT_EVENTS = lookup.findVarHandle(
+                SnowflakeGenerator.class, "clockDriftEvents", long.class);
+            SEQUENCE_EXHAUSTION_EVENTS = lookup.findVarHandle(
+                SnowflakeGenerator.class, "sequenceExhaustionEvents", long.class);
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private final SnowflakeLayout layout;
+    private final long epoch;
+    private final int sequenceBits;
+    private final long sequenceMask;
+    private final int timestampShift;
+    private final long workerId;
+    private final long workerBits;
+    private final int leaseSize;
+    private final ThreadLocal<Lease> leases = ThreadLocal.withInitial(this::newLease);
+    
+    // Last issued [timestamp - epoch | sequence], i.e. an ID without the worker bits
+    private volatile long state = -1L;
+    private volatile long clockDriftEvents = 0L;
+    private volatile long sequenceExhaustionEvents = 0L;
+    
+    public SnowflakeGenerator(long workerId) {
+        this(SnowflakeLayout.DISCORD, workerId);
+    }
+    
+    public SnowflakeGenerator(long workerId, int leaseSize) {
+        this(SnowflakeLayout.DISCORD, workerId, leaseSize);
+    }
+    
+    public SnowflakeGenerator(SnowflakeLayout layout, long workerId) {
+        this(layout, workerId, DEFAULT_LEASE_SIZE);
+    }
+    
+    /**
+     * @param leaseSize IDs each thread claims at a time in {@link #nextIdLeased}
+     */
+    public SnowflakeGenerator(SnowflakeLayout layout, long workerId, int leaseSize) {
+        if (workerId < 0 || workerId > layout.maxWorkerId()) {
+            throw new IllegalArgumentException(
+                "Worker ID must be between 0 and " + layout.maxWorkerId());
+        }
+        if (leaseSize < 1 || leaseSize > layout.maxSequence() + 1) {
+            throw new IllegalArgumentException(
+                "Lease size must be between 1 and " + (layout.maxSequence() + 1));
+        }
+        this.layout = layout;
+        this.epoch = layout.epochMillis();
+        this.sequenceBits = layout.sequenceBits();
+        this.sequenceMask = layout.maxSequence();
+        this.timestampShift = layout.timestampShift();
+        this.workerId = workerId;
+        this.workerBits = workerId << sequenceBits;
+        this.leaseSize = leaseSize;
+    }
+    
+    /**
+     * Generate next unique ID.
+     * One CAS on the packed state; retried only if another thread won the race.
+     */
+    public long nextId() {
+        return toId(reserve(1));
+    }
+    
+    /**
+     * Fill {@code out[0..n)} with increasing IDs. Each millisecond's worth is
+     * claimed as one contiguous sequence range with a single CAS, so a batch
+     * of up to one millisecond's sequence space usually costs one atomic
+     * operation.
+     */
+    public void nextIds(long[] out, int n) {
+        if (n < 0 || n > out.length) {
+            throw new IllegalArgumentException("n must be between 0 and " + out.length);
+        }
+        int filled = 0;
+        while (filled < n) {
+            int max = n - filled;
+            long first = reserve(max);
+            int count = claimedCount(first, max);
+            for (int i = 0; i < count; i++) {
+                out[filled++] = toId(first + i);
+            }
+        }
+    }
+    
+    /**
+     * Generate an ID from this thread's leased block, claiming a new block
+     * of up to {@code leaseSize} IDs when it runs out. No shared-state
+     * access at all between refills.
+     * 
+     * IDs stay unique, but are only time-ordered per thread: a block is
+     * dropped once the clock passes its millisecond, so timestamps are at
+     * most ~1ms stale. Meant for long-lived platform worker threads; each
+     * virtual thread would lease (and mostly waste) its own block.
+     */
+    public long nextIdLeased() {
+        Lease lease = leases.get();
+        long nowMillis = currentTimeMillis() - epoch;
+        if (lease.next == lease.end || nowMillis > lease.timestamp) {
+            lease.next = reserve(leaseSize);
+            lease.end = lease.next + claimedCount(lease.next, leaseSize);
+            lease.timestamp = lease.next >>> sequenceBits;
+        }
+        return toId(lease.next++);
+    }
+    
+    private static final class Lease {
+        long next;
+        long end;
+        long timestamp;
+    }
+    
+    private Lease newLease() {
+        return new Lease();
+    }
+    
+    /**
+     * Claim up to {@code max} consecutive states within one millisecond and
+     * return the first; {@link #claimedCount} gives how many were claimed.
+     */
+    private long reserve(int max) {
+        boolean sawDrift = false;
+        while (true) {
+            long current = (long) STATE.getVolatile(this);
+            long lastTimestamp = current >> sequenceBits;
+            long timestamp = currentTimeMillis() - epoch;
+            long first;
+            long available;
+            
+            if (timestamp > lastTimestamp) {
+                // New millisecond - sequence restarts at 0
+                first = timestamp << sequenceBits;
+                available = sequenceMask + 1;
+            } else {
+                if (timestamp < lastTimestamp) {
+                    // Handle clock drift: keep issuing from the last timestamp
+                    long drift = lastTimestamp - timestamp;
+                    if (drift > MAX_BACKWARD_DRIFT_MS) {
+                        throw new ClockDriftException(
+                            "Clock moved backwards by " + drift + "ms - exceeds max drift");
+                    }
+                    if (!sawDrift) {
+                        sawDrift = true;
+                        CLOCK_DRIFT_EVENTS.getAndAdd(this, 1L);
+                    }
+                }
+                available = sequenceMask - (current & sequenceMask);
+                if (available == 0) {
+                    // Sequence exhaustion - wait for next millisecond
+                    SEQUENCE_EXHAUSTION_EVENTS.getAndAdd(this, 1L);
+                    waitNextMillis(lastTimestamp + epoch);
+                    continue;
+                }
+                first = current + 1;
+            }
+            
+            long count = Math.min(max, available);
+            if (STATE.compareAndSet(this, current, first + count - 1)) {
+                return first;
+            }
+        }
+    }
+    
+    /**
+     * A claim stops at the end of its millisecond or at {@code max}.
+     */
+    private int claimedCount(long first, int max) {
+        return (int) Math.min(max, sequenceMask + 1 - (first & sequenceMask));
+    }
+    
+    private long toId(long state) {
+        return ((state >>> sequenceBits) << timestampShift) | workerBits | (state & sequenceMask);
+    }
+    
+    /**
+     * Spin-wait until next millisecond.
+     */
+    private long waitNextMillis(long lastTimestamp) {
+        long timestamp = currentTimeMillis();
+        while (timestamp <= lastTimestamp) {
+            Thread.onSpinWait();
+            timestamp = currentTimeMillis();
+        }
+        return timestamp;
+    }
+    
+    /**
+     * Get current time in milliseconds.
+     */
+    private long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+    
+    // Metrics getters
+    public long getClockDriftEvents() {
+        return (long) CLOCK_DRIFT_EVENTS.getAcquire(this);
+    }
+    
+    public long getSequenceExhaustionEvents() {
+        return (long) SEQUENCE_EXHAUSTION_EVENTS.getAcquire(this);
+    }
+    
+    public long getWorkerId() {
+        return workerId;
+    }
+    
+    public SnowflakeLayout getLayout() {
+        return layout;
+    }
+    
+    /**
+     * Parse components from a Snowflake ID in the Discord layout.
+     */
+    public static SnowflakeId parse(long id) {
+        SnowflakeLayout layout = SnowflakeLayout.DISCORD;
+        return new SnowflakeId(id, layout.timestampOf(id), layout.workerOf(id), layout.sequenceOf(id));
+    }
+}
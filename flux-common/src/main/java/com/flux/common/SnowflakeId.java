@@ -1,4 +1,4 @@
-package com.flux.snowflake;
+package com.flux.common;
 
 import java.time.Instant;
 
@@ -0,0 +1,125 @@
+package com.flux.common;
+
+/**
+ * Bit layout of a Snowflake ID: [timestamp | worker | sequence], with the
+ * timestamp in milliseconds since {@code epochMillis}.
+ *
+ * Allocation-free decode and range math shared by everything that reads
+ * IDs: generators, partition keys, shard routing and range queries. The
+ * batch methods are plain counted loops over primitive arrays so C2 can
+ * vectorize the shift/add decode.
+ */
+public final class SnowflakeLayout {
+
+    /** Discord's layout: 2015 epoch, 10 worker bits, 12 sequence bits. */
+    public static final SnowflakeLayout DISCORD = new SnowflakeLayout(1420070400000L, 10, 12);
+
+    private final long epochMillis;
+    private final int sequenceBits;
+    private final int timestampShift;
+    private final long workerMask;
+    private final long sequenceMask;
+
+    public SnowflakeLayout(long epochMillis, int workerBits, int sequenceBits) {
+        if (workerBits < 0 || sequenceBits < 0 || workerBits + sequenceBits > 22) {
+            throw new IllegalArgumentException(
+                "Worker and sequence bits must leave at least 41 timestamp bits");
+        }
+        this.epochMillis = epochMillis;
+        this.sequenceBits = sequenceBits;
+        this.timestampShift = workerBits + sequenceBits;
+        this.workerMask = (1L << workerBits) - 1;
+        this.sequenceMask = (1L << sequenceBits) - 1;
+    }
+
+    public long epochMillis() {
+        return epochMillis;
+    }
+
+    public int timestampShift() {
+        return timestampShift;
+    }
+
+    public int sequenceBits() {
+        return sequenceBits;
+    }
+
+    public long maxWorkerId() {
+        return workerMask;
+    }
+
+    public long maxSequence() {
+        return sequenceMask;
+    }
+
+    /** Unix milliseconds the ID was generated at. */
+    public long timestampOf(long id) {
+        return (id >>> timestampShift) + epochMillis;
+    }
+
+    public long workerOf(long id) {
+        return (id >>> sequenceBits) & workerMask;
+    }
+
+    public long sequenceOf(long id) {
+        return id & sequenceMask;
+    }
+
+    /**
+     * Smallest ID that can be generated at {@code unixMillis}: the inclusive
+     * lower bound for "messages since" range queries.
+     */
+    public long minIdForTime(long unixMillis) {
+        long offset = unixMillis - epochMillis;
+        return offset <= 0 ? 0 : offset << timestampShift;
+    }
+
+    /**
+     * Largest ID that can be generated at {@code unixMillis}: the inclusive
+     * upper bound for "messages until" range queries.
+     */
+    public long maxIdForTime(long unixMillis) {
+        long offset = unixMillis - epochMillis;
+        if (offset < 0) return -1; // Before any ID
+        return (offset << timestampShift) | ((1L << timestampShift) - 1);
+    }
+
+    /**
+     * {@code out[i] = timestampOf(ids[i])} for {@code i < n}.
+     */
+    public void decodeTimestamps(long[] ids, long[] out, int n) {
+        int shift = timestampShift;
+        long epoch = epochMillis;
+        for (int i = 0; i < n; i++) {
+            out[i] = (ids[i] >>> shift) + epoch;
+        }
+    }
+
+    /**
+     * {@code out[i] = buckets.bucketOf(timestampOf(ids[i]))} for {@code i < n}.
+     * One long division per element, so this loop stays scalar.
+     */
+    public void decodeBuckets(long[] ids, int[] out, int n, TimeBuckets buckets) {
+        int shift = timestampShift;
+        long offset = epochMillis - buckets.originMillis();
+        long size = buckets.sizeMillis();
+        for (int i = 0; i < n; i++) {
+            out[i] = (int) Math.floorDiv((ids[i] >>> shift) + offset, size);
+        }
+    }
+
+    /**
+     * Discord's shard formula: {@code (id >> 22) % shards}, using this
+     * layout's timestamp shift.
+     */
+    public int shardOf(long id, int shards) {
+        return (int) ((id >>> timestampShift) % shards);
+    }
+
+    public void shardsOf(long[] ids, int[] out, int n, int shards) {
+        int shift = timestampShift;
+        for (int i = 0; i < n; i++) {
+            out[i] = (int) ((ids[i] >>> shift) % shards);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.flux.common;
+
+/**
+ * Fixed-width time buckets with integer keys: bucket {@code b} covers
+ * {@code [origin + b * size, origin + (b + 1) * size)}.
+ *
+ * Integer keys replace date-formatted bucket strings: computing one is a
+ * single division, consecutive buckets are consecutive ints, and range
+ * queries iterate {@code first..last} without parsing anything.
+ */
+public final class TimeBuckets {
+
+    private static final long HOUR_MS = 3_600_000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    /** Hours since the Unix epoch (UTC). */
+    public static final TimeBuckets HOURLY = new TimeBuckets(0, HOUR_MS);
+
+    /** Days since the Unix epoch (UTC). */
+    public static final TimeBuckets DAILY = new TimeBuckets(0, DAY_MS);
+
+    /** ISO weeks (Monday to Sunday, UTC); week 0 starts Monday 1969-12-29. */
+    public static final TimeBuckets WEEKLY = new TimeBuckets(-3 * DAY_MS, 7 * DAY_MS);
+
+    private final long originMillis;
+    private final long sizeMillis;
+
+    public TimeBuckets(long originMillis, long sizeMillis) {
+        if (sizeMillis <= 0) {
+            throw new IllegalArgumentException("Bucket size must be positive");
+        }
+        this.originMillis = originMillis;
+        this.sizeMillis = sizeMillis;
+    }
+
+    public long originMillis() {
+        return originMillis;
+    }
+
+    public long sizeMillis() {
+        return sizeMillis;
+    }
+
+    public int bucketOf(long unixMillis) {
+        return (int) Math.floorDiv(unixMillis - originMillis, sizeMillis);
+    }
+
+    /** Start of the bucket, inclusive. */
+    public long startOf(int bucket) {
+        return originMillis + bucket * sizeMillis;
+    }
+
+    /** End of the bucket, exclusive. */
+    public long endOf(int bucket) {
+        return startOf(bucket + 1);
+    }
+
+    /**
+     * {@code out[i] = bucketOf(timestamps[i])} for {@code i < n}.
+     */
+    public void bucketsOf(long[] timestamps, int[] out, int n) {
+        long origin = originMillis;
+        long size = sizeMillis;
+        for (int i = 0; i < n; i++) {
+            out[i] = (int) Math.floorDiv(timestamps[i] - origin, size);
+        }
+    }
+
+    /** Smallest ID in {@code bucket} under {@code layout}. */
+    public long minIdOf(int bucket, SnowflakeLayout layout) {
+        return layout.minIdForTime(startOf(bucket));
+    }
+
+    /** Largest ID in {@code bucket} under {@code layout}. */
+    public long maxIdOf(int bucket, SnowflakeLayout layout) {
+        return layout.maxIdForTime(endOf(bucket) - 1);
+    }
+}
@@ -0,0 +1,266 @@
+package com.flux.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Groups writes bound for the same partition into one request.
+ *
+ * Sending one statement per message spends most of each write on
+ * per-request cost: a round trip, a coordinator hop, a commit-log append.
+ * Rows submitted for the same partition within {@code windowMicros} are
+ * handed to the {@link Flusher} together. For Cassandra that is an UNLOGGED
+ * batch, which the replica applies as a single mutation because every row
+ * shares the partition. A cross-partition batch would only move the fan-out
+ * onto the coordinator. A batch is sent early once it reaches
+ * {@code maxBatchSize}.
+ *
+ * At most {@code maxInFlightPerHost} batches are outstanding per replica.
+ * Further batches wait in that host's queue, so a slow node backs up its
+ * own partitions instead of every connection. A waiting batch stays open
+ * and keeps collecting rows until it is sent, so batches grow exactly when
+ * a replica is saturated. Each row keeps its own future, completed when
+ * its batch is acknowledged.
+ *
+ * {@link #close()} returns only once every row submitted before it has been
+ * acknowledged or failed, so the caller can close the session right after.
+ *
+ * @param <K> partition key
+ * @param <R> row (for Cassandra, a bound statement)
+ */
+public class WriteCoalescer<K, R> implements AutoCloseable {
+
+    /**
+     * Writes the rows of one partition in a single request.
+     */
+    @FunctionalInterface
+    public interface Flusher<K, R> {
+        CompletionStage<?> flush(K partition, List<R> rows);
+    }
+
+    private final Flusher<K, R> flusher;
+    private final Function<? super R, ?> hostOf;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final int maxInFlightPerHost;
+    private final ConcurrentHashMap<K, Batch> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Host> hosts = new ConcurrentHashMap<>();
+    private final Set<Batch> unfinished = ConcurrentHashMap.newKeySet(); // Opened, not yet acknowledged
+    private final ScheduledExecutorService timer;
+    private volatile boolean closed;
+
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder rowsSent = new LongAdder();
+
+    /**
+     * @param hostOf replica a row is routed to; every row of a partition
+     *        must map to the same host
+     */
+    public WriteCoalescer(Flusher<K, R> flusher, Function<? super R, ?> hostOf,
+                          long windowMicros, int maxBatchSize, int maxInFlightPerHost) {
+        if (maxBatchSize < 1 || maxInFlightPerHost < 1) {
+            throw new IllegalArgumentException("Batch size and in-flight limit must be positive");
+        }
+        this.flusher = flusher;
+        this.hostOf = hostOf;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.maxInFlightPerHost = maxInFlightPerHost;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "write-coalescer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queue {@code row} for {@code partition}. The future completes when the
+     * batch carrying it is written, or fails with that batch. After
+     * {@link #close()} it fails with {@link IllegalStateException}.
+     */
+    public CompletableFuture<Void> submit(K partition, R row) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Coalescer closed"));
+        }
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        List<Batch> full = new ArrayList<>(1);
+        pending.compute(partition, (key, batch) -> {
+            if (batch == null) {
+                Batch opened = new Batch(key, hostOf.apply(row));
+                try {
+                    timer.schedule(() -> expire(opened), windowMicros, TimeUnit.MICROSECONDS);
+                } catch (RejectedExecutionException closing) {
+                    // Lost the race with close(): nothing would send this batch
+                    written.completeExceptionally(new IllegalStateException("Coalescer closed"));
+                    return null;
+                }
+                unfinished.add(opened);
+                batch = opened;
+            }
+            batch.rows.add(row);
+            batch.futures.add(written);
+            if (batch.rows.size() >= maxBatchSize) {
+                full.add(batch);
+                return null;
+            }
+            return batch;
+        });
+        full.forEach(this::offer);
+        return written;
+    }
+
+    /**
+     * Send every open batch now instead of waiting out its window.
+     */
+    public void flush() {
+        for (K partition : pending.keySet()) {
+            Batch batch = pending.remove(partition);
+            if (batch != null) {
+                offer(batch);
+            }
+        }
+    }
+
+    private void expire(Batch batch) {
+        if (pending.get(batch.partition) == batch) {
+            offer(batch);
+        }
+    }
+
+    /**
+     * Send the batch if its host has a free slot, otherwise queue it there.
+     * Idempotent: the window timer and a full batch may both offer it.
+     */
+    private void offer(Batch batch) {
+        Host host = hosts.computeIfAbsent(batch.host, h -> new Host());
+        synchronized (host) {
+            if (batch.claimed) {
+                return;
+            }
+            batch.claimed = true;
+            if (host.inFlight >= maxInFlightPerHost) {
+                host.waiting.add(batch);
+                return;
+            }
+            host.inFlight++;
+        }
+        pending.remove(batch.partition, batch);
+        send(host, batch);
+    }
+
+    private void send(Host host, Batch batch) {
+        batchesSent.increment();
+        rowsSent.add(batch.rows.size());
+        CompletionStage<?> write;
+        try {
+            write = flusher.flush(batch.partition, batch.rows);
+        } catch (RuntimeException e) {
+            write = CompletableFuture.failedFuture(e);
+        }
+        write.whenComplete((result, error) -> {
+            batch.complete(error);
+            Batch next;
+            synchronized (host) {
+                next = host.waiting.poll();
+                if (next == null) {
+                    host.inFlight--;
+                }
+            }
+            if (next != null) {
+                pending.remove(next.partition, next); // Stop it collecting rows
+                // Off the completing thread, so synchronous flushers cannot recurse
+                try {
+                    timer.execute(() -> send(host, next));
+                } catch (RejectedExecutionException closing) {
+                    send(host, next);
+                }
+            }
+        });
+    }
+
+    private final class Batch {
+        final K partition;
+        final Object host;
+        final List<R> rows = new ArrayList<>(); // Appended only while in pending
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        boolean claimed; // Sent or queued; guarded by the host
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Batch(K partition, Object host) {
+            this.partition = partition;
+            this.host = host;
+        }
+
+        void complete(Throwable error) {
+            for (CompletableFuture<Void> future : futures) {
+                if (error == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            }
+            unfinished.remove(this);
+            done.complete(null);
+        }
+    }
+
+    private final class Host {
+        int inFlight; // Guarded by this
+        final ArrayDeque<Batch> waiting = new ArrayDeque<>();
+    }
+
+    public long getBatchesSent() {
+        return batchesSent.sum();
+    }
+
+    public long getRowsSent() {
+        return rowsSent.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchesSent.sum();
+        return batches == 0 ? 0.0 : (double) rowsSent.sum() / batches;
+    }
+
+    /**
+     * Batches held back by a host's in-flight limit.
+     */
+    public int getQueuedBatches() {
+        int queued = 0;
+        for (Host host : hosts.values()) {
+            synchronized (host) {
+                queued += host.waiting.size();
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Stop accepting rows, send what is pending and wait until every batch,
+     * including those queued behind a host's in-flight limit, is
+     * acknowledged or failed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // A submit that passed the closed check just before may still open a batch
+        while (!unfinished.isEmpty()) {
+            flush();
+            for (Batch batch : List.copyOf(unfinished)) {
+                batch.done.join();
+            }
+        }
+        timer.shutdown();
+    }
+}
@@ -0,0 +1,65 @@
+package com.flux.common;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.count());
+        assertEquals(100_000, snapshot.max());
+        assertEquals(50_000, snapshot.mean());
+        // 7 precision bits: within 1/64 of the exact value
+        assertEquals(50_000, snapshot.percentile(50.0), 50_000 / 64.0);
+        assertEquals(99_000, snapshot.percentile(99.0), 99_000 / 64.0);
+        assertTrue(snapshot.percentile(99.0) >= 99_000, "Percentiles report the bucket's upper bound");
+    }
+
+    @Test
+    void testIntervalSnapshotsAndConcurrentRecorders() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(500);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, histogram.intervalSnapshot().count());
+        histogram.record(7);
+        LatencyHistogram.Snapshot interval = histogram.intervalSnapshot();
+        assertEquals(1, interval.count());
+        assertEquals(7, interval.percentile(50.0));
+        assertEquals(80_001, histogram.snapshot().count());
+    }
+
+    @Test
+    void testCompactStringRoundTrip() {
+        LatencyHistogram histogram = new LatencyHistogram(5);
+        histogram.record(3);
+        histogram.record(1_000);
+        histogram.record(123_456_789);
+
+        LatencyHistogram.Snapshot original = histogram.snapshot();
+        LatencyHistogram.Snapshot decoded = LatencyHistogram.Snapshot.fromCompactString(original.toCompactString());
+
+        assertEquals(3, decoded.count());
+        assertEquals(original.mean(), decoded.mean());
+        assertEquals(original.percentile(50.0), decoded.percentile(50.0));
+        assertTrue(original.toCompactString().length() < 24, "Sparse encoding should stay small");
+    }
+}
@@ -0,0 +1,40 @@
+package com.flux.common;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryBudgetTest {
+    
+    @Test
+    void testReserveUpToLimit() {
+        MemoryBudget budget = new MemoryBudget(100);
+        
+        assertTrue(budget.tryReserve(60));
+        assertTrue(budget.tryReserve(40));
+        assertFalse(budget.tryReserve(1));
+        assertEquals(100, budget.getUsedBytes());
+        assertEquals(100, budget.getUtilization());
+        
+        budget.release(60);
+        assertEquals(40, budget.getUsedBytes());
+        assertTrue(budget.tryReserve(60));
+    }
+    
+    @Test
+    void testForceReserveBypassesLimit() {
+        MemoryBudget budget = new MemoryBudget(100);
+        budget.forceReserve(150);
+        
+        assertEquals(150, budget.getUsedBytes());
+        assertFalse(budget.tryReserve(1));
+    }
+    
+    @Test
+    void testUnlimitedDoesNotOverflow() {
+        MemoryBudget budget = MemoryBudget.unlimited();
+        
+        assertTrue(budget.tryReserve(Long.MAX_VALUE - 10));
+        assertFalse(budget.tryReserve(20));
+        assertEquals(Long.MAX_VALUE - 10, budget.getUsedBytes());
+    }
+}
@@ -0,0 +1,43 @@
+package com.flux.common;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void testPrometheusExposition() {
+        MetricsRegistry registry = new MetricsRegistry();
+        MetricsRegistry.Counter sent = registry.counter("sent_total", "Messages sent", "opcode", "0");
+        registry.counter("sent_total", "Messages sent", "opcode", "1").add(5);
+        registry.gauge("queue_depth", "Queued tasks", () -> 42);
+        LatencyHistogram histogram = registry.histogram("latency_seconds", "Latency",
+            new LatencyHistogram(), 1e-6);
+
+        sent.increment();
+        sent.increment();
+        histogram.record(1_000);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# TYPE sent_total counter\n"), text);
+        assertTrue(text.contains("sent_total{opcode=\"0\"} 2\n"), text);
+        assertTrue(text.contains("sent_total{opcode=\"1\"} 5\n"), text);
+        assertTrue(text.contains("queue_depth 42\n"), text);
+        assertTrue(text.contains("# TYPE latency_seconds summary\n"), text);
+        assertTrue(text.contains("latency_seconds{quantile=\"0.99\"} 0.001"), text);
+        assertTrue(text.contains("latency_seconds_count 1\n"), text);
+    }
+
+    @Test
+    void testRegistrationIsIdempotent() {
+        MetricsRegistry registry = new MetricsRegistry();
+        MetricsRegistry.Counter first = registry.counter("hits_total", "Hits");
+        assertSame(first, registry.counter("hits_total", "Hits"));
+
+        registry.gauge("depth", "Depth", () -> 1);
+        registry.gauge("depth", "Depth", () -> 2);
+        assertTrue(registry.scrape().contains("depth 2\n"));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("hits_total", "Hits", () -> 0));
+    }
+}
@@ -0,0 +1,160 @@
+package com.flux.common;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentMessagesCacheTest {
+    record Msg(long id, String content) {}
+
+    private static final Comparator<Msg> NEWEST_FIRST = Comparator.comparingLong(Msg::id).reversed();
+
+    // Stand-in for the messages table: channel -> messages, newest first
+    private final Map<Long, List<Msg>> table = new ConcurrentHashMap<>();
+    private final AtomicInteger queries = new AtomicInteger();
+    private volatile CountDownLatch slowQuery = new CountDownLatch(0);
+
+    private List<Msg> query(long channelId, int limit) {
+        queries.incrementAndGet();
+        try {
+            slowQuery.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Msg> rows = table.getOrDefault(channelId, List.of());
+        return List.copyOf(rows.subList(0, Math.min(limit, rows.size())));
+    }
+
+    private void write(long channelId, long id) {
+        List<Msg> rows = new ArrayList<>(table.getOrDefault(channelId, List.of()));
+        rows.add(new Msg(id, "m" + id));
+        rows.sort(NEWEST_FIRST);
+        table.put(channelId, rows);
+    }
+
+    private RecentMessagesCache<Msg, Long> cache(int perChannel, int maxChannels) {
+        return new RecentMessagesCache<>(perChannel, maxChannels, NEWEST_FIRST, Msg::id, this::query);
+    }
+
+    @BeforeEach
+    void fillChannels() {
+        for (long channel = 1; channel <= 3; channel++) {
+            for (long id = 1; id <= 200; id++) {
+                write(channel, id);
+            }
+        }
+    }
+
+    @Test
+    void repeatedReadsHitCache() {
+        RecentMessagesCache<Msg, Long> cache = cache(100, 10);
+        for (int i = 0; i < 10; i++) {
+            List<Msg> latest = cache.latest(1, 50);
+            assertEquals(50, latest.size());
+            assertEquals(200, latest.get(0).id());
+        }
+        assertEquals(1, queries.get());
+        assertEquals(0.9, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void insertsWriteThroughAndStayBounded() {
+        RecentMessagesCache<Msg, Long> cache = cache(100, 10);
+        cache.latest(1, 50);
+        for (long id = 201; id <= 260; id++) {
+            write(1, id);
+            cache.onInsert(1, new Msg(id, "m" + id));
+        }
+        assertEquals(query(1, 100), cache.latest(1, 100));
+        assertEquals(2, queries.get()); // The load, plus the comparison query above
+    }
+
+    @Test
+    void deletesStayCoherent() {
+        RecentMessagesCache<Msg, Long> cache = cache(100, 10);
+        cache.latest(1, 50);
+        table.put(1L, new ArrayList<>(table.get(1L).subList(1, 200)));
+        cache.onDelete(1, 200L);
+
+        assertEquals(199, cache.latest(1, 50).get(0).id());
+        assertNull(cache.find(1, 200L));
+        // The ring is one short of full now, so a full-size read goes back to the table
+        assertEquals(query(1, 100), cache.latest(1, 100));
+    }
+
+    @Test
+    void smallChannelIsServedWhole() {
+        RecentMessagesCache<Msg, Long> cache = cache(100, 10);
+        write(9, 1);
+        cache.latest(9, 50);
+        cache.onInsert(9, new Msg(2, "m2"));
+        assertEquals(List.of(2L, 1L), cache.latest(9, 100).stream().map(Msg::id).toList());
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void leastRecentlyReadChannelIsEvicted() {
+        RecentMessagesCache<Msg, Long> cache = cache(100, 2);
+        cache.latest(1, 50);
+        cache.latest(2, 50);
+        cache.latest(1, 50);
+        cache.latest(3, 50); // Evicts channel 2
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getResidentChannels());
+
+        cache.latest(1, 50);
+        assertEquals(3, queries.get());
+        cache.latest(2, 50);
+        assertEquals(4, queries.get());
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        RecentMessagesCache<Msg, Long> cache = cache(100, 10);
+        slowQuery = new CountDownLatch(1);
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        List<Future<List<Msg>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(readers.submit(() -> cache.latest(1, 50)));
+        }
+        Thread.sleep(50);
+        slowQuery.countDown();
+        for (Future<List<Msg>> result : results) {
+            assertEquals(50, result.get().size());
+        }
+        readers.shutdown();
+        assertEquals(1, queries.get());
+        assertEquals(1, cache.getLoads());
+    }
+
+    @Test
+    void writesDuringLoadAreReplayed() throws Exception {
+        RecentMessagesCache<Msg, Long> cache = cache(100, 10);
+        slowQuery = new CountDownLatch(1);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        Future<List<Msg>> result = reader.submit(() -> cache.latest(1, 50));
+        Thread.sleep(50);
+
+        // Committed after the query read the table
+        cache.onInsert(1, new Msg(201, "m201"));
+        cache.onDelete(1, 199L);
+        slowQuery.countDown();
+        result.get();
+        reader.shutdown();
+
+        List<Long> ids = cache.latest(1, 3).stream().map(Msg::id).toList();
+        assertEquals(List.of(201L, 200L, 198L), ids);
+    }
+}
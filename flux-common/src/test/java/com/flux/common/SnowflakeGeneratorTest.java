@@ -1,4 +1,4 @@
-package com.flux.snowflake;
+package com.flux.common;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.RepeatedTest;
@@ -86,6 +86,30 @@ class SnowflakeGeneratorTest {
         assertDoesNotThrow(() -> new SnowflakeGenerator(1023));
     }
     
+    @Test
+    void testCustomLayout() {
+        // day31's layout: 2024 epoch, datacenter(5) | worker(5) packed as 10 worker bits
+        SnowflakeLayout layout = new SnowflakeLayout(1704067200000L, 10, 12);
+        SnowflakeGenerator generator = new SnowflakeGenerator(layout, (5L << 5) | 10);
+        long before = System.currentTimeMillis();
+        long id = generator.nextId();
+        
+        assertEquals((5L << 5) | 10, layout.workerOf(id));
+        assertEquals(5, (id >> 17) & 0x1F);
+        assertTrue(layout.timestampOf(id) >= before);
+        assertTrue(layout.timestampOf(id) <= System.currentTimeMillis());
+        
+        SnowflakeLayout narrow = new SnowflakeLayout(1704067200000L, 5, 8);
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeGenerator(narrow, 32));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeGenerator(narrow, 1, 257));
+        long[] ids = new long[600]; // Two or more 256-ID milliseconds
+        new SnowflakeGenerator(narrow, 31).nextIds(ids, ids.length);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1], "IDs should be increasing at " + i);
+            assertEquals(31, narrow.workerOf(ids[i]));
+        }
+    }
+    
     @Test
     void testIdParsing() {
         SnowflakeGenerator generator = new SnowflakeGenerator(123);
@@ -117,4 +141,53 @@ class SnowflakeGeneratorTest {
         assertEquals(targetIds, ids.size(), "All IDs should be unique");
         assertTrue(throughput > 1_000, "Should generate > 1K IDs/sec, got: " + (int)throughput);
     }
+    
+    @Test
+    void testBatchIdsAreIncreasingAndUnique() {
+        SnowflakeGenerator generator = new SnowflakeGenerator(7);
+        long single = generator.nextId();
+        long[] ids = new long[10000]; // Spans at least three milliseconds
+        generator.nextIds(ids, ids.length);
+        
+        assertTrue(ids[0] > single, "Batch should continue after earlier IDs");
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1], "Batch IDs should be increasing at " + i);
+        }
+        assertEquals(7, SnowflakeGenerator.parse(ids[ids.length - 1]).workerId());
+        assertTrue(generator.nextId() > ids[ids.length - 1]);
+        assertThrows(IllegalArgumentException.class, () -> generator.nextIds(new long[4], 5));
+    }
+    
+    @Test
+    void testConcurrentMixedModes() throws InterruptedException {
+        SnowflakeGenerator generator = new SnowflakeGenerator(3, 32);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger(0);
+        int threadCount = 8;
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        
+        for (int i = 0; i < threadCount; i++) {
+            int mode = i % 3;
+            Thread.ofPlatform().start(() -> {
+                long[] batch = new long[100];
+                for (int j = 0; j < 200; j++) {
+                    if (mode == 0) {
+                        generator.nextIds(batch, batch.length);
+                    } else {
+                        for (int k = 0; k < batch.length; k++) {
+                            batch[k] = mode == 1 ? generator.nextId() : generator.nextIdLeased();
+                        }
+                    }
+                    for (long id : batch) {
+                        if (!ids.add(id)) duplicates.incrementAndGet();
+                    }
+                }
+                latch.countDown();
+            });
+        }
+        
+        latch.await();
+        assertEquals(0, duplicates.get(), "No duplicates across nextId, nextIds and leases");
+        assertEquals(threadCount * 200 * 100, ids.size());
+    }
 }
@@ -0,0 +1,82 @@
+package com.flux.common;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+class SnowflakeLayoutTest {
+    
+    @Test
+    void testBatchDecodeMatchesScalar() {
+        SnowflakeLayout layout = SnowflakeLayout.DISCORD;
+        long[] ids = new long[1000];
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = layout.minIdForTime(time + i * 60_000L) | (77L << 12) | i % 4096;
+        }
+        
+        long[] timestamps = new long[ids.length];
+        int[] hours = new int[ids.length];
+        layout.decodeTimestamps(ids, timestamps, ids.length);
+        layout.decodeBuckets(ids, hours, ids.length, TimeBuckets.HOURLY);
+        
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(layout.timestampOf(ids[i]), timestamps[i]);
+            assertEquals(77, layout.workerOf(ids[i]));
+            assertEquals(i % 4096, layout.sequenceOf(ids[i]));
+            assertEquals(timestamps[i] / 3_600_000L, hours[i]);
+        }
+    }
+    
+    @Test
+    void testDecodeMatchesGenerator() {
+        SnowflakeGenerator generator = new SnowflakeGenerator(77);
+        long[] ids = new long[1000];
+        generator.nextIds(ids, ids.length);
+        
+        SnowflakeLayout layout = SnowflakeLayout.DISCORD;
+        long[] timestamps = new long[ids.length];
+        layout.decodeTimestamps(ids, timestamps, ids.length);
+        
+        for (int i = 0; i < ids.length; i++) {
+            SnowflakeId parsed = SnowflakeGenerator.parse(ids[i]);
+            assertEquals(parsed.timestamp(), timestamps[i]);
+            assertEquals(77, parsed.workerId());
+        }
+    }
+    
+    @Test
+    void testRangeBounds() {
+        SnowflakeLayout layout = SnowflakeLayout.DISCORD;
+        long time = 1_700_000_000_123L;
+        long min = layout.minIdForTime(time);
+        long max = layout.maxIdForTime(time);
+        
+        assertEquals(time, layout.timestampOf(min));
+        assertEquals(time, layout.timestampOf(max));
+        assertEquals(time - 1, layout.timestampOf(min - 1));
+        assertEquals(time + 1, layout.timestampOf(max + 1));
+        assertEquals(0, layout.minIdForTime(0));
+        
+        int bucket = TimeBuckets.DAILY.bucketOf(time);
+        assertEquals(TimeBuckets.DAILY.startOf(bucket), layout.timestampOf(TimeBuckets.DAILY.minIdOf(bucket, layout)));
+        assertEquals(TimeBuckets.DAILY.endOf(bucket) - 1, layout.timestampOf(TimeBuckets.DAILY.maxIdOf(bucket, layout)));
+    }
+    
+    @Test
+    void testWeeklyBucketsStartOnMonday() {
+        long time = Instant.parse("2025-02-05T12:00:00Z").toEpochMilli(); // Wednesday
+        int week = TimeBuckets.WEEKLY.bucketOf(time);
+        ZonedDateTime start = Instant.ofEpochMilli(TimeBuckets.WEEKLY.startOf(week)).atZone(ZoneOffset.UTC);
+        
+        assertEquals(DayOfWeek.MONDAY, start.getDayOfWeek());
+        assertEquals(3, start.getDayOfMonth());
+        assertEquals(week - 1, TimeBuckets.WEEKLY.bucketOf(TimeBuckets.WEEKLY.startOf(week) - 1));
+        assertEquals(SnowflakeLayout.DISCORD.shardOf(175928847299117063L, 16),
+            (int) ((175928847299117063L >> 22) % 16));
+    }
+}
@@ -0,0 +1,176 @@
+package com.flux.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteCoalescerTest {
+
+    /** Records every flush; completes them immediately unless told to hold. */
+    static class FakeFlusher implements WriteCoalescer.Flusher<String, Integer> {
+        final List<String> flushed = new CopyOnWriteArrayList<>();
+        final List<CompletableFuture<Void>> held = new CopyOnWriteArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        volatile boolean hold;
+        volatile String failPartition;
+
+        @Override
+        public CompletableFuture<Void> flush(String partition, List<Integer> rows) {
+            flushed.add(partition + ":" + rows.size());
+            if (partition.equals(failPartition)) {
+                return CompletableFuture.failedFuture(new IllegalStateException("write timeout"));
+            }
+            if (!hold) {
+                return CompletableFuture.completedFuture(null);
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<Void> write = new CompletableFuture<>();
+            held.add(write);
+            return write;
+        }
+
+        void release() {
+            for (CompletableFuture<Void> write : held) {
+                if (held.remove(write)) {
+                    inFlight.decrementAndGet();
+                    write.complete(null);
+                }
+            }
+        }
+    }
+
+    private final FakeFlusher flusher = new FakeFlusher();
+    private WriteCoalescer<String, Integer> coalescer;
+
+    @AfterEach
+    void close() throws InterruptedException {
+        if (coalescer != null) closeReleasing();
+    }
+
+    /** close() waits for held writes, so keep releasing them until it returns. */
+    private void closeReleasing() throws InterruptedException {
+        Thread closer = Thread.ofVirtual().start(coalescer::close);
+        while (closer.isAlive()) {
+            flusher.release();
+            closer.join(5);
+        }
+    }
+
+    private static void joinAll(List<CompletableFuture<Void>> writes) {
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).orTimeout(2, TimeUnit.SECONDS).join();
+    }
+
+    @Test
+    void groupsRowsByPartitionWithinWindow() {
+        coalescer = new WriteCoalescer<>(flusher, row -> "host", 20_000, 100, 8);
+        var writes = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < 10; i++) writes.add(coalescer.submit("a", i));
+        for (int i = 0; i < 5; i++) writes.add(coalescer.submit("b", i));
+        joinAll(writes);
+
+        assertEquals(2, flusher.flushed.size());
+        assertTrue(flusher.flushed.containsAll(List.of("a:10", "b:5")));
+        assertEquals(7.5, coalescer.getAverageBatchSize(), 1e-9);
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForWindow() {
+        coalescer = new WriteCoalescer<>(flusher, row -> "host", TimeUnit.SECONDS.toMicros(10), 4, 8);
+        var writes = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < 8; i++) writes.add(coalescer.submit("a", i));
+        joinAll(writes);
+        assertEquals(List.of("a:4", "a:4"), flusher.flushed);
+    }
+
+    @Test
+    void failureReachesOnlyThatBatch() {
+        coalescer = new WriteCoalescer<>(flusher, row -> "host", 5_000, 100, 8);
+        flusher.failPartition = "bad";
+        var good = coalescer.submit("good", 1);
+        var bad1 = coalescer.submit("bad", 1);
+        var bad2 = coalescer.submit("bad", 2);
+
+        good.orTimeout(2, TimeUnit.SECONDS).join();
+        assertThrows(Exception.class, () -> bad1.orTimeout(2, TimeUnit.SECONDS).join());
+        assertThrows(Exception.class, () -> bad2.orTimeout(2, TimeUnit.SECONDS).join());
+    }
+
+    @Test
+    void inFlightBatchesAreBoundedPerHost() throws InterruptedException {
+        // Partitions p0..p9 all live on one host, limited to 2 batches at once
+        coalescer = new WriteCoalescer<>(flusher, row -> "host", 1_000, 1, 2);
+        flusher.hold = true;
+        var writes = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < 10; i++) writes.add(coalescer.submit("p" + i, i));
+        Thread.sleep(50);
+        assertEquals(2, flusher.held.size());
+        assertEquals(8, coalescer.getQueuedBatches());
+
+        while (writes.stream().anyMatch(w -> !w.isDone())) {
+            flusher.release();
+            Thread.sleep(5);
+        }
+        assertEquals(2, flusher.maxInFlight.get());
+        assertEquals(10, flusher.flushed.size());
+    }
+
+    @Test
+    void hostsHaveSeparateLimits() throws InterruptedException {
+        coalescer = new WriteCoalescer<>(flusher, row -> row % 2 == 0 ? "even" : "odd", 1_000, 1, 1);
+        flusher.hold = true;
+        for (int i = 0; i < 6; i++) coalescer.submit("p" + i, i);
+        Thread.sleep(50);
+        assertEquals(2, flusher.held.size());
+        assertEquals(4, coalescer.getQueuedBatches());
+        flusher.release();
+    }
+
+    @Test
+    void closeFlushesPendingRows() {
+        coalescer = new WriteCoalescer<>(flusher, row -> "host", TimeUnit.SECONDS.toMicros(10), 100, 8);
+        var write = coalescer.submit("a", 1);
+        coalescer.close();
+        write.orTimeout(2, TimeUnit.SECONDS).join();
+        assertEquals(List.of("a:1"), flusher.flushed);
+        assertTrue(coalescer.submit("a", 2).isCompletedExceptionally());
+    }
+
+    @Test
+    void submitAfterCloseFails() {
+        coalescer = new WriteCoalescer<>(flusher, row -> "host", 1_000, 100, 8);
+        coalescer.close();
+        var rejected = coalescer.submit("a", 1);
+        var error = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertTrue(flusher.flushed.isEmpty());
+    }
+
+    @Test
+    void closeWaitsForQueuedAndInFlightBatches() throws InterruptedException {
+        // One batch in flight, two queued behind the host's limit
+        coalescer = new WriteCoalescer<>(flusher, row -> "host", TimeUnit.SECONDS.toMicros(10), 1, 1);
+        flusher.hold = true;
+        var writes = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < 3; i++) writes.add(coalescer.submit("p" + i, i));
+        assertEquals(2, coalescer.getQueuedBatches());
+
+        Thread closer = Thread.ofVirtual().start(coalescer::close);
+        closer.join(50);
+        assertTrue(closer.isAlive(), "close() returned with batches still unacknowledged");
+
+        while (closer.isAlive()) {
+            flusher.release();
+            closer.join(5);
+        }
+        assertEquals(3, flusher.flushed.size());
+        assertTrue(writes.stream().allMatch(CompletableFuture::isDone));
+    }
+}